@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link AlternativeDependenciesTask#check()} against a configuration with
+ * many declared dependencies, none of which has an alternative, and the alternatives
+ * that are bundled with the plugin.
+ *
+ * @author Spring IO Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AlternativeDependenciesBenchmark {
+
+	@Param({ "100", "1000", "5000", "20000" })
+	public int modules;
+
+	private SyntheticBuild build;
+
+	private AlternativeDependenciesTask task;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.build = SyntheticBuild.create();
+		Project project = this.build.getProject();
+		Configuration configuration = project.getConfigurations().create("compile");
+		for (int i = 0; i < this.modules; i++) {
+			project.getDependencies().add("compile",
+					SyntheticBuild.GROUP + ":" + SyntheticBuild.name(i) + ":1.0");
+		}
+		this.task = project.getTasks().create("springIoAlternativeDependenciesCheck",
+				AlternativeDependenciesTask.class);
+		this.task.setConfigurations(Collections.singleton(configuration));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.build.delete();
+	}
+
+	@Benchmark
+	public void check() {
+		this.task.check();
+	}
+
+}
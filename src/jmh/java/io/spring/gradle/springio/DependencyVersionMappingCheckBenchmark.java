@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.spring.gradle.springio.core.ManagedVersionsIndex;
+import io.spring.gradle.springio.core.VersionMappingCheck;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the rule of {@link DependencyVersionMappingCheckTask}, driving
+ * {@link VersionMappingCheck} and {@link ManagedVersionsIndex} directly. The
+ * configuration is resolved once, before measurement, and the modules of the resolved
+ * graph are held in arrays so that the benchmark measures neither Gradle's dependency
+ * resolution nor the task's cache of resolved graphs.
+ *
+ * @author Spring IO Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DependencyVersionMappingCheckBenchmark {
+
+	@Param({ "100", "1000", "5000", "20000" })
+	public int modules;
+
+	@Param("1500")
+	public int managedVersions;
+
+	private final Set<String> directDependencies = new HashSet<>();
+
+	private SyntheticBuild build;
+
+	private Map<String, String> versions;
+
+	private ManagedVersionsIndex index;
+
+	private String[] groups;
+
+	private String[] names;
+
+	private String[] moduleVersions;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.build = SyntheticBuild.create();
+		this.build.publishModules(this.modules);
+		Project project = this.build.getProject();
+		Configuration configuration = project.getConfigurations().create("runtime");
+		for (int i = 0; i < SyntheticBuild.DIRECT_DEPENDENCIES; i++) {
+			project.getDependencies().add("runtime",
+					SyntheticBuild.GROUP + ":" + SyntheticBuild.name(i) + ":1.0");
+			this.directDependencies
+					.add(SyntheticBuild.GROUP + ":" + SyntheticBuild.name(i));
+		}
+		Map<String, ModuleVersionIdentifier> resolved = new LinkedHashMap<>();
+		for (ResolvedArtifact artifact : configuration.getResolvedConfiguration()
+				.getResolvedArtifacts()) {
+			ModuleVersionIdentifier id = artifact.getModuleVersion().getId();
+			resolved.putIfAbsent(id.getGroup() + ":" + id.getName(), id);
+		}
+		this.groups = new String[resolved.size()];
+		this.names = new String[resolved.size()];
+		this.moduleVersions = new String[resolved.size()];
+		int index = 0;
+		for (ModuleVersionIdentifier id : resolved.values()) {
+			this.groups[index] = id.getGroup();
+			this.names[index] = id.getName();
+			this.moduleVersions[index++] = id.getVersion();
+		}
+		this.versions = SyntheticBuild.managedVersions(this.managedVersions,
+				this.modules);
+		this.index = managedVersionsIndex();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.build.delete();
+	}
+
+	@Benchmark
+	public ManagedVersionsIndex managedVersionsIndex() {
+		return ManagedVersionsIndex.of(DependencyVersionMappingCheckTask.SPRING_IO_BOM,
+				this.versions);
+	}
+
+	@Benchmark
+	public String checkVersionMapping() {
+		VersionMappingCheck check = new VersionMappingCheck(this.index);
+		check.setFailOnUnmappedDirectDependency(false);
+		check.setFailOnUnmappedTransitiveDependency(false);
+		for (int i = 0; i < this.groups.length; i++) {
+			String group = this.groups[i];
+			String name = this.names[i];
+			check.check(group, name, this.moduleVersions[i],
+					() -> this.directDependencies.contains(group + ":" + name));
+		}
+		return check.getFailureMessage();
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipOutputStream;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+
+/**
+ * A synthetic build for benchmarking the Spring IO checks. Its modules are published to a
+ * local Maven repository so that their dependency graph can be resolved without network
+ * access. The first {@link #DIRECT_DEPENDENCIES} modules are the direct dependencies and
+ * every other module is a dependency of exactly one module with a lower index, giving a
+ * graph in which every module is reachable.
+ *
+ * @author Spring IO Team
+ */
+final class SyntheticBuild {
+
+	static final String GROUP = "com.example.synthetic";
+
+	static final int DIRECT_DEPENDENCIES = 20;
+
+	private static final int FAN_OUT = 4;
+
+	private final Path root;
+
+	private final Project project;
+
+	private SyntheticBuild(Path root, Project project) {
+		this.root = root;
+		this.project = project;
+	}
+
+	/**
+	 * Creates a synthetic build whose project has no dependencies and no repositories.
+	 *
+	 * @return the build
+	 * @throws IOException if the build's directories cannot be created
+	 */
+	static SyntheticBuild create() throws IOException {
+		Path root = Files.createTempDirectory("synthetic-build");
+		Project project = ProjectBuilder.builder().withName("synthetic")
+				.withProjectDir(Files.createDirectory(root.resolve("project")).toFile())
+				.build();
+		return new SyntheticBuild(root, project);
+	}
+
+	/**
+	 * Returns the build's project.
+	 *
+	 * @return the project
+	 */
+	Project getProject() {
+		return this.project;
+	}
+
+	/**
+	 * Publishes the given number of {@code modules} to a local repository and adds the
+	 * repository to the project.
+	 *
+	 * @param modules the number of modules
+	 * @throws IOException if the modules cannot be published
+	 */
+	void publishModules(int modules) throws IOException {
+		File repository = Files.createDirectory(this.root.resolve("repository")).toFile();
+		for (int i = 0; i < modules; i++) {
+			File dir = new File(repository,
+					GROUP.replace('.', '/') + "/" + name(i) + "/1.0");
+			dir.mkdirs();
+			StringBuilder pom = new StringBuilder("<project><modelVersion>4.0.0"
+					+ "</modelVersion><groupId>" + GROUP + "</groupId><artifactId>"
+					+ name(i) + "</artifactId><version>1.0</version><dependencies>");
+			for (int j = DIRECT_DEPENDENCIES + i * FAN_OUT; j < Math
+					.min(modules, DIRECT_DEPENDENCIES + (i + 1) * FAN_OUT); j++) {
+				pom.append("<dependency><groupId>").append(GROUP)
+						.append("</groupId><artifactId>").append(name(j))
+						.append("</artifactId><version>1.0</version></dependency>");
+			}
+			pom.append("</dependencies></project>");
+			Files.write(new File(dir, name(i) + "-1.0.pom").toPath(),
+					pom.toString().getBytes(StandardCharsets.UTF_8));
+			new ZipOutputStream(new FileOutputStream(new File(dir, name(i) + "-1.0.jar")))
+					.close();
+		}
+		this.project.getRepositories()
+				.maven((maven) -> maven.setUrl(repository.toURI()));
+	}
+
+	/**
+	 * Returns managed versions of the given {@code size}, roughly half of which manage
+	 * the given number of synthetic {@code modules}.
+	 *
+	 * @param size the number of managed versions
+	 * @param modules the number of synthetic modules
+	 * @return the managed versions
+	 */
+	static Map<String, String> managedVersions(int size, int modules) {
+		Map<String, String> managedVersions = new HashMap<>();
+		for (int i = 0; i < modules && managedVersions.size() < size / 2; i += 2) {
+			managedVersions.put(GROUP + ":" + name(i), "1.0");
+		}
+		for (int i = 0; managedVersions.size() < size; i++) {
+			managedVersions.put("com.example.platform:artifact-" + i, "1.0");
+		}
+		return managedVersions;
+	}
+
+	/**
+	 * Returns the name of the synthetic module with the given {@code index}.
+	 *
+	 * @param index the index
+	 * @return the name
+	 */
+	static String name(int index) {
+		return "module-" + index;
+	}
+
+	/**
+	 * Deletes the build's directories.
+	 *
+	 * @throws IOException if a directory cannot be deleted
+	 */
+	void delete() throws IOException {
+		try (Stream<Path> paths = Files.walk(this.root)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile)
+					.forEach(File::delete);
+		}
+	}
+
+}
@@ -19,16 +19,15 @@ package io.spring.gradle.springio;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Set;
 
+import io.spring.gradle.springio.core.AlternativeDependencies;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
@@ -40,7 +39,9 @@ import org.gradle.api.tasks.TaskAction;
 
 /**
  * {@link Task} that checks {@Configuration Configurations} for dependencies with
- * preferred alternatives.
+ * preferred alternatives. A configuration that is locked is checked using the modules in
+ * its lockfile, without resolving it, otherwise its declared dependencies are checked.
+ * The rule itself is {@link AlternativeDependencies}.
  *
  * @author Rob Winch
  * @author Andy Wilkinson
@@ -56,6 +57,8 @@ public class AlternativeDependenciesTask extends DefaultTask {
 
 	private Collection<Configuration> configurations;
 
+	private boolean useLockfiles;
+
 	/**
 	 * Performs the alternative dependencies check.
 	 */
@@ -64,7 +67,7 @@ public class AlternativeDependenciesTask extends DefaultTask {
 		this.reportFile.getParentFile().mkdirs();
 
 		if (this.alternatives == null) {
-			this.alternatives = loadAlternatives();
+			this.alternatives = AlternativeDependencies.loadDefaults();
 		}
 
 		if (this.configurations == null) {
@@ -76,18 +79,21 @@ public class AlternativeDependenciesTask extends DefaultTask {
 			}
 		}
 
+		TaskMetrics metrics = TaskMetrics.of(this);
+		AlternativeDependencies alternativeDependencies = new AlternativeDependencies(
+				this.alternatives);
 		Map<String, List<String>> problemsByConfiguration = new HashMap<>();
 		for (Configuration configuration : this.configurations) {
 			List<String> problems = new ArrayList<>();
-			for (Dependency dependency : configuration.getDependencies()) {
-				if (dependency instanceof ExternalModuleDependency) {
-					String problem = checkDependency(dependency.getGroup(),
-							dependency.getName());
-					if (problem != null) {
-						problems.add(problem);
-					}
+			for (String id : getModules(configuration)) {
+				metrics.increment(TaskMetrics.RULES);
+				String problem = metrics.time(TaskMetrics.RULE_EVALUATION,
+						() -> alternativeDependencies.check(id));
+				if (problem != null) {
+					problems.add(problem);
 				}
 			}
+			metrics.increment(TaskMetrics.FINDINGS, problems.size());
 			if (!problems.isEmpty()) {
 				problemsByConfiguration.put(configuration.getName(), problems);
 			}
@@ -177,38 +183,42 @@ public class AlternativeDependenciesTask extends DefaultTask {
 		this.configurations = configurations;
 	}
 
-	private Map<String, String> loadAlternatives() {
-		InputStream stream = getClass()
-				.getResourceAsStream("spring-io-alternatives.properties");
-		Properties properties = new Properties();
-		try {
-			properties.load(stream);
-		}
-		catch (IOException ex) {
-			throw new IllegalStateException(ex);
-		}
-		finally {
-			try {
-				stream.close();
-			}
-			catch (IOException ex) {
-				// Continue
-			}
-		}
-		Map<String, String> alternativesMap = new HashMap<>();
-		for (String property : properties.stringPropertyNames()) {
-			alternativesMap.put(property, properties.getProperty(property));
-		}
-		return alternativesMap;
+	/**
+	 * Returns whether a locked configuration is checked using the modules in its
+	 * lockfile, including those that are transitive dependencies, rather than its declared
+	 * dependencies. Lockfiles are not used unless this is enabled, as the presence of a
+	 * lockfile does not mean that locking is active or that the lockfile is up to date.
+	 *
+	 * @return {@code true} if lockfiles are used, otherwise {@code false}
+	 */
+	public boolean isUseLockfiles() {
+		return this.useLockfiles;
+	}
+
+	/**
+	 * Sets whether a locked configuration is checked using the modules in its lockfile,
+	 * including those that are transitive dependencies, rather than its declared
+	 * dependencies.
+	 *
+	 * @param useLockfiles {@code true} if lockfiles should be used
+	 */
+	public void setUseLockfiles(boolean useLockfiles) {
+		this.useLockfiles = useLockfiles;
 	}
 
-	private String checkDependency(String groupId, String artifactId) {
-		String id = groupId + ":" + artifactId;
-		String alternative = this.alternatives.get(id);
-		if (alternative != null) {
-			return "Please depend on " + alternative + " instead of " + id;
+	private Collection<String> getModules(Configuration configuration) {
+		Map<String, String> lockedVersions = this.useLockfiles
+				? Lockfiles.read(getProject(), configuration.getName()) : null;
+		if (lockedVersions != null) {
+			return lockedVersions.keySet();
+		}
+		List<String> modules = new ArrayList<>();
+		for (Dependency dependency : configuration.getDependencies()) {
+			if (dependency instanceof ExternalModuleDependency) {
+				modules.add(dependency.getGroup() + ":" + dependency.getName());
+			}
 		}
-		return null;
+		return modules;
 	}
 
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.TaskState;
+
+/**
+ * The {@link TaskMetrics} of the Spring IO tasks in a build. When the build finishes, the
+ * metrics are written to {@code build/spring-io/metrics.json} in the root project and
+ * summarized in a single log line.
+ *
+ * @author Spring IO Team
+ */
+final class BuildMetrics {
+
+	private static final Logger logger = Logging.getLogger(BuildMetrics.class);
+
+	private static final String TASK_NAME_PREFIX = "springIo";
+
+	private static final Map<Gradle, BuildMetrics> metricsByBuild = new ConcurrentHashMap<>();
+
+	private final Map<String, TaskMetrics> tasks = new ConcurrentHashMap<>();
+
+	private BuildMetrics() {
+	}
+
+	/**
+	 * Starts recording the metrics of the Spring IO tasks in the build of the given
+	 * {@code project}, unless they are already being recorded.
+	 *
+	 * @param project the project
+	 */
+	static void record(Project project) {
+		Gradle gradle = project.getGradle();
+		metricsByBuild.computeIfAbsent(gradle, (key) -> {
+			BuildMetrics metrics = new BuildMetrics();
+			gradle.getTaskGraph().addTaskExecutionListener(new Listener());
+			gradle.addBuildListener(new BuildAdapter() {
+
+				@Override
+				public void buildFinished(BuildResult result) {
+					metricsByBuild.remove(gradle);
+					metrics.write(gradle.getRootProject());
+				}
+
+			});
+			return metrics;
+		});
+	}
+
+	static TaskMetrics forTask(Task task) {
+		BuildMetrics metrics = metricsByBuild.get(task.getProject().getGradle());
+		if (metrics == null) {
+			return new TaskMetrics(task.getPath(), task.getClass().getSimpleName());
+		}
+		return metrics.tasks.computeIfAbsent(task.getPath(),
+				(path) -> new TaskMetrics(path, typeOf(task)));
+	}
+
+	private static String typeOf(Task task) {
+		String type = task.getClass().getSimpleName();
+		return type.endsWith("_Decorated")
+				? type.substring(0, type.length() - "_Decorated".length()) : type;
+	}
+
+	private void write(Project rootProject) {
+		if (this.tasks.isEmpty()) {
+			return;
+		}
+		List<TaskMetrics> tasks = new ArrayList<>(this.tasks.values());
+		tasks.sort(Comparator.comparing(TaskMetrics::getPath));
+		File metricsFile = new File(rootProject.getBuildDir(), "spring-io/metrics.json");
+		metricsFile.getParentFile().mkdirs();
+		try {
+			Files.write(metricsFile.toPath(),
+					(toJson(tasks) + "\n").getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			logger.warn("Failed to write Spring IO metrics to " + metricsFile, ex);
+			return;
+		}
+		logger.lifecycle(summarize(tasks) + ". See " + metricsFile);
+	}
+
+	static String toJson(List<TaskMetrics> tasks) {
+		JsonWriter json = new JsonWriter();
+		json.beginObject().name("tasks").beginArray();
+		for (TaskMetrics task : tasks) {
+			json.beginObject().name("path").value(task.getPath()).name("type")
+					.value(task.getType()).name("outcome").value(task.getOutcome())
+					.name("duration").value(task.getDuration()).name("timers")
+					.beginObject();
+			for (Map.Entry<String, Long> timer : task.getTimers().entrySet()) {
+				json.name(timer.getKey()).value(timer.getValue());
+			}
+			json.endObject().name("counters").beginObject();
+			for (Map.Entry<String, Long> counter : task.getCounters().entrySet()) {
+				json.name(counter.getKey()).value(counter.getValue());
+			}
+			json.endObject().endObject();
+		}
+		return json.endArray().endObject().toString();
+	}
+
+	static String summarize(List<TaskMetrics> tasks) {
+		long duration = 0;
+		long[] timers = new long[4];
+		String[] timerNames = { TaskMetrics.BOM_RESOLUTION, TaskMetrics.GRAPH_RESOLUTION,
+				TaskMetrics.ARTIFACT_DOWNLOAD, TaskMetrics.RULE_EVALUATION };
+		long[] counters = new long[5];
+		String[] names = { TaskMetrics.NODES, TaskMetrics.EDGES, TaskMetrics.ARTIFACTS,
+				TaskMetrics.RULES, TaskMetrics.FINDINGS };
+		for (TaskMetrics task : tasks) {
+			duration += task.getDuration();
+			for (int i = 0; i < timerNames.length; i++) {
+				timers[i] += task.getTimer(timerNames[i]);
+			}
+			for (int i = 0; i < names.length; i++) {
+				counters[i] += task.getCounter(names[i]);
+			}
+		}
+		return "Spring IO: " + tasks.size() + " tasks took " + duration + "ms ("
+				+ timers[0] + "ms resolving BOMs, " + timers[1] + "ms resolving graphs, "
+				+ timers[2] + "ms downloading artifacts, " + timers[3]
+				+ "ms evaluating rules), visited " + counters[0] + " nodes and "
+				+ counters[1] + " edges, touched " + counters[2] + " artifacts, evaluated "
+				+ counters[3] + " rules, and found " + counters[4] + " problems";
+	}
+
+	/**
+	 * A {@link TaskExecutionListener} that times the Spring IO tasks and records their
+	 * outcome.
+	 */
+	private static final class Listener implements TaskExecutionListener {
+
+		@Override
+		public void beforeExecute(Task task) {
+			if (task.getName().startsWith(TASK_NAME_PREFIX)) {
+				forTask(task).started();
+			}
+		}
+
+		@Override
+		public void afterExecute(Task task, TaskState state) {
+			if (task.getName().startsWith(TASK_NAME_PREFIX)) {
+				forTask(task).finished(outcomeOf(state));
+			}
+		}
+
+		private String outcomeOf(TaskState state) {
+			if (state.getFailure() != null) {
+				return "failed";
+			}
+			if (state.getSkipped()) {
+				return (state.getSkipMessage() != null)
+						? state.getSkipMessage().toLowerCase() : "skipped";
+			}
+			return state.getDidWork() ? "executed" : "no work";
+		}
+
+	}
+
+}
@@ -0,0 +1,592 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A minimal reader for the parts of a {@code .class} file that the Spring IO checks
+ * need: the constant pool, the class's own declaration, its generic signature, annotations
+ * and inner classes, and its fields and methods. Method bodies and all other attributes
+ * are skipped.
+ *
+ * @author Spring IO Team
+ */
+final class ClassFile {
+
+	static final int ACC_PUBLIC = 0x0001;
+
+	static final int ACC_PRIVATE = 0x0002;
+
+	static final int ACC_PROTECTED = 0x0004;
+
+	static final int ACC_SYNTHETIC = 0x1000;
+
+	private static final int CONSTANT_UTF8 = 1;
+
+	private static final int CONSTANT_INTEGER = 3;
+
+	private static final int CONSTANT_FLOAT = 4;
+
+	private static final int CONSTANT_LONG = 5;
+
+	private static final int CONSTANT_DOUBLE = 6;
+
+	private static final int CONSTANT_CLASS = 7;
+
+	private static final int CONSTANT_STRING = 8;
+
+	private static final int CONSTANT_FIELDREF = 9;
+
+	private static final int CONSTANT_METHODREF = 10;
+
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+
+	private static final int CONSTANT_METHOD_TYPE = 16;
+
+	private static final int CONSTANT_DYNAMIC = 17;
+
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+
+	private static final int CONSTANT_MODULE = 19;
+
+	private static final int CONSTANT_PACKAGE = 20;
+
+	private final int[] tags;
+
+	private final int[] firstIndexes;
+
+	private final int[] secondIndexes;
+
+	private final Object[] values;
+
+	private final int access;
+
+	private final String name;
+
+	private final String superName;
+
+	private final List<String> interfaces;
+
+	private final List<Member> fields;
+
+	private final List<Member> methods;
+
+	private String signature;
+
+	private final List<String> annotations = new ArrayList<>();
+
+	private final List<String> innerClasses = new ArrayList<>();
+
+	private ClassFile(DataInputStream input) throws IOException {
+		if (input.readInt() != 0xCAFEBABE) {
+			throw new IOException("Not a class file");
+		}
+		input.readUnsignedShort();
+		input.readUnsignedShort();
+		int constantPoolCount = input.readUnsignedShort();
+		this.tags = new int[constantPoolCount];
+		this.firstIndexes = new int[constantPoolCount];
+		this.secondIndexes = new int[constantPoolCount];
+		this.values = new Object[constantPoolCount];
+		for (int i = 1; i < constantPoolCount; i++) {
+			i += readConstant(input, i);
+		}
+		this.access = input.readUnsignedShort();
+		this.name = className(input.readUnsignedShort());
+		this.superName = className(input.readUnsignedShort());
+		int interfaceCount = input.readUnsignedShort();
+		List<String> interfaces = new ArrayList<>(interfaceCount);
+		for (int i = 0; i < interfaceCount; i++) {
+			interfaces.add(className(input.readUnsignedShort()));
+		}
+		this.interfaces = Collections.unmodifiableList(interfaces);
+		this.fields = readMembers(input);
+		this.methods = readMembers(input);
+		readClassAttributes(input);
+	}
+
+	/**
+	 * Reads a class file from the given {@code input}. The stream is not closed.
+	 *
+	 * @param input the input
+	 * @return the class file
+	 * @throws IOException if the class file cannot be read
+	 */
+	static ClassFile read(InputStream input) throws IOException {
+		return new ClassFile(new DataInputStream(new BufferedInputStream(input)));
+	}
+
+	int getAccess() {
+		return this.access;
+	}
+
+	/**
+	 * Returns the internal name of the class, for example {@code java/lang/String}.
+	 *
+	 * @return the name
+	 */
+	String getName() {
+		return this.name;
+	}
+
+	String getSuperName() {
+		return this.superName;
+	}
+
+	List<String> getInterfaces() {
+		return this.interfaces;
+	}
+
+	List<Member> getFields() {
+		return this.fields;
+	}
+
+	List<Member> getMethods() {
+		return this.methods;
+	}
+
+	/**
+	 * Returns the generic signature of the class.
+	 *
+	 * @return the signature, or {@code null} if the class does not have one
+	 */
+	String getSignature() {
+		return this.signature;
+	}
+
+	/**
+	 * Returns descriptions of the annotations on the class, both those that are visible
+	 * at runtime and those that are only retained in the class file. Each description
+	 * includes the annotation's type and element values.
+	 *
+	 * @return the annotations
+	 */
+	List<String> getAnnotations() {
+		return Collections.unmodifiableList(this.annotations);
+	}
+
+	/**
+	 * Returns descriptions of the entries of the class's {@code InnerClasses} attribute.
+	 * Each description is made up of the inner class's name, its outer class, its simple
+	 * name and its access flags.
+	 *
+	 * @return the inner classes
+	 */
+	List<String> getInnerClasses() {
+		return Collections.unmodifiableList(this.innerClasses);
+	}
+
+	/**
+	 * Returns the internal names of the classes that this class refers to, other than
+	 * itself. In addition to the classes in the constant pool, any class that appears in
+	 * a descriptor, including the descriptors of annotations and their class values, is
+	 * included.
+	 *
+	 * @return the referenced classes
+	 */
+	Set<String> getReferencedClasses() {
+		Set<String> classes = new TreeSet<>();
+		for (int i = 1; i < this.tags.length; i++) {
+			if (this.tags[i] == CONSTANT_CLASS) {
+				String className = utf8(this.firstIndexes[i]);
+				if (className.startsWith("[")) {
+					addDescriptorTypes(className, classes);
+				}
+				else {
+					classes.add(className);
+				}
+			}
+			else if (this.tags[i] == CONSTANT_UTF8) {
+				addDescriptorTypes((String) this.values[i], classes);
+			}
+		}
+		classes.remove(this.name);
+		return classes;
+	}
+
+	/**
+	 * Returns the internal names of the classes that are referenced by this class's
+	 * {@code CONSTANT_Class} entries, other than itself. These are the classes that must
+	 * be loadable when the class is linked. The element type of an array class is
+	 * returned rather than the array class itself.
+	 *
+	 * @return the classes referenced by the constant pool
+	 */
+	Set<String> getClassConstants() {
+		Set<String> classes = new TreeSet<>();
+		for (int i = 1; i < this.tags.length; i++) {
+			if (this.tags[i] == CONSTANT_CLASS) {
+				String className = utf8(this.firstIndexes[i]);
+				if (className.startsWith("[")) {
+					addDescriptorTypes(className, classes);
+				}
+				else {
+					classes.add(className);
+				}
+			}
+		}
+		classes.remove(this.name);
+		return classes;
+	}
+
+	/**
+	 * Returns the fields and methods that this class refers to, including references to
+	 * its own members.
+	 *
+	 * @return the member references
+	 */
+	List<MemberReference> getMemberReferences() {
+		List<MemberReference> references = new ArrayList<>();
+		for (int i = 1; i < this.tags.length; i++) {
+			int tag = this.tags[i];
+			if (tag == CONSTANT_FIELDREF || tag == CONSTANT_METHODREF
+					|| tag == CONSTANT_INTERFACE_METHODREF) {
+				int nameAndType = this.secondIndexes[i];
+				references.add(new MemberReference(className(this.firstIndexes[i]),
+						utf8(this.firstIndexes[nameAndType]),
+						utf8(this.secondIndexes[nameAndType]), tag == CONSTANT_FIELDREF));
+			}
+		}
+		return references;
+	}
+
+	private int readConstant(DataInputStream input, int index) throws IOException {
+		int tag = input.readUnsignedByte();
+		this.tags[index] = tag;
+		switch (tag) {
+		case CONSTANT_UTF8:
+			this.values[index] = input.readUTF();
+			return 0;
+		case CONSTANT_INTEGER:
+			this.values[index] = input.readInt();
+			return 0;
+		case CONSTANT_FLOAT:
+			this.values[index] = input.readFloat();
+			return 0;
+		case CONSTANT_LONG:
+			this.values[index] = input.readLong();
+			return 1;
+		case CONSTANT_DOUBLE:
+			this.values[index] = input.readDouble();
+			return 1;
+		case CONSTANT_CLASS:
+		case CONSTANT_STRING:
+		case CONSTANT_METHOD_TYPE:
+		case CONSTANT_MODULE:
+		case CONSTANT_PACKAGE:
+			this.firstIndexes[index] = input.readUnsignedShort();
+			return 0;
+		case CONSTANT_FIELDREF:
+		case CONSTANT_METHODREF:
+		case CONSTANT_INTERFACE_METHODREF:
+		case CONSTANT_NAME_AND_TYPE:
+		case CONSTANT_DYNAMIC:
+		case CONSTANT_INVOKE_DYNAMIC:
+			this.firstIndexes[index] = input.readUnsignedShort();
+			this.secondIndexes[index] = input.readUnsignedShort();
+			return 0;
+		case CONSTANT_METHOD_HANDLE:
+			this.firstIndexes[index] = input.readUnsignedByte();
+			this.secondIndexes[index] = input.readUnsignedShort();
+			return 0;
+		default:
+			throw new IOException("Unknown constant pool tag " + tag);
+		}
+	}
+
+	private List<Member> readMembers(DataInputStream input) throws IOException {
+		int count = input.readUnsignedShort();
+		List<Member> members = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int access = input.readUnsignedShort();
+			String name = utf8(input.readUnsignedShort());
+			String descriptor = utf8(input.readUnsignedShort());
+			String signature = null;
+			Object constantValue = null;
+			List<String> exceptions = Collections.emptyList();
+			int attributeCount = input.readUnsignedShort();
+			for (int j = 0; j < attributeCount; j++) {
+				String attributeName = utf8(input.readUnsignedShort());
+				int length = input.readInt();
+				if ("Signature".equals(attributeName)) {
+					signature = utf8(input.readUnsignedShort());
+				}
+				else if ("ConstantValue".equals(attributeName)) {
+					int valueIndex = input.readUnsignedShort();
+					constantValue = (this.tags[valueIndex] == CONSTANT_STRING)
+							? utf8(this.firstIndexes[valueIndex])
+							: this.values[valueIndex];
+				}
+				else if ("Exceptions".equals(attributeName)) {
+					int exceptionCount = input.readUnsignedShort();
+					exceptions = new ArrayList<>(exceptionCount);
+					for (int k = 0; k < exceptionCount; k++) {
+						exceptions.add(className(input.readUnsignedShort()));
+					}
+				}
+				else {
+					skipFully(input, length);
+				}
+			}
+			members.add(new Member(access, name, descriptor, signature, constantValue,
+					exceptions));
+		}
+		return Collections.unmodifiableList(members);
+	}
+
+	private void readClassAttributes(DataInputStream input) throws IOException {
+		int attributeCount = input.readUnsignedShort();
+		for (int i = 0; i < attributeCount; i++) {
+			String attributeName = utf8(input.readUnsignedShort());
+			int length = input.readInt();
+			if ("Signature".equals(attributeName)) {
+				this.signature = utf8(input.readUnsignedShort());
+			}
+			else if ("RuntimeVisibleAnnotations".equals(attributeName)
+					|| "RuntimeInvisibleAnnotations".equals(attributeName)) {
+				int annotationCount = input.readUnsignedShort();
+				for (int j = 0; j < annotationCount; j++) {
+					StringBuilder annotation = new StringBuilder();
+					readAnnotation(input, annotation);
+					this.annotations.add(annotation.toString());
+				}
+			}
+			else if ("InnerClasses".equals(attributeName)) {
+				int classCount = input.readUnsignedShort();
+				for (int j = 0; j < classCount; j++) {
+					String innerClass = className(input.readUnsignedShort());
+					String outerClass = className(input.readUnsignedShort());
+					int innerName = input.readUnsignedShort();
+					int access = input.readUnsignedShort();
+					this.innerClasses.add(innerClass + " " + outerClass + " "
+							+ ((innerName != 0) ? utf8(innerName) : null) + " " + access);
+				}
+			}
+			else {
+				skipFully(input, length);
+			}
+		}
+	}
+
+	private void readAnnotation(DataInputStream input, StringBuilder annotation)
+			throws IOException {
+		annotation.append(utf8(input.readUnsignedShort())).append('(');
+		int elementCount = input.readUnsignedShort();
+		for (int i = 0; i < elementCount; i++) {
+			if (i > 0) {
+				annotation.append(',');
+			}
+			annotation.append(utf8(input.readUnsignedShort())).append('=');
+			readElementValue(input, annotation);
+		}
+		annotation.append(')');
+	}
+
+	private void readElementValue(DataInputStream input, StringBuilder value)
+			throws IOException {
+		char tag = (char) input.readUnsignedByte();
+		value.append(tag);
+		switch (tag) {
+		case 'e':
+			value.append(utf8(input.readUnsignedShort())).append('.')
+					.append(utf8(input.readUnsignedShort()));
+			break;
+		case 'c':
+			value.append(utf8(input.readUnsignedShort()));
+			break;
+		case '@':
+			readAnnotation(input, value);
+			break;
+		case '[':
+			int count = input.readUnsignedShort();
+			value.append('[');
+			for (int i = 0; i < count; i++) {
+				if (i > 0) {
+					value.append(',');
+				}
+				readElementValue(input, value);
+			}
+			value.append(']');
+			break;
+		default:
+			value.append(this.values[input.readUnsignedShort()]);
+		}
+	}
+
+	private String utf8(int index) {
+		return (String) this.values[index];
+	}
+
+	private String className(int index) {
+		return (index == 0) ? null : utf8(this.firstIndexes[index]);
+	}
+
+	private static void addDescriptorTypes(String descriptor, Set<String> classes) {
+		if (descriptor.isEmpty() || "(L[".indexOf(descriptor.charAt(0)) < 0) {
+			return;
+		}
+		List<String> types = new ArrayList<>();
+		int i = 0;
+		while (i < descriptor.length()) {
+			char c = descriptor.charAt(i);
+			if (c == 'L') {
+				int end = descriptor.indexOf(';', i);
+				if (end < 0 || !isValidClassName(descriptor, i + 1, end)) {
+					return;
+				}
+				types.add(descriptor.substring(i + 1, end));
+				i = end + 1;
+			}
+			else if ("()[BCDFIJSZV".indexOf(c) >= 0) {
+				i++;
+			}
+			else {
+				return;
+			}
+		}
+		classes.addAll(types);
+	}
+
+	private static boolean isValidClassName(String descriptor, int start, int end) {
+		if (start == end) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if ("<>.;[ ".indexOf(descriptor.charAt(i)) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void skipFully(DataInputStream input, int length) throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			int skipped = input.skipBytes(remaining);
+			if (skipped <= 0) {
+				throw new IOException("Unexpected end of class file");
+			}
+			remaining -= skipped;
+		}
+	}
+
+	/**
+	 * A field or method declared by a class.
+	 */
+	static final class Member {
+
+		private final int access;
+
+		private final String name;
+
+		private final String descriptor;
+
+		private final String signature;
+
+		private final Object constantValue;
+
+		private final List<String> exceptions;
+
+		private Member(int access, String name, String descriptor, String signature,
+				Object constantValue, List<String> exceptions) {
+			this.access = access;
+			this.name = name;
+			this.descriptor = descriptor;
+			this.signature = signature;
+			this.constantValue = constantValue;
+			this.exceptions = exceptions;
+		}
+
+		int getAccess() {
+			return this.access;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		String getDescriptor() {
+			return this.descriptor;
+		}
+
+		String getSignature() {
+			return this.signature;
+		}
+
+		Object getConstantValue() {
+			return this.constantValue;
+		}
+
+		List<String> getExceptions() {
+			return this.exceptions;
+		}
+
+	}
+
+	/**
+	 * A reference from a class to a field or method.
+	 */
+	static final class MemberReference {
+
+		private final String owner;
+
+		private final String name;
+
+		private final String descriptor;
+
+		private final boolean field;
+
+		private MemberReference(String owner, String name, String descriptor,
+				boolean field) {
+			this.owner = owner;
+			this.name = name;
+			this.descriptor = descriptor;
+			this.field = field;
+		}
+
+		String getOwner() {
+			return this.owner;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		String getDescriptor() {
+			return this.descriptor;
+		}
+
+		boolean isField() {
+			return this.field;
+		}
+
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility methods for finding and reading the class files in a directory. The classes
+ * that a class file references are cached by the hash of its content so that an
+ * unchanged class is only parsed once per daemon, however many tasks scan it.
+ *
+ * @author Spring IO Team
+ */
+final class ClassScanner {
+
+	private static final int MAX_CACHED_CLASSES = 65536;
+
+	private static final Map<String, ScannedClass> cache = new ConcurrentHashMap<>();
+
+	private ClassScanner() {
+	}
+
+	/**
+	 * Returns the class files beneath the given {@code directory}.
+	 *
+	 * @param directory the directory
+	 * @return the class files
+	 */
+	static List<File> classFiles(File directory) {
+		List<File> classFiles = new ArrayList<>();
+		collectClassFiles(directory, classFiles);
+		return classFiles;
+	}
+
+	/**
+	 * Scans the class files beneath the given {@code directory}.
+	 *
+	 * @param directory the directory
+	 * @return the scanned classes
+	 */
+	static List<ScannedClass> scan(File directory) {
+		List<ScannedClass> scannedClasses = new ArrayList<>();
+		for (File file : classFiles(directory)) {
+			scannedClasses.add(scanClass(file));
+		}
+		return scannedClasses;
+	}
+
+	/**
+	 * Reads the given class {@code file}.
+	 *
+	 * @param file the class file
+	 * @return the class file's contents
+	 */
+	static ClassFile read(File file) {
+		try (InputStream input = new FileInputStream(file)) {
+			return ClassFile.read(input);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + file, ex);
+		}
+	}
+
+	private static void collectClassFiles(File directory, List<File> classFiles) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				collectClassFiles(file, classFiles);
+			}
+			else if (file.getName().endsWith(".class")) {
+				classFiles.add(file);
+			}
+		}
+	}
+
+	private static ScannedClass scanClass(File file) {
+		try {
+			byte[] bytes = Files.readAllBytes(file.toPath());
+			String hash = FileHashes.sha1(bytes);
+			ScannedClass scannedClass = cache.get(hash);
+			if (scannedClass == null) {
+				ClassFile classFile = ClassFile.read(new ByteArrayInputStream(bytes));
+				scannedClass = new ScannedClass(classFile.getName(), hash,
+						classFile.getReferencedClasses());
+				if (cache.size() >= MAX_CACHED_CLASSES) {
+					cache.clear();
+				}
+				cache.put(hash, scannedClass);
+			}
+			return scannedClass;
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + file, ex);
+		}
+	}
+
+	/**
+	 * The result of scanning a class file: the name of the class, the hash of the
+	 * class file and the classes that it refers to.
+	 */
+	static final class ScannedClass {
+
+		private final String name;
+
+		private final String hash;
+
+		private final Set<String> references;
+
+		private ScannedClass(String name, String hash, Set<String> references) {
+			this.name = name;
+			this.hash = hash;
+			this.references = references;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		String getHash() {
+			return this.hash;
+		}
+
+		Set<String> getReferences() {
+			return this.references;
+		}
+
+	}
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that compares the ABI (the non-private signatures of every class,
+ * together with its generic signature, annotations and inner classes) of the regular
+ * test compile classpath with that of the {@code springIoTest} compile classpath. When
+ * the two are ABI-identical, compiling the test sources against the Spring IO classpath
+ * would produce the same classes as the regular test compilation so those classes can
+ * be reused.
+ *
+ * @author Spring IO Team
+ */
+public class ClasspathAbiCheckTask extends DefaultTask {
+
+	private static final int MAX_CACHED_JARS = 2048;
+
+	private static final Map<String, Map<String, String>> jarAbiCache = new ConcurrentHashMap<>();
+
+	private FileCollection testCompileClasspath;
+
+	private FileCollection springIoTestCompileClasspath;
+
+	private boolean abiIdentical;
+
+	/**
+	 * Compares the ABIs of the two classpaths.
+	 */
+	@TaskAction
+	public void compare() {
+		this.abiIdentical = false;
+		List<File> testFiles = new ArrayList<>(this.testCompileClasspath.getFiles());
+		List<File> springIoTestFiles = new ArrayList<>(
+				this.springIoTestCompileClasspath.getFiles());
+		if (testFiles.equals(springIoTestFiles)) {
+			this.abiIdentical = true;
+		}
+		else {
+			this.abiIdentical = abi(testFiles).equals(abi(springIoTestFiles));
+		}
+		if (this.abiIdentical) {
+			getLogger().info("The test and springIoTest compile classpaths are "
+					+ "ABI-identical. The compiled test classes will be reused");
+		}
+	}
+
+	/**
+	 * Returns the regular test compile classpath.
+	 *
+	 * @return the test compile classpath
+	 */
+	@InputFiles
+	public FileCollection getTestCompileClasspath() {
+		return this.testCompileClasspath;
+	}
+
+	/**
+	 * Sets the regular test compile classpath.
+	 *
+	 * @param testCompileClasspath the test compile classpath
+	 */
+	public void setTestCompileClasspath(FileCollection testCompileClasspath) {
+		this.testCompileClasspath = testCompileClasspath;
+	}
+
+	/**
+	 * Returns the {@code springIoTest} compile classpath.
+	 *
+	 * @return the Spring IO test compile classpath
+	 */
+	@InputFiles
+	public FileCollection getSpringIoTestCompileClasspath() {
+		return this.springIoTestCompileClasspath;
+	}
+
+	/**
+	 * Sets the {@code springIoTest} compile classpath.
+	 *
+	 * @param springIoTestCompileClasspath the Spring IO test compile classpath
+	 */
+	public void setSpringIoTestCompileClasspath(
+			FileCollection springIoTestCompileClasspath) {
+		this.springIoTestCompileClasspath = springIoTestCompileClasspath;
+	}
+
+	/**
+	 * Returns whether the task has executed and found the two classpaths to be
+	 * ABI-identical.
+	 *
+	 * @return {@code true} if the classpaths are ABI-identical, otherwise {@code false}
+	 */
+	public boolean isAbiIdentical() {
+		return this.abiIdentical;
+	}
+
+	private Map<String, String> abi(List<File> classpath) {
+		Map<String, String> abi = new TreeMap<>();
+		for (File entry : classpath) {
+			Map<String, String> entryAbi = entry.isDirectory() ? directoryAbi(entry)
+					: jarAbi(entry);
+			for (Map.Entry<String, String> classAbi : entryAbi.entrySet()) {
+				abi.putIfAbsent(classAbi.getKey(), classAbi.getValue());
+			}
+		}
+		return abi;
+	}
+
+	private Map<String, String> directoryAbi(File directory) {
+		Map<String, String> abi = new TreeMap<>();
+		for (File file : ClassScanner.classFiles(directory)) {
+			addClassAbi(ClassScanner.read(file), abi);
+		}
+		return abi;
+	}
+
+	private Map<String, String> jarAbi(File jar) {
+		if (!jar.isFile()) {
+			return new TreeMap<>();
+		}
+		String key = FileHashes.cacheKey(jar);
+		Map<String, String> abi = jarAbiCache.get(key);
+		if (abi == null) {
+			abi = readJarAbi(jar);
+			if (jarAbiCache.size() >= MAX_CACHED_JARS) {
+				jarAbiCache.clear();
+			}
+			jarAbiCache.put(key, abi);
+		}
+		return abi;
+	}
+
+	private Map<String, String> readJarAbi(File jar) {
+		Map<String, String> abi = new TreeMap<>();
+		try (ZipFile zipFile = new ZipFile(jar)) {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (entry.getName().endsWith(".class")
+						&& !entry.getName().startsWith("META-INF/")) {
+					try (InputStream input = zipFile.getInputStream(entry)) {
+						addClassAbi(ClassFile.read(input), abi);
+					}
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + jar, ex);
+		}
+		return abi;
+	}
+
+	private void addClassAbi(ClassFile classFile, Map<String, String> abi) {
+		if ((classFile.getAccess() & ClassFile.ACC_SYNTHETIC) != 0) {
+			return;
+		}
+		StringBuilder description = new StringBuilder();
+		description.append(classFile.getAccess()).append(' ')
+				.append(classFile.getSuperName()).append(' ')
+				.append(classFile.getInterfaces()).append(' ')
+				.append(classFile.getSignature()).append('\n');
+		for (String annotation : classFile.getAnnotations()) {
+			description.append("A ").append(annotation).append('\n');
+		}
+		for (String innerClass : classFile.getInnerClasses()) {
+			description.append("I ").append(innerClass).append('\n');
+		}
+		TreeSet<String> members = new TreeSet<>();
+		for (ClassFile.Member field : classFile.getFields()) {
+			if (isApi(field)) {
+				members.add("F " + describe(field) + " " + field.getConstantValue());
+			}
+		}
+		for (ClassFile.Member method : classFile.getMethods()) {
+			if (isApi(method)) {
+				members.add("M " + describe(method) + " " + method.getExceptions());
+			}
+		}
+		for (String member : members) {
+			description.append(member).append('\n');
+		}
+		abi.putIfAbsent(classFile.getName(),
+				FileHashes.sha1(description.toString()));
+	}
+
+	private boolean isApi(ClassFile.Member member) {
+		return (member.getAccess()
+				& (ClassFile.ACC_PRIVATE | ClassFile.ACC_SYNTHETIC)) == 0;
+	}
+
+	private String describe(ClassFile.Member member) {
+		return member.getAccess() + " " + member.getName() + " "
+				+ member.getDescriptor() + " " + member.getSignature();
+	}
+
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that reports the weight of the classpaths produced by one or more
+ * {@link Configuration Configurations}: the size of each module's jars, the number of
+ * classes they contain, and the number of services that they provide through
+ * {@code META-INF/services}. The weight of each direct dependency's transitive
+ * dependencies is attributed to it, both in total and exclusively, and every figure is
+ * compared with a baseline configuration.
+ * <p>
+ * Only the central directory of each jar is read. Jars are read in parallel and their
+ * statistics are cached by their path, length, and last modified time.
+ *
+ * @author Spring IO Team
+ */
+public class ClasspathWeightTask extends DefaultTask {
+
+	private static final int MAX_CACHED_JARS = 2048;
+
+	private static final Map<String, JarStats> jarStatsCache = new ConcurrentHashMap<>();
+
+	private final List<Configuration> configurations = new ArrayList<>();
+
+	private Configuration baselineConfiguration;
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/classpath-weight.txt");
+
+	/**
+	 * Adds the given {@code configuration} to those whose weight is reported.
+	 *
+	 * @param configuration the configuration
+	 */
+	public void configuration(Configuration configuration) {
+		this.configurations.add(configuration);
+	}
+
+	/**
+	 * Returns the {@link Configuration Configurations} whose weight is reported.
+	 *
+	 * @return the configurations
+	 */
+	@Internal
+	public List<Configuration> getConfigurations() {
+		return this.configurations;
+	}
+
+	/**
+	 * Returns the {@link Configuration} with which the weight of each configuration is
+	 * compared.
+	 *
+	 * @return the baseline configuration
+	 */
+	@Internal
+	public Configuration getBaselineConfiguration() {
+		return this.baselineConfiguration;
+	}
+
+	/**
+	 * Sets the {@link Configuration} with which the weight of each configuration is
+	 * compared.
+	 *
+	 * @param baselineConfiguration the baseline configuration
+	 */
+	public void setBaselineConfiguration(Configuration baselineConfiguration) {
+		this.baselineConfiguration = baselineConfiguration;
+	}
+
+	/**
+	 * Returns the file to which the report is written.
+	 *
+	 * @return the report file
+	 */
+	@Internal
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the report is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Measures the configurations and writes the report.
+	 */
+	@TaskAction
+	public void report() {
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			ClasspathWeight baseline = (this.baselineConfiguration != null)
+					? measure(this.baselineConfiguration, executor) : null;
+			StringBuilder report = new StringBuilder();
+			for (Configuration configuration : this.configurations) {
+				ClasspathWeight weight = measure(configuration, executor);
+				appendWeight(report, configuration.getName(), weight, baseline);
+				getLogger().lifecycle(configuration.getName() + ": "
+						+ weight.modules.size() + " modules, "
+						+ formatWithDelta(weight.total.bytes,
+								(baseline != null) ? baseline.total.bytes : null)
+						+ " bytes");
+			}
+			write(report.toString());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private ClasspathWeight measure(Configuration configuration,
+			ExecutorService executor) {
+		Map<String, List<Future<JarStats>>> futures = new TreeMap<>();
+		for (ResolvedArtifact artifact : TaskMetrics.of(this)
+				.downloadedArtifacts(configuration)) {
+			File file = artifact.getFile();
+			futures.computeIfAbsent(moduleKey(artifact.getModuleVersion().getId()),
+					(key) -> new ArrayList<>()).add(executor.submit(() -> jarStats(file)));
+		}
+		ClasspathWeight weight = new ClasspathWeight();
+		try {
+			for (Map.Entry<String, List<Future<JarStats>>> entry : futures.entrySet()) {
+				JarStats stats = new JarStats(0, 0, 0);
+				for (Future<JarStats> future : entry.getValue()) {
+					stats = stats.plus(future.get());
+				}
+				weight.modules.put(entry.getKey(), stats);
+				weight.total = weight.total.plus(stats);
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Failed to measure " + configuration,
+					ex.getCause());
+		}
+		attributeToDirectDependencies(configuration, weight);
+		return weight;
+	}
+
+	private void attributeToDirectDependencies(Configuration configuration,
+			ClasspathWeight weight) {
+		ResolvedComponentResult root = TaskMetrics.of(this)
+				.resolutionRoot(configuration);
+		Map<String, Set<String>> reachable = new TreeMap<>();
+		Map<String, Integer> reachedBy = new HashMap<>();
+		for (DependencyResult dependency : root.getDependencies()) {
+			if (dependency instanceof ResolvedDependencyResult) {
+				ResolvedComponentResult direct = ((ResolvedDependencyResult) dependency)
+						.getSelected();
+				String key = moduleKey(direct.getModuleVersion());
+				if (!reachable.containsKey(key)) {
+					Set<String> modules = reachableModules(direct);
+					reachable.put(key, modules);
+					for (String module : modules) {
+						reachedBy.merge(module, 1, Integer::sum);
+					}
+				}
+			}
+		}
+		for (Map.Entry<String, Set<String>> entry : reachable.entrySet()) {
+			JarStats total = new JarStats(0, 0, 0);
+			JarStats exclusive = new JarStats(0, 0, 0);
+			for (String module : entry.getValue()) {
+				JarStats stats = weight.modules.get(module);
+				if (stats != null) {
+					total = total.plus(stats);
+					if (reachedBy.get(module) == 1) {
+						exclusive = exclusive.plus(stats);
+					}
+				}
+			}
+			weight.directDependencies.put(entry.getKey(),
+					new JarStats[] { total, exclusive });
+		}
+	}
+
+	private Set<String> reachableModules(ResolvedComponentResult component) {
+		Set<String> modules = new HashSet<>();
+		Set<Object> visited = new HashSet<>();
+		Deque<ResolvedComponentResult> queue = new ArrayDeque<>();
+		queue.add(component);
+		visited.add(component.getId());
+		while (!queue.isEmpty()) {
+			ResolvedComponentResult current = queue.remove();
+			modules.add(moduleKey(current.getModuleVersion()));
+			for (DependencyResult dependency : current.getDependencies()) {
+				if (dependency instanceof ResolvedDependencyResult) {
+					ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency)
+							.getSelected();
+					if (visited.add(selected.getId())) {
+						queue.add(selected);
+					}
+				}
+			}
+		}
+		return modules;
+	}
+
+	private String moduleKey(ModuleVersionIdentifier id) {
+		return id.getGroup() + ":" + id.getName();
+	}
+
+	private JarStats jarStats(File jar) {
+		if (!jar.isFile()) {
+			return new JarStats(0, 0, 0);
+		}
+		String key = FileHashes.cacheKey(jar);
+		JarStats stats = jarStatsCache.get(key);
+		if (stats == null) {
+			stats = readJarStats(jar);
+			if (jarStatsCache.size() >= MAX_CACHED_JARS) {
+				jarStatsCache.clear();
+			}
+			jarStatsCache.put(key, stats);
+		}
+		return stats;
+	}
+
+	private JarStats readJarStats(File jar) {
+		int classes = 0;
+		int services = 0;
+		try {
+			for (String name : ZipCentralDirectory.readEntryNames(jar)) {
+				if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+					classes++;
+				}
+				else if (name.startsWith("META-INF/services/")
+						&& name.length() > "META-INF/services/".length()) {
+					services++;
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + jar, ex);
+		}
+		return new JarStats(jar.length(), classes, services);
+	}
+
+	private void appendWeight(StringBuilder report, String name, ClasspathWeight weight,
+			ClasspathWeight baseline) {
+		String baselineName = (baseline != null)
+				? " (delta vs " + this.baselineConfiguration.getName() + ")" : "";
+		report.append(name).append(": ").append(weight.modules.size())
+				.append(" modules").append(baselineName).append("\n");
+		report.append("    Bytes: ").append(formatWithDelta(weight.total.bytes,
+				(baseline != null) ? baseline.total.bytes : null)).append("\n");
+		report.append("    Classes: ").append(formatWithDelta(weight.total.classes,
+				(baseline != null) ? (long) baseline.total.classes : null)).append("\n");
+		report.append("    Services: ").append(formatWithDelta(weight.total.services,
+				(baseline != null) ? (long) baseline.total.services : null))
+				.append("\n\n");
+		List<String[]> modules = new ArrayList<>();
+		modules.add(new String[] { "Module", "Bytes", "Classes", "Services" });
+		Set<String> moduleNames = new TreeSet<>(weight.modules.keySet());
+		if (baseline != null) {
+			moduleNames.addAll(baseline.modules.keySet());
+		}
+		for (String module : moduleNames) {
+			JarStats stats = weight.modules.get(module);
+			JarStats baselineStats = (baseline != null) ? baseline.modules.get(module)
+					: null;
+			if (stats == null) {
+				stats = new JarStats(0, 0, 0);
+			}
+			modules.add(new String[] { module,
+					formatWithDelta(stats.bytes, bytes(baseline, baselineStats)),
+					formatWithDelta(stats.classes, classes(baseline, baselineStats)),
+					formatWithDelta(stats.services, services(baseline, baselineStats)) });
+		}
+		appendTable(report, modules);
+		report.append("\n");
+		List<String[]> directDependencies = new ArrayList<>();
+		directDependencies.add(new String[] { "Direct dependency", "Total bytes",
+				"Exclusive bytes", "Total classes", "Exclusive classes" });
+		for (Map.Entry<String, JarStats[]> entry : weight.directDependencies
+				.entrySet()) {
+			JarStats total = entry.getValue()[0];
+			JarStats exclusive = entry.getValue()[1];
+			directDependencies.add(new String[] { entry.getKey(),
+					Long.toString(total.bytes), Long.toString(exclusive.bytes),
+					Integer.toString(total.classes),
+					Integer.toString(exclusive.classes) });
+		}
+		appendTable(report, directDependencies);
+		report.append("\n");
+	}
+
+	private Long bytes(ClasspathWeight baseline, JarStats baselineStats) {
+		return (baseline == null) ? null
+				: (baselineStats != null) ? baselineStats.bytes : 0L;
+	}
+
+	private Long classes(ClasspathWeight baseline, JarStats baselineStats) {
+		return (baseline == null) ? null
+				: (baselineStats != null) ? baselineStats.classes : 0L;
+	}
+
+	private Long services(ClasspathWeight baseline, JarStats baselineStats) {
+		return (baseline == null) ? null
+				: (baselineStats != null) ? baselineStats.services : 0L;
+	}
+
+	private String formatWithDelta(long value, Long baseline) {
+		if (baseline == null || baseline == value) {
+			return Long.toString(value);
+		}
+		return value + " (" + String.format(Locale.ROOT, "%+d", value - baseline) + ")";
+	}
+
+	private void appendTable(StringBuilder report, List<String[]> rows) {
+		int[] widths = new int[rows.get(0).length];
+		for (String[] row : rows) {
+			for (int i = 0; i < row.length; i++) {
+				widths[i] = Math.max(widths[i], row[i].length());
+			}
+		}
+		for (String[] row : rows) {
+			StringBuilder line = new StringBuilder("   ");
+			for (int i = 0; i < row.length; i++) {
+				String padding = new String(new char[widths[i] - row[i].length()])
+						.replace('\0', ' ');
+				line.append(" ").append((i == 0) ? row[i] + padding : padding + row[i])
+						.append("  ");
+			}
+			report.append(line.toString().replaceAll("\\s+$", "")).append("\n");
+		}
+	}
+
+	private void write(String report) {
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+	/**
+	 * The weight of a classpath.
+	 */
+	private static final class ClasspathWeight {
+
+		private final Map<String, JarStats> modules = new LinkedHashMap<>();
+
+		private final Map<String, JarStats[]> directDependencies = new TreeMap<>();
+
+		private JarStats total = new JarStats(0, 0, 0);
+
+	}
+
+	/**
+	 * The size of one or more jars and the number of classes and services that they
+	 * contain.
+	 */
+	private static final class JarStats {
+
+		private final long bytes;
+
+		private final int classes;
+
+		private final int services;
+
+		private JarStats(long bytes, int classes, int services) {
+			this.bytes = bytes;
+			this.classes = classes;
+			this.services = services;
+		}
+
+		private JarStats plus(JarStats other) {
+			return new JarStats(this.bytes + other.bytes, this.classes + other.classes,
+					this.services + other.services);
+		}
+
+	}
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that reports the modules in the dependency graph of a
+ * {@link Configuration} that were requested with more than one version. Gradle
+ * reconciles such requests by selecting the highest version, or the version that the
+ * Spring IO Platform manages, without saying so. The report lists each requested version
+ * of a divergent module along with the components whose dependencies requested it.
+ *
+ * @author Spring IO Team
+ */
+public class DependencyConvergenceTask extends DefaultTask {
+
+	private Configuration configuration;
+
+	private boolean failOnDivergence;
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/dependency-convergence.txt");
+
+	/**
+	 * Returns the {@link Configuration} whose dependency graph is checked.
+	 *
+	 * @return the configuration
+	 */
+	@Internal
+	public Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	/**
+	 * Sets the {@link Configuration} whose dependency graph is checked.
+	 *
+	 * @param configuration the configuration
+	 */
+	public void setConfiguration(Configuration configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Returns whether the task fails when a module was requested with more than one
+	 * version.
+	 *
+	 * @return {@code true} if divergent requests fail the task, otherwise
+	 * {@code false}
+	 */
+	@Input
+	public boolean isFailOnDivergence() {
+		return this.failOnDivergence;
+	}
+
+	/**
+	 * Sets whether the task fails when a module was requested with more than one
+	 * version.
+	 *
+	 * @param failOnDivergence {@code true} if divergent requests should fail the task
+	 */
+	public void setFailOnDivergence(boolean failOnDivergence) {
+		this.failOnDivergence = failOnDivergence;
+	}
+
+	/**
+	 * Returns the file to which the report is written.
+	 *
+	 * @return the report file
+	 */
+	@Internal
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the report is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Checks the convergence of the dependency graph.
+	 */
+	@TaskAction
+	public void check() {
+		StringTable strings = new StringTable();
+		Map<String, ModuleRequests> modules = new HashMap<>();
+		TaskMetrics metrics = TaskMetrics.of(this);
+		DependencyGraphWalk.walk(this.configuration, metrics,
+				(dependency, walk) -> record(dependency, modules, strings));
+		Map<String, ModuleRequests> divergent = new TreeMap<>();
+		for (Map.Entry<String, ModuleRequests> entry : modules.entrySet()) {
+			if (entry.getValue().isDivergent()) {
+				divergent.put(entry.getKey(), entry.getValue());
+			}
+		}
+		metrics.increment(TaskMetrics.FINDINGS, divergent.size());
+		writeReport(divergent, strings);
+		if (!divergent.isEmpty()) {
+			String message = divergent.size()
+					+ " modules were requested with more than one version. See "
+					+ this.reportFile + " for a detailed report";
+			if (this.failOnDivergence) {
+				throw new IllegalStateException(message);
+			}
+			getLogger().lifecycle(message);
+		}
+	}
+
+	private void record(DependencyResult dependency, Map<String, ModuleRequests> modules,
+			StringTable strings) {
+		if (!(dependency.getRequested() instanceof ModuleComponentSelector)) {
+			return;
+		}
+		ModuleComponentSelector requested = (ModuleComponentSelector) dependency
+				.getRequested();
+		if (requested.getVersion() == null || requested.getVersion().isEmpty()) {
+			return;
+		}
+		ModuleRequests requests = modules.computeIfAbsent(
+				requested.getGroup() + ":" + requested.getModule(),
+				(key) -> new ModuleRequests());
+		requests.add(strings.indexOf(requested.getVersion()),
+				strings.indexOf(dependency.getFrom().getId().getDisplayName()));
+		if (dependency instanceof ResolvedDependencyResult) {
+			requests.selected = ((ResolvedDependencyResult) dependency).getSelected()
+					.getModuleVersion().getVersion();
+		}
+	}
+
+	private void writeReport(Map<String, ModuleRequests> divergent,
+			StringTable strings) {
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<String, ModuleRequests> entry : divergent.entrySet()) {
+			ModuleRequests requests = entry.getValue();
+			report.append(entry.getKey()).append(" (selected ")
+					.append((requests.selected != null) ? requests.selected
+							: ModuleVersions.UNRESOLVED)
+					.append(")\n");
+			Map<String, Set<String>> requestersByVersion = new TreeMap<>();
+			for (int i = 0; i < requests.size; i++) {
+				requestersByVersion
+						.computeIfAbsent(strings.get(requests.versions[i]),
+								(key) -> new TreeSet<>())
+						.add(strings.get(requests.requesters[i]));
+			}
+			for (Map.Entry<String, Set<String>> version : requestersByVersion
+					.entrySet()) {
+				report.append("    ").append(version.getKey()).append(" requested by ")
+						.append(String.join(", ", version.getValue())).append("\n");
+			}
+		}
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(),
+					report.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+	/**
+	 * The requests for a single module, held as parallel arrays of indexes into a
+	 * {@link StringTable} so that large graphs stay cheap to record.
+	 */
+	private static final class ModuleRequests {
+
+		private int[] versions = new int[2];
+
+		private int[] requesters = new int[2];
+
+		private int size;
+
+		private String selected;
+
+		private void add(int version, int requester) {
+			if (this.size == this.versions.length) {
+				this.versions = Arrays.copyOf(this.versions, this.size * 2);
+				this.requesters = Arrays.copyOf(this.requesters, this.size * 2);
+			}
+			this.versions[this.size] = version;
+			this.requesters[this.size] = requester;
+			this.size++;
+		}
+
+		private boolean isDivergent() {
+			for (int i = 1; i < this.size; i++) {
+				if (this.versions[i] != this.versions[0]) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+	/**
+	 * A table of strings, each of which is stored once and identified by its index.
+	 */
+	private static final class StringTable {
+
+		private final List<String> strings = new ArrayList<>();
+
+		private final Map<String, Integer> indexes = new HashMap<>();
+
+		private int indexOf(String string) {
+			Integer index = this.indexes.get(string);
+			if (index == null) {
+				index = this.strings.size();
+				this.strings.add(string);
+				this.indexes.put(string, index);
+			}
+			return index;
+		}
+
+		private String get(int index) {
+			return this.strings.get(index);
+		}
+
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+
+/**
+ * A breadth-first walk of the resolved dependency graph of a {@link Configuration} that
+ * visits every dependency exactly once. Several {@link Visitor visitors} can share a
+ * single walk. The walk records the first path by which each component was reached so
+ * that visitors can describe how a dependency was introduced.
+ *
+ * @author Spring IO Team
+ */
+final class DependencyGraphWalk {
+
+	private final Map<ComponentIdentifier, ResolvedComponentResult> parents = new HashMap<>();
+
+	private DependencyGraphWalk() {
+	}
+
+	/**
+	 * Resolves the dependency graph of the given {@code configuration}, without
+	 * downloading any artifacts, and walks it, calling each of the given
+	 * {@code visitors} for every dependency. The resolution and the walk are recorded in
+	 * the given {@code metrics}.
+	 *
+	 * @param configuration the configuration
+	 * @param metrics the metrics
+	 * @param visitors the visitors
+	 * @return the walk
+	 */
+	static DependencyGraphWalk walk(Configuration configuration, TaskMetrics metrics,
+			Visitor... visitors) {
+		return walk(metrics.resolutionRoot(configuration), metrics, visitors);
+	}
+
+	/**
+	 * Walks the already resolved dependency graph with the given {@code root}, calling
+	 * each of the given {@code visitors} for every dependency. The walk is recorded in
+	 * the given {@code metrics}.
+	 *
+	 * @param root the root of the dependency graph
+	 * @param metrics the metrics
+	 * @param visitors the visitors
+	 * @return the walk
+	 */
+	static DependencyGraphWalk walk(ResolvedComponentResult root, TaskMetrics metrics,
+			Visitor... visitors) {
+		DependencyGraphWalk walk = new DependencyGraphWalk();
+		walk.parents.put(root.getId(), null);
+		Deque<ResolvedComponentResult> queue = new ArrayDeque<>();
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			ResolvedComponentResult component = queue.remove();
+			metrics.increment(TaskMetrics.NODES);
+			for (DependencyResult dependency : component.getDependencies()) {
+				metrics.increment(TaskMetrics.EDGES);
+				for (Visitor visitor : visitors) {
+					visitor.visit(dependency, walk);
+				}
+				if (dependency instanceof ResolvedDependencyResult) {
+					ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency)
+							.getSelected();
+					if (!walk.parents.containsKey(selected.getId())) {
+						walk.parents.put(selected.getId(), component);
+						queue.add(selected);
+					}
+				}
+			}
+		}
+		return walk;
+	}
+
+	/**
+	 * Returns the display names of the components on the first path by which the
+	 * walk reached the given {@code component}, starting with the root of the graph and
+	 * ending with the component itself.
+	 *
+	 * @param component the component
+	 * @return the path to the component
+	 */
+	List<String> pathTo(ResolvedComponentResult component) {
+		List<String> path = new ArrayList<>();
+		ResolvedComponentResult current = component;
+		while (current != null) {
+			path.add(current.getId().getDisplayName());
+			current = this.parents.get(current.getId());
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	/**
+	 * A visitor of the dependencies in a dependency graph.
+	 */
+	interface Visitor {
+
+		/**
+		 * Visits the given {@code dependency}. The component from which the dependency
+		 * was declared has always been reached by the {@code walk}.
+		 *
+		 * @param dependency the dependency
+		 * @param walk the walk
+		 */
+		void visit(DependencyResult dependency, DependencyGraphWalk walk);
+
+	}
+
+}
@@ -16,38 +16,58 @@
 
 package io.spring.gradle.springio;
 
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import io.spring.gradle.springio.core.ManagedVersionsIndex;
+import io.spring.gradle.springio.core.VersionMappingCheck;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.ExternalModuleDependency;
-import org.gradle.api.artifacts.ModuleVersionIdentifier;
-import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.ResolveException;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.TaskAction;
 
 /**
  * A {@link Task} that checks that each of a {@link Configuration Configuration's}
- * dependencies is part of the Spring IO Platform.
+ * dependencies is part of the Spring IO Platform. When lockfiles are used and the
+ * configuration is locked, its modules are read from its lockfile without resolving it
+ * and locked versions that differ from the Spring IO versions are reported, along with
+ * the BOM that owns each of them.
+ * The rule itself is {@link VersionMappingCheck}.
  *
  * @author Andy Wilkinson
  */
 public class DependencyVersionMappingCheckTask extends ConventionTask {
 
+	static final String SPRING_IO_BOM = "Spring IO";
+
+	private final List<Configuration> observedConfigurations = new ArrayList<>();
+
+	private final Map<String, ResolvedGraphSummary> captured = new ConcurrentHashMap<>();
+
 	private Configuration configuration;
 
 	private Map<String, String> managedVersions;
 
+	private ManagedVersionsIndex managedVersionsIndex;
+
 	private boolean failOnUnmappedDirectDependency = true;
 
 	private boolean failOnUnmappedTransitiveDependency = false;
 
+	private boolean useLockfiles;
+
+	private boolean declaredOnly;
+
 	/**
 	 * Creates a new {@code DependencyVersionMappingCheckTask}.
 	 */
@@ -60,37 +80,61 @@ public class DependencyVersionMappingCheckTask extends ConventionTask {
 	 */
 	@TaskAction
 	public void checkVersionMapping() {
-		Set<String> unmappedDirectDependencies = new LinkedHashSet<>();
-		Set<String> unmappedTransitiveDependencies = new LinkedHashSet<>();
-		for (ResolvedArtifact resolvedArtifact : this.configuration
-				.getResolvedConfiguration().getResolvedArtifacts()) {
-			ModuleVersionIdentifier module = resolvedArtifact.getModuleVersion().getId();
-			String id = module.getGroup() + ":" + module.getName();
-			if (!this.managedVersions.containsKey(id)) {
-				if (isDirectDependency(module)) {
-					if (this.failOnUnmappedDirectDependency) {
-						unmappedDirectDependencies.add(id);
-					}
-				}
-				else if (this.failOnUnmappedTransitiveDependency) {
-					unmappedTransitiveDependencies.add(id);
+		ManagedVersionsIndex managedVersionsIndex = getManagedVersionsIndex();
+		if (managedVersionsIndex == null) {
+			managedVersionsIndex = ManagedVersionsIndex.of(SPRING_IO_BOM,
+					getManagedVersions());
+		}
+		Map<String, String> managedVersions = managedVersionsIndex.getVersions();
+		VersionMappingCheck check = new VersionMappingCheck(managedVersionsIndex);
+		check.setFailOnUnmappedDirectDependency(this.failOnUnmappedDirectDependency);
+		check.setFailOnUnmappedTransitiveDependency(
+				this.failOnUnmappedTransitiveDependency);
+		TaskMetrics metrics = TaskMetrics.of(this);
+		Map<Configuration, ResolvedGraphSummary> summaries = new LinkedHashMap<>();
+		Map<String, String> lockedVersions = null;
+		if (!this.observedConfigurations.isEmpty()) {
+			for (Configuration configuration : this.observedConfigurations) {
+				ResolvedGraphSummary summary = this.captured.get(configuration.getName());
+				if (summary != null) {
+					metrics.increment(TaskMetrics.CACHE_HITS);
 				}
+				summaries.put(configuration, (summary != null) ? summary
+						: ResolvedGraphSummary.of(getProject(), configuration, metrics,
+								managedVersions));
 			}
 		}
-		String message = "";
-		if (!unmappedDirectDependencies.isEmpty()) {
-			message += "The following direct dependencies do not have Spring IO versions: \n";
-			for (String dependency : unmappedDirectDependencies) {
-				message += "    - " + dependency + "\n";
-			}
+		else if (this.declaredOnly) {
+			summaries.put(getConfiguration(),
+					ResolvedGraphSummary.of(getDeclaredVersions()));
+		}
+		else {
+			lockedVersions = this.useLockfiles
+					? Lockfiles.read(getProject(), getConfiguration().getName()) : null;
+			summaries.put(getConfiguration(), (lockedVersions != null)
+					? ResolvedGraphSummary.of(lockedVersions)
+					: ResolvedGraphSummary.of(getProject(), getConfiguration(), metrics,
+							managedVersions));
 		}
-		if (!unmappedTransitiveDependencies.isEmpty()) {
-			message = "The following transitive dependencies do not have Spring IO versions: \n";
-			for (String dependency : unmappedTransitiveDependencies) {
-				message += "    - " + dependency + "\n";
+		check.setCheckDrift(lockedVersions != null);
+		for (Map.Entry<Configuration, ResolvedGraphSummary> entry : summaries
+				.entrySet()) {
+			ResolvedGraphSummary summary = entry.getValue();
+			for (int i = 0; i < summary.size(); i++) {
+				metrics.increment(TaskMetrics.RULES);
+				String group = summary.getGroup(i);
+				String name = summary.getName(i);
+				String version = summary.getVersion(i);
+				metrics.time(TaskMetrics.RULE_EVALUATION, () -> check.check(group, name,
+						version, () -> isDirectDependency(group, name)));
 			}
 		}
-		if (message.length() > 0) {
+		metrics.increment(TaskMetrics.FINDINGS, check.getFindings());
+		if (check.getDriftWarning() != null) {
+			getLogger().lifecycle(check.getDriftWarning());
+		}
+		String message = check.getFailureMessage();
+		if (message != null) {
 			throw new InvalidUserDataException(message);
 		}
 	}
@@ -135,6 +179,31 @@ public class DependencyVersionMappingCheckTask extends ConventionTask {
 		this.managedVersions = managedVersions;
 	}
 
+	/**
+	 * Returns the index of the managed versions of the BOMs that make up the platform,
+	 * in order of precedence, and of the BOM that owns each of them. When there is no
+	 * index, the {@link #getManagedVersions() managed versions} are those of a single
+	 * Spring IO BOM.
+	 *
+	 * @return the managed versions index, or {@code null}
+	 */
+	@Internal
+	public ManagedVersionsIndex getManagedVersionsIndex() {
+		return this.managedVersionsIndex;
+	}
+
+	/**
+	 * Sets the index of the managed versions of the BOMs that make up the platform, in
+	 * order of precedence, and of the BOM that owns each of them. The index's versions
+	 * should also be the {@link #setManagedVersions(Map) managed versions} so that the
+	 * task is not up-to-date when they change.
+	 *
+	 * @param managedVersionsIndex the managed versions index
+	 */
+	public void setManagedVersionsIndex(ManagedVersionsIndex managedVersionsIndex) {
+		this.managedVersionsIndex = managedVersionsIndex;
+	}
+
 	/**
 	 * Returns whether the task should fail when a direct dependency is found that is not
 	 * part of the Spring IO Platform.
@@ -181,11 +250,105 @@ public class DependencyVersionMappingCheckTask extends ConventionTask {
 		this.failOnUnmappedTransitiveDependency = failOnUnmappedTransitiveDependency;
 	}
 
-	private boolean isDirectDependency(ModuleVersionIdentifier module) {
-		for (Dependency dependency : this.configuration.getAllDependencies()) {
+	/**
+	 * Returns whether the modules of the configuration are read from its lockfile, when
+	 * the configuration is locked, rather than by resolving it. Lockfiles are not used
+	 * unless this is enabled, as the presence of a lockfile does not mean that locking is
+	 * active or that the lockfile is up to date.
+	 *
+	 * @return {@code true} if lockfiles are used, otherwise {@code false}
+	 */
+	@Input
+	public boolean isUseLockfiles() {
+		return this.useLockfiles;
+	}
+
+	/**
+	 * Sets whether the modules of the configuration are read from its lockfile, when the
+	 * configuration is locked, rather than by resolving it.
+	 *
+	 * @param useLockfiles {@code true} if lockfiles should be used
+	 */
+	public void setUseLockfiles(boolean useLockfiles) {
+		this.useLockfiles = useLockfiles;
+	}
+
+	/**
+	 * Returns whether only the declared dependencies of the configuration are checked.
+	 * When they are, the configuration is not resolved and transitive dependencies are
+	 * not checked.
+	 *
+	 * @return {@code true} if only declared dependencies are checked, otherwise
+	 * {@code false}
+	 */
+	@Input
+	public boolean isDeclaredOnly() {
+		return this.declaredOnly;
+	}
+
+	/**
+	 * Sets whether only the declared dependencies of the configuration are checked. When
+	 * they are, the configuration is not resolved and transitive dependencies are not
+	 * checked.
+	 *
+	 * @param declaredOnly {@code true} if only declared dependencies should be checked
+	 */
+	public void setDeclaredOnly(boolean declaredOnly) {
+		this.declaredOnly = declaredOnly;
+	}
+
+	/**
+	 * Checks the given {@code configuration} using the result of the resolution that the
+	 * build performs for its own purposes, such as compilation or testing, rather than the
+	 * {@link #getConfiguration() configuration}. The modules of the configuration are
+	 * captured when the build resolves it. A configuration that has not been resolved by
+	 * the time the task runs is resolved by the task. The modules that are checked are
+	 * the same as those of the configuration, and only dependencies declared on the
+	 * configuration are treated as direct dependencies. Lockfiles are not used for
+	 * observed configurations.
+	 *
+	 * @param configuration the configuration to observe
+	 */
+	public void observe(Configuration configuration) {
+		this.observedConfigurations.add(configuration);
+		configuration.getIncoming().afterResolve((incoming) -> {
+			try {
+				this.captured.put(configuration.getName(),
+						ResolvedGraphSummary.of(configuration));
+			}
+			catch (ResolveException ex) {
+				// The task resolves the configuration again and reports the failure
+			}
+		});
+	}
+
+	/**
+	 * Returns the {@link Configuration Configurations} whose resolution is observed and
+	 * checked in place of the {@link #getConfiguration() configuration}.
+	 *
+	 * @return the observed configurations
+	 */
+	@Internal
+	public List<Configuration> getObservedConfigurations() {
+		return this.observedConfigurations;
+	}
+
+	private Map<String, String> getDeclaredVersions() {
+		Map<String, String> versions = new LinkedHashMap<>();
+		for (Dependency dependency : getConfiguration().getAllDependencies()) {
+			if (dependency instanceof ExternalModuleDependency) {
+				versions.put(dependency.getGroup() + ":" + dependency.getName(),
+						(dependency.getVersion() != null) ? dependency.getVersion() : "");
+			}
+		}
+		return versions;
+	}
+
+	private boolean isDirectDependency(String group, String name) {
+		for (Dependency dependency : getConfiguration().getAllDependencies()) {
 			if (dependency instanceof ExternalModuleDependency
-					&& dependency.getGroup().equals(module.getGroup())
-					&& dependency.getName().equals(module.getName())) {
+					&& dependency.getGroup().equals(group)
+					&& dependency.getName().equals(name)) {
 				return true;
 			}
 		}
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that finds classes and resources that are provided by more than one
+ * entry on a classpath, typically {@code springIoTestRuntime}. This usually happens when
+ * the old and new coordinates of the same library are both on the classpath. Packages
+ * whose classes are split across more than one entry are also reported.
+ * <p>
+ * Only the central directory of each jar is read. Jars are indexed in parallel and the
+ * index of each jar is cached by the jar's path, length, and last modified time, so an
+ * unchanged jar is only read once per daemon and is not hashed.
+ *
+ * @author Spring IO Team
+ */
+public class DuplicateClassesTask extends DefaultTask {
+
+	private static final int MAX_CACHED_JARS = 2048;
+
+	private static final Map<String, List<String>> jarEntriesCache = new ConcurrentHashMap<>();
+
+	private FileCollection classpath;
+
+	private Set<String> resources = new LinkedHashSet<>(
+			Arrays.asList("META-INF/spring.factories", "META-INF/spring.handlers",
+					"META-INF/spring.schemas", "META-INF/spring.tooling"));
+
+	private boolean ignoreFailures;
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/duplicate-classes.txt");
+
+	/**
+	 * Returns the classpath that is checked.
+	 *
+	 * @return the classpath
+	 */
+	@Classpath
+	public FileCollection getClasspath() {
+		return this.classpath;
+	}
+
+	/**
+	 * Sets the classpath that is checked.
+	 *
+	 * @param classpath the classpath
+	 */
+	public void setClasspath(FileCollection classpath) {
+		this.classpath = classpath;
+	}
+
+	/**
+	 * Returns the names of the resources that are reported when they are provided by
+	 * more than one entry on the classpath.
+	 *
+	 * @return the resources
+	 */
+	@Input
+	public Set<String> getResources() {
+		return this.resources;
+	}
+
+	/**
+	 * Sets the names of the resources that are reported when they are provided by more
+	 * than one entry on the classpath.
+	 *
+	 * @param resources the resources
+	 */
+	public void setResources(Set<String> resources) {
+		this.resources = resources;
+	}
+
+	/**
+	 * Returns whether the build should continue when duplicate classes are found.
+	 *
+	 * @return {@code true} if duplicate classes are only reported, otherwise
+	 * {@code false}
+	 */
+	@Input
+	public boolean isIgnoreFailures() {
+		return this.ignoreFailures;
+	}
+
+	/**
+	 * Sets whether the build should continue when duplicate classes are found.
+	 *
+	 * @param ignoreFailures {@code true} if duplicate classes should only be reported
+	 */
+	public void setIgnoreFailures(boolean ignoreFailures) {
+		this.ignoreFailures = ignoreFailures;
+	}
+
+	/**
+	 * Returns the file to which the report is written.
+	 *
+	 * @return the report file
+	 */
+	@OutputFile
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the report is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Indexes the classpath and reports any duplicates.
+	 */
+	@TaskAction
+	public void check() {
+		Map<String, List<String>> index = index();
+		Map<String, List<String>> classes = new TreeMap<>();
+		Map<String, List<String>> resources = new TreeMap<>();
+		for (Map.Entry<String, List<String>> entry : index.entrySet()) {
+			for (String name : entry.getValue()) {
+				if (isClass(name)) {
+					classes.computeIfAbsent(
+							name.substring(0, name.length() - 6).replace('/', '.'),
+							(key) -> new ArrayList<>()).add(entry.getKey());
+				}
+				else if (this.resources.contains(name)) {
+					resources.computeIfAbsent(name, (key) -> new ArrayList<>())
+							.add(entry.getKey());
+				}
+			}
+		}
+		Map<List<String>, Set<String>> duplicateClasses = new TreeMap<>(
+				(one, two) -> one.toString().compareTo(two.toString()));
+		Map<String, Set<String>> packageEntries = new TreeMap<>();
+		Set<String> packagesWithUniqueClasses = new TreeSet<>();
+		for (Map.Entry<String, List<String>> entry : classes.entrySet()) {
+			String className = entry.getKey();
+			List<String> entries = entry.getValue();
+			String packageName = (className.lastIndexOf('.') > 0)
+					? className.substring(0, className.lastIndexOf('.')) : "";
+			packageEntries.computeIfAbsent(packageName, (key) -> new LinkedHashSet<>())
+					.addAll(entries);
+			if (entries.size() > 1) {
+				duplicateClasses.computeIfAbsent(entries, (key) -> new TreeSet<>())
+						.add(className);
+			}
+			else {
+				packagesWithUniqueClasses.add(packageName);
+			}
+		}
+		StringBuilder report = new StringBuilder();
+		int duplicateClassCount = 0;
+		if (!duplicateClasses.isEmpty()) {
+			report.append("Duplicate classes\n");
+			for (Map.Entry<List<String>, Set<String>> entry : duplicateClasses
+					.entrySet()) {
+				report.append("    ").append(String.join(", ", entry.getKey()))
+						.append(": ").append(entry.getValue().size())
+						.append(" classes\n");
+				for (String className : entry.getValue()) {
+					report.append("        ").append(className).append("\n");
+				}
+				duplicateClassCount += entry.getValue().size();
+			}
+		}
+		appendEntries(report, "Split packages", packageEntries,
+				packagesWithUniqueClasses);
+		appendEntries(report, "Duplicate resources", resources, resources.keySet());
+		write(report.toString());
+		TaskMetrics.of(this).increment(TaskMetrics.FINDINGS, duplicateClassCount);
+		if (duplicateClassCount > 0) {
+			String message = "Found " + duplicateClassCount
+					+ " classes that are provided by more than one classpath entry. See "
+					+ this.reportFile + " for a detailed report";
+			if (!this.ignoreFailures) {
+				throw new IllegalStateException(message);
+			}
+			getLogger().warn(message);
+		}
+	}
+
+	private Map<String, List<String>> index() {
+		Map<String, List<String>> index = new LinkedHashMap<>();
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			Map<String, Future<List<String>>> futures = new LinkedHashMap<>();
+			for (File file : this.classpath) {
+				String name = futures.containsKey(file.getName()) ? file.getPath()
+						: file.getName();
+				if (file.isFile()) {
+					futures.put(name, executor.submit(() -> jarEntries(file)));
+				}
+				else if (file.isDirectory()) {
+					futures.put(name, executor.submit(() -> directoryEntries(file)));
+				}
+			}
+			for (Map.Entry<String, Future<List<String>>> entry : futures.entrySet()) {
+				index.put(entry.getKey(), entry.getValue().get());
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Failed to index classpath", ex.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		return index;
+	}
+
+	private List<String> jarEntries(File jar) {
+		String key = FileHashes.cacheKey(jar);
+		List<String> entries = jarEntriesCache.get(key);
+		if (entries == null) {
+			try {
+				entries = Collections
+						.unmodifiableList(ZipCentralDirectory.readEntryNames(jar));
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read " + jar, ex);
+			}
+			if (jarEntriesCache.size() >= MAX_CACHED_JARS) {
+				jarEntriesCache.clear();
+			}
+			jarEntriesCache.put(key, entries);
+		}
+		return entries;
+	}
+
+	private List<String> directoryEntries(File directory) {
+		List<String> entries = new ArrayList<>();
+		collectDirectoryEntries(directory, directory.toPath().toString().length() + 1,
+				entries);
+		return entries;
+	}
+
+	private void collectDirectoryEntries(File directory, int prefixLength,
+			List<String> entries) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				collectDirectoryEntries(file, prefixLength, entries);
+			}
+			else {
+				entries.add(file.getPath().substring(prefixLength).replace('\\', '/'));
+			}
+		}
+	}
+
+	private boolean isClass(String name) {
+		return name.endsWith(".class") && !name.startsWith("META-INF/")
+				&& !name.endsWith("module-info.class")
+				&& !name.endsWith("package-info.class");
+	}
+
+	private void appendEntries(StringBuilder report, String heading,
+			Map<String, ? extends Iterable<String>> entriesByName,
+			Set<String> candidates) {
+		StringBuilder section = new StringBuilder();
+		for (Map.Entry<String, ? extends Iterable<String>> entry : entriesByName
+				.entrySet()) {
+			List<String> entries = new ArrayList<>();
+			entry.getValue().forEach(entries::add);
+			if (entries.size() > 1 && candidates.contains(entry.getKey())) {
+				section.append("    ").append(entry.getKey()).append(": ")
+						.append(String.join(", ", entries)).append("\n");
+			}
+		}
+		if (section.length() > 0) {
+			report.append((report.length() > 0) ? "\n" : "").append(heading).append("\n")
+					.append(section);
+		}
+	}
+
+	private void write(String report) {
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+}
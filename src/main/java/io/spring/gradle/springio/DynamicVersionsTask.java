@@ -0,0 +1,254 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that finds the requests in the dependency graph of a
+ * {@link Configuration} that prevent Gradle from caching the result of dependency
+ * resolution: dynamic versions such as {@code 1.+}, {@code latest.release} or
+ * {@code [1.0,2.0)}, {@code SNAPSHOT} versions, and dependencies that are declared as
+ * changing. Declared and transitive dependencies are found in a single walk of the graph
+ * and each request is reported with the path by which it was introduced.
+ *
+ * @author Spring IO Team
+ */
+public class DynamicVersionsTask extends ConventionTask {
+
+	private Configuration configuration;
+
+	private Map<String, String> managedVersions;
+
+	private boolean failOnManagedDependency;
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/dynamic-versions.txt");
+
+	/**
+	 * Returns the {@link Configuration} whose dependency graph is checked.
+	 *
+	 * @return the configuration
+	 */
+	@Internal
+	public Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	/**
+	 * Sets the {@link Configuration} whose dependency graph is checked.
+	 *
+	 * @param configuration the configuration
+	 */
+	public void setConfiguration(Configuration configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Returns the managed versions ({@code groupId:artifactId -> version}) that are part
+	 * of the Spring IO Platform.
+	 *
+	 * @return the managed versions
+	 */
+	@Internal
+	public Map<String, String> getManagedVersions() {
+		return this.managedVersions;
+	}
+
+	/**
+	 * Sets the managed versions ({@code groupId:artifactId -> version}) that are part of
+	 * the Spring IO Platform.
+	 *
+	 * @param managedVersions the managed versions
+	 */
+	public void setManagedVersions(Map<String, String> managedVersions) {
+		this.managedVersions = managedVersions;
+	}
+
+	/**
+	 * Returns whether the task fails when a dependency whose version is managed by the
+	 * Spring IO Platform is requested with a dynamic or {@code SNAPSHOT} version, or is
+	 * declared as changing.
+	 *
+	 * @return {@code true} if the task fails for managed dependencies, otherwise
+	 * {@code false}
+	 */
+	@Input
+	public boolean isFailOnManagedDependency() {
+		return this.failOnManagedDependency;
+	}
+
+	/**
+	 * Sets whether the task fails when a dependency whose version is managed by the
+	 * Spring IO Platform is requested with a dynamic or {@code SNAPSHOT} version, or is
+	 * declared as changing.
+	 *
+	 * @param failOnManagedDependency {@code true} if the task should fail for managed
+	 * dependencies
+	 */
+	public void setFailOnManagedDependency(boolean failOnManagedDependency) {
+		this.failOnManagedDependency = failOnManagedDependency;
+	}
+
+	/**
+	 * Returns the file to which the report is written.
+	 *
+	 * @return the report file
+	 */
+	@Internal
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the report is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Finds and reports the dynamic, {@code SNAPSHOT}, and changing requests.
+	 */
+	@TaskAction
+	public void check() {
+		Set<String> changing = new HashSet<>();
+		for (Dependency dependency : this.configuration.getAllDependencies()) {
+			if (dependency instanceof ExternalModuleDependency
+					&& ((ExternalModuleDependency) dependency).isChanging()) {
+				changing.add(dependency.getGroup() + ":" + dependency.getName());
+			}
+		}
+		Map<String, String> managedVersions = (getManagedVersions() != null)
+				? getManagedVersions() : Collections.<String, String>emptyMap();
+		TaskMetrics metrics = TaskMetrics.of(this);
+		ResolvedComponentResult root = metrics.resolutionRoot(this.configuration);
+		Map<String, Set<String>> requests = new TreeMap<>();
+		Set<String> managed = new LinkedHashSet<>();
+		DependencyGraphWalk.walk(root, metrics, (dependency, walk) -> {
+			String problem = describeProblem(dependency,
+					dependency.getFrom().getId().equals(root.getId()) ? changing
+							: Collections.<String>emptySet());
+			if (problem != null) {
+				ModuleComponentSelector requested = (ModuleComponentSelector) dependency
+						.getRequested();
+				String module = requested.getGroup() + ":" + requested.getModule();
+				String request = module + ":" + requested.getVersion() + " (" + problem;
+				if (managedVersions.containsKey(module)) {
+					request += ", managed by Spring IO Platform)";
+					managed.add(request);
+				}
+				else {
+					request += ")";
+				}
+				requests.computeIfAbsent(request, (key) -> new LinkedHashSet<>()).add(
+						String.join(" -> ", walk.pathTo(dependency.getFrom())));
+			}
+		});
+		metrics.increment(TaskMetrics.FINDINGS, requests.size());
+		writeReport(requests);
+		if (!requests.isEmpty()) {
+			getLogger().lifecycle("Found " + requests.size()
+					+ " dynamic, snapshot, or changing requests. See " + this.reportFile
+					+ " for a detailed report");
+		}
+		if (this.failOnManagedDependency && !managed.isEmpty()) {
+			StringBuilder message = new StringBuilder(
+					"The following dependencies have Spring IO versions but are "
+							+ "requested dynamically: \n");
+			for (String request : managed) {
+				message.append("    - ").append(request).append("\n");
+			}
+			throw new InvalidUserDataException(message.toString());
+		}
+	}
+
+	private String describeProblem(DependencyResult dependency, Set<String> changing) {
+		if (!(dependency.getRequested() instanceof ModuleComponentSelector)) {
+			return null;
+		}
+		ModuleComponentSelector requested = (ModuleComponentSelector) dependency
+				.getRequested();
+		String version = (requested.getVersion() != null) ? requested.getVersion() : "";
+		if (isDynamic(version)) {
+			return "dynamic version";
+		}
+		if (version.endsWith("-SNAPSHOT")) {
+			return "snapshot";
+		}
+		if (changing.contains(requested.getGroup() + ":" + requested.getModule())) {
+			return "changing";
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether the given {@code version} is dynamic, such as {@code 1.+},
+	 * {@code latest.release} or {@code [1.0,2.0)}.
+	 *
+	 * @param version the version
+	 * @return {@code true} if the version is dynamic, otherwise {@code false}
+	 */
+	static boolean isDynamic(String version) {
+		return version.endsWith("+") || version.startsWith("latest.")
+				|| version.startsWith("[") || version.startsWith("]")
+				|| version.startsWith("(");
+	}
+
+	private void writeReport(Map<String, Set<String>> requests) {
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<String, Set<String>> entry : requests.entrySet()) {
+			report.append(entry.getKey()).append("\n");
+			for (String path : entry.getValue()) {
+				report.append("    ").append(path).append("\n");
+			}
+		}
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(),
+					report.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+}
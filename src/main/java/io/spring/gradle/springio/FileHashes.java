@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility methods for hashing the content of files. The hash of a file is cached for
+ * as long as its length and last modified time are unchanged so that the jars on a
+ * classpath are only read once per daemon.
+ *
+ * @author Spring IO Team
+ */
+final class FileHashes {
+
+	private static final int MAX_CACHED_FILES = 8192;
+
+	private static final Map<String, String> cache = new ConcurrentHashMap<>();
+
+	private FileHashes() {
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the content of the given {@code file} as a hex string.
+	 *
+	 * @param file the file
+	 * @return the hash
+	 */
+	static String sha1(File file) {
+		String key = cacheKey(file);
+		String hash = cache.get(key);
+		if (hash == null) {
+			hash = computeSha1(file);
+			if (cache.size() >= MAX_CACHED_FILES) {
+				cache.clear();
+			}
+			cache.put(key, hash);
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the UTF-8 bytes of the given {@code input} as a hex
+	 * string.
+	 *
+	 * @param input the input
+	 * @return the hash
+	 */
+	static String sha1(String input) {
+		return sha1(input.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the given {@code bytes} as a hex string.
+	 *
+	 * @param bytes the bytes
+	 * @return the hash
+	 */
+	static String sha1(byte[] bytes) {
+		return toHex(createDigest().digest(bytes));
+	}
+
+	/**
+	 * Returns a key that identifies the current state of the given {@code file}
+	 * without reading its content, suitable for keying caches of information derived
+	 * from the file.
+	 *
+	 * @param file the file
+	 * @return the key
+	 */
+	static String cacheKey(File file) {
+		return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+	}
+
+	private static String computeSha1(File file) {
+		MessageDigest digest = createDigest();
+		byte[] buffer = new byte[8192];
+		try (InputStream input = new FileInputStream(file)) {
+			int read = input.read(buffer);
+			while (read != -1) {
+				digest.update(buffer, 0, read);
+				read = input.read(buffer);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to hash " + file, ex);
+		}
+		return toHex(digest.digest());
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that reports how the resolved dependency graphs of some
+ * {@link Configuration Configurations} have changed since the last successful build. A
+ * compact {@link GraphSnapshot snapshot} of each graph is written every time the task
+ * runs and is kept as the baseline for the next comparison once the build succeeds. The
+ * report lists the modules that were added or removed, the modules whose version changed,
+ * and the edges between modules that were added or removed.
+ *
+ * @author Spring IO Team
+ */
+public class GraphDiffTask extends DefaultTask {
+
+	private final List<Configuration> configurations = new ArrayList<>();
+
+	private final Map<String, GraphSnapshot> snapshots = new LinkedHashMap<>();
+
+	private File snapshotsDir = new File(getProject().getBuildDir(), "spring-io/graphs");
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/graph-diff.txt");
+
+	/**
+	 * Adds the given {@code configuration} to those whose graphs are compared.
+	 *
+	 * @param configuration the configuration
+	 */
+	public void configuration(Configuration configuration) {
+		this.configurations.add(configuration);
+	}
+
+	/**
+	 * Returns the {@link Configuration Configurations} whose graphs are compared.
+	 *
+	 * @return the configurations
+	 */
+	@Internal
+	public List<Configuration> getConfigurations() {
+		return this.configurations;
+	}
+
+	/**
+	 * Returns the directory in which the snapshots are stored.
+	 *
+	 * @return the snapshots directory
+	 */
+	@Internal
+	public File getSnapshotsDir() {
+		return this.snapshotsDir;
+	}
+
+	/**
+	 * Sets the directory in which the snapshots are stored.
+	 *
+	 * @param snapshotsDir the snapshots directory
+	 */
+	public void setSnapshotsDir(File snapshotsDir) {
+		this.snapshotsDir = snapshotsDir;
+	}
+
+	/**
+	 * Returns the file to which the report is written.
+	 *
+	 * @return the report file
+	 */
+	@Internal
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the report is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Snapshots the graphs and compares them with those of the last successful build.
+	 */
+	@TaskAction
+	public void diff() {
+		TaskMetrics metrics = TaskMetrics.of(this);
+		StringBuilder report = new StringBuilder();
+		int changes = 0;
+		this.snapshots.clear();
+		for (Configuration configuration : this.configurations) {
+			GraphSnapshot current = GraphSnapshot.capture(configuration, metrics);
+			current.write(snapshotFile(configuration.getName(), false));
+			this.snapshots.put(configuration.getName(), current);
+			report.append(configuration.getName()).append("\n");
+			File baselineFile = snapshotFile(configuration.getName(), true);
+			if (!baselineFile.isFile()) {
+				report.append("    No snapshot from a successful build\n");
+				continue;
+			}
+			int configurationChanges = appendDiff(report,
+					GraphSnapshot.read(baselineFile), current);
+			if (configurationChanges == 0) {
+				report.append("    No changes\n");
+			}
+			changes += configurationChanges;
+		}
+		metrics.increment(TaskMetrics.FINDINGS, changes);
+		write(report.toString());
+		if (changes > 0) {
+			getLogger().lifecycle("Found " + changes + " changes to the dependency "
+					+ "graphs since the last successful build. See " + this.reportFile
+					+ " for a detailed report");
+		}
+	}
+
+	/**
+	 * Records the snapshots that were taken as those of the last successful build.
+	 * Should be called once the build has succeeded.
+	 */
+	public void recordSuccessfulBuild() {
+		for (Map.Entry<String, GraphSnapshot> entry : this.snapshots.entrySet()) {
+			entry.getValue().write(snapshotFile(entry.getKey(), true));
+		}
+	}
+
+	private File snapshotFile(String configurationName, boolean baseline) {
+		return new File(this.snapshotsDir, configurationName
+				+ (baseline ? "-last-successful" : "") + ".graph");
+	}
+
+	private int appendDiff(StringBuilder report, GraphSnapshot baseline,
+			GraphSnapshot current) {
+		Map<String, String> baselineVersions = baseline.getVersions();
+		Map<String, String> currentVersions = current.getVersions();
+		Set<String> added = new TreeSet<>();
+		Set<String> changed = new TreeSet<>();
+		for (Map.Entry<String, String> entry : currentVersions.entrySet()) {
+			String previous = baselineVersions.get(entry.getKey());
+			if (previous == null) {
+				added.add(coordinates(entry.getKey(), entry.getValue()));
+			}
+			else if (!previous.equals(entry.getValue())) {
+				changed.add(entry.getKey() + " " + previous + " -> " + entry.getValue());
+			}
+		}
+		Set<String> removed = new TreeSet<>();
+		for (Map.Entry<String, String> entry : baselineVersions.entrySet()) {
+			if (!currentVersions.containsKey(entry.getKey())) {
+				removed.add(coordinates(entry.getKey(), entry.getValue()));
+			}
+		}
+		Set<String> addedEdges = new TreeSet<>(current.getEdges());
+		addedEdges.removeAll(baseline.getEdges());
+		Set<String> removedEdges = new TreeSet<>(baseline.getEdges());
+		removedEdges.removeAll(current.getEdges());
+		appendSection(report, "Added modules", added);
+		appendSection(report, "Removed modules", removed);
+		appendSection(report, "Changed versions", changed);
+		appendSection(report, "Added edges", addedEdges);
+		appendSection(report, "Removed edges", removedEdges);
+		return added.size() + removed.size() + changed.size() + addedEdges.size()
+				+ removedEdges.size();
+	}
+
+	private String coordinates(String key, String version) {
+		return version.isEmpty() ? key : key + ":" + version;
+	}
+
+	private void appendSection(StringBuilder report, String title, Set<String> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		report.append("    ").append(title).append(":\n");
+		for (String entry : entries) {
+			report.append("        ").append(entry).append("\n");
+		}
+	}
+
+	private void write(String report) {
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+}
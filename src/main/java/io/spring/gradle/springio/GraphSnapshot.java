@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+
+/**
+ * A compact snapshot of the resolved dependency graph of a {@link Configuration}. Each
+ * component in the graph is stored once in a table of coordinates and each edge is a pair
+ * of indexes into that table. A snapshot is written and read as a single sequential
+ * stream.
+ *
+ * @author Spring IO Team
+ */
+final class GraphSnapshot {
+
+	private static final int MAGIC = 0x53494f47;
+
+	private static final int FORMAT = 1;
+
+	private final String[] groups;
+
+	private final String[] names;
+
+	private final String[] versions;
+
+	private final int[] from;
+
+	private final int[] to;
+
+	private GraphSnapshot(String[] groups, String[] names, String[] versions, int[] from,
+			int[] to) {
+		this.groups = groups;
+		this.names = names;
+		this.versions = versions;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Resolves the dependency graph of the given {@code configuration}, without
+	 * downloading any artifacts, and captures a snapshot of it.
+	 *
+	 * @param configuration the configuration
+	 * @param metrics the metrics in which the resolution and walk are recorded
+	 * @return the snapshot
+	 */
+	static GraphSnapshot capture(Configuration configuration, TaskMetrics metrics) {
+		Map<ComponentIdentifier, Integer> indexes = new LinkedHashMap<>();
+		List<int[]> edges = new ArrayList<>();
+		DependencyGraphWalk.walk(configuration, metrics, (dependency, walk) -> {
+			if (dependency instanceof ResolvedDependencyResult) {
+				edges.add(new int[] { indexOf(dependency.getFrom().getId(), indexes),
+						indexOf(((ResolvedDependencyResult) dependency).getSelected()
+								.getId(), indexes) });
+			}
+		});
+		String[] groups = new String[indexes.size()];
+		String[] names = new String[indexes.size()];
+		String[] versions = new String[indexes.size()];
+		for (Map.Entry<ComponentIdentifier, Integer> entry : indexes.entrySet()) {
+			int index = entry.getValue();
+			if (entry.getKey() instanceof ModuleComponentIdentifier) {
+				ModuleComponentIdentifier id = (ModuleComponentIdentifier) entry.getKey();
+				groups[index] = id.getGroup();
+				names[index] = id.getModule();
+				versions[index] = id.getVersion();
+			}
+			else {
+				groups[index] = "";
+				names[index] = entry.getKey().getDisplayName();
+				versions[index] = "";
+			}
+		}
+		int[] from = new int[edges.size()];
+		int[] to = new int[edges.size()];
+		for (int i = 0; i < edges.size(); i++) {
+			from[i] = edges.get(i)[0];
+			to[i] = edges.get(i)[1];
+		}
+		return new GraphSnapshot(groups, names, versions, from, to);
+	}
+
+	private static int indexOf(ComponentIdentifier id,
+			Map<ComponentIdentifier, Integer> indexes) {
+		return indexes.computeIfAbsent(id, (key) -> indexes.size());
+	}
+
+	/**
+	 * Reads the snapshot in the given {@code file}.
+	 *
+	 * @param file the file
+	 * @return the snapshot
+	 */
+	static GraphSnapshot read(File file) {
+		try (DataInputStream input = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)))) {
+			if (input.readInt() != MAGIC || input.readInt() != FORMAT) {
+				throw new IllegalStateException(file + " is not a graph snapshot");
+			}
+			int components = input.readInt();
+			String[] groups = new String[components];
+			String[] names = new String[components];
+			String[] versions = new String[components];
+			for (int i = 0; i < components; i++) {
+				groups[i] = input.readUTF();
+				names[i] = input.readUTF();
+				versions[i] = input.readUTF();
+			}
+			int edges = input.readInt();
+			int[] from = new int[edges];
+			int[] to = new int[edges];
+			for (int i = 0; i < edges; i++) {
+				from[i] = input.readInt();
+				to[i] = input.readInt();
+			}
+			return new GraphSnapshot(groups, names, versions, from, to);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + file, ex);
+		}
+	}
+
+	/**
+	 * Writes the snapshot to the given {@code file}.
+	 *
+	 * @param file the file
+	 */
+	void write(File file) {
+		file.getParentFile().mkdirs();
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(FORMAT);
+			output.writeInt(this.names.length);
+			for (int i = 0; i < this.names.length; i++) {
+				output.writeUTF(this.groups[i]);
+				output.writeUTF(this.names[i]);
+				output.writeUTF(this.versions[i]);
+			}
+			output.writeInt(this.from.length);
+			for (int i = 0; i < this.from.length; i++) {
+				output.writeInt(this.from[i]);
+				output.writeInt(this.to[i]);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + file, ex);
+		}
+	}
+
+	/**
+	 * Returns the version of each component in the graph, keyed by
+	 * {@code groupId:artifactId} for modules and by display name for other components,
+	 * such as projects, whose version is empty.
+	 *
+	 * @return the versions
+	 */
+	Map<String, String> getVersions() {
+		Map<String, String> versions = new HashMap<>();
+		for (int i = 0; i < this.names.length; i++) {
+			versions.put(keyOf(i), this.versions[i]);
+		}
+		return versions;
+	}
+
+	/**
+	 * Returns the edges of the graph in the form {@code from -> to}, where each end is
+	 * identified as it is by {@link #getVersions()} so that an edge is unaffected by
+	 * changes to the versions at either end.
+	 *
+	 * @return the edges
+	 */
+	Set<String> getEdges() {
+		Set<String> edges = new LinkedHashSet<>();
+		for (int i = 0; i < this.from.length; i++) {
+			edges.add(keyOf(this.from[i]) + " -> " + keyOf(this.to[i]));
+		}
+		return edges;
+	}
+
+	private String keyOf(int index) {
+		return this.groups[index].isEmpty() ? this.names[index]
+				: this.groups[index] + ":" + this.names[index];
+	}
+
+}
@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import io.spring.gradle.springio.core.IncompleteExcludes;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
@@ -36,7 +37,8 @@ import org.gradle.api.tasks.TaskAction;
 
 /**
  * A {@link Task} that checks that dependency exclusions are not incomplete. An exclusion
- * is deemed to be incomplete if it does not specify both a group and a module.
+ * is deemed to be incomplete if it does not specify both a group and a module. The rule
+ * itself is {@link IncompleteExcludes}.
  *
  * @author Rob Winch
  * @author Andy Wilkinson
@@ -62,6 +64,7 @@ public class IncompleteExcludesTask extends DefaultTask {
 				}
 			}
 		}
+		TaskMetrics metrics = TaskMetrics.of(this);
 		Map<String, Map<Dependency, List<String>>> problemsByConfiguration = new HashMap<>();
 		for (Configuration configuration : this.configurations) {
 			Map<Dependency, List<String>> problemsByDependency = new HashMap<>();
@@ -70,17 +73,15 @@ public class IncompleteExcludesTask extends DefaultTask {
 					List<String> problems = new ArrayList<>();
 					for (ExcludeRule excludeRule : ((ExternalModuleDependency) dependency)
 							.getExcludeRules()) {
-						if (excludeRule.getGroup() == null
-								|| excludeRule.getGroup().length() == 0) {
-							problems.add("Exclude for module " + excludeRule.getModule()
-									+ " does not specify a group. The exclusion will not be included in generated POMs");
-						}
-						else if (excludeRule.getModule() == null
-								|| excludeRule.getModule().length() == 0) {
-							problems.add("Exclude for group " + excludeRule.getGroup()
-									+ " does not specify a module. The exclusion will not be included in generated POMs");
+						metrics.increment(TaskMetrics.RULES);
+						String problem = metrics.time(TaskMetrics.RULE_EVALUATION,
+								() -> IncompleteExcludes.check(excludeRule.getGroup(),
+										excludeRule.getModule()));
+						if (problem != null) {
+							problems.add(problem);
 						}
 					}
+					metrics.increment(TaskMetrics.FINDINGS, problems.size());
 					if (!problems.isEmpty()) {
 						problemsByDependency.put(dependency, problems);
 					}
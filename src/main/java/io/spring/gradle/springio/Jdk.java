@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Details of a JDK installation, identified by the {@code java} executable that is used
+ * to launch it. The vendor and version are read from the installation's {@code release}
+ * file when it has one.
+ *
+ * @author Spring IO Team
+ */
+final class Jdk {
+
+	private final File home;
+
+	private final String vendor;
+
+	private final String version;
+
+	private Jdk(File home, String vendor, String version) {
+		this.home = home;
+		this.vendor = vendor;
+		this.version = version;
+	}
+
+	/**
+	 * Returns the {@code Jdk} that contains the given {@code java} executable.
+	 *
+	 * @param executable the java executable
+	 * @return the jdk
+	 */
+	static Jdk forExecutable(File executable) {
+		File home = executable.getAbsoluteFile().getParentFile().getParentFile();
+		Properties release = loadRelease(home);
+		if (release == null && "jre".equals(home.getName())) {
+			release = loadRelease(home.getParentFile());
+		}
+		if (release == null) {
+			return new Jdk(home, null, null);
+		}
+		return new Jdk(home, unquote(release.getProperty("IMPLEMENTOR")),
+				unquote(release.getProperty("JAVA_VERSION")));
+	}
+
+	/**
+	 * Returns the {@code Jdk} that is running the current JVM.
+	 *
+	 * @return the jdk
+	 */
+	static Jdk current() {
+		return forExecutable(new File(System.getProperty("java.home"), "bin/java"));
+	}
+
+	File getHome() {
+		return this.home;
+	}
+
+	String getVendor() {
+		return this.vendor;
+	}
+
+	String getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Returns the major version of this JDK, for example {@code 8} for {@code 1.8.0_144}
+	 * or {@code 11} for {@code 11.0.2}.
+	 *
+	 * @return the major version or {@code -1} if it is not known
+	 */
+	int getMajorVersion() {
+		if (this.version == null) {
+			return -1;
+		}
+		String majorVersion = this.version.startsWith("1.") ? this.version.substring(2)
+				: this.version;
+		int end = 0;
+		while (end < majorVersion.length()
+				&& Character.isDigit(majorVersion.charAt(end))) {
+			end++;
+		}
+		return (end > 0) ? Integer.parseInt(majorVersion.substring(0, end)) : -1;
+	}
+
+	/**
+	 * Returns an identifier for this JDK that is independent of where it is installed.
+	 * When the vendor and version are unknown, the canonical path of the installation
+	 * is used instead.
+	 *
+	 * @return the identifier
+	 */
+	String getIdentifier() {
+		if (this.version == null) {
+			try {
+				return this.home.getCanonicalPath();
+			}
+			catch (IOException ex) {
+				return this.home.getAbsolutePath();
+			}
+		}
+		return ((this.vendor != null) ? this.vendor : "unknown") + " " + this.version;
+	}
+
+	@Override
+	public String toString() {
+		return getIdentifier();
+	}
+
+	private static Properties loadRelease(File home) {
+		File releaseFile = new File(home, "release");
+		if (!releaseFile.isFile()) {
+			return null;
+		}
+		Properties release = new Properties();
+		try (InputStream input = new FileInputStream(releaseFile)) {
+			release.load(input);
+		}
+		catch (IOException ex) {
+			return null;
+		}
+		return release;
+	}
+
+	private static String unquote(String value) {
+		if (value != null && value.length() > 1 && value.startsWith("\"")
+				&& value.endsWith("\"")) {
+			return value.substring(1, value.length() - 1);
+		}
+		return value;
+	}
+
+}
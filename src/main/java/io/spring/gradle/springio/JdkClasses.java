@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the class files of a JDK installation, which need not be the one that is
+ * running the build. The classes of JDK 9 and later are read from the installation's
+ * run-time image using the {@code jrt} file system. The classes of earlier JDKs are read
+ * from the jars, such as {@code rt.jar}, in the {@code lib} directory of their JRE.
+ *
+ * @author Spring IO Team
+ */
+final class JdkClasses implements Closeable {
+
+	private final List<ZipFile> jars;
+
+	private final FileSystem runtimeImage;
+
+	private final URLClassLoader runtimeImageLoader;
+
+	private final Map<String, String> modulesByPackage;
+
+	private JdkClasses(List<ZipFile> jars, FileSystem runtimeImage,
+			URLClassLoader runtimeImageLoader, Map<String, String> modulesByPackage) {
+		this.jars = jars;
+		this.runtimeImage = runtimeImage;
+		this.runtimeImageLoader = runtimeImageLoader;
+		this.modulesByPackage = modulesByPackage;
+	}
+
+	/**
+	 * Opens the classes of the JDK installed in the given {@code home}.
+	 *
+	 * @param home the home of the JDK
+	 * @return the classes of the JDK
+	 * @throws IOException if the classes cannot be opened
+	 */
+	static JdkClasses open(File home) throws IOException {
+		if (new File(home, "lib/modules").isFile()) {
+			return openRuntimeImage(home);
+		}
+		File lib = new File(home, "jre/lib");
+		if (!lib.isDirectory()) {
+			lib = new File(home, "lib");
+		}
+		File[] files = lib.listFiles((dir, name) -> name.endsWith(".jar"));
+		if (files == null || files.length == 0) {
+			throw new IllegalStateException(
+					"Neither a run-time image nor rt.jar was found in " + home);
+		}
+		List<ZipFile> jars = new ArrayList<>();
+		try {
+			for (File file : files) {
+				jars.add(new ZipFile(file));
+			}
+		}
+		catch (IOException ex) {
+			for (ZipFile jar : jars) {
+				jar.close();
+			}
+			throw ex;
+		}
+		return new JdkClasses(jars, null, null, Collections.emptyMap());
+	}
+
+	private static JdkClasses openRuntimeImage(File home) throws IOException {
+		URI uri = URI.create("jrt:/");
+		FileSystem runtimeImage;
+		URLClassLoader loader = null;
+		if (Jdk.current().getMajorVersion() >= 9) {
+			runtimeImage = FileSystems.newFileSystem(uri,
+					Collections.singletonMap("java.home", home.getAbsolutePath()));
+		}
+		else {
+			loader = new URLClassLoader(
+					new URL[] { new File(home, "lib/jrt-fs.jar").toURI().toURL() });
+			runtimeImage = FileSystems.newFileSystem(uri,
+					Collections.<String, Object>emptyMap(), loader);
+		}
+		Map<String, String> modulesByPackage = new HashMap<>();
+		try (DirectoryStream<Path> packages = Files
+				.newDirectoryStream(runtimeImage.getPath("/packages"))) {
+			for (Path packageDir : packages) {
+				try (DirectoryStream<Path> modules = Files
+						.newDirectoryStream(packageDir)) {
+					for (Path module : modules) {
+						modulesByPackage.putIfAbsent(
+								packageDir.getFileName().toString().replace('.', '/'),
+								module.getFileName().toString());
+					}
+				}
+			}
+		}
+		return new JdkClasses(Collections.<ZipFile>emptyList(), runtimeImage, loader,
+				modulesByPackage);
+	}
+
+	/**
+	 * Reads the class with the given internal {@code className}, for example
+	 * {@code java/lang/String}.
+	 *
+	 * @param className the name of the class
+	 * @return the class file or {@code null} if the JDK does not contain the class
+	 * @throws IOException if the class cannot be read
+	 */
+	ClassFile read(String className) throws IOException {
+		for (ZipFile jar : this.jars) {
+			ZipEntry entry = jar.getEntry(className + ".class");
+			if (entry != null) {
+				try (InputStream input = jar.getInputStream(entry)) {
+					return ClassFile.read(input);
+				}
+			}
+		}
+		if (this.runtimeImage != null) {
+			int packageEnd = className.lastIndexOf('/');
+			String module = (packageEnd > 0)
+					? this.modulesByPackage.get(className.substring(0, packageEnd))
+					: null;
+			if (module != null) {
+				Path path = this.runtimeImage.getPath("/modules", module,
+						className + ".class");
+				if (Files.isRegularFile(path)) {
+					try (InputStream input = Files.newInputStream(path)) {
+						return ClassFile.read(input);
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (ZipFile jar : this.jars) {
+			jar.close();
+		}
+		if (this.runtimeImage != null) {
+			try {
+				this.runtimeImage.close();
+			}
+			catch (UnsupportedOperationException ex) {
+				// The file system of the running JDK cannot be closed
+			}
+		}
+		if (this.runtimeImageLoader != null) {
+			this.runtimeImageLoader.close();
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A minimal writer of compact JSON that takes care of separators and string escaping.
+ * Objects and arrays are opened and closed explicitly and each member of an object is
+ * written as a {@link #name(String) name} followed by a value.
+ *
+ * @author Spring IO Team
+ */
+final class JsonWriter {
+
+	private final StringBuilder json = new StringBuilder();
+
+	private final Deque<Boolean> empty = new ArrayDeque<>();
+
+	private boolean afterName;
+
+	JsonWriter beginObject() {
+		separate();
+		this.json.append('{');
+		this.empty.push(true);
+		return this;
+	}
+
+	JsonWriter endObject() {
+		this.empty.pop();
+		this.json.append('}');
+		return this;
+	}
+
+	JsonWriter beginArray() {
+		separate();
+		this.json.append('[');
+		this.empty.push(true);
+		return this;
+	}
+
+	JsonWriter endArray() {
+		this.empty.pop();
+		this.json.append(']');
+		return this;
+	}
+
+	JsonWriter name(String name) {
+		separate();
+		appendString(name);
+		this.json.append(':');
+		this.afterName = true;
+		return this;
+	}
+
+	JsonWriter value(String value) {
+		separate();
+		if (value == null) {
+			this.json.append("null");
+		}
+		else {
+			appendString(value);
+		}
+		return this;
+	}
+
+	JsonWriter value(long value) {
+		separate();
+		this.json.append(value);
+		return this;
+	}
+
+	JsonWriter value(double value) {
+		separate();
+		this.json.append(value);
+		return this;
+	}
+
+	JsonWriter value(boolean value) {
+		separate();
+		this.json.append(value);
+		return this;
+	}
+
+	/**
+	 * Writes the given {@code value}, which must already be valid JSON, such as a number
+	 * that has been formatted with a particular precision.
+	 *
+	 * @param value the value
+	 * @return this writer
+	 */
+	JsonWriter rawValue(String value) {
+		separate();
+		this.json.append(value);
+		return this;
+	}
+
+	private void separate() {
+		if (this.afterName) {
+			this.afterName = false;
+			return;
+		}
+		if (!this.empty.isEmpty()) {
+			if (!this.empty.pop()) {
+				this.json.append(',');
+			}
+			this.empty.push(false);
+		}
+	}
+
+	private void appendString(String value) {
+		this.json.append('"');
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				this.json.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				this.json.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				this.json.append(c);
+			}
+		}
+		this.json.append('"');
+	}
+
+	@Override
+	public String toString() {
+		return this.json.toString();
+	}
+
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that statically checks that the classes of the {@code main} source set
+ * link against a classpath, typically {@code springIoTestRuntime}. Every class, field and
+ * method that is referenced by the main classes must be provided by the classpath, the
+ * main classes themselves, or the JDK on which the tests run. Problems that would
+ * otherwise only appear when a test fails with a {@link NoClassDefFoundError},
+ * {@link NoSuchMethodError}, or {@link NoSuchFieldError} are found without running any
+ * tests.
+ * <p>
+ * The jars on the classpath are read in parallel. The symbols of each jar are cached by
+ * the hash of its content so that a jar is usually only read once per daemon. The cached
+ * symbols are held softly so that they can be reclaimed when memory is low.
+ *
+ * @author Spring IO Team
+ */
+public class LinkageCheckTask extends DefaultTask {
+
+	private static final int MAX_CACHED_JARS = 2048;
+
+	private static final Map<String, SoftReference<Map<String, ClassSymbols>>> jarSymbolsCache = new ConcurrentHashMap<>();
+
+	private FileCollection classesDirs;
+
+	private FileCollection classpath;
+
+	private File jdkHome;
+
+	private boolean ignoreFailures;
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/linkage-check.txt");
+
+	/**
+	 * Returns the directories containing the classes that are checked.
+	 *
+	 * @return the classes directories
+	 */
+	@InputFiles
+	public FileCollection getClassesDirs() {
+		return this.classesDirs;
+	}
+
+	/**
+	 * Sets the directories containing the classes that are checked.
+	 *
+	 * @param classesDirs the classes directories
+	 */
+	public void setClassesDirs(FileCollection classesDirs) {
+		this.classesDirs = classesDirs;
+	}
+
+	/**
+	 * Returns the classpath against which the classes are checked.
+	 *
+	 * @return the classpath
+	 */
+	@Classpath
+	public FileCollection getClasspath() {
+		return this.classpath;
+	}
+
+	/**
+	 * Sets the classpath against which the classes are checked.
+	 *
+	 * @param classpath the classpath
+	 */
+	public void setClasspath(FileCollection classpath) {
+		this.classpath = classpath;
+	}
+
+	/**
+	 * Returns the home of the JDK whose classes are available to the checked classes.
+	 *
+	 * @return the JDK home or {@code null} to use the JDK that runs the build
+	 */
+	@Internal
+	public File getJdkHome() {
+		return this.jdkHome;
+	}
+
+	/**
+	 * Sets the home of the JDK whose classes are available to the checked classes. This
+	 * should be the JDK on which the tests run.
+	 *
+	 * @param jdkHome the JDK home
+	 */
+	public void setJdkHome(File jdkHome) {
+		this.jdkHome = jdkHome;
+	}
+
+	/**
+	 * Returns an identifier of the JDK whose classes are available to the checked
+	 * classes so that the check is rerun when the JDK changes.
+	 *
+	 * @return the identifier of the JDK
+	 */
+	@Input
+	public String getJdkIdentifier() {
+		return Jdk.forExecutable(new File(jdkHome(), "bin/java")).getIdentifier();
+	}
+
+	/**
+	 * Returns whether the build should continue when linkage problems are found.
+	 *
+	 * @return {@code true} if linkage problems are only reported, otherwise
+	 * {@code false}
+	 */
+	@Input
+	public boolean isIgnoreFailures() {
+		return this.ignoreFailures;
+	}
+
+	/**
+	 * Sets whether the build should continue when linkage problems are found.
+	 *
+	 * @param ignoreFailures {@code true} if linkage problems should only be reported
+	 */
+	public void setIgnoreFailures(boolean ignoreFailures) {
+		this.ignoreFailures = ignoreFailures;
+	}
+
+	/**
+	 * Returns the file to which the linkage problems are written.
+	 *
+	 * @return the report file
+	 */
+	@OutputFile
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the linkage problems are written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Checks the linkage of the classes against the classpath.
+	 */
+	@TaskAction
+	public void check() {
+		Map<String, ClassFile> classes = new TreeMap<>();
+		for (File classesDir : this.classesDirs) {
+			readClasses(classesDir, classes);
+		}
+		Map<String, ClassSymbols> symbols = new HashMap<>();
+		for (ClassFile classFile : classes.values()) {
+			symbols.put(classFile.getName(), new ClassSymbols(classFile));
+		}
+		for (Map<String, ClassSymbols> jarSymbols : readClasspathSymbols()) {
+			for (Map.Entry<String, ClassSymbols> entry : jarSymbols.entrySet()) {
+				symbols.putIfAbsent(entry.getKey(), entry.getValue());
+			}
+		}
+		Map<String, Set<String>> problems = new TreeMap<>();
+		try (JdkClasses jdkClasses = JdkClasses.open(jdkHome())) {
+			Linker linker = new Linker(symbols, jdkClasses);
+			for (ClassFile classFile : classes.values()) {
+				Set<String> classProblems = linker.link(classFile);
+				if (!classProblems.isEmpty()) {
+					problems.put(classFile.getName().replace('/', '.'), classProblems);
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(
+					"Failed to read the classes of the JDK in " + jdkHome(), ex);
+		}
+		TaskMetrics.of(this).increment(TaskMetrics.FINDINGS, problems.size());
+		writeReport(problems);
+		if (!problems.isEmpty()) {
+			String message = "Found linkage problems in " + problems.size()
+					+ " classes. See " + this.reportFile + " for a detailed report";
+			if (!this.ignoreFailures) {
+				throw new IllegalStateException(message);
+			}
+			getLogger().warn(message);
+		}
+	}
+
+	private File jdkHome() {
+		return (this.jdkHome != null) ? this.jdkHome : Jdk.current().getHome();
+	}
+
+	private void readClasses(File directory, Map<String, ClassFile> classes) {
+		for (File file : ClassScanner.classFiles(directory)) {
+			if (isClass(file.getName())) {
+				ClassFile classFile = ClassScanner.read(file);
+				classes.putIfAbsent(classFile.getName(), classFile);
+			}
+		}
+	}
+
+	private List<Map<String, ClassSymbols>> readClasspathSymbols() {
+		List<Map<String, ClassSymbols>> symbols = new ArrayList<>();
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			List<Future<Map<String, ClassSymbols>>> futures = new ArrayList<>();
+			for (File file : this.classpath) {
+				if (file.isFile()) {
+					futures.add(executor.submit(() -> jarSymbols(file)));
+				}
+				else if (file.isDirectory()) {
+					futures.add(executor.submit(() -> directorySymbols(file)));
+				}
+			}
+			for (Future<Map<String, ClassSymbols>> future : futures) {
+				symbols.add(future.get());
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Failed to read classpath", ex.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		return symbols;
+	}
+
+	private Map<String, ClassSymbols> directorySymbols(File directory) {
+		Map<String, ClassFile> classes = new HashMap<>();
+		readClasses(directory, classes);
+		return toSymbols(classes.values());
+	}
+
+	private Map<String, ClassSymbols> jarSymbols(File jar) {
+		String key = FileHashes.sha1(jar);
+		SoftReference<Map<String, ClassSymbols>> cached = jarSymbolsCache.get(key);
+		Map<String, ClassSymbols> symbols = (cached != null) ? cached.get() : null;
+		if (symbols == null) {
+			symbols = readJarSymbols(jar);
+			if (jarSymbolsCache.size() >= MAX_CACHED_JARS) {
+				jarSymbolsCache.clear();
+			}
+			jarSymbolsCache.put(key, new SoftReference<>(symbols));
+		}
+		return symbols;
+	}
+
+	private Map<String, ClassSymbols> readJarSymbols(File jar) {
+		List<ClassFile> classes = new ArrayList<>();
+		try (ZipFile zipFile = new ZipFile(jar)) {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (isClass(entry.getName()) && !entry.getName().startsWith("META-INF/")) {
+					try (InputStream input = zipFile.getInputStream(entry)) {
+						classes.add(ClassFile.read(input));
+					}
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + jar, ex);
+		}
+		return toSymbols(classes);
+	}
+
+	private Map<String, ClassSymbols> toSymbols(Iterable<ClassFile> classes) {
+		Map<String, ClassSymbols> symbols = new HashMap<>();
+		for (ClassFile classFile : classes) {
+			symbols.putIfAbsent(classFile.getName(), new ClassSymbols(classFile));
+		}
+		return Collections.unmodifiableMap(symbols);
+	}
+
+	private boolean isClass(String name) {
+		return name.endsWith(".class") && !name.endsWith("module-info.class");
+	}
+
+	private void writeReport(Map<String, Set<String>> problems) {
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<String, Set<String>> entry : problems.entrySet()) {
+			report.append(entry.getKey()).append("\n");
+			for (String problem : entry.getValue()) {
+				report.append("    ").append(problem).append("\n");
+			}
+		}
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(),
+					report.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+	/**
+	 * The symbols that a class provides to classes that link against it.
+	 */
+	private static final class ClassSymbols {
+
+		private final String superName;
+
+		private final List<String> interfaces;
+
+		private final Set<String> members = new HashSet<>();
+
+		private ClassSymbols(ClassFile classFile) {
+			this.superName = classFile.getSuperName();
+			this.interfaces = classFile.getInterfaces();
+			for (ClassFile.Member field : classFile.getFields()) {
+				this.members.add(field.getName() + ":" + field.getDescriptor());
+			}
+			for (ClassFile.Member method : classFile.getMethods()) {
+				this.members.add(method.getName() + method.getDescriptor());
+			}
+		}
+
+	}
+
+	/**
+	 * Resolves the references of classes against a table of symbols. Classes that are
+	 * not in the table are looked up in the JDK.
+	 */
+	private static final class Linker {
+
+		private final Map<String, ClassSymbols> symbols;
+
+		private final JdkClasses jdkClasses;
+
+		private final Map<String, ClassSymbols> jdkSymbols = new HashMap<>();
+
+		private Linker(Map<String, ClassSymbols> symbols, JdkClasses jdkClasses) {
+			this.symbols = symbols;
+			this.jdkClasses = jdkClasses;
+		}
+
+		private Set<String> link(ClassFile classFile) {
+			Set<String> problems = new TreeSet<>();
+			for (String referencedClass : classFile.getClassConstants()) {
+				if (symbolsFor(referencedClass) == null) {
+					problems.add("Missing class " + referencedClass.replace('/', '.'));
+				}
+			}
+			for (ClassFile.MemberReference reference : classFile.getMemberReferences()) {
+				String owner = reference.getOwner();
+				if (owner.startsWith("[") || isSignaturePolymorphic(owner)
+						|| symbolsFor(owner) == null) {
+					continue;
+				}
+				String member = reference.isField()
+						? reference.getName() + ":" + reference.getDescriptor()
+						: reference.getName() + reference.getDescriptor();
+				boolean constructor = "<init>".equals(reference.getName());
+				if (resolveMember(owner, member, !constructor,
+						new HashSet<>()) == Resolution.MISSING) {
+					problems.add("Missing " + (reference.isField() ? "field " : "method ")
+							+ owner.replace('/', '.') + "." + member.replace(':', ' '));
+				}
+			}
+			return problems;
+		}
+
+		private boolean isSignaturePolymorphic(String className) {
+			return "java/lang/invoke/MethodHandle".equals(className)
+					|| "java/lang/invoke/VarHandle".equals(className);
+		}
+
+		private ClassSymbols symbolsFor(String className) {
+			ClassSymbols classSymbols = this.symbols.get(className);
+			if (classSymbols != null) {
+				return classSymbols;
+			}
+			if (!this.jdkSymbols.containsKey(className)) {
+				this.jdkSymbols.put(className, readJdkSymbols(className));
+			}
+			return this.jdkSymbols.get(className);
+		}
+
+		private ClassSymbols readJdkSymbols(String className) {
+			try {
+				ClassFile classFile = this.jdkClasses.read(className);
+				return (classFile != null) ? new ClassSymbols(classFile) : null;
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read JDK class " + className,
+						ex);
+			}
+		}
+
+		private Resolution resolveMember(String className, String member,
+				boolean inherited, Set<String> visited) {
+			if (!visited.add(className)) {
+				return Resolution.MISSING;
+			}
+			ClassSymbols classSymbols = symbolsFor(className);
+			if (classSymbols == null) {
+				// The members of a missing class cannot be checked
+				return Resolution.UNKNOWN;
+			}
+			if (classSymbols.members.contains(member)) {
+				return Resolution.FOUND;
+			}
+			if (!inherited) {
+				return Resolution.MISSING;
+			}
+			Resolution resolution = Resolution.MISSING;
+			List<String> supertypes = new ArrayList<>(classSymbols.interfaces);
+			if (classSymbols.superName != null) {
+				supertypes.add(0, classSymbols.superName);
+			}
+			for (String supertype : supertypes) {
+				Resolution superResolution = resolveMember(supertype, member, true,
+						visited);
+				if (superResolution == Resolution.FOUND) {
+					return Resolution.FOUND;
+				}
+				if (superResolution == Resolution.UNKNOWN) {
+					resolution = Resolution.UNKNOWN;
+				}
+			}
+			return resolution;
+		}
+
+	}
+
+	private enum Resolution {
+
+		FOUND, MISSING, UNKNOWN
+
+	}
+
+}
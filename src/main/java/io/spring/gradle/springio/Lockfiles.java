@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import io.spring.gradle.springio.core.Lockfile;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Project;
+
+/**
+ * Utility methods for reading and writing the lockfiles of Gradle's dependency locking.
+ * Both the lockfile per configuration in {@code gradle/dependency-locks} and the single
+ * {@code gradle.lockfile} per project are supported. Reading a lockfile is a text parse,
+ * performed by {@link Lockfile}, that does not resolve anything.
+ *
+ * @author Spring IO Team
+ */
+final class Lockfiles {
+
+	private static final String HEADER = "# This is a Gradle generated file for "
+			+ "dependency locking.\n# Manual edits can break the build and are not "
+			+ "advised.\n# This file is expected to be part of source control.\n";
+
+	private Lockfiles() {
+	}
+
+	/**
+	 * Returns the file in the given {@code directory} that locks the configuration with
+	 * the given {@code configurationName}.
+	 *
+	 * @param directory the lockfiles directory
+	 * @param configurationName the name of the configuration
+	 * @return the lockfile
+	 */
+	static File lockfile(File directory, String configurationName) {
+		return new File(directory, configurationName + ".lockfile");
+	}
+
+	/**
+	 * Reads the locked versions ({@code groupId:artifactId -> version}) of the
+	 * configuration with the given {@code configurationName} in the given
+	 * {@code project}.
+	 *
+	 * @param project the project
+	 * @param configurationName the name of the configuration
+	 * @return the locked versions, in the order of the lockfile, or {@code null} if the
+	 * configuration is not locked
+	 */
+	static Map<String, String> read(Project project, String configurationName) {
+		File lockfile = lockfile(project.file("gradle/dependency-locks"),
+				configurationName);
+		if (lockfile.isFile()) {
+			return read(lockfile, null);
+		}
+		lockfile = project.file("gradle.lockfile");
+		if (lockfile.isFile()) {
+			return read(lockfile, configurationName);
+		}
+		return null;
+	}
+
+	private static Map<String, String> read(File lockfile, String configurationName) {
+		try {
+			return Lockfile.read(lockfile, configurationName);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new InvalidUserDataException(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Writes the given {@code versions} ({@code groupId:artifactId -> version}) to the
+	 * given {@code lockfile} in the format of a lockfile per configuration.
+	 *
+	 * @param lockfile the lockfile
+	 * @param versions the versions, in the order in which they are written
+	 */
+	static void write(File lockfile, Map<String, String> versions) {
+		StringBuilder content = new StringBuilder(HEADER);
+		for (Map.Entry<String, String> entry : versions.entrySet()) {
+			content.append(entry.getKey()).append(":").append(entry.getValue())
+					.append("\n");
+		}
+		lockfile.getParentFile().mkdirs();
+		try {
+			Files.write(lockfile.toPath(),
+					content.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + lockfile, ex);
+		}
+	}
+
+}
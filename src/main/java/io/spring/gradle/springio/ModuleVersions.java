@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
+
+/**
+ * Utility methods for working with the versions ({@code groupId:artifactId -> version})
+ * of the modules in a {@link Configuration}.
+ *
+ * @author Spring IO Team
+ */
+final class ModuleVersions {
+
+	/**
+	 * The version of a module that could not be resolved.
+	 */
+	static final String UNRESOLVED = "unresolved";
+
+	private ModuleVersions() {
+	}
+
+	/**
+	 * Resolves the dependency graph of the given {@code configuration} and returns the
+	 * version of every module in it. No artifacts are downloaded. Modules that cannot be
+	 * resolved have the version {@link #UNRESOLVED}.
+	 *
+	 * @param configuration the configuration
+	 * @return the module versions, ordered by module
+	 */
+	static Map<String, String> resolve(Configuration configuration) {
+		ResolutionResult resolutionResult = configuration.getIncoming()
+				.getResolutionResult();
+		Map<String, String> modules = new TreeMap<>();
+		for (ResolvedComponentResult component : resolutionResult.getAllComponents()) {
+			if (component.getId() instanceof ModuleComponentIdentifier) {
+				ModuleComponentIdentifier id = (ModuleComponentIdentifier) component
+						.getId();
+				modules.put(id.getGroup() + ":" + id.getModule(), id.getVersion());
+			}
+		}
+		for (DependencyResult dependency : resolutionResult.getAllDependencies()) {
+			ComponentSelector requested = dependency.getRequested();
+			if (dependency instanceof UnresolvedDependencyResult
+					&& requested instanceof ModuleComponentSelector) {
+				ModuleComponentSelector selector = (ModuleComponentSelector) requested;
+				modules.put(selector.getGroup() + ":" + selector.getModule(),
+						UNRESOLVED);
+			}
+		}
+		return modules;
+	}
+
+	/**
+	 * Creates a detached copy of the given {@code configuration} with the same
+	 * dependencies and exclusions. When resolved, each module in the given
+	 * {@code versions} uses the version that it is mapped to.
+	 *
+	 * @param project the project that owns the configuration
+	 * @param configuration the configuration to copy
+	 * @param versions the versions to use
+	 * @return the detached configuration
+	 */
+	static Configuration detachedCopy(Project project, Configuration configuration,
+			Map<String, String> versions) {
+		List<Dependency> dependencies = new ArrayList<>();
+		for (Dependency dependency : configuration.getAllDependencies()) {
+			dependencies.add(dependency.copy());
+		}
+		Configuration copy = project.getConfigurations().detachedConfiguration(
+				dependencies.toArray(new Dependency[dependencies.size()]));
+		for (Configuration hierarchy : configuration.getHierarchy()) {
+			for (ExcludeRule excludeRule : hierarchy.getExcludeRules()) {
+				Map<String, String> exclude = new LinkedHashMap<>();
+				if (excludeRule.getGroup() != null) {
+					exclude.put("group", excludeRule.getGroup());
+				}
+				if (excludeRule.getModule() != null) {
+					exclude.put("module", excludeRule.getModule());
+				}
+				copy.exclude(exclude);
+			}
+		}
+		copy.getResolutionStrategy().eachDependency(details -> {
+			String version = versions.get(details.getRequested().getGroup() + ":"
+					+ details.getRequested().getName());
+			if (version != null) {
+				details.useVersion(version);
+			}
+		});
+		return copy;
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that writes lockfiles that pin {@link Configuration Configurations} to
+ * the versions of the Spring IO Platform. A detached copy of each locked configuration
+ * is resolved with every module that is part of the platform's configuration, typically
+ * {@code springIoTestRuntime}, forced to the version that it has there. The lockfile
+ * contains exactly the modules of that graph so that it describes the graph that Gradle
+ * resolves when the configuration uses the platform's versions, including any
+ * dependencies that are only brought in, or no longer brought in, by those versions.
+ *
+ * @author Spring IO Team
+ */
+public class PlatformLockfilesTask extends DefaultTask {
+
+	private final List<Configuration> lockedConfigurations = new ArrayList<>();
+
+	private Configuration configuration;
+
+	private File lockfilesDir = getProject().file("gradle/dependency-locks");
+
+	/**
+	 * Returns the {@link Configuration} whose versions are written to the lockfiles.
+	 *
+	 * @return the platform's configuration
+	 */
+	@Internal
+	public Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	/**
+	 * Sets the {@link Configuration} whose versions are written to the lockfiles.
+	 *
+	 * @param configuration the platform's configuration
+	 */
+	public void setConfiguration(Configuration configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Adds the given {@code configuration} to those for which a lockfile is written.
+	 *
+	 * @param configuration the configuration to lock
+	 */
+	public void lock(Configuration configuration) {
+		this.lockedConfigurations.add(configuration);
+	}
+
+	/**
+	 * Returns the {@link Configuration Configurations} for which a lockfile is written.
+	 *
+	 * @return the locked configurations
+	 */
+	@Internal
+	public List<Configuration> getLockedConfigurations() {
+		return this.lockedConfigurations;
+	}
+
+	/**
+	 * Returns the directory to which the lockfiles are written.
+	 *
+	 * @return the lockfiles directory
+	 */
+	@Internal
+	public File getLockfilesDir() {
+		return this.lockfilesDir;
+	}
+
+	/**
+	 * Sets the directory to which the lockfiles are written.
+	 *
+	 * @param lockfilesDir the lockfiles directory
+	 */
+	public void setLockfilesDir(File lockfilesDir) {
+		this.lockfilesDir = lockfilesDir;
+	}
+
+	/**
+	 * Writes the lockfiles.
+	 */
+	@TaskAction
+	public void writeLockfiles() {
+		TaskMetrics metrics = TaskMetrics.of(this);
+		Map<String, String> platformVersions = metrics.time(TaskMetrics.GRAPH_RESOLUTION,
+				() -> ModuleVersions.resolve(this.configuration));
+		platformVersions.values().removeIf(ModuleVersions.UNRESOLVED::equals);
+		List<String> names = new ArrayList<>();
+		for (Configuration locked : this.lockedConfigurations) {
+			Configuration platformLocked = ModuleVersions.detachedCopy(getProject(),
+					locked, platformVersions);
+			Map<String, String> versions = metrics.time(TaskMetrics.GRAPH_RESOLUTION,
+					() -> ModuleVersions.resolve(platformLocked));
+			Set<String> unresolved = new TreeSet<>();
+			for (Map.Entry<String, String> entry : versions.entrySet()) {
+				metrics.increment(TaskMetrics.RULES);
+				if (ModuleVersions.UNRESOLVED.equals(entry.getValue())) {
+					unresolved.add(entry.getKey());
+				}
+			}
+			if (!unresolved.isEmpty()) {
+				throw new IllegalStateException("Could not lock " + locked.getName()
+						+ " as the following modules could not be resolved: "
+						+ String.join(", ", unresolved));
+			}
+			Lockfiles.write(Lockfiles.lockfile(this.lockfilesDir, locked.getName()),
+					versions);
+			names.add(locked.getName());
+		}
+		getLogger().lifecycle("Wrote lockfiles for " + String.join(", ", names) + " to "
+				+ this.lockfilesDir);
+	}
+
+}
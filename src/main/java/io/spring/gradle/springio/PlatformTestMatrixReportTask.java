@@ -0,0 +1,230 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that produces a side-by-side report of the results of running the
+ * tests against several versions of the Spring IO Platform. The results of each version
+ * are read from the JUnit XML reports of its test task.
+ *
+ * @author Spring IO Team
+ */
+public class PlatformTestMatrixReportTask extends DefaultTask {
+
+	private final Map<String, File> testResultsDirs = new LinkedHashMap<>();
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/platform-test-matrix.txt");
+
+	/**
+	 * Adds the given platform version, the JUnit XML reports of which are written to the
+	 * given {@code testResultsDir}, to the report.
+	 *
+	 * @param version the platform version
+	 * @param testResultsDir the directory containing the JUnit XML reports
+	 */
+	public void platform(String version, File testResultsDir) {
+		this.testResultsDirs.put(version, testResultsDir);
+	}
+
+	/**
+	 * Returns the directories containing the JUnit XML reports, keyed by platform
+	 * version.
+	 *
+	 * @return the test results directories
+	 */
+	@Internal
+	public Map<String, File> getTestResultsDirs() {
+		return Collections.unmodifiableMap(this.testResultsDirs);
+	}
+
+	/**
+	 * Returns the JUnit XML reports that are read by this task.
+	 *
+	 * @return the test results
+	 */
+	@InputFiles
+	public FileCollection getTestResults() {
+		return getProject().files(this.testResultsDirs.values());
+	}
+
+	/**
+	 * Returns the file to which the report is written.
+	 *
+	 * @return the report file
+	 */
+	@OutputFile
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the report is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Produces the report.
+	 */
+	@TaskAction
+	public void report() {
+		Map<String, Map<String, Result>> results = new LinkedHashMap<>();
+		TreeSet<String> testClasses = new TreeSet<>();
+		for (Map.Entry<String, File> entry : this.testResultsDirs.entrySet()) {
+			Map<String, Result> platformResults = readResults(entry.getValue());
+			testClasses.addAll(platformResults.keySet());
+			results.put(entry.getKey(), platformResults);
+		}
+		List<String> header = new ArrayList<>();
+		header.add("Test class");
+		header.addAll(results.keySet());
+		List<List<String>> rows = new ArrayList<>();
+		rows.add(header);
+		for (String testClass : testClasses) {
+			List<String> row = new ArrayList<>();
+			row.add(testClass);
+			for (Map<String, Result> platformResults : results.values()) {
+				Result result = platformResults.get(testClass);
+				row.add((result != null) ? result.toString() : "-");
+			}
+			rows.add(row);
+		}
+		List<String> totals = new ArrayList<>();
+		totals.add("Total");
+		for (Map.Entry<String, Map<String, Result>> entry : results.entrySet()) {
+			Result total = new Result();
+			for (Result result : entry.getValue().values()) {
+				total.add(result);
+			}
+			totals.add(total.toString());
+			getLogger().lifecycle(
+					"Platform " + entry.getKey() + ": " + total.describe());
+		}
+		rows.add(totals);
+		writeReport(rows);
+		getLogger().lifecycle("Platform test matrix written to " + this.reportFile);
+	}
+
+	private Map<String, Result> readResults(File testResultsDir) {
+		Map<String, Result> results = new TreeMap<>();
+		for (TestSuiteResult suite : TestSuiteResult.read(testResultsDir)) {
+			Result result = results.get(suite.getName());
+			if (result == null) {
+				result = new Result();
+				results.put(suite.getName(), result);
+			}
+			result.tests += suite.getTests();
+			result.failures += suite.getFailures();
+			result.skipped += suite.getSkipped();
+		}
+		return results;
+	}
+
+	private void writeReport(List<List<String>> rows) {
+		int[] widths = new int[rows.get(0).size()];
+		for (List<String> row : rows) {
+			for (int i = 0; i < row.size(); i++) {
+				widths[i] = Math.max(widths[i], row.get(i).length());
+			}
+		}
+		this.reportFile.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(Files
+				.newBufferedWriter(this.reportFile.toPath(), StandardCharsets.UTF_8))) {
+			writer.println("Platform test matrix for " + getProject().getPath());
+			writer.println();
+			for (List<String> row : rows) {
+				StringBuilder line = new StringBuilder();
+				for (int i = 0; i < row.size(); i++) {
+					line.append(row.get(i));
+					for (int j = row.get(i).length(); j < widths[i] + 3; j++) {
+						line.append(' ');
+					}
+				}
+				writer.println(line.toString().trim());
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+	private static final class Result {
+
+		private int tests;
+
+		private int failures;
+
+		private int skipped;
+
+		private void add(Result result) {
+			this.tests += result.tests;
+			this.failures += result.failures;
+			this.skipped += result.skipped;
+		}
+
+		private String describe() {
+			if (this.tests == 0) {
+				return "no tests were run";
+			}
+			if (this.failures > 0) {
+				return this.failures + " of " + this.tests + " tests failed";
+			}
+			return (this.tests - this.skipped) + " tests passed";
+		}
+
+		@Override
+		public String toString() {
+			if (this.tests == 0) {
+				return "-";
+			}
+			if (this.failures > 0) {
+				return "FAIL (" + this.failures + "/" + this.tests + ")";
+			}
+			if (this.tests == this.skipped) {
+				return "SKIPPED";
+			}
+			return "PASS (" + (this.tests - this.skipped) + ")";
+		}
+
+	}
+
+}
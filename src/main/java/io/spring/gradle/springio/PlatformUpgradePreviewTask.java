@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that previews the effect of upgrading to one or more candidate versions
+ * of the Spring IO Platform without running any tests. The dependencies of a
+ * {@link Configuration} are resolved in a detached configuration using the managed
+ * versions of each candidate and the modules that would be added, removed, or change
+ * version are reported. Only dependency metadata is resolved; no artifacts are
+ * downloaded.
+ *
+ * @author Spring IO Team
+ */
+public class PlatformUpgradePreviewTask extends DefaultTask {
+
+	private final Map<String, Callable<Map<String, String>>> candidates = new LinkedHashMap<>();
+
+	private Configuration configuration;
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/platform-upgrade-preview.txt");
+
+	/**
+	 * Adds a candidate platform, identified by the coordinates of its BOM, to the
+	 * preview. The given {@code managedVersions} provides the candidate's managed
+	 * versions ({@code groupId:artifactId -> version}).
+	 *
+	 * @param bom the coordinates of the candidate's bom
+	 * @param managedVersions provides the managed versions of the candidate
+	 */
+	public void candidate(String bom, Callable<Map<String, String>> managedVersions) {
+		this.candidates.put(bom, managedVersions);
+	}
+
+	/**
+	 * Returns the coordinates of the BOMs of the candidate platforms.
+	 *
+	 * @return the candidate boms
+	 */
+	@Internal
+	public List<String> getCandidates() {
+		return new ArrayList<>(this.candidates.keySet());
+	}
+
+	/**
+	 * Returns the {@link Configuration} that is resolved using the current platform and
+	 * whose dependencies are resolved against each candidate.
+	 *
+	 * @return the configuration
+	 */
+	@Internal
+	public Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	/**
+	 * Sets the {@link Configuration} that is resolved using the current platform and
+	 * whose dependencies are resolved against each candidate.
+	 *
+	 * @param configuration the configuration
+	 */
+	public void setConfiguration(Configuration configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Returns the file to which the preview is written.
+	 *
+	 * @return the report file
+	 */
+	@Internal
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the preview is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Resolves the configuration against each candidate and reports the differences.
+	 */
+	@TaskAction
+	public void preview() {
+		if (this.candidates.isEmpty()) {
+			getLogger().lifecycle("No candidate platforms to preview");
+			return;
+		}
+		TaskMetrics metrics = TaskMetrics.of(this);
+		Map<String, String> current = metrics.time(TaskMetrics.GRAPH_RESOLUTION,
+				() -> ModuleVersions.resolve(this.configuration));
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<String, Callable<Map<String, String>>> candidate : this.candidates
+				.entrySet()) {
+			Map<String, String> managedVersions = metrics
+					.time(TaskMetrics.BOM_RESOLUTION, () -> managedVersions(candidate));
+			Configuration configuration = ModuleVersions.detachedCopy(getProject(),
+					this.configuration, managedVersions);
+			Map<String, String> candidateVersions = metrics.time(
+					TaskMetrics.GRAPH_RESOLUTION,
+					() -> ModuleVersions.resolve(configuration));
+			report.append(diff(candidate.getKey(), current, candidateVersions));
+		}
+		getLogger().lifecycle(report.toString().trim());
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(),
+					report.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+	private Map<String, String> managedVersions(
+			Map.Entry<String, Callable<Map<String, String>>> candidate) {
+		try {
+			return candidate.getValue().call();
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(
+					"Failed to determine the managed versions of " + candidate.getKey(),
+					ex);
+		}
+	}
+
+	private String diff(String bom, Map<String, String> current,
+			Map<String, String> candidate) {
+		List<String> lines = new ArrayList<>();
+		int added = 0;
+		int removed = 0;
+		int changed = 0;
+		TreeSet<String> modules = new TreeSet<>(current.keySet());
+		modules.addAll(candidate.keySet());
+		for (String module : modules) {
+			String currentVersion = current.get(module);
+			String candidateVersion = candidate.get(module);
+			if (currentVersion == null) {
+				lines.add("    + " + module + " " + candidateVersion);
+				added++;
+			}
+			else if (candidateVersion == null) {
+				lines.add("    - " + module + " " + currentVersion);
+				removed++;
+			}
+			else if (!currentVersion.equals(candidateVersion)) {
+				lines.add("    ~ " + module + " " + currentVersion + " -> "
+						+ candidateVersion);
+				changed++;
+			}
+		}
+		StringBuilder diff = new StringBuilder();
+		diff.append(bom).append(": ").append(added).append(" added, ").append(removed)
+				.append(" removed, ").append(changed).append(" changed\n");
+		for (String line : lines) {
+			diff.append(line).append("\n");
+		}
+		return diff.append("\n").toString();
+	}
+
+}
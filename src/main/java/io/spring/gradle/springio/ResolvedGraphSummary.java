@@ -0,0 +1,472 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.artifacts.repositories.IvyArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+
+/**
+ * A compact summary of the modules in the resolved dependency graph of a
+ * {@link Configuration}. Summaries are cached for the lifetime of the Gradle daemon,
+ * keyed by a hash of everything that determines the result of resolution: the path,
+ * transitivity, and attributes of the configuration, the declared dependencies and their
+ * exclusions, the configuration's exclusions, the repositories,
+ * forced versions, the managed versions from the Spring IO Platform's and the build's
+ * BOMs, the build scripts of the project and of the root project along with the other
+ * scripts beside them or in the root project's {@code gradle} directory, the settings
+ * script, init scripts, and {@code buildSrc}. Configurations with project, file, dynamic,
+ * {@code SNAPSHOT}, or changing dependencies, with dependency substitutions or resolve
+ * rules other than those of the dependency management plugin, or with repositories
+ * whose content cannot be described, are never cached. Scripts applied from a URL are
+ * not described, so a build that uses them should not rely on the cache.
+ * <p>
+ * The most recently used summaries are held strongly, up to a total number of modules.
+ * Summaries that are evicted are held softly so that they can be reused until the
+ * garbage collector needs the memory.
+ *
+ * @author Spring IO Team
+ */
+final class ResolvedGraphSummary {
+
+	private static final int MAX_STRONGLY_HELD_MODULES = 200000;
+
+	private static final String DEPENDENCY_MANAGEMENT_PACKAGE = "io.spring.gradle.dependencymanagement.";
+
+	private static final LinkedHashMap<String, ResolvedGraphSummary> stronglyHeld = new LinkedHashMap<>(
+			16, 0.75f, true);
+
+	private static final Map<String, SoftReference<ResolvedGraphSummary>> softlyHeld = new HashMap<>();
+
+	private static int stronglyHeldModules;
+
+	private final String[] groups;
+
+	private final String[] names;
+
+	private final String[] versions;
+
+	private ResolvedGraphSummary(String[] groups, String[] names, String[] versions) {
+		this.groups = groups;
+		this.names = names;
+		this.versions = versions;
+	}
+
+	/**
+	 * Returns the summary of the given {@code configuration}, resolving it only if a
+	 * summary with the same key is not cached.
+	 *
+	 * @param project the project that owns the configuration
+	 * @param configuration the configuration
+	 * @param metrics the metrics in which resolution and cache hits are recorded
+	 * @param managedVersions the managed versions that affect the resolution of the
+	 * configuration
+	 * @return the summary
+	 */
+	@SafeVarargs
+	static ResolvedGraphSummary of(Project project, Configuration configuration,
+			TaskMetrics metrics, Map<String, String>... managedVersions) {
+		String key = key(project, configuration, managedVersions);
+		ResolvedGraphSummary summary = (key != null) ? get(key) : null;
+		if (summary != null) {
+			metrics.increment(TaskMetrics.CACHE_HITS);
+			return summary;
+		}
+		summary = summarize(metrics.resolvedArtifacts(configuration));
+		if (key != null) {
+			put(key, summary);
+		}
+		return summary;
+	}
+
+	/**
+	 * Returns a summary of the resolved artifacts of the given {@code configuration},
+	 * such as one that the build has just resolved. Nothing is cached.
+	 *
+	 * @param configuration the configuration
+	 * @return the summary
+	 */
+	static ResolvedGraphSummary of(Configuration configuration) {
+		return summarize(
+				configuration.getResolvedConfiguration().getResolvedArtifacts());
+	}
+
+	/**
+	 * Returns a summary of the given module {@code versions}
+	 * ({@code groupId:artifactId -> version}), such as those of a lockfile. Nothing is
+	 * resolved or cached.
+	 *
+	 * @param versions the module versions
+	 * @return the summary
+	 */
+	static ResolvedGraphSummary of(Map<String, String> versions) {
+		String[] groups = new String[versions.size()];
+		String[] names = new String[versions.size()];
+		String[] moduleVersions = new String[versions.size()];
+		int index = 0;
+		for (Map.Entry<String, String> entry : versions.entrySet()) {
+			String module = entry.getKey();
+			groups[index] = module.substring(0, module.indexOf(':')).intern();
+			names[index] = module.substring(module.indexOf(':') + 1);
+			moduleVersions[index++] = entry.getValue().intern();
+		}
+		return new ResolvedGraphSummary(groups, names, moduleVersions);
+	}
+
+	/**
+	 * Returns the number of modules in the graph.
+	 *
+	 * @return the number of modules
+	 */
+	int size() {
+		return this.groups.length;
+	}
+
+	String getGroup(int index) {
+		return this.groups[index];
+	}
+
+	String getName(int index) {
+		return this.names[index];
+	}
+
+	String getVersion(int index) {
+		return this.versions[index];
+	}
+
+	private static ResolvedGraphSummary summarize(Set<ResolvedArtifact> artifacts) {
+		Map<String, ModuleVersionIdentifier> modules = new LinkedHashMap<>();
+		for (ResolvedArtifact artifact : artifacts) {
+			ModuleVersionIdentifier id = artifact.getModuleVersion().getId();
+			modules.putIfAbsent(id.getGroup() + ":" + id.getName(), id);
+		}
+		String[] groups = new String[modules.size()];
+		String[] names = new String[modules.size()];
+		String[] versions = new String[modules.size()];
+		int index = 0;
+		for (ModuleVersionIdentifier id : modules.values()) {
+			groups[index] = id.getGroup().intern();
+			names[index] = id.getName();
+			versions[index++] = id.getVersion().intern();
+		}
+		return new ResolvedGraphSummary(groups, names, versions);
+	}
+
+	@SafeVarargs
+	static String key(Project project, Configuration configuration,
+			Map<String, String>... managedVersions) {
+		StringBuilder key = new StringBuilder();
+		key.append("configuration:").append(project.getPath()).append(" ")
+				.append(configuration.getName()).append(" transitive=")
+				.append(configuration.isTransitive()).append("\n");
+		Set<String> attributes = new TreeSet<>();
+		AttributeContainer container = configuration.getAttributes();
+		for (Attribute<?> attribute : container.keySet()) {
+			attributes.add(attribute.getName() + "=" + container.getAttribute(attribute));
+		}
+		appendAll(key, "attributes", attributes);
+		Set<String> dependencies = new TreeSet<>();
+		for (Dependency dependency : configuration.getAllDependencies()) {
+			if (!(dependency instanceof ExternalModuleDependency)) {
+				return null;
+			}
+			ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+			String version = moduleDependency.getVersion();
+			if (moduleDependency.isChanging() || (version != null
+					&& (DynamicVersionsTask.isDynamic(version)
+							|| version.endsWith("-SNAPSHOT")))) {
+				return null;
+			}
+			dependencies.add(describe(moduleDependency));
+		}
+		appendAll(key, "dependencies", dependencies);
+		Set<String> excludes = new TreeSet<>();
+		for (Configuration inConfiguration : configuration.getHierarchy()) {
+			for (ExcludeRule exclude : inConfiguration.getExcludeRules()) {
+				excludes.add(exclude.getGroup() + ":" + exclude.getModule());
+			}
+		}
+		appendAll(key, "excludes", excludes);
+		if (hasUndescribedRules(configuration)) {
+			return null;
+		}
+		Set<String> repositories = new TreeSet<>();
+		for (ArtifactRepository repository : project.getRepositories()) {
+			String description = describe(repository);
+			if (description == null) {
+				return null;
+			}
+			repositories.add(description);
+		}
+		appendAll(key, "repositories", repositories);
+		Set<String> forced = new TreeSet<>();
+		for (ModuleVersionSelector selector : configuration.getResolutionStrategy()
+				.getForcedModules()) {
+			forced.add(selector.getGroup() + ":" + selector.getName() + ":"
+					+ selector.getVersion());
+		}
+		appendAll(key, "forced", forced);
+		for (Map<String, String> versions : managedVersions) {
+			key.append("managed:").append(
+					(versions != null) ? new TreeMap<>(versions) : "none").append("\n");
+		}
+		appendBuildFile(key, project.getBuildFile());
+		appendBuildFile(key, project.getRootProject().getBuildFile());
+		appendScripts(key, project);
+		return FileHashes.sha1(key.toString());
+	}
+
+	private static boolean hasUndescribedRules(Configuration configuration) {
+		Iterable<?> rules;
+		try {
+			Object substitutions = configuration.getResolutionStrategy().getClass()
+					.getMethod("getDependencySubstitution")
+					.invoke(configuration.getResolutionStrategy());
+			rules = actions(field(substitutions, "substitutionRules"));
+		}
+		catch (Exception ex) {
+			return true;
+		}
+		for (Object rule : rules) {
+			if (!isDependencyManagementRule(rule)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Iterable<?> actions(Object rules) throws Exception {
+		if (rules instanceof Iterable) {
+			return (Iterable<?>) rules;
+		}
+		for (Class<?> type = rules.getClass(); type != null; type = type
+				.getSuperclass()) {
+			for (Method method : type.getDeclaredMethods()) {
+				if (method.getName().equals("unpackInto")
+						&& method.getParameterCount() == 1) {
+					Object builder = method.getParameterTypes()[0].getEnclosingClass()
+							.getMethod("builder").invoke(null);
+					method.setAccessible(true);
+					method.invoke(rules, builder);
+					return (Iterable<?>) builder.getClass().getMethod("build")
+							.invoke(builder);
+				}
+			}
+		}
+		throw new IllegalStateException("Rules of type " + rules.getClass()
+				+ " cannot be inspected");
+	}
+
+	private static boolean isDependencyManagementRule(Object rule) {
+		if (rule.getClass().getName().startsWith(DEPENDENCY_MANAGEMENT_PACKAGE)) {
+			return true;
+		}
+		for (Class<?> type = rule.getClass(); type != null; type = type
+				.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				if (Action.class.isAssignableFrom(field.getType())) {
+					Object delegate = field(rule, field);
+					if (delegate != null && delegate.getClass().getName()
+							.startsWith(DEPENDENCY_MANAGEMENT_PACKAGE)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private static Object field(Object target, String name) throws Exception {
+		for (Class<?> type = target.getClass(); type != null; type = type
+				.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				if (field.getName().equals(name)) {
+					return field(target, field);
+				}
+			}
+		}
+		throw new NoSuchFieldException(name);
+	}
+
+	private static Object field(Object target, Field field) {
+		try {
+			field.setAccessible(true);
+			return field.get(target);
+		}
+		catch (Exception ex) {
+			return null;
+		}
+	}
+
+	private static void appendScripts(StringBuilder key, Project project) {
+		File rootDir = project.getRootDir();
+		Set<File> scripts = new TreeSet<>();
+		addScripts(project.getProjectDir(), false, scripts);
+		addScripts(rootDir, false, scripts);
+		addScripts(new File(rootDir, "gradle"), true, scripts);
+		scripts.addAll(project.getGradle().getStartParameter().getAllInitScripts());
+		for (File script : scripts) {
+			appendBuildFile(key, script);
+		}
+		Set<String> buildSrc = new TreeSet<>();
+		addBuildSrcFiles(new File(rootDir, "buildSrc"), buildSrc);
+		appendAll(key, "buildSrc", buildSrc);
+	}
+
+	private static void addScripts(File dir, boolean recursive, Set<File> scripts) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				if (recursive) {
+					addScripts(file, true, scripts);
+				}
+			}
+			else if (file.getName().endsWith(".gradle")
+					|| file.getName().endsWith(".gradle.kts")) {
+				scripts.add(file);
+			}
+		}
+	}
+
+	private static void addBuildSrcFiles(File dir, Set<String> files) {
+		File[] children = dir.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			if (child.isDirectory()) {
+				if (!"build".equals(child.getName()) && !".gradle".equals(child.getName())) {
+					addBuildSrcFiles(child, files);
+				}
+			}
+			else {
+				files.add(FileHashes.cacheKey(child));
+			}
+		}
+	}
+
+	private static String describe(ExternalModuleDependency dependency) {
+		StringBuilder description = new StringBuilder(dependency.getGroup() + ":"
+				+ dependency.getName() + ":" + dependency.getVersion() + " transitive="
+				+ dependency.isTransitive());
+		Set<String> excludes = new TreeSet<>();
+		for (ExcludeRule exclude : dependency.getExcludeRules()) {
+			excludes.add(exclude.getGroup() + ":" + exclude.getModule());
+		}
+		description.append(" excludes=").append(excludes);
+		Set<String> artifacts = new TreeSet<>();
+		for (DependencyArtifact artifact : dependency.getArtifacts()) {
+			artifacts.add(artifact.getName() + ":" + artifact.getType() + ":"
+					+ artifact.getExtension() + ":" + artifact.getClassifier());
+		}
+		return description.append(" artifacts=").append(artifacts).toString();
+	}
+
+	private static String describe(ArtifactRepository repository) {
+		if (repository instanceof MavenArtifactRepository) {
+			MavenArtifactRepository maven = (MavenArtifactRepository) repository;
+			return "maven " + maven.getUrl() + " " + maven.getArtifactUrls();
+		}
+		if (repository instanceof IvyArtifactRepository) {
+			return "ivy " + ((IvyArtifactRepository) repository).getUrl();
+		}
+		if (repository instanceof FlatDirectoryArtifactRepository) {
+			List<String> dirs = new ArrayList<>();
+			for (File dir : ((FlatDirectoryArtifactRepository) repository).getDirs()) {
+				dirs.add(dir.getAbsolutePath());
+			}
+			return "flatDir " + dirs;
+		}
+		return null;
+	}
+
+	private static void appendAll(StringBuilder key, String name,
+			Collection<String> values) {
+		key.append(name).append(":\n");
+		for (String value : values) {
+			key.append("    ").append(value).append("\n");
+		}
+	}
+
+	private static void appendBuildFile(StringBuilder key, File buildFile) {
+		key.append("buildFile:").append(buildFile.getAbsolutePath()).append(" ")
+				.append(buildFile.isFile() ? FileHashes.sha1(buildFile) : "none")
+				.append("\n");
+	}
+
+	private static synchronized ResolvedGraphSummary get(String key) {
+		ResolvedGraphSummary summary = stronglyHeld.get(key);
+		if (summary == null) {
+			SoftReference<ResolvedGraphSummary> reference = softlyHeld.remove(key);
+			summary = (reference != null) ? reference.get() : null;
+			if (summary != null) {
+				put(key, summary);
+			}
+		}
+		return summary;
+	}
+
+	private static synchronized void put(String key, ResolvedGraphSummary summary) {
+		ResolvedGraphSummary previous = stronglyHeld.put(key, summary);
+		if (previous != null) {
+			stronglyHeldModules -= previous.size();
+		}
+		stronglyHeldModules += summary.size();
+		Iterator<Map.Entry<String, ResolvedGraphSummary>> eldest = stronglyHeld
+				.entrySet().iterator();
+		while (stronglyHeldModules > MAX_STRONGLY_HELD_MODULES
+				&& stronglyHeld.size() > 1) {
+			Map.Entry<String, ResolvedGraphSummary> entry = eldest.next();
+			eldest.remove();
+			stronglyHeldModules -= entry.getValue().size();
+			softlyHeld.put(entry.getKey(), new SoftReference<>(entry.getValue()));
+		}
+		softlyHeld.values().removeIf((reference) -> reference.get() == null);
+	}
+
+}
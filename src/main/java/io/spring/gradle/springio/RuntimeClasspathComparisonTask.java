@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that compares the content of the jars on the regular test runtime
+ * classpath with the content of the jars in {@code springIoTestRuntime}. When the two
+ * are identical, running the tests against the Spring IO dependencies on the same JDK
+ * as the regular tests would only repeat them.
+ *
+ * @author Spring IO Team
+ */
+public class RuntimeClasspathComparisonTask extends DefaultTask {
+
+	private FileCollection testRuntimeClasspath;
+
+	private FileCollection springIoTestRuntimeClasspath;
+
+	private boolean identical;
+
+	/**
+	 * Compares the content of the two classpaths.
+	 */
+	@TaskAction
+	public void compare() {
+		this.identical = hashJars(this.testRuntimeClasspath)
+				.equals(hashJars(this.springIoTestRuntimeClasspath));
+		if (this.identical) {
+			getLogger().info("springIoTestRuntime resolves to the same jars as the "
+					+ "test runtime classpath");
+		}
+	}
+
+	/**
+	 * Returns the regular test runtime classpath. Only the jars on the classpath are
+	 * compared.
+	 *
+	 * @return the test runtime classpath
+	 */
+	@InputFiles
+	public FileCollection getTestRuntimeClasspath() {
+		return this.testRuntimeClasspath;
+	}
+
+	/**
+	 * Sets the regular test runtime classpath. Only the jars on the classpath are
+	 * compared.
+	 *
+	 * @param testRuntimeClasspath the test runtime classpath
+	 */
+	public void setTestRuntimeClasspath(FileCollection testRuntimeClasspath) {
+		this.testRuntimeClasspath = testRuntimeClasspath;
+	}
+
+	/**
+	 * Returns the {@code springIoTest} runtime classpath. Only the jars on the classpath
+	 * are compared.
+	 *
+	 * @return the Spring IO test runtime classpath
+	 */
+	@InputFiles
+	public FileCollection getSpringIoTestRuntimeClasspath() {
+		return this.springIoTestRuntimeClasspath;
+	}
+
+	/**
+	 * Sets the {@code springIoTest} runtime classpath. Only the jars on the classpath
+	 * are compared.
+	 *
+	 * @param springIoTestRuntimeClasspath the Spring IO test runtime classpath
+	 */
+	public void setSpringIoTestRuntimeClasspath(
+			FileCollection springIoTestRuntimeClasspath) {
+		this.springIoTestRuntimeClasspath = springIoTestRuntimeClasspath;
+	}
+
+	/**
+	 * Returns whether the task has executed and found the jars on the two classpaths to
+	 * be identical.
+	 *
+	 * @return {@code true} if the classpaths are identical, otherwise {@code false}
+	 */
+	public boolean isIdentical() {
+		return this.identical;
+	}
+
+	/**
+	 * Returns whether tests that have run successfully against the test runtime
+	 * classpath on the JDK of the given {@code test} task can stand in for running the
+	 * given {@code springIoTest} task. This is the case when the two classpaths are
+	 * identical and both tasks use the same JDK.
+	 *
+	 * @param test the regular test task
+	 * @param springIoTest the Spring IO test task
+	 * @return {@code true} if the results of {@code test} can be reused
+	 */
+	boolean canReuseResults(org.gradle.api.tasks.testing.Test test,
+			org.gradle.api.tasks.testing.Test springIoTest) {
+		if (!this.identical || !test.getState().getExecuted()
+				|| test.getState().getFailure() != null) {
+			return false;
+		}
+		if (test.getState().getSkipped() && !test.getState().getUpToDate()) {
+			return false;
+		}
+		Jdk testJdk = (test.getExecutable() != null)
+				? Jdk.forExecutable(new File(test.getExecutable())) : Jdk.current();
+		Jdk springIoTestJdk = Jdk.forExecutable(new File(springIoTest.getExecutable()));
+		if (!testJdk.getIdentifier().equals(springIoTestJdk.getIdentifier())) {
+			return false;
+		}
+		springIoTest.getLogger()
+				.lifecycle("Skipping " + springIoTest.getPath() + " as the results of "
+						+ test.getPath() + " apply. springIoTestRuntime resolves to "
+						+ "the same jars as the test runtime classpath and both use "
+						+ springIoTestJdk);
+		return true;
+	}
+
+	private List<String> hashJars(FileCollection classpath) {
+		List<String> hashes = new ArrayList<>();
+		for (File file : classpath.getFiles()) {
+			if (file.isFile()) {
+				hashes.add(FileHashes.sha1(file));
+			}
+		}
+		Collections.sort(hashes);
+		return hashes;
+	}
+
+}
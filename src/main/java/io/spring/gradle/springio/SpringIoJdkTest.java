@@ -0,0 +1,285 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.testing.Test;
+
+/**
+ * A {@link Test} that runs the tests against the Spring IO dependencies using a specific
+ * JDK. The absolute path of the JDK's {@code java} executable differs from machine to
+ * machine, so it is not used as an input. The JDK's vendor and version are used instead,
+ * allowing the task's outputs to be shared through the build cache.
+ * <p>
+ * When class data sharing is enabled, an AppCDS archive of the classes loaded by the
+ * tests is created for each JDK and classpath. Subsequent runs map the archive rather
+ * than loading and verifying every class again, reducing the startup time of each forked
+ * test JVM. JDK 13 and later write a dynamic archive when the first run exits. JDK 10 to
+ * 12, and JDK 8 update 40 and later when they provide the commercial AppCDS feature,
+ * record the classes that the first run loads and a static archive is dumped from that
+ * list before the next run. With any other JDK, such as JDK 7, class data sharing is
+ * ignored and a warning is logged.
+ *
+ * @author Spring IO Team
+ */
+@CacheableTask
+public class SpringIoJdkTest extends Test {
+
+	private static final int STATIC_ARCHIVE_JDK_VERSION = 10;
+
+	private static final int DYNAMIC_ARCHIVE_JDK_VERSION = 13;
+
+	private static final List<String> COMMERCIAL_APP_CDS_OPTIONS = Arrays
+			.asList("-XX:+UnlockCommercialFeatures", "-XX:+UseAppCDS");
+
+	private static final Map<String, Boolean> commercialAppCdsSupport = new ConcurrentHashMap<>();
+
+	private boolean classDataSharing;
+
+	private File classDataSharingArchiveDir = new File(getProject().getBuildDir(),
+			"spring-io/cds");
+
+	/**
+	 * Creates a new {@code SpringIoJdkTest}.
+	 */
+	public SpringIoJdkTest() {
+		doFirst(task -> configureClassDataSharing());
+	}
+
+	@Override
+	@Internal
+	public String getExecutable() {
+		return super.getExecutable();
+	}
+
+	/**
+	 * Returns an identifier of the JDK that will run the tests. When the JDK has a
+	 * {@code release} file, the identifier is made up of its vendor and version.
+	 * Otherwise the canonical path of the JDK is used.
+	 *
+	 * @return the JDK identifier
+	 */
+	@Input
+	public String getJdkIdentifier() {
+		return Jdk.forExecutable(new File(getExecutable())).getIdentifier();
+	}
+
+	/**
+	 * Returns whether an AppCDS archive should be used to speed up the startup of the
+	 * forked test JVMs. The archive only affects how quickly classes are loaded so it is
+	 * not an input of the task.
+	 *
+	 * @return {@code true} if class data sharing is enabled, otherwise {@code false}
+	 */
+	@Internal
+	public boolean isClassDataSharing() {
+		return this.classDataSharing;
+	}
+
+	/**
+	 * Sets whether an AppCDS archive should be used to speed up the startup of the
+	 * forked test JVMs.
+	 *
+	 * @param classDataSharing {@code true} if class data sharing should be enabled,
+	 * otherwise {@code false}
+	 */
+	public void setClassDataSharing(boolean classDataSharing) {
+		this.classDataSharing = classDataSharing;
+	}
+
+	/**
+	 * Returns the directory in which AppCDS archives are stored.
+	 *
+	 * @return the archive directory
+	 */
+	@Internal
+	public File getClassDataSharingArchiveDir() {
+		return this.classDataSharingArchiveDir;
+	}
+
+	/**
+	 * Sets the directory in which AppCDS archives are stored.
+	 *
+	 * @param classDataSharingArchiveDir the archive directory
+	 */
+	public void setClassDataSharingArchiveDir(File classDataSharingArchiveDir) {
+		this.classDataSharingArchiveDir = classDataSharingArchiveDir;
+	}
+
+	void configureClassDataSharing() {
+		if (!this.classDataSharing) {
+			return;
+		}
+		Jdk jdk = Jdk.forExecutable(new File(getExecutable()));
+		String prefix = getName() + "-" + classpathHash(jdk);
+		deleteStaleArchives(prefix);
+		File archive = new File(this.classDataSharingArchiveDir, prefix + ".jsa");
+		if (jdk.getMajorVersion() >= DYNAMIC_ARCHIVE_JDK_VERSION) {
+			if (archive.isFile()) {
+				jvmArgs("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+			}
+			else {
+				runInSingleFork("Creating AppCDS archive " + archive.getName());
+				jvmArgs("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath());
+			}
+			return;
+		}
+		File log = new File(this.classDataSharingArchiveDir, prefix + ".log");
+		List<String> options = staticArchiveOptions(jdk, log);
+		if (options == null) {
+			getLogger().warn("springIoTestClassDataSharing is ignored by " + getName()
+					+ " as it requires JDK " + STATIC_ARCHIVE_JDK_VERSION
+					+ " or later, or a JDK 8 with the commercial AppCDS feature, and "
+					+ jdk + " is being used");
+			return;
+		}
+		File classList = new File(this.classDataSharingArchiveDir,
+				prefix + ".classlist");
+		if (!archive.isFile() && classList.isFile()) {
+			dumpStaticArchive(options, classList, archive, log);
+		}
+		jvmArgs(options);
+		if (archive.isFile()) {
+			jvmArgs("-Xshare:auto", "-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+		}
+		else {
+			runInSingleFork(
+					"Recording the classes for AppCDS archive " + archive.getName());
+			jvmArgs("-XX:DumpLoadedClassList=" + classList.getAbsolutePath());
+		}
+	}
+
+	private List<String> staticArchiveOptions(Jdk jdk, File log) {
+		int majorVersion = jdk.getMajorVersion();
+		if (majorVersion > STATIC_ARCHIVE_JDK_VERSION) {
+			return Collections.emptyList();
+		}
+		if (majorVersion == STATIC_ARCHIVE_JDK_VERSION) {
+			return Collections.singletonList("-XX:+UseAppCDS");
+		}
+		if (majorVersion == 8 && commercialAppCdsSupport.computeIfAbsent(getExecutable(),
+				(executable) -> supportsCommercialAppCds(executable, log))) {
+			return COMMERCIAL_APP_CDS_OPTIONS;
+		}
+		return null;
+	}
+
+	private boolean supportsCommercialAppCds(String executable, File log) {
+		List<String> command = new ArrayList<>();
+		command.add(executable);
+		command.addAll(COMMERCIAL_APP_CDS_OPTIONS);
+		command.add("-version");
+		try {
+			Process process = new ProcessBuilder(command).redirectErrorStream(true)
+					.redirectOutput(log).start();
+			return process.waitFor() == 0;
+		}
+		catch (IOException ex) {
+			return false;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void dumpStaticArchive(List<String> options, File classList, File archive,
+			File log) {
+		List<String> command = new ArrayList<>();
+		command.add(getExecutable());
+		command.addAll(options);
+		command.add("-Xshare:dump");
+		command.add("-XX:SharedClassListFile=" + classList.getAbsolutePath());
+		command.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+		command.add("-cp");
+		command.add(jarClasspath());
+		boolean dumped;
+		try {
+			Process process = new ProcessBuilder(command).redirectErrorStream(true)
+					.redirectOutput(log).start();
+			dumped = process.waitFor() == 0 && archive.isFile();
+		}
+		catch (IOException ex) {
+			dumped = false;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			dumped = false;
+		}
+		if (!dumped) {
+			archive.delete();
+			getLogger().warn("Failed to create AppCDS archive " + archive.getName()
+					+ ". See " + log + " for details. Tests will run without an archive");
+		}
+	}
+
+	private void runInSingleFork(String reason) {
+		if (getMaxParallelForks() > 1) {
+			getLogger().lifecycle(reason + ". Tests will run in a single fork");
+			setMaxParallelForks(1);
+		}
+	}
+
+	private String jarClasspath() {
+		StringBuilder classpath = new StringBuilder();
+		for (File file : getClasspath().getFiles()) {
+			if (file.isFile()) {
+				if (classpath.length() > 0) {
+					classpath.append(File.pathSeparator);
+				}
+				classpath.append(file.getAbsolutePath());
+			}
+		}
+		return classpath.toString();
+	}
+
+	private String classpathHash(Jdk jdk) {
+		StringBuilder classpath = new StringBuilder(jdk.getIdentifier());
+		for (File file : getClasspath().getFiles()) {
+			if (file.isFile()) {
+				classpath.append(File.pathSeparator).append(FileHashes.cacheKey(file));
+			}
+		}
+		return FileHashes.sha1(classpath.toString());
+	}
+
+	private void deleteStaleArchives(String prefix) {
+		File[] archives = this.classDataSharingArchiveDir.listFiles();
+		if (archives == null) {
+			this.classDataSharingArchiveDir.mkdirs();
+			return;
+		}
+		for (File candidate : archives) {
+			if (candidate.getName().startsWith(getName() + "-")
+					&& !candidate.getName().startsWith(prefix + ".")) {
+				candidate.delete();
+			}
+		}
+	}
+
+}
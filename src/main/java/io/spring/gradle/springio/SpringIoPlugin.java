@@ -17,18 +17,37 @@
 package io.spring.gradle.springio;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import groovy.lang.GroovyObject;
 import io.spring.gradle.dependencymanagement.DependencyManagementPlugin;
 import io.spring.gradle.dependencymanagement.dsl.DependencyManagementExtension;
+import io.spring.gradle.dependencymanagement.dsl.DependencyManagementHandler;
+import io.spring.gradle.springio.core.ManagedVersionsIndex;
+import io.spring.gradle.springio.core.MavenPom;
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
 import org.gradle.api.Action;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.plugins.JavaPluginConvention;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.compile.JavaCompile;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.util.GradleVersion;
 
@@ -44,12 +63,56 @@ public class SpringIoPlugin implements Plugin<Project> {
 
 	private static final String TEST_TASK_NAME = "springIoTest";
 
+	private static final String QUICK_CHECK_TASK_NAME = "springIoQuickCheck";
+
 	private static final String INCOMPLETE_EXCLUDES_TASK_NAME = "springIoIncompleteExcludesCheck";
 
 	private static final String ALTERNATIVE_DEPENDENCIES_TASK_NAME = "springIoAlternativeDependenciesCheck";
 
 	private static final String CHECK_DEPENDENCY_VERSION_MAPPING_TASK_NAME = "springIoDependencyVersionMappingCheck";
 
+	private static final String CHECK_DECLARED_DEPENDENCY_VERSION_MAPPING_TASK_NAME = "springIoDeclaredDependencyVersionMappingCheck";
+
+	private static final String CLASSPATH_ABI_CHECK_TASK_NAME = "springIoTestClasspathAbiCheck";
+
+	private static final String RUNTIME_CLASSPATH_COMPARISON_TASK_NAME = "springIoTestRuntimeClasspathComparison";
+
+	private static final String TEST_IMPACT_ANALYSIS_TASK_NAME = "springIoTestImpactAnalysis";
+
+	private static final String BISECT_TASK_NAME = "springIoTestBisect";
+
+	private static final String LINKAGE_CHECK_TASK_NAME = "springIoLinkageCheck";
+
+	private static final String DUPLICATE_CLASSES_CHECK_TASK_NAME = "springIoDuplicateClassesCheck";
+
+	private static final String DEPENDENCY_CONVERGENCE_CHECK_TASK_NAME = "springIoDependencyConvergenceCheck";
+
+	private static final String DYNAMIC_VERSIONS_CHECK_TASK_NAME = "springIoDynamicVersionsCheck";
+
+	private static final String CLASSPATH_WEIGHT_REPORT_TASK_NAME = "springIoClasspathWeightReport";
+
+	private static final String UNUSED_DEPENDENCIES_CHECK_TASK_NAME = "springIoUnusedDependenciesCheck";
+
+	private static final String TEST_DURATION_REPORT_TASK_NAME = "springIoTestDurationReport";
+
+	private static final String PLATFORM_TEST_MATRIX_TASK_NAME = "springIoTestPlatformMatrix";
+
+	private static final String PLATFORM_UPGRADE_PREVIEW_TASK_NAME = "springIoPlatformUpgradePreview";
+
+	private static final String GRAPH_DIFF_TASK_NAME = "springIoGraphDiff";
+
+	private static final String PLATFORM_LOCKFILES_TASK_NAME = "springIoPlatformLockfiles";
+
+	private static final String PLATFORM_BOMS_PROPERTY = "springIoTestPlatformBoms";
+
+	private static final String OBSERVE_RESOLUTION_PROPERTY = "springIoObserveResolution";
+
+	private static final String BOMS_PROPERTY = "springIoBoms";
+
+	private static final String USE_LOCKFILES_PROPERTY = "springIoUseLockfiles";
+
+	private static final Pattern JDK_HOME_PROPERTY = Pattern.compile("JDK([0-9]+)_HOME");
+
 	@Override
 	public void apply(final Project project) {
 		project.getPlugins().withType(JavaPlugin.class, new Action<JavaPlugin>() {
@@ -63,19 +126,39 @@ public class SpringIoPlugin implements Plugin<Project> {
 	}
 
 	private void applyJavaProject(final Project project) {
+		BuildMetrics.record(project);
 		DependencyManagementExtension dependencyManagement = configureDependencyManagementPlugin(
 				project);
 		Configuration springIoTestRuntimeConfiguration = createSpringIoTestRuntimeConfiguration(
 				project);
 		Task springIoTest = createSpringIoTestTasks(project,
 				springIoTestRuntimeConfiguration);
+		maybeCreatePlatformTasks(project, dependencyManagement,
+				springIoTestRuntimeConfiguration);
 		Task incompleteExcludesCheck = project.getTasks()
 				.create(INCOMPLETE_EXCLUDES_TASK_NAME, IncompleteExcludesTask.class);
-		Task alternativeDependenciesCheck = project.getTasks().create(
-				ALTERNATIVE_DEPENDENCIES_TASK_NAME, AlternativeDependenciesTask.class);
-		DependencyVersionMappingCheckTask dependencyVersionMappingCheck = createDependencyVersionMappingCheckTask(
+		AlternativeDependenciesTask alternativeDependenciesCheck = project.getTasks()
+				.create(ALTERNATIVE_DEPENDENCIES_TASK_NAME,
+						AlternativeDependenciesTask.class);
+		alternativeDependenciesCheck
+				.setUseLockfiles(project.hasProperty(USE_LOCKFILES_PROPERTY));
+		Callable<ManagedVersionsIndex> managedVersionsIndex = createManagedVersionsIndex(
 				project, dependencyManagement, springIoTestRuntimeConfiguration);
+		DependencyVersionMappingCheckTask dependencyVersionMappingCheck = createDependencyVersionMappingCheckTask(
+				project, CHECK_DEPENDENCY_VERSION_MAPPING_TASK_NAME,
+				managedVersionsIndex);
+		dependencyVersionMappingCheck
+				.setUseLockfiles(project.hasProperty(USE_LOCKFILES_PROPERTY));
+		configureObservedResolution(project, dependencyVersionMappingCheck);
+		Task quickCheck = createQuickCheckTask(project, managedVersionsIndex,
+				incompleteExcludesCheck, alternativeDependenciesCheck);
+		createDynamicVersionsCheckTask(project, dependencyManagement,
+				springIoTestRuntimeConfiguration);
+		createUnusedDependenciesCheckTask(project);
+		createPlatformLockfilesTask(project, dependencyVersionMappingCheck,
+				springIoTestRuntimeConfiguration);
 		project.getTasks().create(CHECK_TASK_NAME, (task) -> {
+			task.dependsOn(quickCheck);
 			task.dependsOn(dependencyVersionMappingCheck);
 			task.dependsOn(springIoTest);
 			task.dependsOn(incompleteExcludesCheck);
@@ -97,8 +180,13 @@ public class SpringIoPlugin implements Plugin<Project> {
 	}
 
 	private Configuration createSpringIoTestRuntimeConfiguration(final Project project) {
+		return createSpringIoTestRuntimeConfiguration(project, "springIoTestRuntime");
+	}
+
+	private Configuration createSpringIoTestRuntimeConfiguration(final Project project,
+			String name) {
 		Configuration springIoTestRuntimeConfiguration = project.getConfigurations()
-				.create("springIoTestRuntime", configuration -> configuration.extendsFrom(
+				.create(name, configuration -> configuration.extendsFrom(
 						project.getConfigurations().getByName("testRuntime")));
 		project.getPlugins().withId("propdeps", plugin -> {
 			springIoTestRuntimeConfiguration
@@ -115,6 +203,37 @@ public class SpringIoPlugin implements Plugin<Project> {
 		SourceSetContainer sourceSets = project.getConvention()
 				.getPlugin(JavaPluginConvention.class).getSourceSets();
 		SourceSet springIoTestSourceSet = sourceSets.create("springIoTest");
+		ClasspathAbiCheckTask classpathAbiCheck = project.getTasks()
+				.create(CLASSPATH_ABI_CHECK_TASK_NAME, ClasspathAbiCheckTask.class);
+		RuntimeClasspathComparisonTask runtimeClasspathComparison = project.getTasks()
+				.create(RUNTIME_CLASSPATH_COMPARISON_TASK_NAME,
+						RuntimeClasspathComparisonTask.class);
+		TestImpactAnalysisTask testImpactAnalysis = project.getTasks().create(
+				TEST_IMPACT_ANALYSIS_TASK_NAME, TestImpactAnalysisTask.class);
+		springIoTest.doLast(task -> {
+			if (anyJdkTestRan(project)) {
+				testImpactAnalysis.recordSuccessfulRun();
+			}
+		});
+		VersionBisectTask bisect = project.getTasks().create(BISECT_TASK_NAME,
+				VersionBisectTask.class);
+		TestDurationReportTask testDurationReport = project.getTasks().create(
+				TEST_DURATION_REPORT_TASK_NAME, TestDurationReportTask.class);
+		LinkageCheckTask linkageCheck = project.getTasks()
+				.create(LINKAGE_CHECK_TASK_NAME, LinkageCheckTask.class);
+		DuplicateClassesTask duplicateClassesCheck = project.getTasks().create(
+				DUPLICATE_CLASSES_CHECK_TASK_NAME, DuplicateClassesTask.class);
+		duplicateClassesCheck.setClasspath(springIoTestRuntimeConfiguration);
+		project.getTasks().withType(SpringIoJdkTest.class,
+				springIoJdkTest -> springIoJdkTest.mustRunAfter(duplicateClassesCheck));
+		DependencyConvergenceTask dependencyConvergenceCheck = project.getTasks().create(
+				DEPENDENCY_CONVERGENCE_CHECK_TASK_NAME, DependencyConvergenceTask.class);
+		dependencyConvergenceCheck.setConfiguration(springIoTestRuntimeConfiguration);
+		ClasspathWeightTask classpathWeightReport = project.getTasks().create(
+				CLASSPATH_WEIGHT_REPORT_TASK_NAME, ClasspathWeightTask.class);
+		classpathWeightReport.configuration(springIoTestRuntimeConfiguration);
+		GraphDiffTask graphDiff = createGraphDiffTask(project,
+				springIoTestRuntimeConfiguration);
 		project.afterEvaluate(localProject -> {
 			SourceSet testSourceSet = sourceSets.findByName("test");
 			springIoTestSourceSet.setCompileClasspath(
@@ -127,17 +246,269 @@ public class SpringIoPlugin implements Plugin<Project> {
 					.setSrcDirs(testSourceSet.getJava().getSrcDirs());
 			springIoTestSourceSet.getResources()
 					.setSrcDirs(testSourceSet.getResources().getSrcDirs());
+			configureClasspathAbiCheck(project, classpathAbiCheck, testSourceSet,
+					springIoTestSourceSet);
+			runtimeClasspathComparison
+					.setTestRuntimeClasspath(testSourceSet.getRuntimeClasspath());
+			runtimeClasspathComparison
+					.setSpringIoTestRuntimeClasspath(springIoTestRuntimeConfiguration);
+			configureTestImpactAnalysis(project, testImpactAnalysis, testSourceSet,
+					springIoTestRuntimeConfiguration);
+			configureBisect(project, bisect, testSourceSet,
+					springIoTestRuntimeConfiguration);
+			configureTestDurationReport(project, testDurationReport);
+			configureLinkageCheck(project, linkageCheck,
+					springIoTestRuntimeConfiguration);
+			configureClasspathWeightReport(project, classpathWeightReport);
+			Configuration runtime = project.getConfigurations().findByName("runtime");
+			if (runtime != null) {
+				graphDiff.configuration(runtime);
+			}
 		});
-		maybeCreateJdkTest(project, springIoTestRuntimeConfiguration, "Jdk7",
-				springIoTest, springIoTestSourceSet);
-		maybeCreateJdkTest(project, springIoTestRuntimeConfiguration, "Jdk8",
-				springIoTest, springIoTestSourceSet);
+		for (int jdkVersion : jdkVersions(project)) {
+			maybeCreateJdkTest(project, springIoTestRuntimeConfiguration,
+					"Jdk" + jdkVersion, springIoTest, springIoTestSourceSet,
+					classpathAbiCheck, runtimeClasspathComparison, testImpactAnalysis);
+		}
 		return springIoTest;
 	}
 
+	private Set<Integer> jdkVersions(Project project) {
+		Set<Integer> jdkVersions = new TreeSet<>(Arrays.asList(7, 8));
+		for (String property : project.getProperties().keySet()) {
+			Matcher matcher = JDK_HOME_PROPERTY.matcher(property);
+			if (matcher.matches()) {
+				jdkVersions.add(Integer.valueOf(matcher.group(1)));
+			}
+		}
+		return jdkVersions;
+	}
+
+	private void configureClasspathWeightReport(Project project,
+			ClasspathWeightTask classpathWeightReport) {
+		Configuration runtime = project.getConfigurations().findByName("runtime");
+		if (runtime != null) {
+			classpathWeightReport.configuration(runtime);
+		}
+		classpathWeightReport.setBaselineConfiguration(
+				project.getConfigurations().findByName("testRuntime"));
+	}
+
+	private GraphDiffTask createGraphDiffTask(Project project,
+			Configuration springIoTestRuntimeConfiguration) {
+		GraphDiffTask graphDiff = project.getTasks().create(GRAPH_DIFF_TASK_NAME,
+				GraphDiffTask.class);
+		graphDiff.configuration(springIoTestRuntimeConfiguration);
+		project.getGradle().addBuildListener(new BuildAdapter() {
+
+			@Override
+			public void buildFinished(BuildResult result) {
+				if (result.getFailure() == null) {
+					graphDiff.recordSuccessfulBuild();
+				}
+			}
+
+		});
+		return graphDiff;
+	}
+
+	private void maybeCreatePlatformTasks(final Project project,
+			DependencyManagementExtension dependencyManagement,
+			Configuration springIoTestRuntimeConfiguration) {
+		if (!project.hasProperty(PLATFORM_BOMS_PROPERTY)) {
+			return;
+		}
+		PlatformTestMatrixReportTask platformTestMatrix = project.getTasks().create(
+				PLATFORM_TEST_MATRIX_TASK_NAME, PlatformTestMatrixReportTask.class);
+		PlatformUpgradePreviewTask platformUpgradePreview = project.getTasks().create(
+				PLATFORM_UPGRADE_PREVIEW_TASK_NAME, PlatformUpgradePreviewTask.class);
+		platformUpgradePreview.setConfiguration(springIoTestRuntimeConfiguration);
+		for (String bom : project.property(PLATFORM_BOMS_PROPERTY).toString()
+				.split(",")) {
+			if (bom.trim().length() > 0) {
+				Test platformTest = createPlatformTest(project, dependencyManagement,
+						bom.trim(), platformTestMatrix, platformUpgradePreview);
+				platformTestMatrix.dependsOn(platformTest);
+			}
+		}
+	}
+
+	private Test createPlatformTest(final Project project,
+			DependencyManagementExtension dependencyManagement, final String bom,
+			PlatformTestMatrixReportTask platformTestMatrix,
+			PlatformUpgradePreviewTask platformUpgradePreview) {
+		String[] coordinates = bom.split(":");
+		if (coordinates.length != 3) {
+			throw new InvalidUserDataException("Platform BOM '" + bom
+					+ "' in " + PLATFORM_BOMS_PROPERTY
+					+ " must be of the form groupId:artifactId:version");
+		}
+		String version = coordinates[2];
+		StringBuilder suffix = new StringBuilder();
+		for (String part : version.split("[^A-Za-z0-9]+")) {
+			if (part.length() > 0) {
+				suffix.append(Character.toUpperCase(part.charAt(0)))
+						.append(part.substring(1));
+			}
+		}
+		String taskName = "springIoPlatform" + suffix + "Test";
+		if (project.getTasks().findByName(taskName) != null) {
+			throw new InvalidUserDataException("Platform BOM '" + bom + "' in "
+					+ PLATFORM_BOMS_PROPERTY + " has the same version as another BOM");
+		}
+		Configuration configuration = createSpringIoTestRuntimeConfiguration(project,
+				"springIoTestRuntimePlatform" + suffix);
+		((DependencyManagementHandler) ((GroovyObject) dependencyManagement)
+				.getProperty(configuration.getName()))
+						.imports(imports -> imports.mavenBom(bom));
+		platformUpgradePreview.candidate(bom,
+				() -> dependencyManagement.getManagedVersionsForConfiguration(configuration));
+		String reportName = "spring-io-platform-"
+				+ version.toLowerCase().replaceAll("[^a-z0-9.]+", "-");
+		File junitXmlDestination = new File(project.getBuildDir(),
+				reportName + "-test-results");
+		@SuppressWarnings("deprecation")
+		Test platformTest = project.getTasks().create(taskName, Test.class, test -> {
+			File htmlDestination = new File(project.getBuildDir(),
+					"reports/" + reportName + "-tests");
+			SourceSet testSourceSet = getTestSourceSet(project);
+			if (GradleVersion.current().compareTo(GradleVersion.version("4.0")) < 0) {
+				test.getReports().getHtml().setDestination((Object) htmlDestination);
+				test.getReports().getJunitXml()
+						.setDestination((Object) junitXmlDestination);
+				test.setTestClassesDir(testSourceSet.getOutput().getClassesDir());
+			}
+			else {
+				test.getReports().getHtml().setDestination(htmlDestination);
+				test.getReports().getJunitXml().setDestination(junitXmlDestination);
+				test.setTestClassesDirs(testSourceSet.getOutput().getClassesDirs());
+			}
+			test.setClasspath(project.files(getMainSourceSet(project).getOutput(),
+					testSourceSet.getOutput(), configuration));
+			test.dependsOn(testSourceSet.getClassesTaskName());
+			test.setIgnoreFailures(true);
+		});
+		platformTestMatrix.platform(version, junitXmlDestination);
+		return platformTest;
+	}
+
+	private void configureClasspathAbiCheck(Project project,
+			ClasspathAbiCheckTask classpathAbiCheck, SourceSet testSourceSet,
+			SourceSet springIoTestSourceSet) {
+		classpathAbiCheck.setTestCompileClasspath(testSourceSet.getCompileClasspath());
+		classpathAbiCheck.setSpringIoTestCompileClasspath(
+				springIoTestSourceSet.getCompileClasspath());
+		if (GradleVersion.current().compareTo(GradleVersion.version("4.0")) < 0) {
+			classpathAbiCheck.setEnabled(false);
+			return;
+		}
+		Task compileSpringIoTestJava = project.getTasks()
+				.getByName(springIoTestSourceSet.getCompileJavaTaskName());
+		compileSpringIoTestJava.dependsOn(classpathAbiCheck);
+		compileSpringIoTestJava.onlyIf(task -> !classpathAbiCheck.isAbiIdentical());
+	}
+
+	private void configureTestImpactAnalysis(Project project,
+			TestImpactAnalysisTask testImpactAnalysis, SourceSet testSourceSet,
+			Configuration springIoTestRuntimeConfiguration) {
+		if (GradleVersion.current().compareTo(GradleVersion.version("4.0")) < 0) {
+			testImpactAnalysis.setEnabled(false);
+			return;
+		}
+		testImpactAnalysis.setConfiguration(springIoTestRuntimeConfiguration);
+		testImpactAnalysis.setMainClassesDirs(classesAndResourcesDirs(project,
+				getMainSourceSet(project)));
+		testImpactAnalysis.setTestClassesDirs(classesAndResourcesDirs(project,
+				testSourceSet));
+		testImpactAnalysis.dependsOn(testSourceSet.getClassesTaskName());
+	}
+
+	private FileCollection classesAndResourcesDirs(Project project, SourceSet sourceSet) {
+		return project.files(sourceSet.getOutput().getClassesDirs(),
+				(Callable<File>) () -> sourceSet.getOutput().getResourcesDir());
+	}
+
+	private boolean anyJdkTestRan(Project project) {
+		for (SpringIoJdkTest jdkTest : project.getTasks()
+				.withType(SpringIoJdkTest.class)) {
+			if (jdkTest.getState().getDidWork()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void configureBisect(Project project, VersionBisectTask bisect,
+			SourceSet testSourceSet, Configuration springIoTestRuntimeConfiguration) {
+		bisect.setTestRuntimeConfiguration(
+				project.getConfigurations().getByName("testRuntime"));
+		bisect.setSpringIoTestRuntimeConfiguration(springIoTestRuntimeConfiguration);
+		bisect.setTestClasspath(project.files(getMainSourceSet(project).getOutput(),
+				testSourceSet.getOutput()));
+		bisect.setTestResultsDirs(project.files((Callable<List<File>>) () -> {
+			List<File> testResultsDirs = new ArrayList<>();
+			for (SpringIoJdkTest springIoJdkTest : project.getTasks()
+					.withType(SpringIoJdkTest.class)) {
+				testResultsDirs
+						.add(springIoJdkTest.getReports().getJunitXml().getDestination());
+			}
+			return testResultsDirs;
+		}));
+		if (project.hasProperty("springIoTestBisectTests")) {
+			bisect.setTestClasses(Arrays.asList(project
+					.property("springIoTestBisectTests").toString().split("\\s*,\\s*")));
+		}
+		Test testTask = (Test) project.getTasks().getByName(JavaPlugin.TEST_TASK_NAME);
+		if (testTask.getExecutable() != null) {
+			bisect.setExecutable(testTask.getExecutable());
+		}
+		bisect.dependsOn(testSourceSet.getClassesTaskName());
+	}
+
+	private void configureTestDurationReport(Project project,
+			TestDurationReportTask testDurationReport) {
+		Test testTask = (Test) project.getTasks().getByName(JavaPlugin.TEST_TASK_NAME);
+		testDurationReport
+				.setBaselineResultsDir(testTask.getReports().getJunitXml().getDestination());
+		testDurationReport.mustRunAfter(testTask);
+		for (SpringIoJdkTest springIoJdkTest : project.getTasks()
+				.withType(SpringIoJdkTest.class)) {
+			testDurationReport.comparison(springIoJdkTest.getName(),
+					springIoJdkTest.getReports().getJunitXml().getDestination());
+			testDurationReport.mustRunAfter(springIoJdkTest);
+		}
+	}
+
+	private void configureLinkageCheck(Project project, LinkageCheckTask linkageCheck,
+			Configuration springIoTestRuntimeConfiguration) {
+		if (GradleVersion.current().compareTo(GradleVersion.version("4.0")) < 0) {
+			linkageCheck.setEnabled(false);
+			return;
+		}
+		SourceSet mainSourceSet = getMainSourceSet(project);
+		linkageCheck.setClassesDirs(mainSourceSet.getOutput().getClassesDirs());
+		linkageCheck.setClasspath(springIoTestRuntimeConfiguration);
+		linkageCheck.dependsOn(mainSourceSet.getClassesTaskName());
+		Jdk oldestJdk = null;
+		for (SpringIoJdkTest springIoJdkTest : project.getTasks()
+				.withType(SpringIoJdkTest.class)) {
+			springIoJdkTest.mustRunAfter(linkageCheck);
+			Jdk jdk = Jdk.forExecutable(new File(springIoJdkTest.getExecutable()));
+			if (oldestJdk == null || jdk.getMajorVersion() < oldestJdk.getMajorVersion()) {
+				oldestJdk = jdk;
+			}
+		}
+		if (linkageCheck.getJdkHome() == null && oldestJdk != null) {
+			linkageCheck.setJdkHome(oldestJdk.getHome());
+		}
+	}
+
 	private void maybeCreateJdkTest(final Project project,
 			Configuration springioTestRuntimeConfig, final String jdk, Task springIoTest,
-			final SourceSet springIoTestSourceSet) {
+			final SourceSet springIoTestSourceSet,
+			ClasspathAbiCheckTask classpathAbiCheck,
+			RuntimeClasspathComparisonTask runtimeClasspathComparison,
+			TestImpactAnalysisTask testImpactAnalysis) {
 		String whichJdk = jdk.toUpperCase() + "_HOME";
 		if (!project.hasProperty(whichJdk)) {
 			return;
@@ -153,7 +524,8 @@ public class SpringIoPlugin implements Plugin<Project> {
 		}
 		String taskName = "springIo" + jdk + "Test";
 		@SuppressWarnings("deprecation")
-		Test springIoJdkTest = project.getTasks().create(taskName, Test.class, test -> {
+		SpringIoJdkTest springIoJdkTest = project.getTasks().create(taskName,
+				SpringIoJdkTest.class, test -> {
 			File htmlDestination = project.file(project.getBuildDir()
 					+ "/reports/spring-io-" + jdk.toLowerCase() + "-tests");
 			File junitXmlDestination = project.file(project.getBuildDir() + "/spring-io-"
@@ -167,14 +539,52 @@ public class SpringIoPlugin implements Plugin<Project> {
 			else {
 				test.getReports().getHtml().setDestination(htmlDestination);
 				test.getReports().getJunitXml().setDestination(junitXmlDestination);
-				test.setTestClassesDirs(
-						springIoTestSourceSet.getOutput().getClassesDirs());
+				test.setTestClassesDirs(project.files((Callable<FileCollection>) () -> {
+					SourceSet testClassesSourceSet = classpathAbiCheck.isAbiIdentical()
+							? getTestSourceSet(project) : springIoTestSourceSet;
+					return testClassesSourceSet.getOutput().getClassesDirs();
+				}));
 			}
 			test.executable(exec);
+			test.setClassDataSharing(
+					project.hasProperty("springIoTestClassDataSharing"));
 		});
+		Test testTask = (Test) project.getTasks().getByName(JavaPlugin.TEST_TASK_NAME);
+		springIoJdkTest.dependsOn(runtimeClasspathComparison);
+		springIoJdkTest.mustRunAfter(testTask);
+		springIoJdkTest.onlyIf(task -> !runtimeClasspathComparison
+				.canReuseResults(testTask, springIoJdkTest));
+		springIoJdkTest.dependsOn(testImpactAnalysis);
+		testImpactAnalysis.doLast(task -> testImpactAnalysis.applyTo(springIoJdkTest));
+		springIoJdkTest.onlyIf(task -> testImpactAnalysis.isAnyTestAffected());
 		springIoTest.dependsOn(springIoJdkTest);
-		project.afterEvaluate(localProject -> springIoJdkTest
-				.setClasspath(springIoTestSourceSet.getRuntimeClasspath()));
+		project.afterEvaluate(localProject -> {
+			if (!classpathAbiCheck.isEnabled()) {
+				springIoJdkTest.setClasspath(springIoTestSourceSet.getRuntimeClasspath());
+				return;
+			}
+			SourceSet testSourceSet = getTestSourceSet(project);
+			springIoJdkTest.dependsOn(testSourceSet.getClassesTaskName());
+			springIoJdkTest.setClasspath(project.files((Callable<FileCollection>) () -> {
+				if (!classpathAbiCheck.isAbiIdentical()) {
+					return springIoTestSourceSet.getRuntimeClasspath();
+				}
+				return project.files(getMainSourceSet(project).getOutput(),
+						testSourceSet.getOutput().getClassesDirs(),
+						springIoTestSourceSet.getOutput().getResourcesDir(),
+						springioTestRuntimeConfig);
+			}));
+		});
+	}
+
+	private SourceSet getMainSourceSet(Project project) {
+		return project.getConvention().getPlugin(JavaPluginConvention.class)
+				.getSourceSets().getByName("main");
+	}
+
+	private SourceSet getTestSourceSet(Project project) {
+		return project.getConvention().getPlugin(JavaPluginConvention.class)
+				.getSourceSets().getByName("test");
 	}
 
 	String createRelativeJavaExec(boolean isWindows) {
@@ -185,18 +595,176 @@ public class SpringIoPlugin implements Plugin<Project> {
 		return File.pathSeparatorChar == ';';
 	}
 
-	private DependencyVersionMappingCheckTask createDependencyVersionMappingCheckTask(
+	private Task createQuickCheckTask(final Project project,
+			Callable<ManagedVersionsIndex> managedVersionsIndex,
+			Task incompleteExcludesCheck, Task alternativeDependenciesCheck) {
+		DependencyVersionMappingCheckTask declaredDependencyVersionMappingCheck = createDependencyVersionMappingCheckTask(
+				project, CHECK_DECLARED_DEPENDENCY_VERSION_MAPPING_TASK_NAME,
+				managedVersionsIndex);
+		declaredDependencyVersionMappingCheck.setDeclaredOnly(true);
+		Task quickCheck = project.getTasks().create(QUICK_CHECK_TASK_NAME, (task) -> {
+			task.dependsOn(declaredDependencyVersionMappingCheck);
+			task.dependsOn(incompleteExcludesCheck);
+			task.dependsOn(alternativeDependenciesCheck);
+		});
+		project.getTasks().getByName(JavaPlugin.COMPILE_JAVA_TASK_NAME)
+				.dependsOn(quickCheck);
+		return quickCheck;
+	}
+
+	private Callable<ManagedVersionsIndex> createManagedVersionsIndex(
 			final Project project, DependencyManagementExtension dependencyManagement,
 			Configuration springIoTestRuntimeConfiguration) {
+		List<String> boms = new ArrayList<>();
+		if (project.hasProperty(BOMS_PROPERTY)) {
+			for (String bom : project.property(BOMS_PROPERTY).toString().split(",")) {
+				String coordinates = bom.trim();
+				if (coordinates.length() == 0) {
+					continue;
+				}
+				if (coordinates.split(":").length != 3) {
+					throw new InvalidUserDataException("BOM '" + coordinates + "' in "
+							+ BOMS_PROPERTY
+							+ " must be of the form groupId:artifactId:version");
+				}
+				if (boms.contains(coordinates)) {
+					throw new InvalidUserDataException("BOM '" + coordinates + "' in "
+							+ BOMS_PROPERTY + " is listed more than once");
+				}
+				boms.add(coordinates);
+			}
+		}
+		return new LazyManagedVersionsIndex(() -> {
+			Map<String, Map<String, String>> managedVersions = new LinkedHashMap<>();
+			managedVersions.put(DependencyVersionMappingCheckTask.SPRING_IO_BOM,
+					dependencyManagement.getManagedVersionsForConfiguration(
+							springIoTestRuntimeConfiguration));
+			for (String bom : boms) {
+				managedVersions.put(bom, readBom(project, bom).getManagedVersions());
+			}
+			return ManagedVersionsIndex.of(managedVersions);
+		});
+	}
+
+	private MavenPom readBom(Project project, String coordinates) {
+		try {
+			return MavenPom.read(resolvePom(project, coordinates),
+					(pom) -> resolvePom(project, pom));
+		}
+		catch (IllegalArgumentException ex) {
+			throw new InvalidUserDataException(ex.getMessage(), ex);
+		}
+	}
+
+	private File resolvePom(Project project, String coordinates) {
+		Configuration configuration = project.getConfigurations().detachedConfiguration(
+				project.getDependencies().create(coordinates + "@pom"));
+		configuration.setTransitive(false);
+		return configuration.getSingleFile();
+	}
+
+	private DependencyVersionMappingCheckTask createDependencyVersionMappingCheckTask(
+			final Project project, String name,
+			Callable<ManagedVersionsIndex> managedVersionsIndex) {
 		DependencyVersionMappingCheckTask dependencyVersionMappingCheck = project
-				.getTasks().create(CHECK_DEPENDENCY_VERSION_MAPPING_TASK_NAME,
-						DependencyVersionMappingCheckTask.class);
+				.getTasks().create(name, DependencyVersionMappingCheckTask.class);
 		dependencyVersionMappingCheck.conventionMapping("configuration", () -> project
 				.getConfigurations().getByName(JavaPlugin.RUNTIME_CONFIGURATION_NAME));
+		Callable<ManagedVersionsIndex> timedManagedVersionsIndex = () -> TaskMetrics
+				.of(dependencyVersionMappingCheck)
+				.managedVersionsIndex(managedVersionsIndex);
+		dependencyVersionMappingCheck.conventionMapping("managedVersionsIndex",
+				timedManagedVersionsIndex);
 		dependencyVersionMappingCheck.conventionMapping("managedVersions",
-				() -> dependencyManagement.getManagedVersionsForConfiguration(
-						springIoTestRuntimeConfiguration));
+				() -> timedManagedVersionsIndex.call().getVersions());
 		return dependencyVersionMappingCheck;
 	}
 
+	private void configureObservedResolution(Project project,
+			DependencyVersionMappingCheckTask dependencyVersionMappingCheck) {
+		if (!project.hasProperty(OBSERVE_RESOLUTION_PROPERTY)) {
+			return;
+		}
+		Configuration runtimeClasspath = project.getConfigurations()
+				.findByName("runtimeClasspath");
+		if (runtimeClasspath != null) {
+			dependencyVersionMappingCheck.observe(runtimeClasspath);
+		}
+		dependencyVersionMappingCheck.mustRunAfter(project.getTasks()
+				.withType(JavaCompile.class));
+		dependencyVersionMappingCheck
+				.mustRunAfter(project.getTasks().withType(Test.class));
+	}
+
+	private void createDynamicVersionsCheckTask(final Project project,
+			DependencyManagementExtension dependencyManagement,
+			Configuration springIoTestRuntimeConfiguration) {
+		DynamicVersionsTask dynamicVersionsCheck = project.getTasks()
+				.create(DYNAMIC_VERSIONS_CHECK_TASK_NAME, DynamicVersionsTask.class);
+		dynamicVersionsCheck.setConfiguration(springIoTestRuntimeConfiguration);
+		dynamicVersionsCheck.conventionMapping("managedVersions",
+				() -> TaskMetrics.of(dynamicVersionsCheck).time(
+						TaskMetrics.BOM_RESOLUTION,
+						() -> dependencyManagement.getManagedVersionsForConfiguration(
+								springIoTestRuntimeConfiguration)));
+	}
+
+	private void createPlatformLockfilesTask(final Project project,
+			DependencyVersionMappingCheckTask dependencyVersionMappingCheck,
+			Configuration springIoTestRuntimeConfiguration) {
+		PlatformLockfilesTask platformLockfiles = project.getTasks()
+				.create(PLATFORM_LOCKFILES_TASK_NAME, PlatformLockfilesTask.class);
+		platformLockfiles.setConfiguration(springIoTestRuntimeConfiguration);
+		project.afterEvaluate(localProject -> {
+			if (platformLockfiles.getLockedConfigurations().isEmpty()) {
+				platformLockfiles.lock(dependencyVersionMappingCheck.getConfiguration());
+			}
+		});
+	}
+
+	private void createUnusedDependenciesCheckTask(final Project project) {
+		UnusedDependenciesTask unusedDependenciesCheck = project.getTasks().create(
+				UNUSED_DEPENDENCIES_CHECK_TASK_NAME, UnusedDependenciesTask.class);
+		if (GradleVersion.current().compareTo(GradleVersion.version("4.0")) < 0) {
+			unusedDependenciesCheck.setEnabled(false);
+			return;
+		}
+		project.afterEvaluate(localProject -> {
+			for (SourceSet sourceSet : Arrays.asList(getMainSourceSet(project),
+					getTestSourceSet(project))) {
+				unusedDependenciesCheck.analysis(sourceSet.getName(),
+						sourceSet.getOutput().getClassesDirs(),
+						project.getConfigurations()
+								.getByName(sourceSet.getCompileClasspathConfigurationName()));
+				unusedDependenciesCheck.dependsOn(sourceSet.getClassesTaskName());
+			}
+		});
+	}
+
+	/**
+	 * A {@link Callable} that creates the {@link ManagedVersionsIndex} the first time it
+	 * is called and returns the same index thereafter. Creating the index resolves the
+	 * BOMs, so it happens at most once.
+	 */
+	private static final class LazyManagedVersionsIndex
+			implements Callable<ManagedVersionsIndex> {
+
+		private final Callable<ManagedVersionsIndex> factory;
+
+		private ManagedVersionsIndex index;
+
+		private LazyManagedVersionsIndex(Callable<ManagedVersionsIndex> factory) {
+			this.factory = factory;
+		}
+
+		@Override
+		public synchronized ManagedVersionsIndex call() throws Exception {
+			if (this.index == null) {
+				this.index = this.factory.call();
+			}
+			return this.index;
+		}
+
+	}
+
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.spring.gradle.springio.core.ManagedVersionsIndex;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+
+/**
+ * The timers and counters of a single Spring IO {@link Task}. Tasks obtain their metrics
+ * using {@link #of(Task)} and the metrics of every task in a build are written out by
+ * {@link BuildMetrics} when the build finishes.
+ *
+ * @author Spring IO Team
+ */
+final class TaskMetrics {
+
+	/**
+	 * The timer for resolving the BOMs that provide the managed versions.
+	 */
+	static final String BOM_RESOLUTION = "bomResolution";
+
+	/**
+	 * The timer for resolving dependency graphs, without downloading any artifacts.
+	 */
+	static final String GRAPH_RESOLUTION = "graphResolution";
+
+	/**
+	 * The timer for resolving and downloading the artifacts of a resolved dependency
+	 * graph.
+	 */
+	static final String ARTIFACT_DOWNLOAD = "artifactDownload";
+
+	/**
+	 * The timer for evaluating rules.
+	 */
+	static final String RULE_EVALUATION = "rules";
+
+	/**
+	 * The counter for the nodes of a dependency graph that have been visited.
+	 */
+	static final String NODES = "nodesVisited";
+
+	/**
+	 * The counter for the edges of a dependency graph that have been visited.
+	 */
+	static final String EDGES = "edgesVisited";
+
+	/**
+	 * The counter for the resolved artifacts that have been touched.
+	 */
+	static final String ARTIFACTS = "artifactsTouched";
+
+	/**
+	 * The counter for the rules that have been evaluated.
+	 */
+	static final String RULES = "rulesEvaluated";
+
+	/**
+	 * The counter for the problems that have been found.
+	 */
+	static final String FINDINGS = "findings";
+
+	/**
+	 * The counter for the results that have been reused from a cache.
+	 */
+	static final String CACHE_HITS = "cacheHits";
+
+	private final String path;
+
+	private final String type;
+
+	private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> timers = new ConcurrentHashMap<>();
+
+	private volatile long started;
+
+	private volatile long duration;
+
+	private volatile String outcome;
+
+	TaskMetrics(String path, String type) {
+		this.path = path;
+		this.type = type;
+	}
+
+	/**
+	 * Returns the metrics of the given {@code task}. When the metrics of the task's
+	 * build are not being recorded, metrics that will be discarded are returned.
+	 *
+	 * @param task the task
+	 * @return the metrics
+	 */
+	static TaskMetrics of(Task task) {
+		return BuildMetrics.forTask(task);
+	}
+
+	/**
+	 * Increments the given {@code counter} by one.
+	 *
+	 * @param counter the counter
+	 */
+	void increment(String counter) {
+		increment(counter, 1);
+	}
+
+	/**
+	 * Increments the given {@code counter} by the given {@code delta}.
+	 *
+	 * @param counter the counter
+	 * @param delta the delta
+	 */
+	void increment(String counter, long delta) {
+		this.counters.computeIfAbsent(counter, (key) -> new LongAdder()).add(delta);
+	}
+
+	/**
+	 * Calls the given {@code action}, adding the time that it takes to the given
+	 * {@code timer}.
+	 *
+	 * @param timer the timer
+	 * @param action the action
+	 * @param <T> the type of the action's result
+	 * @return the result of the action
+	 */
+	<T> T time(String timer, Supplier<T> action) {
+		long start = System.nanoTime();
+		try {
+			return action.get();
+		}
+		finally {
+			addTime(timer, start);
+		}
+	}
+
+	/**
+	 * Runs the given {@code action}, adding the time that it takes to the given
+	 * {@code timer}.
+	 *
+	 * @param timer the timer
+	 * @param action the action
+	 */
+	void time(String timer, Runnable action) {
+		long start = System.nanoTime();
+		try {
+			action.run();
+		}
+		finally {
+			addTime(timer, start);
+		}
+	}
+
+	/**
+	 * Returns the {@link ManagedVersionsIndex} that the given {@code index} provides,
+	 * timing the resolution of the BOMs that creating it may need.
+	 *
+	 * @param index the provider of the index
+	 * @return the index
+	 * @throws Exception if the index cannot be created
+	 */
+	ManagedVersionsIndex managedVersionsIndex(Callable<ManagedVersionsIndex> index)
+			throws Exception {
+		long start = System.nanoTime();
+		try {
+			return index.call();
+		}
+		finally {
+			addTime(BOM_RESOLUTION, start);
+		}
+	}
+
+	/**
+	 * Returns the resolved artifacts of the given {@code configuration}, timing the
+	 * resolution of its dependency graph and of its artifacts separately and counting
+	 * the artifacts as touched. The files of the artifacts may not have been downloaded.
+	 *
+	 * @param configuration the configuration
+	 * @return the resolved artifacts
+	 * @see #downloadedArtifacts(Configuration)
+	 */
+	Set<ResolvedArtifact> resolvedArtifacts(Configuration configuration) {
+		resolutionRoot(configuration);
+		Set<ResolvedArtifact> artifacts = time(ARTIFACT_DOWNLOAD, () -> configuration
+				.getResolvedConfiguration().getResolvedArtifacts());
+		increment(ARTIFACTS, artifacts.size());
+		return artifacts;
+	}
+
+	/**
+	 * Returns the resolved artifacts of the given {@code configuration} like
+	 * {@link #resolvedArtifacts(Configuration)}, having also downloaded the file of each
+	 * artifact.
+	 *
+	 * @param configuration the configuration
+	 * @return the resolved artifacts
+	 */
+	Set<ResolvedArtifact> downloadedArtifacts(Configuration configuration) {
+		Set<ResolvedArtifact> artifacts = resolvedArtifacts(configuration);
+		time(ARTIFACT_DOWNLOAD, () -> {
+			for (ResolvedArtifact artifact : artifacts) {
+				artifact.getFile();
+			}
+		});
+		return artifacts;
+	}
+
+	/**
+	 * Returns the root of the dependency graph of the given {@code configuration},
+	 * timing any resolution that is needed.
+	 *
+	 * @param configuration the configuration
+	 * @return the root of the dependency graph
+	 */
+	ResolvedComponentResult resolutionRoot(Configuration configuration) {
+		return time(GRAPH_RESOLUTION,
+				() -> configuration.getIncoming().getResolutionResult().getRoot());
+	}
+
+	private void addTime(String timer, long start) {
+		this.timers.computeIfAbsent(timer, (key) -> new LongAdder())
+				.add(System.nanoTime() - start);
+	}
+
+	void started() {
+		this.started = System.nanoTime();
+	}
+
+	void finished(String outcome) {
+		this.duration = System.nanoTime() - this.started;
+		this.outcome = outcome;
+	}
+
+	String getPath() {
+		return this.path;
+	}
+
+	String getType() {
+		return this.type;
+	}
+
+	String getOutcome() {
+		return this.outcome;
+	}
+
+	long getDuration() {
+		return TimeUnit.NANOSECONDS.toMillis(this.duration);
+	}
+
+	long getCounter(String counter) {
+		LongAdder value = this.counters.get(counter);
+		return (value != null) ? value.sum() : 0;
+	}
+
+	long getTimer(String timer) {
+		LongAdder value = this.timers.get(timer);
+		return (value != null) ? TimeUnit.NANOSECONDS.toMillis(value.sum()) : 0;
+	}
+
+	Map<String, Long> getCounters() {
+		Map<String, Long> counters = new TreeMap<>();
+		for (String counter : this.counters.keySet()) {
+			counters.put(counter, getCounter(counter));
+		}
+		return counters;
+	}
+
+	Map<String, Long> getTimers() {
+		Map<String, Long> timers = new TreeMap<>();
+		for (String timer : this.timers.keySet()) {
+			timers.put(timer, getTimer(timer));
+		}
+		return timers;
+	}
+
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import io.spring.gradle.springio.TestSuiteResult.TestCaseResult;
+
+/**
+ * A {@link Task} that compares the durations of the tests run by the regular test task
+ * with their durations when run against the Spring IO dependencies. A test class is
+ * flagged as slower when its duration has increased by more than the threshold and a
+ * one-sided paired t-test of the durations of its tests shows the increase to be
+ * significant at the 95% level. Individual tests, for which there is only a single
+ * measurement, are flagged using the threshold alone.
+ *
+ * @author Spring IO Team
+ */
+public class TestDurationReportTask extends DefaultTask {
+
+	private static final double[] T_CRITICAL_VALUES = { 6.314, 2.920, 2.353, 2.132,
+			2.015, 1.943, 1.895, 1.860, 1.833, 1.812, 1.796, 1.782, 1.771, 1.761, 1.753,
+			1.746, 1.740, 1.734, 1.729, 1.725, 1.721, 1.717, 1.714, 1.711, 1.708, 1.706,
+			1.703, 1.701, 1.699, 1.697 };
+
+	private static final double T_CRITICAL_VALUE_LARGE_SAMPLE = 1.645;
+
+	private final Map<String, File> comparisonResultsDirs = new LinkedHashMap<>();
+
+	private File baselineResultsDir;
+
+	private double threshold = 0.2;
+
+	private long minimumDelta = 50;
+
+	private File jsonReportFile = new File(getProject().getBuildDir(),
+			"spring-io/test-durations.json");
+
+	private File textReportFile = new File(getProject().getBuildDir(),
+			"spring-io/test-durations.txt");
+
+	/**
+	 * Returns the directory containing the JUnit XML reports of the regular test task.
+	 *
+	 * @return the baseline results directory
+	 */
+	@Internal
+	public File getBaselineResultsDir() {
+		return this.baselineResultsDir;
+	}
+
+	/**
+	 * Sets the directory containing the JUnit XML reports of the regular test task.
+	 *
+	 * @param baselineResultsDir the baseline results directory
+	 */
+	public void setBaselineResultsDir(File baselineResultsDir) {
+		this.baselineResultsDir = baselineResultsDir;
+	}
+
+	/**
+	 * Adds the JUnit XML reports of the given test task to the comparison.
+	 *
+	 * @param taskName the name of the test task
+	 * @param testResultsDir the directory containing its JUnit XML reports
+	 */
+	public void comparison(String taskName, File testResultsDir) {
+		this.comparisonResultsDirs.put(taskName, testResultsDir);
+	}
+
+	/**
+	 * Returns the directories containing the JUnit XML reports that are compared with
+	 * the baseline, keyed by the name of the task that produced them.
+	 *
+	 * @return the comparison results directories
+	 */
+	@Internal
+	public Map<String, File> getComparisonResultsDirs() {
+		return Collections.unmodifiableMap(this.comparisonResultsDirs);
+	}
+
+	/**
+	 * Returns the JUnit XML reports that are read by this task.
+	 *
+	 * @return the test results
+	 */
+	@InputFiles
+	public FileCollection getTestResults() {
+		return getProject().files(this.baselineResultsDir,
+				this.comparisonResultsDirs.values());
+	}
+
+	/**
+	 * Returns the relative increase in duration, for example {@code 0.2} for 20%, above
+	 * which a test is flagged as slower.
+	 *
+	 * @return the threshold
+	 */
+	@Input
+	public double getThreshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * Sets the relative increase in duration, for example {@code 0.2} for 20%, above
+	 * which a test is flagged as slower.
+	 *
+	 * @param threshold the threshold
+	 */
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Returns the increase in duration, in milliseconds, below which a test is never
+	 * flagged as slower, no matter its relative increase. Prevents very short tests
+	 * from being flagged due to timing noise.
+	 *
+	 * @return the minimum delta in milliseconds
+	 */
+	@Input
+	public long getMinimumDelta() {
+		return this.minimumDelta;
+	}
+
+	/**
+	 * Sets the increase in duration, in milliseconds, below which a test is never
+	 * flagged as slower, no matter its relative increase.
+	 *
+	 * @param minimumDelta the minimum delta in milliseconds
+	 */
+	public void setMinimumDelta(long minimumDelta) {
+		this.minimumDelta = minimumDelta;
+	}
+
+	/**
+	 * Returns the file to which the JSON report is written.
+	 *
+	 * @return the JSON report file
+	 */
+	@OutputFile
+	public File getJsonReportFile() {
+		return this.jsonReportFile;
+	}
+
+	/**
+	 * Sets the file to which the JSON report is written.
+	 *
+	 * @param jsonReportFile the JSON report file
+	 */
+	public void setJsonReportFile(File jsonReportFile) {
+		this.jsonReportFile = jsonReportFile;
+	}
+
+	/**
+	 * Returns the file to which the text report is written.
+	 *
+	 * @return the text report file
+	 */
+	@OutputFile
+	public File getTextReportFile() {
+		return this.textReportFile;
+	}
+
+	/**
+	 * Sets the file to which the text report is written.
+	 *
+	 * @param textReportFile the text report file
+	 */
+	public void setTextReportFile(File textReportFile) {
+		this.textReportFile = textReportFile;
+	}
+
+	/**
+	 * Compares the test durations and produces the reports.
+	 */
+	@TaskAction
+	public void report() {
+		Map<String, TestSuiteResult> baseline = readSuites(this.baselineResultsDir);
+		Map<String, List<Duration>> comparisons = new LinkedHashMap<>();
+		for (Map.Entry<String, File> entry : this.comparisonResultsDirs.entrySet()) {
+			List<Duration> classes = new ArrayList<>();
+			for (TestSuiteResult suite : readSuites(entry.getValue()).values()) {
+				TestSuiteResult baselineSuite = baseline.get(suite.getName());
+				if (baselineSuite != null) {
+					classes.add(compare(baselineSuite, suite));
+				}
+			}
+			Collections.sort(classes);
+			comparisons.put(entry.getKey(), classes);
+			int flaggedClasses = 0;
+			int flaggedTests = 0;
+			for (Duration testClass : classes) {
+				flaggedClasses += testClass.flagged ? 1 : 0;
+				for (Duration test : testClass.tests) {
+					flaggedTests += test.flagged ? 1 : 0;
+				}
+			}
+			if (flaggedClasses > 0 || flaggedTests > 0) {
+				getLogger().lifecycle(flaggedClasses + " test classes and " + flaggedTests
+						+ " tests are significantly slower in " + entry.getKey()
+						+ ". See " + this.textReportFile);
+			}
+		}
+		writeJson(comparisons);
+		writeText(comparisons);
+	}
+
+	private Map<String, TestSuiteResult> readSuites(File testResultsDir) {
+		Map<String, TestSuiteResult> suites = new LinkedHashMap<>();
+		if (testResultsDir != null) {
+			for (TestSuiteResult suite : TestSuiteResult.read(testResultsDir)) {
+				suites.put(suite.getName(), suite);
+			}
+		}
+		return suites;
+	}
+
+	private Duration compare(TestSuiteResult baselineSuite, TestSuiteResult suite) {
+		Map<String, Long> baselineDurations = new HashMap<>();
+		for (TestCaseResult testCase : baselineSuite.getTestCases()) {
+			if (!testCase.isFailedOrSkipped()) {
+				baselineDurations.put(testCase.getName(), testCase.getDuration());
+			}
+		}
+		Duration testClass = new Duration(suite.getName());
+		for (TestCaseResult testCase : suite.getTestCases()) {
+			Long baselineDuration = baselineDurations.get(testCase.getName());
+			if (baselineDuration != null && !testCase.isFailedOrSkipped()) {
+				Duration test = new Duration(testCase.getName());
+				test.baseline = baselineDuration;
+				test.duration = testCase.getDuration();
+				test.flagged = exceedsThreshold(test);
+				testClass.tests.add(test);
+				testClass.baseline += test.baseline;
+				testClass.duration += test.duration;
+			}
+		}
+		Collections.sort(testClass.tests);
+		testClass.significant = isSignificantIncrease(testClass.tests);
+		testClass.flagged = exceedsThreshold(testClass) && testClass.significant;
+		return testClass;
+	}
+
+	private boolean exceedsThreshold(Duration duration) {
+		return duration.getDelta() >= this.minimumDelta
+				&& duration.getChange() > this.threshold;
+	}
+
+	private boolean isSignificantIncrease(List<Duration> tests) {
+		int n = tests.size();
+		if (n < 2) {
+			return true;
+		}
+		double mean = 0;
+		for (Duration test : tests) {
+			mean += test.getDelta();
+		}
+		mean /= n;
+		double variance = 0;
+		for (Duration test : tests) {
+			variance += Math.pow(test.getDelta() - mean, 2);
+		}
+		variance /= (n - 1);
+		if (variance == 0) {
+			return mean > 0;
+		}
+		double t = mean / Math.sqrt(variance / n);
+		double critical = (n - 1 <= T_CRITICAL_VALUES.length)
+				? T_CRITICAL_VALUES[n - 2] : T_CRITICAL_VALUE_LARGE_SAMPLE;
+		return t > critical;
+	}
+
+	private void writeJson(Map<String, List<Duration>> comparisons) {
+		JsonWriter json = new JsonWriter();
+		json.beginObject().name("threshold").value(this.threshold).name("minimumDelta")
+				.value(this.minimumDelta).name("comparisons").beginArray();
+		for (Map.Entry<String, List<Duration>> comparison : comparisons.entrySet()) {
+			json.beginObject().name("task").value(comparison.getKey()).name("classes")
+					.beginArray();
+			for (Duration testClass : comparison.getValue()) {
+				json.beginObject();
+				appendJson(json, testClass);
+				json.name("significant").value(testClass.significant).name("tests")
+						.beginArray();
+				for (Duration test : testClass.tests) {
+					json.beginObject();
+					appendJson(json, test);
+					json.endObject();
+				}
+				json.endArray().endObject();
+			}
+			json.endArray().endObject();
+		}
+		json.endArray().endObject();
+		write(this.jsonReportFile, json + "\n");
+	}
+
+	private void appendJson(JsonWriter json, Duration duration) {
+		json.name("name").value(duration.name).name("baseline").value(duration.baseline)
+				.name("duration").value(duration.duration).name("delta")
+				.value(duration.getDelta()).name("change")
+				.rawValue(String.format(Locale.ROOT, "%.4f", duration.getChange()))
+				.name("flagged").value(duration.flagged);
+	}
+
+	private void writeText(Map<String, List<Duration>> comparisons) {
+		StringBuilder text = new StringBuilder();
+		for (Map.Entry<String, List<Duration>> comparison : comparisons.entrySet()) {
+			text.append("test vs ").append(comparison.getKey()).append("\n\n");
+			List<String[]> rows = new ArrayList<>();
+			rows.add(new String[] { "Test", "test (ms)", comparison.getKey() + " (ms)",
+					"Delta (ms)", "Change", "" });
+			for (Duration testClass : comparison.getValue()) {
+				rows.add(row(testClass.name, testClass));
+				for (Duration test : testClass.tests) {
+					rows.add(row("    " + test.name, test));
+				}
+			}
+			appendTable(text, rows);
+			text.append("\n");
+		}
+		write(this.textReportFile, text.toString());
+	}
+
+	private String[] row(String name, Duration duration) {
+		return new String[] { name, Long.toString(duration.baseline),
+				Long.toString(duration.duration), String.format(Locale.ROOT, "%+d",
+						duration.getDelta()),
+				String.format(Locale.ROOT, "%+.1f%%", duration.getChange() * 100),
+				duration.flagged ? "SLOWER" : "" };
+	}
+
+	private void appendTable(StringBuilder text, List<String[]> rows) {
+		int[] widths = new int[rows.get(0).length];
+		for (String[] row : rows) {
+			for (int i = 0; i < row.length; i++) {
+				widths[i] = Math.max(widths[i], row[i].length());
+			}
+		}
+		for (String[] row : rows) {
+			StringBuilder line = new StringBuilder();
+			for (int i = 0; i < row.length; i++) {
+				boolean leftAligned = (i == 0 || i == row.length - 1);
+				String padding = new String(new char[widths[i] - row[i].length()])
+						.replace('\0', ' ');
+				line.append(leftAligned ? row[i] + padding : padding + row[i])
+						.append("   ");
+			}
+			text.append(line.toString().replaceAll("\\s+$", "")).append("\n");
+		}
+	}
+
+	private void write(File file, String content) {
+		file.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(
+				Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+			writer.print(content);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + file, ex);
+		}
+	}
+
+	private static final class Duration implements Comparable<Duration> {
+
+		private final String name;
+
+		private final List<Duration> tests = new ArrayList<>();
+
+		private long baseline;
+
+		private long duration;
+
+		private boolean significant;
+
+		private boolean flagged;
+
+		private Duration(String name) {
+			this.name = name;
+		}
+
+		private long getDelta() {
+			return this.duration - this.baseline;
+		}
+
+		private double getChange() {
+			if (this.baseline == 0) {
+				return (this.duration > 0) ? 1.0 : 0.0;
+			}
+			return (double) getDelta() / this.baseline;
+		}
+
+		@Override
+		public int compareTo(Duration other) {
+			int result = Long.compare(other.getDelta(), getDelta());
+			return (result != 0) ? result : this.name.compareTo(other.name);
+		}
+
+	}
+
+}
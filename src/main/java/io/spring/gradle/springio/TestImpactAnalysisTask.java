@@ -0,0 +1,466 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.testing.Test;
+
+import io.spring.gradle.springio.ClassScanner.ScannedClass;
+
+/**
+ * A {@link Task} that works out which tests are affected by the changes to the
+ * {@code springIoTestRuntime} configuration since the tests last ran successfully. The
+ * packages of every jar that has been added or changed are mapped onto the test classes
+ * that refer to them, either directly or through other main or test classes, by scanning
+ * their bytecode. Test and main classes that have themselves changed are treated in the
+ * same way. Every test is considered to be affected when there is no record of a
+ * previous successful run, when a jar has been removed, when a changed artifact cannot
+ * be read as a jar, or when a resource has been added, removed or changed, either in a
+ * jar or alongside the main and test classes. A jar's manifest and Maven metadata are not
+ * treated as resources as they change with every version.
+ *
+ * @author Spring IO Team
+ */
+public class TestImpactAnalysisTask extends DefaultTask {
+
+	private static final String MODULE_PREFIX = "module.";
+
+	private static final String CLASS_PREFIX = "class.";
+
+	private static final String RESOURCE_PREFIX = "resource.";
+
+	private static final int MAX_CACHED_JARS = 2048;
+
+	private static final Map<String, JarContents> jarContentsCache = new ConcurrentHashMap<>();
+
+	private Configuration configuration;
+
+	private FileCollection mainClassesDirs;
+
+	private FileCollection testClassesDirs;
+
+	private File stateFile = new File(getProject().getBuildDir(),
+			"spring-io/test-impact.properties");
+
+	private Properties currentState;
+
+	private Set<String> affectedTestClasses;
+
+	/**
+	 * Creates a new {@code TestImpactAnalysisTask}. The task is disabled by default
+	 * unless the {@code springIoTestImpactAnalysis} project property is set.
+	 */
+	public TestImpactAnalysisTask() {
+		setEnabled(getProject().hasProperty("springIoTestImpactAnalysis"));
+	}
+
+	/**
+	 * Performs the test impact analysis.
+	 */
+	@TaskAction
+	public void analyze() {
+		this.affectedTestClasses = null;
+		this.currentState = new Properties();
+		Map<String, JarContents> moduleContents = new HashMap<>();
+		for (ResolvedArtifact artifact : TaskMetrics.of(this)
+				.downloadedArtifacts(this.configuration)) {
+			ModuleVersionIdentifier id = artifact.getModuleVersion().getId();
+			String module = id.getGroup() + ":" + id.getName()
+					+ ((artifact.getClassifier() != null)
+							? ":" + artifact.getClassifier() : "");
+			this.currentState.setProperty(MODULE_PREFIX + module,
+					id.getVersion() + " " + FileHashes.sha1(artifact.getFile()));
+			JarContents contents = jarContents(artifact.getFile());
+			if (contents != null) {
+				this.currentState.setProperty(RESOURCE_PREFIX + module,
+						contents.resourcesHash);
+			}
+			moduleContents.put(MODULE_PREFIX + module, contents);
+		}
+		Map<String, Set<String>> references = new HashMap<>();
+		Set<String> testClasses = new HashSet<>();
+		scanClasses("main", this.mainClassesDirs, references, null);
+		scanClasses("test", this.testClassesDirs, references, testClasses);
+		Properties previousState = loadPreviousState();
+		if (previousState == null) {
+			getLogger().lifecycle("No previous successful run of the Spring IO tests was "
+					+ "found. All tests will run");
+			return;
+		}
+		Set<String> changedPackages = new HashSet<>();
+		for (String key : previousState.stringPropertyNames()) {
+			if (key.startsWith(MODULE_PREFIX)
+					&& !this.currentState.containsKey(key)) {
+				getLogger().lifecycle(key.substring(MODULE_PREFIX.length())
+						+ " has been removed from " + this.configuration.getName()
+						+ ". All tests will run");
+				return;
+			}
+			if (key.startsWith(RESOURCE_PREFIX)
+					&& !this.currentState.containsKey(key)) {
+				getLogger().lifecycle("Resources of "
+						+ key.substring(RESOURCE_PREFIX.length())
+						+ " have been removed. All tests will run");
+				return;
+			}
+		}
+		Set<String> affected = new HashSet<>();
+		for (String key : this.currentState.stringPropertyNames()) {
+			String value = this.currentState.getProperty(key);
+			if (value.equals(previousState.getProperty(key))) {
+				continue;
+			}
+			if (key.startsWith(RESOURCE_PREFIX)) {
+				getLogger().lifecycle("Resources of "
+						+ key.substring(RESOURCE_PREFIX.length())
+						+ " have been added or changed. All tests will run");
+				return;
+			}
+			if (key.startsWith(MODULE_PREFIX)) {
+				JarContents contents = moduleContents.get(key);
+				if (contents == null) {
+					getLogger().lifecycle(key.substring(MODULE_PREFIX.length())
+							+ " has changed and cannot be read as a jar. All tests "
+							+ "will run");
+					return;
+				}
+				getLogger().info(key.substring(MODULE_PREFIX.length()) + " has changed");
+				changedPackages.addAll(contents.packages);
+			}
+			else {
+				affected.add(key.substring(CLASS_PREFIX.length()));
+			}
+		}
+		for (String key : previousState.stringPropertyNames()) {
+			if (key.startsWith(CLASS_PREFIX) && !this.currentState.containsKey(key)) {
+				affected.add(key.substring(CLASS_PREFIX.length()));
+			}
+		}
+		this.affectedTestClasses = findAffectedTestClasses(references, testClasses,
+				changedPackages, affected);
+		getLogger().lifecycle(this.affectedTestClasses.size() + " test classes are "
+				+ "affected by changes since the last successful run");
+	}
+
+	/**
+	 * Records the state that was analyzed as the state of the last successful run. Should
+	 * be called once the Spring IO tests have passed.
+	 */
+	public void recordSuccessfulRun() {
+		if (this.currentState == null) {
+			return;
+		}
+		this.stateFile.getParentFile().mkdirs();
+		try (OutputStream output = new FileOutputStream(this.stateFile)) {
+			this.currentState.store(output, null);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Returns whether any tests are affected. Returns {@code true} if the analysis has
+	 * not been performed.
+	 *
+	 * @return {@code true} if tests are affected, otherwise {@code false}
+	 */
+	public boolean isAnyTestAffected() {
+		return this.affectedTestClasses == null || !this.affectedTestClasses.isEmpty();
+	}
+
+	/**
+	 * Returns the names of the affected test classes, or {@code null} if every test is
+	 * affected.
+	 *
+	 * @return the affected test classes
+	 */
+	public Set<String> getAffectedTestClasses() {
+		return (this.affectedTestClasses != null)
+				? Collections.unmodifiableSet(this.affectedTestClasses) : null;
+	}
+
+	/**
+	 * Configures the given {@code test} task to only run the affected tests.
+	 *
+	 * @param test the test task
+	 */
+	public void applyTo(Test test) {
+		if (this.affectedTestClasses == null) {
+			return;
+		}
+		test.getFilter().setFailOnNoMatchingTests(false);
+		for (String testClass : this.affectedTestClasses) {
+			test.getFilter().includeTestsMatching(testClass);
+			test.getFilter().includeTestsMatching(testClass + "$*");
+		}
+	}
+
+	/**
+	 * Returns the {@link Configuration} whose changes are analyzed.
+	 *
+	 * @return the configuration
+	 */
+	public Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	/**
+	 * Sets the {@link Configuration} whose changes are analyzed.
+	 *
+	 * @param configuration the configuration
+	 */
+	public void setConfiguration(Configuration configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Returns the directories containing the main classes and resources.
+	 *
+	 * @return the main classes directories
+	 */
+	@InputFiles
+	public FileCollection getMainClassesDirs() {
+		return this.mainClassesDirs;
+	}
+
+	/**
+	 * Sets the directories containing the main classes and resources.
+	 *
+	 * @param mainClassesDirs the main classes directories
+	 */
+	public void setMainClassesDirs(FileCollection mainClassesDirs) {
+		this.mainClassesDirs = mainClassesDirs;
+	}
+
+	/**
+	 * Returns the directories containing the test classes and resources.
+	 *
+	 * @return the test classes directories
+	 */
+	@InputFiles
+	public FileCollection getTestClassesDirs() {
+		return this.testClassesDirs;
+	}
+
+	/**
+	 * Sets the directories containing the test classes and resources.
+	 *
+	 * @param testClassesDirs the test classes directories
+	 */
+	public void setTestClassesDirs(FileCollection testClassesDirs) {
+		this.testClassesDirs = testClassesDirs;
+	}
+
+	/**
+	 * Returns the file in which the state of the last successful run is recorded.
+	 *
+	 * @return the state file
+	 */
+	public File getStateFile() {
+		return this.stateFile;
+	}
+
+	/**
+	 * Sets the file in which the state of the last successful run is recorded.
+	 *
+	 * @param stateFile the state file
+	 */
+	public void setStateFile(File stateFile) {
+		this.stateFile = stateFile;
+	}
+
+	private Properties loadPreviousState() {
+		if (!this.stateFile.isFile()) {
+			return null;
+		}
+		Properties previousState = new Properties();
+		try (InputStream input = new FileInputStream(this.stateFile)) {
+			previousState.load(input);
+		}
+		catch (IOException ex) {
+			return null;
+		}
+		return previousState;
+	}
+
+	private void scanClasses(String name, FileCollection classesDirs,
+			Map<String, Set<String>> references, Set<String> classes) {
+		for (File classesDir : classesDirs.getFiles()) {
+			hashResources(RESOURCE_PREFIX + name + "/", classesDir);
+			for (ScannedClass scannedClass : ClassScanner.scan(classesDir)) {
+				references.put(scannedClass.getName(), scannedClass.getReferences());
+				this.currentState.setProperty(CLASS_PREFIX + scannedClass.getName(),
+						scannedClass.getHash());
+				if (classes != null) {
+					classes.add(scannedClass.getName());
+				}
+			}
+		}
+	}
+
+	private void hashResources(String prefix, File directory) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				hashResources(prefix + file.getName() + "/", file);
+			}
+			else if (!file.getName().endsWith(".class")) {
+				this.currentState.setProperty(prefix + file.getName(),
+						FileHashes.sha1(file));
+			}
+		}
+	}
+
+	private JarContents jarContents(File jar) {
+		if (!jar.isFile()) {
+			return null;
+		}
+		String key = FileHashes.cacheKey(jar);
+		JarContents contents = jarContentsCache.get(key);
+		if (contents == null) {
+			contents = readJarContents(jar);
+			if (contents == null) {
+				return null;
+			}
+			if (jarContentsCache.size() >= MAX_CACHED_JARS) {
+				jarContentsCache.clear();
+			}
+			jarContentsCache.put(key, contents);
+		}
+		return contents;
+	}
+
+	private JarContents readJarContents(File jar) {
+		Set<String> packages = new HashSet<>();
+		Set<String> resources = new TreeSet<>();
+		try (ZipFile zipFile = new ZipFile(jar)) {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (name.endsWith(".class")) {
+					if (name.indexOf('/') > 0) {
+						packages.add(name.substring(0, name.lastIndexOf('/')));
+					}
+				}
+				else if (!entry.isDirectory() && !name.equals("META-INF/MANIFEST.MF")
+						&& !name.startsWith("META-INF/maven/")) {
+					resources.add(name + " " + entry.getCrc());
+				}
+			}
+		}
+		catch (IOException ex) {
+			return null;
+		}
+		return new JarContents(packages,
+				FileHashes.sha1(String.join("\n", resources)));
+	}
+
+	private Set<String> findAffectedTestClasses(Map<String, Set<String>> references,
+			Set<String> testClasses, Set<String> changedPackages,
+			Set<String> changedClasses) {
+		Map<String, Set<String>> referencedBy = new HashMap<>();
+		Deque<String> queue = new ArrayDeque<>();
+		Set<String> affected = new HashSet<>();
+		for (Map.Entry<String, Set<String>> entry : references.entrySet()) {
+			String referrer = entry.getKey();
+			for (String referenced : entry.getValue()) {
+				referencedBy.computeIfAbsent(referenced, (key) -> new HashSet<>())
+						.add(referrer);
+				int packageEnd = referenced.lastIndexOf('/');
+				if (packageEnd > 0 && changedPackages
+						.contains(referenced.substring(0, packageEnd))) {
+					if (affected.add(referrer)) {
+						queue.add(referrer);
+					}
+				}
+			}
+		}
+		for (String changedClass : changedClasses) {
+			if (affected.add(changedClass)) {
+				queue.add(changedClass);
+			}
+		}
+		while (!queue.isEmpty()) {
+			Set<String> referrers = referencedBy.get(queue.remove());
+			if (referrers != null) {
+				for (String referrer : referrers) {
+					if (affected.add(referrer)) {
+						queue.add(referrer);
+					}
+				}
+			}
+		}
+		Set<String> affectedTestClasses = new TreeSet<>();
+		for (String testClass : testClasses) {
+			if (affected.contains(testClass)) {
+				String topLevelClass = testClass.contains("$")
+						? testClass.substring(0, testClass.indexOf('$')) : testClass;
+				affectedTestClasses.add(topLevelClass.replace('/', '.'));
+			}
+		}
+		return affectedTestClasses;
+	}
+
+	/**
+	 * The packages of the classes in a jar and a hash of its resources.
+	 */
+	private static final class JarContents {
+
+		private final Set<String> packages;
+
+		private final String resourcesHash;
+
+		private JarContents(Set<String> packages, String resourcesHash) {
+			this.packages = packages;
+			this.resourcesHash = resourcesHash;
+		}
+
+	}
+
+}
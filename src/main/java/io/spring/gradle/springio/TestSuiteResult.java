@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * The result of a test suite (typically a single test class), read from a JUnit XML
+ * report. Reports are read using a streaming parser as those of large suites, with
+ * captured output, can be sizeable.
+ *
+ * @author Spring IO Team
+ */
+final class TestSuiteResult {
+
+	private final String name;
+
+	private final int tests;
+
+	private final int failures;
+
+	private final int skipped;
+
+	private final List<TestCaseResult> testCases;
+
+	private TestSuiteResult(String name, int tests, int failures, int skipped,
+			List<TestCaseResult> testCases) {
+		this.name = name;
+		this.tests = tests;
+		this.failures = failures;
+		this.skipped = skipped;
+		this.testCases = testCases;
+	}
+
+	/**
+	 * Reads the results of the {@code TEST-*.xml} reports in the given directory.
+	 *
+	 * @param testResultsDir the directory containing the reports
+	 * @return the results, or an empty list if the directory does not exist
+	 */
+	static List<TestSuiteResult> read(File testResultsDir) {
+		File[] reports = testResultsDir.listFiles(
+				(dir, name) -> name.startsWith("TEST-") && name.endsWith(".xml"));
+		if (reports == null) {
+			return Collections.emptyList();
+		}
+		Arrays.sort(reports);
+		List<TestSuiteResult> results = new ArrayList<>();
+		for (File report : reports) {
+			try (InputStream input = new FileInputStream(report)) {
+				results.add(read(input));
+			}
+			catch (Exception ex) {
+				throw new IllegalStateException("Failed to read " + report, ex);
+			}
+		}
+		return results;
+	}
+
+	private static TestSuiteResult read(InputStream input) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XMLStreamReader reader = factory.createXMLStreamReader(input);
+		try {
+			String name = null;
+			int tests = 0;
+			int failures = 0;
+			int skipped = 0;
+			List<TestCaseResult> testCases = new ArrayList<>();
+			String testCase = null;
+			long duration = 0;
+			boolean failed = false;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					String element = reader.getLocalName();
+					if ("testsuite".equals(element)) {
+						name = reader.getAttributeValue(null, "name");
+						tests = intAttribute(reader, "tests");
+						failures = intAttribute(reader, "failures")
+								+ intAttribute(reader, "errors");
+						skipped = intAttribute(reader, "skipped");
+					}
+					else if ("testcase".equals(element)) {
+						testCase = reader.getAttributeValue(null, "name");
+						String time = reader.getAttributeValue(null, "time");
+						duration = (time != null)
+								? Math.round(Double.parseDouble(time) * 1000) : 0;
+						failed = false;
+					}
+					else if ("failure".equals(element) || "error".equals(element)
+							|| "skipped".equals(element)) {
+						failed = true;
+					}
+				}
+				else if (event == XMLStreamConstants.END_ELEMENT
+						&& "testcase".equals(reader.getLocalName())) {
+					testCases.add(new TestCaseResult(testCase, duration, failed));
+				}
+			}
+			return new TestSuiteResult(name, tests, failures, skipped, testCases);
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	private static int intAttribute(XMLStreamReader reader, String name) {
+		String value = reader.getAttributeValue(null, name);
+		return (value == null || value.isEmpty()) ? 0 : Integer.parseInt(value);
+	}
+
+	String getName() {
+		return this.name;
+	}
+
+	int getTests() {
+		return this.tests;
+	}
+
+	/**
+	 * Returns the number of tests that failed, including those that failed with an
+	 * error.
+	 *
+	 * @return the number of failures
+	 */
+	int getFailures() {
+		return this.failures;
+	}
+
+	int getSkipped() {
+		return this.skipped;
+	}
+
+	List<TestCaseResult> getTestCases() {
+		return this.testCases;
+	}
+
+	/**
+	 * The result of a single test case in a suite.
+	 */
+	static final class TestCaseResult {
+
+		private final String name;
+
+		private final long duration;
+
+		private final boolean failedOrSkipped;
+
+		private TestCaseResult(String name, long duration, boolean failedOrSkipped) {
+			this.name = name;
+			this.duration = duration;
+			this.failedOrSkipped = failedOrSkipped;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Returns the duration of the test case in milliseconds.
+		 *
+		 * @return the duration
+		 */
+		long getDuration() {
+			return this.duration;
+		}
+
+		boolean isFailedOrSkipped() {
+			return this.failedOrSkipped;
+		}
+
+	}
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import io.spring.gradle.springio.ClassScanner.ScannedClass;
+
+/**
+ * A {@link Task} that finds the dependencies that are declared but not used, and the
+ * dependencies that are used but only available transitively. Each analysis pairs some
+ * compiled classes with the {@link Configuration} that provides their classpath. The
+ * classes that are referenced by the bytecode are matched against an index of the classes
+ * in each jar on the classpath. A dependency that is declared by an earlier analysis's
+ * configuration, such as a {@code main} dependency that {@code test} inherits, is only
+ * reported as unused by that earlier analysis.
+ * <p>
+ * The references of each class file are cached by the hash of its content and the class
+ * index of each jar is cached by the jar's path, length, and last modified time so that
+ * only changed files are read again.
+ *
+ * @author Spring IO Team
+ */
+public class UnusedDependenciesTask extends DefaultTask {
+
+	private static final int MAX_CACHED_JARS = 2048;
+
+	private static final Map<String, Set<String>> classIndexCache = new ConcurrentHashMap<>();
+
+	private final Map<String, Analysis> analyses = new LinkedHashMap<>();
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/unused-dependencies.txt");
+
+	/**
+	 * Adds an analysis, identified by the given {@code name}, of the classes in the given
+	 * {@code classesDirs} against the dependencies of the given {@code classpath}.
+	 *
+	 * @param name the name of the analysis
+	 * @param classesDirs the directories containing the classes
+	 * @param classpath the configuration that provides the classpath of the classes
+	 */
+	public void analysis(String name, FileCollection classesDirs,
+			Configuration classpath) {
+		this.analyses.put(name, new Analysis(classesDirs, classpath));
+	}
+
+	/**
+	 * Returns the directories containing the classes that are analyzed.
+	 *
+	 * @return the classes directories
+	 */
+	@InputFiles
+	public FileCollection getClassesDirs() {
+		List<FileCollection> classesDirs = new ArrayList<>();
+		for (Analysis analysis : this.analyses.values()) {
+			classesDirs.add(analysis.classesDirs);
+		}
+		return getProject().files(classesDirs);
+	}
+
+	/**
+	 * Returns the classpaths against which the classes are analyzed.
+	 *
+	 * @return the classpaths
+	 */
+	@Classpath
+	public FileCollection getClasspath() {
+		List<FileCollection> classpath = new ArrayList<>();
+		for (Analysis analysis : this.analyses.values()) {
+			classpath.add(analysis.classpath);
+		}
+		return getProject().files(classpath);
+	}
+
+	/**
+	 * Returns the file to which the report is written.
+	 *
+	 * @return the report file
+	 */
+	@OutputFile
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the report is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Analyzes the dependencies and writes the report.
+	 */
+	@TaskAction
+	public void analyze() {
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			StringBuilder report = new StringBuilder();
+			Set<String> previouslyDeclared = new HashSet<>();
+			int problems = 0;
+			for (Map.Entry<String, Analysis> entry : this.analyses.entrySet()) {
+				Analysis analysis = entry.getValue();
+				Set<String> declared = declaredModules(analysis.classpath);
+				Map<String, Set<String>> used = usedModules(analysis, executor);
+				Set<String> unused = new TreeSet<>(declared);
+				unused.removeAll(used.keySet());
+				unused.removeAll(previouslyDeclared);
+				Map<String, Set<String>> undeclared = new TreeMap<>(used);
+				undeclared.keySet().removeAll(declared);
+				problems += unused.size() + undeclared.size();
+				appendAnalysis(report, entry.getKey(), unused, undeclared);
+				previouslyDeclared.addAll(declared);
+			}
+			write(report.toString());
+			TaskMetrics.of(this).increment(TaskMetrics.FINDINGS, problems);
+			if (problems > 0) {
+				getLogger().lifecycle("Found " + problems
+						+ " unused or undeclared dependencies. See " + this.reportFile
+						+ " for a detailed report");
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Set<String> declaredModules(Configuration configuration) {
+		Set<String> declared = new HashSet<>();
+		for (Dependency dependency : configuration.getAllDependencies()) {
+			if (dependency.getGroup() != null) {
+				declared.add(dependency.getGroup() + ":" + dependency.getName());
+			}
+		}
+		return declared;
+	}
+
+	private Map<String, Set<String>> usedModules(Analysis analysis,
+			ExecutorService executor) {
+		Map<String, String> modulesByClass = indexClasspath(analysis.classpath,
+				executor);
+		Map<String, Set<String>> references = new HashMap<>();
+		for (File classesDir : analysis.classesDirs.getFiles()) {
+			for (ScannedClass scannedClass : ClassScanner.scan(classesDir)) {
+				references.put(scannedClass.getName(), scannedClass.getReferences());
+			}
+		}
+		Map<String, Set<String>> used = new HashMap<>();
+		for (Map.Entry<String, Set<String>> entry : references.entrySet()) {
+			for (String referenced : entry.getValue()) {
+				String module = modulesByClass.get(referenced);
+				if (module != null && !references.containsKey(referenced)) {
+					used.computeIfAbsent(module, (key) -> new TreeSet<>())
+							.add(entry.getKey().replace('/', '.'));
+				}
+			}
+		}
+		return used;
+	}
+
+	private Map<String, String> indexClasspath(Configuration classpath,
+			ExecutorService executor) {
+		Map<String, Future<Set<String>>> futures = new LinkedHashMap<>();
+		for (ResolvedArtifact artifact : TaskMetrics.of(this)
+				.downloadedArtifacts(classpath)) {
+			File file = artifact.getFile();
+			ModuleVersionIdentifier id = artifact.getModuleVersion().getId();
+			futures.put(id.getGroup() + ":" + id.getName() + ":" + file.getName(),
+					executor.submit(() -> classIndex(file)));
+		}
+		Map<String, String> modulesByClass = new HashMap<>();
+		try {
+			for (Map.Entry<String, Future<Set<String>>> entry : futures.entrySet()) {
+				String key = entry.getKey();
+				String module = key.substring(0, key.lastIndexOf(':'));
+				for (String className : entry.getValue().get()) {
+					modulesByClass.putIfAbsent(className, module);
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Failed to index " + classpath,
+					ex.getCause());
+		}
+		return modulesByClass;
+	}
+
+	private Set<String> classIndex(File jar) {
+		if (!jar.isFile()) {
+			return new HashSet<>();
+		}
+		String key = FileHashes.cacheKey(jar);
+		Set<String> classes = classIndexCache.get(key);
+		if (classes == null) {
+			classes = new HashSet<>();
+			try {
+				for (String name : ZipCentralDirectory.readEntryNames(jar)) {
+					if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+						classes.add(name.substring(0, name.length() - 6));
+					}
+				}
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read " + jar, ex);
+			}
+			if (classIndexCache.size() >= MAX_CACHED_JARS) {
+				classIndexCache.clear();
+			}
+			classIndexCache.put(key, classes);
+		}
+		return classes;
+	}
+
+	private void appendAnalysis(StringBuilder report, String name, Set<String> unused,
+			Map<String, Set<String>> undeclared) {
+		report.append(name).append("\n");
+		report.append("    Declared but unused:\n");
+		for (String module : unused) {
+			report.append("        ").append(module).append("\n");
+		}
+		report.append("    Used but undeclared:\n");
+		for (Map.Entry<String, Set<String>> entry : undeclared.entrySet()) {
+			report.append("        ").append(entry.getKey()).append(" (used by ")
+					.append(String.join(", ", entry.getValue())).append(")\n");
+		}
+	}
+
+	private void write(String report) {
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+	/**
+	 * An analysis of some classes against the dependencies of their classpath.
+	 */
+	private static final class Analysis {
+
+		private final FileCollection classesDirs;
+
+		private final Configuration classpath;
+
+		private Analysis(FileCollection classesDirs, Configuration classpath) {
+			this.classesDirs = classesDirs;
+			this.classpath = classpath;
+		}
+
+	}
+
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * A {@link Task} that finds the version changes between the regular test runtime and
+ * {@code springIoTestRuntime} that cause tests to fail. The changes are minimized using
+ * delta debugging: subsets of the changes are applied to the regular test runtime
+ * versions and the failing test classes are run against each subset in a forked JVM,
+ * several at a time, until a minimal set of changes that reproduces the failure is
+ * found. Delta debugging assumes that the tests pass without any of the changes and fail
+ * with all of them, so both are checked first and the task fails if either does not
+ * hold.
+ *
+ * @author Spring IO Team
+ */
+public class VersionBisectTask extends DefaultTask {
+
+	private final Map<Set<String>, Boolean> trialResults = new HashMap<>();
+
+	private Configuration testRuntimeConfiguration;
+
+	private Configuration springIoTestRuntimeConfiguration;
+
+	private FileCollection testClasspath;
+
+	private FileCollection testResultsDirs;
+
+	private List<String> testClasses = new ArrayList<>();
+
+	private String executable = new File(Jdk.current().getHome(), "bin/java")
+			.getAbsolutePath();
+
+	private int maxParallelForks = Math.max(1,
+			Runtime.getRuntime().availableProcessors() / 2);
+
+	private File reportFile = new File(getProject().getBuildDir(),
+			"spring-io/bisect.txt");
+
+	private File trialsDir = new File(getProject().getBuildDir(), "spring-io/bisect");
+
+	private Map<String, String> testVersions;
+
+	private Map<String, String> springIoTestVersions;
+
+	private List<String> failingTestClasses;
+
+	private int trials;
+
+	/**
+	 * Returns the {@link Configuration} that provides the versions with which the tests
+	 * pass.
+	 *
+	 * @return the test runtime configuration
+	 */
+	@Internal
+	public Configuration getTestRuntimeConfiguration() {
+		return this.testRuntimeConfiguration;
+	}
+
+	/**
+	 * Sets the {@link Configuration} that provides the versions with which the tests
+	 * pass.
+	 *
+	 * @param testRuntimeConfiguration the test runtime configuration
+	 */
+	public void setTestRuntimeConfiguration(Configuration testRuntimeConfiguration) {
+		this.testRuntimeConfiguration = testRuntimeConfiguration;
+	}
+
+	/**
+	 * Returns the {@link Configuration} that provides the versions with which the tests
+	 * fail. Its dependencies are used for every trial.
+	 *
+	 * @return the Spring IO test runtime configuration
+	 */
+	@Internal
+	public Configuration getSpringIoTestRuntimeConfiguration() {
+		return this.springIoTestRuntimeConfiguration;
+	}
+
+	/**
+	 * Sets the {@link Configuration} that provides the versions with which the tests
+	 * fail. Its dependencies are used for every trial.
+	 *
+	 * @param springIoTestRuntimeConfiguration the Spring IO test runtime configuration
+	 */
+	public void setSpringIoTestRuntimeConfiguration(
+			Configuration springIoTestRuntimeConfiguration) {
+		this.springIoTestRuntimeConfiguration = springIoTestRuntimeConfiguration;
+	}
+
+	/**
+	 * Returns the classpath, in addition to the resolved dependencies, that is used to
+	 * run the tests. Typically the main and test classes and resources.
+	 *
+	 * @return the test classpath
+	 */
+	@Internal
+	public FileCollection getTestClasspath() {
+		return this.testClasspath;
+	}
+
+	/**
+	 * Sets the classpath, in addition to the resolved dependencies, that is used to run
+	 * the tests. Typically the main and test classes and resources.
+	 *
+	 * @param testClasspath the test classpath
+	 */
+	public void setTestClasspath(FileCollection testClasspath) {
+		this.testClasspath = testClasspath;
+	}
+
+	/**
+	 * Returns the directories containing the JUnit XML reports from which the failing
+	 * test classes are read when no test classes have been configured.
+	 *
+	 * @return the test results directories
+	 */
+	@Internal
+	public FileCollection getTestResultsDirs() {
+		return this.testResultsDirs;
+	}
+
+	/**
+	 * Sets the directories containing the JUnit XML reports from which the failing test
+	 * classes are read when no test classes have been configured.
+	 *
+	 * @param testResultsDirs the test results directories
+	 */
+	public void setTestResultsDirs(FileCollection testResultsDirs) {
+		this.testResultsDirs = testResultsDirs;
+	}
+
+	/**
+	 * Returns the names of the JUnit 4 test classes that are run in each trial.
+	 *
+	 * @return the test classes
+	 */
+	@Internal
+	public List<String> getTestClasses() {
+		return this.testClasses;
+	}
+
+	/**
+	 * Sets the names of the JUnit 4 test classes that are run in each trial. When empty,
+	 * the test classes that failed in the JUnit XML reports are used.
+	 *
+	 * @param testClasses the test classes
+	 */
+	public void setTestClasses(List<String> testClasses) {
+		this.testClasses = testClasses;
+	}
+
+	/**
+	 * Returns the {@code java} executable that is used to run the tests.
+	 *
+	 * @return the executable
+	 */
+	@Internal
+	public String getExecutable() {
+		return this.executable;
+	}
+
+	/**
+	 * Sets the {@code java} executable that is used to run the tests.
+	 *
+	 * @param executable the executable
+	 */
+	public void setExecutable(String executable) {
+		this.executable = executable;
+	}
+
+	/**
+	 * Returns the maximum number of trials that are run in parallel.
+	 *
+	 * @return the maximum number of parallel forks
+	 */
+	@Internal
+	public int getMaxParallelForks() {
+		return this.maxParallelForks;
+	}
+
+	/**
+	 * Sets the maximum number of trials that are run in parallel.
+	 *
+	 * @param maxParallelForks the maximum number of parallel forks
+	 */
+	public void setMaxParallelForks(int maxParallelForks) {
+		this.maxParallelForks = maxParallelForks;
+	}
+
+	/**
+	 * Returns the file to which the result of the bisection is written.
+	 *
+	 * @return the report file
+	 */
+	@Internal
+	public File getReportFile() {
+		return this.reportFile;
+	}
+
+	/**
+	 * Sets the file to which the result of the bisection is written.
+	 *
+	 * @param reportFile the report file
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Bisects the version changes.
+	 */
+	@TaskAction
+	public void bisect() {
+		this.failingTestClasses = this.testClasses.isEmpty() ? readFailingTestClasses()
+				: this.testClasses;
+		if (this.failingTestClasses.isEmpty()) {
+			throw new InvalidUserDataException("There are no failing tests to bisect. "
+					+ "Run springIoTest first or configure the test classes to run");
+		}
+		this.testVersions = ModuleVersions.resolve(this.testRuntimeConfiguration);
+		this.springIoTestVersions = ModuleVersions
+				.resolve(this.springIoTestRuntimeConfiguration);
+		List<String> changes = new ArrayList<>();
+		for (Map.Entry<String, String> entry : this.testVersions.entrySet()) {
+			String springIoTestVersion = this.springIoTestVersions.get(entry.getKey());
+			if (springIoTestVersion != null && !springIoTestVersion.equals(entry.getValue())
+					&& !ModuleVersions.UNRESOLVED.equals(springIoTestVersion)
+					&& !ModuleVersions.UNRESOLVED.equals(entry.getValue())) {
+				changes.add(entry.getKey());
+			}
+		}
+		this.trialResults.clear();
+		this.trials = 0;
+		deleteTrialLogs();
+		ExecutorService executor = Executors.newFixedThreadPool(this.maxParallelForks);
+		try {
+			if (changes.isEmpty()) {
+				report(changes, null, "There are no version changes between testRuntime "
+						+ "and springIoTestRuntime");
+				return;
+			}
+			String problem = checkEndpoints(changes, executor);
+			if (problem != null) {
+				report(changes, null, problem);
+				throw new IllegalStateException(problem + ". See " + this.reportFile
+						+ " for details");
+			}
+			report(changes, minimize(changes, executor), null);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private List<String> readFailingTestClasses() {
+		Set<String> failing = new LinkedHashSet<>();
+		if (this.testResultsDirs != null) {
+			for (File testResultsDir : this.testResultsDirs) {
+				for (TestSuiteResult suite : TestSuiteResult.read(testResultsDir)) {
+					if (suite.getFailures() > 0) {
+						failing.add(suite.getName());
+					}
+				}
+			}
+		}
+		return new ArrayList<>(failing);
+	}
+
+	private void deleteTrialLogs() {
+		File[] logs = this.trialsDir.listFiles();
+		if (logs != null) {
+			for (File log : logs) {
+				log.delete();
+			}
+		}
+		this.trialsDir.mkdirs();
+	}
+
+	private String checkEndpoints(List<String> changes, ExecutorService executor) {
+		List<String> none = Collections.emptyList();
+		firstFailing(Arrays.asList(none, changes), executor);
+		if (!this.trialResults.get(new HashSet<>(none))) {
+			return "The tests fail against testRuntime without any of the version "
+					+ "changes so the failure cannot be bisected";
+		}
+		if (this.trialResults.get(new HashSet<>(changes))) {
+			return "The tests pass when all of the version changes are applied to "
+					+ "testRuntime so the failure cannot be bisected";
+		}
+		return null;
+	}
+
+	private List<String> minimize(List<String> changes, ExecutorService executor) {
+		int granularity = 2;
+		while (changes.size() >= 2) {
+			List<List<String>> subsets = split(changes, granularity);
+			int failing = firstFailing(subsets, executor);
+			if (failing >= 0) {
+				changes = subsets.get(failing);
+				granularity = 2;
+				continue;
+			}
+			if (granularity > 2) {
+				List<List<String>> complements = new ArrayList<>();
+				for (List<String> subset : subsets) {
+					List<String> complement = new ArrayList<>(changes);
+					complement.removeAll(subset);
+					complements.add(complement);
+				}
+				failing = firstFailing(complements, executor);
+				if (failing >= 0) {
+					changes = complements.get(failing);
+					granularity = Math.max(granularity - 1, 2);
+					continue;
+				}
+			}
+			if (granularity >= changes.size()) {
+				break;
+			}
+			granularity = Math.min(granularity * 2, changes.size());
+		}
+		return changes;
+	}
+
+	private List<List<String>> split(List<String> changes, int granularity) {
+		List<List<String>> subsets = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i < granularity; i++) {
+			int end = start + (changes.size() - start) / (granularity - i);
+			subsets.add(new ArrayList<>(changes.subList(start, end)));
+			start = end;
+		}
+		return subsets;
+	}
+
+	private int firstFailing(List<List<String>> candidates, ExecutorService executor) {
+		Map<Set<String>, Future<Boolean>> running = new LinkedHashMap<>();
+		for (List<String> candidate : candidates) {
+			Set<String> key = new HashSet<>(candidate);
+			if (!this.trialResults.containsKey(key) && !running.containsKey(key)) {
+				String classpath = classpathFor(candidate);
+				File log = new File(this.trialsDir, "trial-" + (++this.trials) + ".log");
+				running.put(key, executor.submit(() -> runTests(classpath, log)));
+			}
+		}
+		for (Map.Entry<Set<String>, Future<Boolean>> trial : running.entrySet()) {
+			try {
+				this.trialResults.put(trial.getKey(), trial.getValue().get());
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(ex);
+			}
+			catch (ExecutionException ex) {
+				throw new IllegalStateException("Failed to run tests", ex.getCause());
+			}
+		}
+		for (int i = 0; i < candidates.size(); i++) {
+			if (!this.trialResults.get(new HashSet<>(candidates.get(i)))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private String classpathFor(List<String> changes) {
+		Map<String, String> versions = new HashMap<>(this.testVersions);
+		for (String change : changes) {
+			versions.put(change, this.springIoTestVersions.get(change));
+		}
+		Configuration configuration = ModuleVersions.detachedCopy(getProject(),
+				this.springIoTestRuntimeConfiguration, versions);
+		StringBuilder classpath = new StringBuilder();
+		for (File file : this.testClasspath.plus(configuration)) {
+			if (classpath.length() > 0) {
+				classpath.append(File.pathSeparator);
+			}
+			classpath.append(file.getAbsolutePath());
+		}
+		return classpath.toString();
+	}
+
+	private boolean runTests(String classpath, File log) throws Exception {
+		List<String> command = new ArrayList<>();
+		command.add(this.executable);
+		command.add("-cp");
+		command.add(classpath);
+		command.add("org.junit.runner.JUnitCore");
+		command.addAll(this.failingTestClasses);
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(log).start();
+		return process.waitFor() == 0;
+	}
+
+	private void report(List<String> changes, List<String> minimal, String problem) {
+		StringBuilder report = new StringBuilder();
+		report.append("Bisected ").append(changes.size())
+				.append(" version changes between testRuntime and "
+						+ "springIoTestRuntime using ")
+				.append(this.failingTestClasses).append(" in ").append(this.trials)
+				.append(" trials\n");
+		if (minimal == null) {
+			report.append(problem).append("\n");
+		}
+		else {
+			report.append("The failure is reproduced by the following version "
+					+ "changes:\n");
+			for (String module : minimal) {
+				report.append("    ").append(module).append(" ")
+						.append(this.testVersions.get(module)).append(" -> ")
+						.append(this.springIoTestVersions.get(module)).append("\n");
+			}
+		}
+		report.append("The output of each trial is in ").append(this.trialsDir)
+				.append("\n");
+		getLogger().lifecycle(report.toString().trim());
+		this.reportFile.getParentFile().mkdirs();
+		try {
+			Files.write(this.reportFile.toPath(),
+					report.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write " + this.reportFile, ex);
+		}
+	}
+
+}
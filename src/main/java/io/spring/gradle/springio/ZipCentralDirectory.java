@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the names of the entries of a zip file from its central directory. Only the end
+ * of central directory record and the central directory itself are read; the local
+ * headers and the content of the entries are not touched.
+ *
+ * @author Spring IO Team
+ */
+final class ZipCentralDirectory {
+
+	private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+	private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+	private static final int ZIP64_LOCATOR_SIZE = 20;
+
+	private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+
+	private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+
+	private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+
+	private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+	private ZipCentralDirectory() {
+	}
+
+	/**
+	 * Returns the names of the entries of the given zip {@code file}, excluding
+	 * directories, in the order in which they appear in the central directory.
+	 *
+	 * @param file the zip file
+	 * @return the entry names
+	 * @throws IOException if the file cannot be read or is not a zip file
+	 */
+	static List<String> readEntryNames(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			long[] location = locateCentralDirectory(channel);
+			if (location[1] > Integer.MAX_VALUE) {
+				throw new IOException("Central directory of " + file + " is too large");
+			}
+			ByteBuffer centralDirectory = read(channel, location[0], (int) location[1]);
+			List<String> names = new ArrayList<>();
+			while (centralDirectory.remaining() >= CENTRAL_DIRECTORY_HEADER_SIZE) {
+				int start = centralDirectory.position();
+				if (centralDirectory.getInt(start) != CENTRAL_DIRECTORY_HEADER_SIGNATURE) {
+					break;
+				}
+				int nameLength = centralDirectory.getShort(start + 28) & 0xFFFF;
+				int extraLength = centralDirectory.getShort(start + 30) & 0xFFFF;
+				int commentLength = centralDirectory.getShort(start + 32) & 0xFFFF;
+				byte[] name = new byte[nameLength];
+				centralDirectory.position(start + CENTRAL_DIRECTORY_HEADER_SIZE);
+				centralDirectory.get(name);
+				String entryName = new String(name, StandardCharsets.UTF_8);
+				if (!entryName.endsWith("/")) {
+					names.add(entryName);
+				}
+				centralDirectory.position(start + CENTRAL_DIRECTORY_HEADER_SIZE
+						+ nameLength + extraLength + commentLength);
+			}
+			return names;
+		}
+	}
+
+	private static long[] locateCentralDirectory(FileChannel channel) throws IOException {
+		long size = channel.size();
+		int tailLength = (int) Math.min(size,
+				END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_LENGTH);
+		ByteBuffer tail = read(channel, size - tailLength, tailLength);
+		for (int i = tailLength - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+				long centralDirectorySize = tail.getInt(i + 12) & 0xFFFFFFFFL;
+				long centralDirectoryOffset = tail.getInt(i + 16) & 0xFFFFFFFFL;
+				if (centralDirectoryOffset == 0xFFFFFFFFL
+						|| centralDirectorySize == 0xFFFFFFFFL) {
+					return locateZip64CentralDirectory(channel,
+							size - tailLength + i - ZIP64_LOCATOR_SIZE);
+				}
+				return new long[] { centralDirectoryOffset, centralDirectorySize };
+			}
+		}
+		throw new IOException("End of central directory record not found");
+	}
+
+	private static long[] locateZip64CentralDirectory(FileChannel channel,
+			long locatorOffset) throws IOException {
+		ByteBuffer locator = read(channel, locatorOffset, ZIP64_LOCATOR_SIZE);
+		if (locator.getInt(0) != ZIP64_LOCATOR_SIGNATURE) {
+			throw new IOException("Zip64 end of central directory locator not found");
+		}
+		ByteBuffer end = read(channel, locator.getLong(8), 56);
+		if (end.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+			throw new IOException("Zip64 end of central directory record not found");
+		}
+		return new long[] { end.getLong(48), end.getLong(40) };
+	}
+
+	private static ByteBuffer read(FileChannel channel, long position, int length)
+			throws IOException {
+		if (position < 0 || position + length > channel.size()) {
+			throw new IOException("Invalid zip file");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of zip file");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The rule that checks for dependencies that have preferred alternatives.
+ *
+ * @author Spring IO Team
+ */
+public final class AlternativeDependencies {
+
+	private static final String DEFAULT_ALTERNATIVES = "/io/spring/gradle/springio/spring-io-alternatives.properties";
+
+	private final Map<String, String> alternatives;
+
+	/**
+	 * Creates a new {@code AlternativeDependencies} that will check for the given
+	 * {@code alternatives}. The map is of the form
+	 * {@code groupId:artifactId -> alternative} where the keys are dependencies and the
+	 * values are alternatives.
+	 *
+	 * @param alternatives the alternatives
+	 */
+	public AlternativeDependencies(Map<String, String> alternatives) {
+		this.alternatives = alternatives;
+	}
+
+	/**
+	 * Loads the default alternatives of the Spring IO Platform.
+	 *
+	 * @return the default alternatives
+	 */
+	public static Map<String, String> loadDefaults() {
+		return load(AlternativeDependencies.class
+				.getResourceAsStream(DEFAULT_ALTERNATIVES));
+	}
+
+	/**
+	 * Loads the alternatives in the given properties {@code file}.
+	 *
+	 * @param file the properties file
+	 * @return the alternatives
+	 */
+	public static Map<String, String> load(File file) {
+		try {
+			return load(new FileInputStream(file));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + file, ex);
+		}
+	}
+
+	private static Map<String, String> load(InputStream stream) {
+		Properties properties = new Properties();
+		try {
+			properties.load(stream);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+		finally {
+			try {
+				stream.close();
+			}
+			catch (IOException ex) {
+				// Continue
+			}
+		}
+		Map<String, String> alternativesMap = new HashMap<>();
+		for (String property : properties.stringPropertyNames()) {
+			alternativesMap.put(property, properties.getProperty(property));
+		}
+		return alternativesMap;
+	}
+
+	/**
+	 * Checks the module with the given {@code id} ({@code groupId:artifactId}).
+	 *
+	 * @param id the id of the module
+	 * @return a description of the problem, or {@code null} if the module has no
+	 * preferred alternative
+	 */
+	public String check(String id) {
+		String alternative = this.alternatives.get(id);
+		if (alternative != null) {
+			return "Please depend on " + alternative + " instead of " + id;
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+/**
+ * The rule that checks that dependency exclusions are not incomplete. An exclusion is
+ * deemed to be incomplete if it does not specify both a group and a module.
+ *
+ * @author Spring IO Team
+ */
+public final class IncompleteExcludes {
+
+	private IncompleteExcludes() {
+	}
+
+	/**
+	 * Checks the exclusion of the given {@code group} and {@code module}.
+	 *
+	 * @param group the group, possibly {@code null}
+	 * @param module the module, possibly {@code null}
+	 * @return a description of the problem, or {@code null} if the exclusion is complete
+	 */
+	public static String check(String group, String module) {
+		if (group == null || group.length() == 0) {
+			return "Exclude for module " + module
+					+ " does not specify a group. The exclusion will not be included in generated POMs";
+		}
+		if (module == null || module.length() == 0) {
+			return "Exclude for group " + group
+					+ " does not specify a module. The exclusion will not be included in generated POMs";
+		}
+		return null;
+	}
+
+}
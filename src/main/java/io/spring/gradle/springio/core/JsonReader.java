@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal reader of JSON. Objects are read as {@link Map Maps}, arrays as
+ * {@link List Lists}, strings and numbers as {@link String Strings}, and {@code true} and
+ * {@code false} as {@link Boolean Booleans}.
+ *
+ * @author Spring IO Team
+ */
+final class JsonReader {
+
+	private final String json;
+
+	private int position;
+
+	private JsonReader(String json) {
+		this.json = json;
+	}
+
+	/**
+	 * Reads the given {@code json}.
+	 *
+	 * @param json the json
+	 * @return the value
+	 * @throws IllegalArgumentException if the json is malformed
+	 */
+	static Object read(String json) {
+		JsonReader reader = new JsonReader(json);
+		Object value = reader.readValue();
+		reader.skipWhitespace();
+		if (reader.position != json.length()) {
+			throw reader.malformed();
+		}
+		return value;
+	}
+
+	private Object readValue() {
+		skipWhitespace();
+		char c = peek();
+		if (c == '{') {
+			return readObject();
+		}
+		if (c == '[') {
+			return readArray();
+		}
+		if (c == '"') {
+			return readString();
+		}
+		if (this.json.startsWith("true", this.position)) {
+			this.position += 4;
+			return Boolean.TRUE;
+		}
+		if (this.json.startsWith("false", this.position)) {
+			this.position += 5;
+			return Boolean.FALSE;
+		}
+		if (this.json.startsWith("null", this.position)) {
+			this.position += 4;
+			return null;
+		}
+		int start = this.position;
+		while (this.position < this.json.length()
+				&& "+-.0123456789eE".indexOf(this.json.charAt(this.position)) >= 0) {
+			this.position++;
+		}
+		if (start == this.position) {
+			throw malformed();
+		}
+		return this.json.substring(start, this.position);
+	}
+
+	private Map<String, Object> readObject() {
+		Map<String, Object> object = new LinkedHashMap<>();
+		this.position++;
+		skipWhitespace();
+		if (peek() == '}') {
+			this.position++;
+			return object;
+		}
+		while (true) {
+			skipWhitespace();
+			if (peek() != '"') {
+				throw malformed();
+			}
+			String name = readString();
+			skipWhitespace();
+			expect(':');
+			object.put(name, readValue());
+			skipWhitespace();
+			if (peek() == '}') {
+				this.position++;
+				return object;
+			}
+			expect(',');
+		}
+	}
+
+	private List<Object> readArray() {
+		List<Object> array = new ArrayList<>();
+		this.position++;
+		skipWhitespace();
+		if (peek() == ']') {
+			this.position++;
+			return array;
+		}
+		while (true) {
+			array.add(readValue());
+			skipWhitespace();
+			if (peek() == ']') {
+				this.position++;
+				return array;
+			}
+			expect(',');
+		}
+	}
+
+	private String readString() {
+		StringBuilder string = new StringBuilder();
+		this.position++;
+		while (true) {
+			char c = peek();
+			this.position++;
+			if (c == '"') {
+				return string.toString();
+			}
+			if (c != '\\') {
+				string.append(c);
+				continue;
+			}
+			char escaped = peek();
+			this.position++;
+			switch (escaped) {
+			case 'b':
+				string.append('\b');
+				break;
+			case 'f':
+				string.append('\f');
+				break;
+			case 'n':
+				string.append('\n');
+				break;
+			case 'r':
+				string.append('\r');
+				break;
+			case 't':
+				string.append('\t');
+				break;
+			case 'u':
+				if (this.position + 4 > this.json.length()) {
+					throw malformed();
+				}
+				string.append((char) Integer.parseInt(
+						this.json.substring(this.position, this.position + 4), 16));
+				this.position += 4;
+				break;
+			default:
+				string.append(escaped);
+			}
+		}
+	}
+
+	private void expect(char expected) {
+		if (peek() != expected) {
+			throw malformed();
+		}
+		this.position++;
+	}
+
+	private char peek() {
+		if (this.position >= this.json.length()) {
+			throw malformed();
+		}
+		return this.json.charAt(this.position);
+	}
+
+	private void skipWhitespace() {
+		while (this.position < this.json.length()
+				&& Character.isWhitespace(this.json.charAt(this.position))) {
+			this.position++;
+		}
+	}
+
+	private IllegalArgumentException malformed() {
+		return new IllegalArgumentException(
+				"Malformed JSON at position " + this.position);
+	}
+
+}
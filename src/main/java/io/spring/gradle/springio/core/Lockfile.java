@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A reader of the lockfiles of Gradle's dependency locking. Both a lockfile per
+ * configuration and a single lockfile, with the configurations of each entry listed after
+ * it, are supported.
+ *
+ * @author Spring IO Team
+ */
+public final class Lockfile {
+
+	private Lockfile() {
+	}
+
+	/**
+	 * Reads the locked versions ({@code groupId:artifactId -> version}) in the given
+	 * {@code lockfile}. When {@code configurationName} is {@code null} the lockfile is
+	 * read as a lockfile per configuration, otherwise only the entries of the
+	 * configuration with that name are read.
+	 *
+	 * @param lockfile the lockfile
+	 * @param configurationName the name of the configuration or {@code null}
+	 * @return the locked versions, in the order of the lockfile, or {@code null} if the
+	 * configuration is not locked
+	 * @throws IllegalArgumentException if the lockfile contains an invalid entry
+	 */
+	public static Map<String, String> read(File lockfile, String configurationName) {
+		Map<String, String> versions = new LinkedHashMap<>();
+		boolean locked = configurationName == null;
+		for (String line : readLines(lockfile)) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String coordinates = line;
+			int separator = line.indexOf('=');
+			if (separator >= 0) {
+				coordinates = line.substring(0, separator);
+				if (!Arrays.asList(line.substring(separator + 1).split(","))
+						.contains(configurationName)) {
+					continue;
+				}
+				locked = true;
+				if (coordinates.equals("empty")) {
+					continue;
+				}
+			}
+			String[] components = coordinates.split(":");
+			if (components.length != 3) {
+				throw new IllegalArgumentException(
+						"Invalid entry '" + line + "' in " + lockfile);
+			}
+			versions.put(components[0] + ":" + components[1], components[2]);
+		}
+		return locked ? versions : null;
+	}
+
+	private static Iterable<String> readLines(File lockfile) {
+		try {
+			return Files.readAllLines(lockfile.toPath(), StandardCharsets.UTF_8);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + lockfile, ex);
+		}
+	}
+
+}
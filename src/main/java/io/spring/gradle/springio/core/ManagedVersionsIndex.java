@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable index of the managed versions of an ordered set of BOMs. When more than
+ * one BOM manages a module, the version of the BOM that comes first takes precedence and
+ * that BOM is the module's owner. The index is built once, after which looking up a
+ * module's version or owner is a single hash lookup.
+ *
+ * @author Spring IO Team
+ */
+public final class ManagedVersionsIndex {
+
+	private final List<String> boms;
+
+	private final Map<String, String> versions;
+
+	private final Map<String, String> owners;
+
+	private ManagedVersionsIndex(List<String> boms, Map<String, String> versions,
+			Map<String, String> owners) {
+		this.boms = Collections.unmodifiableList(boms);
+		this.versions = Collections.unmodifiableMap(versions);
+		this.owners = owners;
+	}
+
+	/**
+	 * Returns an index of the managed versions ({@code groupId:artifactId -> version})
+	 * of a single BOM.
+	 *
+	 * @param bom the name of the BOM
+	 * @param managedVersions the managed versions of the BOM
+	 * @return the index
+	 */
+	public static ManagedVersionsIndex of(String bom,
+			Map<String, String> managedVersions) {
+		return of(Collections.singletonMap(bom, managedVersions));
+	}
+
+	/**
+	 * Returns an index that merges the managed versions
+	 * ({@code groupId:artifactId -> version}) of the given {@code boms}, keyed by the
+	 * name of each BOM. The BOMs are in order of precedence, highest first.
+	 *
+	 * @param boms the managed versions of each BOM
+	 * @return the index
+	 */
+	public static ManagedVersionsIndex of(Map<String, Map<String, String>> boms) {
+		Map<String, String> versions = new LinkedHashMap<>();
+		Map<String, String> owners = new HashMap<>();
+		for (Map.Entry<String, Map<String, String>> bom : boms.entrySet()) {
+			for (Map.Entry<String, String> entry : bom.getValue().entrySet()) {
+				if (entry.getValue() != null && !versions.containsKey(entry.getKey())) {
+					versions.put(entry.getKey(), entry.getValue());
+					owners.put(entry.getKey(), bom.getKey());
+				}
+			}
+		}
+		return new ManagedVersionsIndex(new ArrayList<>(boms.keySet()), versions, owners);
+	}
+
+	/**
+	 * Returns the names of the BOMs in the index, in order of precedence.
+	 *
+	 * @return the names of the BOMs
+	 */
+	public List<String> getBoms() {
+		return this.boms;
+	}
+
+	/**
+	 * Returns the merged managed versions ({@code groupId:artifactId -> version}).
+	 *
+	 * @return the managed versions
+	 */
+	public Map<String, String> getVersions() {
+		return this.versions;
+	}
+
+	/**
+	 * Returns the managed version of the module with the given {@code id}
+	 * ({@code groupId:artifactId}).
+	 *
+	 * @param id the id of the module
+	 * @return the version, or {@code null} if the module is not managed
+	 */
+	public String getVersion(String id) {
+		return this.versions.get(id);
+	}
+
+	/**
+	 * Returns the name of the BOM that owns the module with the given {@code id}
+	 * ({@code groupId:artifactId}), that is the BOM whose version of the module takes
+	 * precedence.
+	 *
+	 * @param id the id of the module
+	 * @return the name of the owning BOM, or {@code null} if the module is not managed
+	 */
+	public String getOwner(String id) {
+		return this.owners.get(id);
+	}
+
+}
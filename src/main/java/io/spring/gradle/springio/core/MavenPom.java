@@ -0,0 +1,332 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * A Maven POM, such as a BOM, read from a file. Property references in the coordinates of
+ * dependencies are replaced using the POM's properties and coordinates. Unless a resolver
+ * is provided when the POM is read, the POM's parent and imported BOMs are not read.
+ *
+ * @author Spring IO Team
+ */
+public final class MavenPom {
+
+	private static final int MAX_INTERPOLATION_DEPTH = 10;
+
+	private static final int MAX_POM_DEPTH = 32;
+
+	private final Map<String, String> managedVersions = new LinkedHashMap<>();
+
+	private final Map<String, String> explicitVersions = new LinkedHashMap<>();
+
+	private final List<String> importedBoms = new ArrayList<>();
+
+	private final List<Dependency> dependencies = new ArrayList<>();
+
+	private final Map<String, String> properties = new HashMap<>();
+
+	private final String coordinates;
+
+	private MavenPom(Element project, Function<String, File> resolver, int depth) {
+		Element parent = child(project, "parent");
+		MavenPom parentPom = null;
+		if (parent != null && resolver != null) {
+			parentPom = read(resolver.apply(text(parent, "groupId", null) + ":"
+					+ text(parent, "artifactId", null) + ":"
+					+ text(parent, "version", null)), resolver, depth + 1);
+			this.properties.putAll(parentPom.properties);
+		}
+		String groupId = text(project, "groupId", text(parent, "groupId", null));
+		String version = text(project, "version", text(parent, "version", null));
+		putProperty("project.groupId", groupId);
+		putProperty("pom.groupId", groupId);
+		putProperty("project.artifactId", text(project, "artifactId", null));
+		putProperty("project.version", version);
+		putProperty("pom.version", version);
+		putProperty("project.parent.version", text(parent, "version", null));
+		this.coordinates = groupId + ":" + text(project, "artifactId", null) + ":"
+				+ version;
+		for (Element property : children(child(project, "properties"))) {
+			this.properties.put(property.getTagName(), property.getTextContent().trim());
+		}
+		for (Element element : children(
+				child(child(project, "dependencyManagement"), "dependencies"))) {
+			Dependency dependency = new Dependency(element);
+			if ("import".equals(dependency.scope)) {
+				this.importedBoms.add(dependency.getId() + ":" + dependency.version);
+			}
+			else {
+				this.explicitVersions.putIfAbsent(dependency.getId(), dependency.version);
+			}
+		}
+		for (Element element : children(child(project, "dependencies"))) {
+			this.dependencies.add(new Dependency(element));
+		}
+		if (parentPom != null) {
+			parentPom.explicitVersions.forEach(this.explicitVersions::putIfAbsent);
+			this.importedBoms.addAll(parentPom.importedBoms);
+		}
+		this.managedVersions.putAll(this.explicitVersions);
+		if (resolver != null) {
+			for (String importedBom : this.importedBoms) {
+				read(resolver.apply(importedBom), resolver, depth + 1).managedVersions
+						.forEach(this.managedVersions::putIfAbsent);
+			}
+		}
+	}
+
+	/**
+	 * Reads the POM in the given {@code file}.
+	 *
+	 * @param file the file
+	 * @return the POM
+	 */
+	public static MavenPom read(File file) {
+		return read(file, null, 0);
+	}
+
+	/**
+	 * Reads the POM in the given {@code file}, using the {@code resolver} to find the
+	 * files of its parent and of the BOMs that it imports. The POM's properties and
+	 * dependency management are then merged with those of its parent, and the managed
+	 * versions of the imported BOMs are added to those that the POM declares.
+	 *
+	 * @param file the file
+	 * @param resolver returns the file of the POM with the given coordinates
+	 * ({@code groupId:artifactId:version})
+	 * @return the POM
+	 */
+	public static MavenPom read(File file, Function<String, File> resolver) {
+		return read(file, resolver, 0);
+	}
+
+	private static MavenPom read(File file, Function<String, File> resolver,
+			int depth) {
+		if (depth > MAX_POM_DEPTH) {
+			throw new IllegalArgumentException(
+					file + " has too many levels of parents and imported BOMs");
+		}
+		Document document;
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setFeature(
+					"http://apache.org/xml/features/disallow-doctype-decl", true);
+			document = factory.newDocumentBuilder().parse(file);
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException("Failed to read " + file, ex);
+		}
+		if (!"project".equals(document.getDocumentElement().getTagName())) {
+			throw new IllegalArgumentException(file + " is not a Maven POM");
+		}
+		return new MavenPom(document.getDocumentElement(), resolver, depth);
+	}
+
+	/**
+	 * Returns the coordinates ({@code groupId:artifactId:version}) of the POM.
+	 *
+	 * @return the coordinates
+	 */
+	public String getCoordinates() {
+		return this.coordinates;
+	}
+
+	/**
+	 * Returns the versions ({@code groupId:artifactId -> version}) in the POM's
+	 * dependency management, in the order in which they are declared. When a module is
+	 * declared more than once, its first declaration wins. When the POM was read with a
+	 * resolver, versions declared by the POM come first, followed by those inherited from
+	 * its parent and then those of its imported BOMs in the order they are imported.
+	 *
+	 * @return the managed versions
+	 */
+	public Map<String, String> getManagedVersions() {
+		return Collections.unmodifiableMap(this.managedVersions);
+	}
+
+	/**
+	 * Returns the coordinates ({@code groupId:artifactId:version}) of the BOMs that are
+	 * imported in the POM's dependency management, including those imported by its parent
+	 * when the POM was read with a resolver.
+	 *
+	 * @return the coordinates of the imported BOMs
+	 */
+	public List<String> getImportedBoms() {
+		return Collections.unmodifiableList(this.importedBoms);
+	}
+
+	/**
+	 * Returns the POM's dependencies.
+	 *
+	 * @return the dependencies
+	 */
+	public List<Dependency> getDependencies() {
+		return Collections.unmodifiableList(this.dependencies);
+	}
+
+	private void putProperty(String name, String value) {
+		if (value != null) {
+			this.properties.put(name, value);
+		}
+	}
+
+	private String interpolate(String value) {
+		if (value == null) {
+			return null;
+		}
+		for (int depth = 0; depth < MAX_INTERPOLATION_DEPTH; depth++) {
+			int start = value.indexOf("${");
+			int end = (start >= 0) ? value.indexOf('}', start) : -1;
+			if (end < 0) {
+				return value;
+			}
+			String replacement = this.properties.get(value.substring(start + 2, end));
+			if (replacement == null) {
+				return value;
+			}
+			value = value.substring(0, start) + replacement + value.substring(end + 1);
+		}
+		return value;
+	}
+
+	private static Element child(Element element, String name) {
+		for (Element child : children(element)) {
+			if (child.getTagName().equals(name)) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	private static List<Element> children(Element element) {
+		List<Element> children = new ArrayList<>();
+		if (element != null) {
+			for (Node node = element.getFirstChild(); node != null; node = node
+					.getNextSibling()) {
+				if (node instanceof Element) {
+					children.add((Element) node);
+				}
+			}
+		}
+		return children;
+	}
+
+	private static String text(Element element, String name, String defaultValue) {
+		Element child = (element != null) ? child(element, name) : null;
+		return (child != null) ? child.getTextContent().trim() : defaultValue;
+	}
+
+	/**
+	 * A dependency declared in a {@link MavenPom}.
+	 */
+	public final class Dependency {
+
+		private final String groupId;
+
+		private final String artifactId;
+
+		private final String version;
+
+		private final String scope;
+
+		private final List<String[]> exclusions = new ArrayList<>();
+
+		private Dependency(Element dependency) {
+			this.groupId = interpolate(text(dependency, "groupId", null));
+			this.artifactId = interpolate(text(dependency, "artifactId", null));
+			this.version = interpolate(text(dependency, "version", null));
+			this.scope = text(dependency, "scope", "compile");
+			for (Element exclusion : children(child(dependency, "exclusions"))) {
+				this.exclusions.add(
+						new String[] { interpolate(text(exclusion, "groupId", null)),
+								interpolate(text(exclusion, "artifactId", null)) });
+			}
+		}
+
+		/**
+		 * Returns the id ({@code groupId:artifactId}) of the dependency.
+		 *
+		 * @return the id
+		 */
+		public String getId() {
+			return this.groupId + ":" + this.artifactId;
+		}
+
+		/**
+		 * Returns the group id of the dependency.
+		 *
+		 * @return the group id
+		 */
+		public String getGroupId() {
+			return this.groupId;
+		}
+
+		/**
+		 * Returns the artifact id of the dependency.
+		 *
+		 * @return the artifact id
+		 */
+		public String getArtifactId() {
+			return this.artifactId;
+		}
+
+		/**
+		 * Returns the version of the dependency.
+		 *
+		 * @return the version, or {@code null} if it is managed
+		 */
+		public String getVersion() {
+			return this.version;
+		}
+
+		/**
+		 * Returns the scope of the dependency.
+		 *
+		 * @return the scope
+		 */
+		public String getScope() {
+			return this.scope;
+		}
+
+		/**
+		 * Returns the exclusions of the dependency. Each exclusion is a pair of a group
+		 * id and an artifact id, either of which may be {@code null}.
+		 *
+		 * @return the exclusions
+		 */
+		public List<String[]> getExclusions() {
+			return Collections.unmodifiableList(this.exclusions);
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The modules of a resolved dependency graph read from JSON of the form
+ * <pre class="code">
+ * {"modules":[{"group":"com.example","name":"example","version":"1.0","direct":true}]}
+ * </pre> A module's {@code direct} member is optional and defaults to {@code false}.
+ *
+ * @author Spring IO Team
+ */
+public final class ResolvedGraphJson {
+
+	private final Map<String, String> versions = new LinkedHashMap<>();
+
+	private final Set<String> directDependencies = new HashSet<>();
+
+	private ResolvedGraphJson() {
+	}
+
+	/**
+	 * Reads the resolved graph in the given {@code file}.
+	 *
+	 * @param file the file
+	 * @return the resolved graph
+	 * @throws IllegalArgumentException if the file does not describe a resolved graph
+	 */
+	public static ResolvedGraphJson read(File file) {
+		String json;
+		try {
+			json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read " + file, ex);
+		}
+		Object root = JsonReader.read(json);
+		Object modules = (root instanceof Map) ? ((Map<?, ?>) root).get("modules") : null;
+		if (!(modules instanceof List)) {
+			throw new IllegalArgumentException(file + " does not have a modules array");
+		}
+		ResolvedGraphJson graph = new ResolvedGraphJson();
+		for (Object module : (List<?>) modules) {
+			Map<?, ?> members = (module instanceof Map) ? (Map<?, ?>) module : null;
+			if (members == null || !(members.get("group") instanceof String)
+					|| !(members.get("name") instanceof String)) {
+				throw new IllegalArgumentException(
+						"Invalid module " + module + " in " + file);
+			}
+			String id = members.get("group") + ":" + members.get("name");
+			Object version = members.get("version");
+			graph.versions.put(id, (version != null) ? version.toString() : "");
+			if (Boolean.TRUE.equals(members.get("direct"))) {
+				graph.directDependencies.add(id);
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Returns the versions ({@code groupId:artifactId -> version}) of the modules in the
+	 * graph.
+	 *
+	 * @return the versions
+	 */
+	public Map<String, String> getVersions() {
+		return Collections.unmodifiableMap(this.versions);
+	}
+
+	/**
+	 * Returns whether the module with the given {@code id} ({@code groupId:artifactId})
+	 * is a direct dependency.
+	 *
+	 * @param id the id of the module
+	 * @return {@code true} if it is a direct dependency, otherwise {@code false}
+	 */
+	public boolean isDirectDependency(String id) {
+		return this.directDependencies.contains(id);
+	}
+
+}
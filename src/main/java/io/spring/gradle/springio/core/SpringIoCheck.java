@@ -0,0 +1,234 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A command line interface that checks the modules of a resolved graph, a lockfile, or a
+ * Maven POM against one or more BOMs without Gradle. When there is more than one BOM,
+ * they are in order of precedence, highest first. The exit status is {@code 0} when the
+ * checks pass, {@code 1} when problems are found, and {@code 2} when the arguments are
+ * invalid or an input cannot be read. The parents of the POMs and the BOMs that they
+ * import are read from a local Maven repository when one is provided.
+ *
+ * @author Spring IO Team
+ */
+public final class SpringIoCheck {
+
+	private static final String USAGE = "Usage: SpringIoCheck --bom <pom> "
+			+ "[--bom <pom>...] (--graph <json> | --lockfile <lockfile> "
+			+ "[--configuration <name>] | --pom <pom>) [--repository <dir>] "
+			+ "[--alternatives <properties>] [--fail-on-unmapped-transitive]";
+
+	private final Map<String, String> options = new HashMap<>();
+
+	private final List<String> boms = new ArrayList<>();
+
+	private final PrintStream out;
+
+	private final PrintStream err;
+
+	private SpringIoCheck(PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+	}
+
+	/**
+	 * Runs the checks described by the given {@code args} and exits with their status.
+	 *
+	 * @param args the command line arguments
+	 */
+	public static void main(String[] args) {
+		System.exit(run(args, System.out, System.err));
+	}
+
+	/**
+	 * Runs the checks described by the given {@code args}.
+	 *
+	 * @param args the command line arguments
+	 * @param out the stream to which problems are reported
+	 * @param err the stream to which usage and errors are reported
+	 * @return the exit status
+	 */
+	static int run(String[] args, PrintStream out, PrintStream err) {
+		SpringIoCheck check = new SpringIoCheck(out, err);
+		if (!check.parse(args)) {
+			err.println(USAGE);
+			return 2;
+		}
+		try {
+			return check.check() ? 0 : 1;
+		}
+		catch (IllegalArgumentException | IllegalStateException ex) {
+			err.println(ex.getMessage());
+			return 2;
+		}
+	}
+
+	private boolean parse(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (option.equals("--fail-on-unmapped-transitive")) {
+				this.options.put(option, "true");
+			}
+			else if (option.equals("--bom") || option.equals("--graph")
+					|| option.equals("--lockfile") || option.equals("--configuration")
+					|| option.equals("--pom") || option.equals("--alternatives")
+					|| option.equals("--repository")) {
+				if (i + 1 == args.length) {
+					return false;
+				}
+				if (option.equals("--bom")) {
+					this.boms.add(args[++i]);
+				}
+				else {
+					this.options.put(option, args[++i]);
+				}
+			}
+			else {
+				return false;
+			}
+		}
+		int inputs = 0;
+		for (String input : new String[] { "--graph", "--lockfile", "--pom" }) {
+			inputs += this.options.containsKey(input) ? 1 : 0;
+		}
+		return !this.boms.isEmpty() && inputs == 1;
+	}
+
+	private boolean check() {
+		Function<String, File> resolver = this.options.containsKey("--repository")
+				? this::resolve : null;
+		Map<String, Map<String, String>> managedVersions = new LinkedHashMap<>();
+		for (String file : this.boms) {
+			MavenPom bom = MavenPom.read(new File(file), resolver);
+			if (resolver == null) {
+				for (String importedBom : bom.getImportedBoms()) {
+					this.err.println("Imported BOM " + importedBom + " was not read");
+				}
+			}
+			managedVersions.put(managedVersions.containsKey(bom.getCoordinates())
+					? file : bom.getCoordinates(), bom.getManagedVersions());
+		}
+		VersionMappingCheck versionMapping = new VersionMappingCheck(
+				ManagedVersionsIndex.of(managedVersions));
+		versionMapping.setFailOnUnmappedTransitiveDependency(
+				this.options.containsKey("--fail-on-unmapped-transitive"));
+		AlternativeDependencies alternativeDependencies = new AlternativeDependencies(
+				this.options.containsKey("--alternatives")
+						? AlternativeDependencies
+								.load(new File(this.options.get("--alternatives")))
+						: AlternativeDependencies.loadDefaults());
+		List<String> alternatives = new ArrayList<>();
+		List<String> incompleteExcludes = new ArrayList<>();
+		if (this.options.containsKey("--pom")) {
+			MavenPom pom = MavenPom.read(new File(this.options.get("--pom")), resolver);
+			for (MavenPom.Dependency dependency : pom.getDependencies()) {
+				if ("test".equals(dependency.getScope())
+						|| "provided".equals(dependency.getScope())) {
+					continue;
+				}
+				versionMapping.check(dependency.getGroupId(), dependency.getArtifactId(),
+						dependency.getVersion(), () -> true);
+				addIfProblem(alternatives,
+						alternativeDependencies.check(dependency.getId()));
+				for (String[] exclusion : dependency.getExclusions()) {
+					String problem = IncompleteExcludes.check(exclusion[0],
+							exclusion[1]);
+					if (problem != null) {
+						incompleteExcludes.add(dependency.getId() + ": " + problem);
+					}
+				}
+			}
+		}
+		else {
+			Map<String, String> versions;
+			ResolvedGraphJson graph = null;
+			if (this.options.containsKey("--graph")) {
+				graph = ResolvedGraphJson.read(new File(this.options.get("--graph")));
+				versions = graph.getVersions();
+			}
+			else {
+				File lockfile = new File(this.options.get("--lockfile"));
+				versions = Lockfile.read(lockfile, this.options.get("--configuration"));
+				if (versions == null) {
+					throw new IllegalArgumentException(lockfile + " does not lock "
+							+ this.options.get("--configuration"));
+				}
+			}
+			versionMapping.setCheckDrift(true);
+			for (Map.Entry<String, String> entry : versions.entrySet()) {
+				String id = entry.getKey();
+				int separator = id.indexOf(':');
+				ResolvedGraphJson resolvedGraph = graph;
+				versionMapping.check(id.substring(0, separator),
+						id.substring(separator + 1), entry.getValue(),
+						() -> resolvedGraph == null
+								|| resolvedGraph.isDirectDependency(id));
+				addIfProblem(alternatives, alternativeDependencies.check(id));
+			}
+		}
+		report("Found dependencies that have better alternatives:", alternatives);
+		report("Found incomplete dependency exclusions:", incompleteExcludes);
+		if (versionMapping.getDriftWarning() != null) {
+			this.out.print(versionMapping.getDriftWarning());
+		}
+		String failureMessage = versionMapping.getFailureMessage();
+		if (failureMessage != null) {
+			this.out.print(failureMessage);
+		}
+		return alternatives.isEmpty() && incompleteExcludes.isEmpty()
+				&& failureMessage == null;
+	}
+
+	private File resolve(String coordinates) {
+		String[] components = coordinates.split(":");
+		File pom = new File(this.options.get("--repository"),
+				components[0].replace('.', '/') + "/" + components[1] + "/"
+						+ components[2] + "/" + components[1] + "-" + components[2]
+						+ ".pom");
+		if (!pom.isFile()) {
+			throw new IllegalArgumentException(coordinates + " was not found in "
+					+ this.options.get("--repository"));
+		}
+		return pom;
+	}
+
+	private void addIfProblem(List<String> problems, String problem) {
+		if (problem != null) {
+			problems.add(problem);
+		}
+	}
+
+	private void report(String title, List<String> problems) {
+		if (!problems.isEmpty()) {
+			this.out.println(title);
+			for (String problem : problems) {
+				this.out.println("    - " + problem);
+			}
+		}
+	}
+
+}
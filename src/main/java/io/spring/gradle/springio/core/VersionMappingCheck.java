@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The rule that checks that modules are part of the Spring IO Platform. Modules are
+ * checked one at a time and the problems that are found are accumulated. A module that
+ * is not part of the platform is a problem if it is a direct dependency, or if it is a
+ * transitive dependency and unmapped transitive dependencies are not allowed. When drift
+ * is checked, a module whose version differs from its Spring IO version is reported too,
+ * along with the BOM that owns the module.
+ *
+ * @author Spring IO Team
+ */
+public final class VersionMappingCheck {
+
+	private final Set<String> unmappedDirectDependencies = new LinkedHashSet<>();
+
+	private final Set<String> unmappedTransitiveDependencies = new LinkedHashSet<>();
+
+	private final Set<String> drift = new LinkedHashSet<>();
+
+	private final ManagedVersionsIndex managedVersions;
+
+	private boolean failOnUnmappedDirectDependency = true;
+
+	private boolean failOnUnmappedTransitiveDependency = false;
+
+	private boolean checkDrift;
+
+	/**
+	 * Creates a new {@code VersionMappingCheck} against the given
+	 * {@code managedVersions}.
+	 *
+	 * @param managedVersions the managed versions
+	 */
+	public VersionMappingCheck(ManagedVersionsIndex managedVersions) {
+		this.managedVersions = managedVersions;
+	}
+
+	/**
+	 * Sets whether a direct dependency that is not part of the Spring IO Platform is a
+	 * problem.
+	 *
+	 * @param failOnUnmappedDirectDependency {@code true} if it is a problem
+	 */
+	public void setFailOnUnmappedDirectDependency(
+			boolean failOnUnmappedDirectDependency) {
+		this.failOnUnmappedDirectDependency = failOnUnmappedDirectDependency;
+	}
+
+	/**
+	 * Sets whether a transitive dependency that is not part of the Spring IO Platform is
+	 * a problem.
+	 *
+	 * @param failOnUnmappedTransitiveDependency {@code true} if it is a problem
+	 */
+	public void setFailOnUnmappedTransitiveDependency(
+			boolean failOnUnmappedTransitiveDependency) {
+		this.failOnUnmappedTransitiveDependency = failOnUnmappedTransitiveDependency;
+	}
+
+	/**
+	 * Sets whether the versions of the modules that are checked from now on are compared
+	 * with their Spring IO versions.
+	 *
+	 * @param checkDrift {@code true} to compare the versions
+	 */
+	public void setCheckDrift(boolean checkDrift) {
+		this.checkDrift = checkDrift;
+	}
+
+	/**
+	 * Checks a module. Whether the module is a direct dependency is only determined when
+	 * it is not part of the Spring IO Platform.
+	 *
+	 * @param group the group of the module
+	 * @param name the name of the module
+	 * @param version the version of the module
+	 * @param direct supplies whether the module is a direct dependency
+	 */
+	public void check(String group, String name, String version, BooleanSupplier direct) {
+		String id = group + ":" + name;
+		String managedVersion = this.managedVersions.getVersion(id);
+		if (managedVersion == null) {
+			if (direct.getAsBoolean()) {
+				if (this.failOnUnmappedDirectDependency) {
+					this.unmappedDirectDependencies.add(id);
+				}
+			}
+			else if (this.failOnUnmappedTransitiveDependency) {
+				this.unmappedTransitiveDependencies.add(id);
+			}
+		}
+		else if (this.checkDrift && !managedVersion.equals(version)) {
+			this.drift.add(id + ":" + version + " (" + this.managedVersions.getOwner(id)
+					+ " version " + managedVersion + ")");
+		}
+	}
+
+	/**
+	 * Returns the number of problems that have been found, including drift.
+	 *
+	 * @return the number of findings
+	 */
+	public int getFindings() {
+		return this.unmappedDirectDependencies.size()
+				+ this.unmappedTransitiveDependencies.size() + this.drift.size();
+	}
+
+	/**
+	 * Returns a warning that describes the modules whose version differs from their
+	 * Spring IO version.
+	 *
+	 * @return the warning, or {@code null} if there is no drift
+	 */
+	public String getDriftWarning() {
+		if (this.drift.isEmpty()) {
+			return null;
+		}
+		StringBuilder warning = new StringBuilder("The following locked "
+				+ "dependencies do not use their Spring IO versions: \n");
+		for (String dependency : this.drift) {
+			warning.append("    - ").append(dependency).append("\n");
+		}
+		return warning.toString();
+	}
+
+	/**
+	 * Returns a message that describes the unmapped dependencies that are a problem.
+	 *
+	 * @return the message, or {@code null} if the check passed
+	 */
+	public String getFailureMessage() {
+		String message = "";
+		if (!this.unmappedDirectDependencies.isEmpty()) {
+			message += "The following direct dependencies do not have Spring IO versions: \n";
+			for (String dependency : this.unmappedDirectDependencies) {
+				message += "    - " + dependency + "\n";
+			}
+		}
+		if (!this.unmappedTransitiveDependencies.isEmpty()) {
+			message = "The following transitive dependencies do not have Spring IO versions: \n";
+			for (String dependency : this.unmappedTransitiveDependencies) {
+				message += "    - " + dependency + "\n";
+			}
+		}
+		return (message.length() > 0) ? message : null;
+	}
+
+}
@@ -16,10 +16,17 @@
 
 package io.spring.gradle.springio;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.testfixtures.ProjectBuilder;
 import org.junit.Before;
@@ -89,6 +96,41 @@ public class AlternativeDependenciesTaskTests {
 		this.task.check();
 	}
 
+	@Test
+	public void failsWhenLockedTransitiveDependencyHasPreferredAlternative()
+			throws IOException {
+		Configuration configuration = this.project.getConfigurations()
+				.create("locked");
+		this.project.getDependencies().add("locked", "com.example:library:1.0");
+		File lockfile = this.project.file("gradle/dependency-locks/locked.lockfile");
+		lockfile.getParentFile().mkdirs();
+		Files.write(lockfile.toPath(), Arrays.asList("com.example:library:1.0",
+				"asm:asm:3.3.1"), StandardCharsets.UTF_8);
+		Map<String, String> alternatives = new HashMap<>();
+		alternatives.put("asm:asm", "Please use some alternative");
+		this.task.setAlternatives(alternatives);
+		this.task.setConfigurations(Collections.singleton(configuration));
+		this.task.setUseLockfiles(true);
+		this.thrown.expect(IllegalStateException.class);
+		this.task.check();
+	}
+
+	@Test
+	public void lockfileIsIgnoredByDefault() throws IOException {
+		Configuration configuration = this.project.getConfigurations()
+				.create("locked");
+		this.project.getDependencies().add("locked", "com.example:library:1.0");
+		File lockfile = this.project.file("gradle/dependency-locks/locked.lockfile");
+		lockfile.getParentFile().mkdirs();
+		Files.write(lockfile.toPath(), Arrays.asList("com.example:library:1.0",
+				"asm:asm:3.3.1"), StandardCharsets.UTF_8);
+		Map<String, String> alternatives = new HashMap<>();
+		alternatives.put("asm:asm", "Please use some alternative");
+		this.task.setAlternatives(alternatives);
+		this.task.setConfigurations(Collections.singleton(configuration));
+		this.task.check();
+	}
+
 	private void applyPlugin(Class<?> pluginClass) {
 		Map<String, Object> arguments = new HashMap<>();
 		arguments.put("plugin", pluginClass);
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The time taken by, and the heap used by, a build that was run by {@link GradleBuild}.
+ *
+ * @author Spring IO Team
+ */
+public class BuildMeasurement {
+
+	private static final String CONFIGURATION_TIME = "configurationTime";
+
+	private static final String EXECUTION_TIME = "executionTime";
+
+	private static final String PEAK_HEAP = "peakHeap";
+
+	private final long configurationTime;
+
+	private final long executionTime;
+
+	private final long peakHeap;
+
+	BuildMeasurement(long configurationTime, long executionTime, long peakHeap) {
+		this.configurationTime = configurationTime;
+		this.executionTime = executionTime;
+		this.peakHeap = peakHeap;
+	}
+
+	/**
+	 * Returns the time, in milliseconds, from the start of the build until all of its
+	 * projects had been evaluated.
+	 *
+	 * @return the configuration time
+	 */
+	public long getConfigurationTime() {
+		return this.configurationTime;
+	}
+
+	/**
+	 * Returns the time, in milliseconds, from the evaluation of the build's projects
+	 * until the build finished.
+	 *
+	 * @return the execution time
+	 */
+	public long getExecutionTime() {
+		return this.executionTime;
+	}
+
+	/**
+	 * Returns the peak heap usage, in bytes, of the JVM that ran the build.
+	 *
+	 * @return the peak heap usage
+	 */
+	public long getPeakHeap() {
+		return this.peakHeap;
+	}
+
+	/**
+	 * Returns descriptions of the ways in which this measurement is worse than the given
+	 * {@code baseline} by more than the given {@code tolerance}.
+	 *
+	 * @param baseline the baseline
+	 * @param tolerance the tolerance as a fraction of the baseline, for example
+	 * {@code 0.25}
+	 * @return the regressions, empty if there are none
+	 */
+	public List<String> regressionsAgainst(BuildMeasurement baseline, double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		addRegression(regressions, "Configuration time", this.configurationTime,
+				baseline.configurationTime, tolerance, "ms");
+		addRegression(regressions, "Execution time", this.executionTime,
+				baseline.executionTime, tolerance, "ms");
+		addRegression(regressions, "Peak heap", this.peakHeap, baseline.peakHeap,
+				tolerance, " bytes");
+		return regressions;
+	}
+
+	private void addRegression(List<String> regressions, String name, long value,
+			long baseline, double tolerance, String unit) {
+		if (value > baseline * (1 + tolerance)) {
+			regressions.add(name + " was " + value + unit + " compared with a baseline of "
+					+ baseline + unit);
+		}
+	}
+
+	/**
+	 * Loads a measurement from the given {@code file}.
+	 *
+	 * @param file the file
+	 * @return the measurement
+	 * @throws IOException if the file cannot be read
+	 */
+	public static BuildMeasurement load(File file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream input = new FileInputStream(file)) {
+			properties.load(input);
+		}
+		return new BuildMeasurement(
+				Long.parseLong(properties.getProperty(CONFIGURATION_TIME)),
+				Long.parseLong(properties.getProperty(EXECUTION_TIME)),
+				Long.parseLong(properties.getProperty(PEAK_HEAP)));
+	}
+
+	/**
+	 * Stores this measurement in the given {@code file}.
+	 *
+	 * @param file the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void store(File file) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty(CONFIGURATION_TIME, Long.toString(this.configurationTime));
+		properties.setProperty(EXECUTION_TIME, Long.toString(this.executionTime));
+		properties.setProperty(PEAK_HEAP, Long.toString(this.peakHeap));
+		file.getParentFile().mkdirs();
+		try (OutputStream output = new FileOutputStream(file)) {
+			properties.store(output, null);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "configuration " + this.configurationTime + "ms, execution "
+				+ this.executionTime + "ms, peak heap " + this.peakHeap + " bytes";
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BuildMetrics}.
+ *
+ * @author Spring IO Team
+ */
+public class BuildMetricsTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	@Test
+	public void metricsAreWrittenAsJson() {
+		TaskMetrics metrics = new TaskMetrics(":springIoIncompleteExcludesCheck",
+				"IncompleteExcludesTask");
+		metrics.started();
+		metrics.increment(TaskMetrics.RULES, 3);
+		metrics.increment(TaskMetrics.FINDINGS);
+		metrics.finished("executed");
+		assertThat(BuildMetrics.toJson(Arrays.asList(metrics)))
+				.startsWith("{\"tasks\":[{\"path\":\":springIoIncompleteExcludesCheck\","
+						+ "\"type\":\"IncompleteExcludesTask\",\"outcome\":\"executed\","
+						+ "\"duration\":")
+				.endsWith(",\"timers\":{},\"counters\":{\"findings\":1,"
+						+ "\"rulesEvaluated\":3}}]}");
+	}
+
+	@Test
+	public void graphResolutionAndArtifactDownloadAreTimedSeparately()
+			throws IOException {
+		File repository = this.temp.newFolder();
+		TestArtifacts.module("alpha", "1.0").entry("alpha.txt", "alpha")
+				.publishTo(repository);
+		Project project = ProjectBuilder.builder()
+				.withProjectDir(this.temp.newFolder()).build();
+		project.getRepositories().maven((maven) -> maven.setUrl(repository.toURI()));
+		Configuration runtime = project.getConfigurations().create("runtime");
+		project.getDependencies().add("runtime", "com.example:alpha:1.0");
+		TaskMetrics metrics = new TaskMetrics(":springIoCheck", "Check");
+		assertThat(metrics.downloadedArtifacts(runtime)).hasSize(1);
+		assertThat(metrics.getTimers()).containsOnlyKeys(TaskMetrics.GRAPH_RESOLUTION,
+				TaskMetrics.ARTIFACT_DOWNLOAD);
+		assertThat(metrics.getCounter(TaskMetrics.ARTIFACTS)).isEqualTo(1);
+	}
+
+	@Test
+	public void summaryTotalsTheMetricsOfEveryTask() {
+		TaskMetrics convergence = new TaskMetrics(":springIoDependencyConvergenceCheck",
+				"DependencyConvergenceTask");
+		convergence.increment(TaskMetrics.NODES, 10);
+		convergence.increment(TaskMetrics.EDGES, 12);
+		convergence.increment(TaskMetrics.FINDINGS, 2);
+		TaskMetrics mapping = new TaskMetrics(":springIoDependencyVersionMappingCheck",
+				"DependencyVersionMappingCheckTask");
+		mapping.increment(TaskMetrics.ARTIFACTS, 9);
+		mapping.increment(TaskMetrics.RULES, 9);
+		mapping.increment(TaskMetrics.FINDINGS, 1);
+		assertThat(BuildMetrics.summarize(Arrays.asList(convergence, mapping)))
+				.isEqualTo("Spring IO: 2 tasks took 0ms (0ms resolving BOMs, 0ms "
+						+ "resolving graphs, 0ms downloading artifacts, 0ms evaluating "
+						+ "rules), visited 10 nodes and 12 edges, touched 9 artifacts, "
+						+ "evaluated 9 rules, and found 3 problems");
+	}
+
+	@Test
+	public void jsonStringsAreEscapedAndValuesAreSeparated() {
+		JsonWriter json = new JsonWriter();
+		json.beginObject().name("text").value("a \"quoted\"\n value").name("values")
+				.beginArray().value(1).value(true).value((String) null).endArray()
+				.endObject();
+		assertThat(json.toString()).isEqualTo(
+				"{\"text\":\"a \\\"quoted\\\"\\u000a value\",\"values\":[1,true,null]}");
+	}
+
+}
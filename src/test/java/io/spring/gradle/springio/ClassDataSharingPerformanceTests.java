@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.assertj.core.api.Assertions;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.spring.gradle.springio.SpringIoJdkTestTests.LoadClasses;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Performance test that compares the startup of a JVM that loads a large classpath with
+ * and without the class data sharing archive that {@link SpringIoJdkTest} creates. The
+ * comparison is relative, so no baseline is needed, and both timings are written to the
+ * directory identified by the {@code springIo.performanceResults} system property.
+ *
+ * @author Spring IO Team
+ */
+public class ClassDataSharingPerformanceTests {
+
+	private static final int RUNS = 5;
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	@Test
+	public void startupIsFasterWithClassDataSharingArchive() throws Exception {
+		Jdk jdk = Jdk.current();
+		Assume.assumeTrue(jdk.getMajorVersion() >= 10);
+		Project project = ProjectBuilder.builder().withProjectDir(this.temp.newFolder())
+				.build();
+		List<String> classpath = Arrays.asList(
+				LoadClasses.jar(this.temp.getRoot()).getAbsolutePath(),
+				jarContaining(Assertions.class), jarContaining(Test.class));
+		SpringIoJdkTest test = project.getTasks().create("springIoJdkTest",
+				SpringIoJdkTest.class);
+		test.executable(new File(jdk.getHome(), "bin/java"));
+		test.setClasspath(project.files(classpath.toArray()));
+		test.setClassDataSharing(true);
+		List<String> archiveArgs = archiveArgs(test, classpath);
+		long without = Long.MAX_VALUE;
+		long with = Long.MAX_VALUE;
+		for (int i = 0; i < RUNS; i++) {
+			without = Math.min(without,
+					run(test, Collections.<String>emptyList(), classpath));
+			with = Math.min(with, run(test, archiveArgs, classpath));
+		}
+		Properties results = new Properties();
+		results.setProperty("withoutArchive", Long.toString(without));
+		results.setProperty("withArchive", Long.toString(with));
+		File resultsFile = new File(System.getProperty("springIo.performanceResults",
+				"build/performance-results"), "classDataSharingStartup.properties");
+		resultsFile.getParentFile().mkdirs();
+		try (OutputStream output = new FileOutputStream(resultsFile)) {
+			results.store(output, "Startup time in milliseconds, " + jdk.getIdentifier());
+		}
+		assertThat(with).isLessThan(without);
+	}
+
+	private List<String> archiveArgs(SpringIoJdkTest test, List<String> classpath)
+			throws Exception {
+		for (int i = 0; i < 2; i++) {
+			test.setJvmArgs(Collections.<String>emptyList());
+			test.configureClassDataSharing();
+			List<String> args = new ArrayList<>(test.getJvmArgs());
+			if (args.contains("-Xshare:auto") || !isArchiving(args)) {
+				return args;
+			}
+			run(test, args, classpath);
+		}
+		test.setJvmArgs(Collections.<String>emptyList());
+		test.configureClassDataSharing();
+		return new ArrayList<>(test.getJvmArgs());
+	}
+
+	private boolean isArchiving(List<String> args) {
+		for (String arg : args) {
+			if (arg.startsWith("-XX:DumpLoadedClassList=")
+					|| arg.startsWith("-XX:ArchiveClassesAtExit=")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private long run(SpringIoJdkTest test, List<String> jvmArgs, List<String> classpath)
+			throws Exception {
+		List<String> command = new ArrayList<>();
+		command.add(test.getExecutable());
+		command.addAll(jvmArgs);
+		command.add("-cp");
+		command.add(String.join(File.pathSeparator, classpath));
+		command.add(LoadClasses.class.getName());
+		command.addAll(classpath.subList(1, classpath.size()));
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(new File(this.temp.getRoot(), "output.txt")).start();
+		assertThat(process.waitFor()).isEqualTo(0);
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+	private String jarContaining(Class<?> type) {
+		return new File(type.getProtectionDomain().getCodeSource().getLocation()
+				.getPath()).getAbsolutePath();
+	}
+
+}
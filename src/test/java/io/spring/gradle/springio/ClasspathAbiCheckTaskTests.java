@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ClasspathAbiCheckTask}.
+ *
+ * @author Spring IO Team
+ */
+public class ClasspathAbiCheckTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private Project project;
+
+	private ClasspathAbiCheckTask task;
+
+	@Before
+	public void setup() {
+		this.project = ProjectBuilder.builder().withName("project").build();
+		this.task = this.project.getTasks().create("springIoTestClasspathAbiCheck",
+				ClasspathAbiCheckTask.class);
+	}
+
+	@Test
+	public void sameClasspathIsAbiIdentical() throws IOException {
+		File classes = compile("public class Foo { public void bar() { } }");
+		check(classes, classes);
+		assertThat(this.task.isAbiIdentical()).isTrue();
+	}
+
+	@Test
+	public void changesToMethodBodiesAndPrivateMembersAreAbiIdentical()
+			throws IOException {
+		File before = compile("public class Foo { public int bar() { return 1; } }");
+		File after = compile("public class Foo { public int bar() { return baz(); } "
+				+ "private int baz() { return 2; } }");
+		check(before, after);
+		assertThat(this.task.isAbiIdentical()).isTrue();
+	}
+
+	@Test
+	public void changesToResourcesInJarsAreAbiIdentical() throws IOException {
+		File classes = compile("public class Foo { public void bar() { } }");
+		File before = jar(classes, "before");
+		File after = jar(classes, "after");
+		check(before, after);
+		assertThat(this.task.isAbiIdentical()).isTrue();
+	}
+
+	@Test
+	public void changeToPublicMethodIsNotAbiIdentical() throws IOException {
+		File before = compile("public class Foo { public void bar() { } }");
+		File after = compile("public class Foo { public void bar(String baz) { } }");
+		check(before, after);
+		assertThat(this.task.isAbiIdentical()).isFalse();
+	}
+
+	@Test
+	public void changeToConstantValueIsNotAbiIdentical() throws IOException {
+		File before = compile("public class Foo { public static final int BAR = 1; }");
+		File after = compile("public class Foo { public static final int BAR = 2; }");
+		check(before, after);
+		assertThat(this.task.isAbiIdentical()).isFalse();
+	}
+
+	@Test
+	public void changeToClassSignatureIsNotAbiIdentical() throws IOException {
+		File before = compile("public class Foo<T extends Number> { }");
+		File after = compile("public class Foo<T extends Comparable<T>> { }");
+		check(before, after);
+		assertThat(this.task.isAbiIdentical()).isFalse();
+	}
+
+	@Test
+	public void changeToClassAnnotationIsNotAbiIdentical() throws IOException {
+		File before = compile("public interface Foo { void bar(); }");
+		File after = compile("@FunctionalInterface public interface Foo { void bar(); }");
+		check(before, after);
+		assertThat(this.task.isAbiIdentical()).isFalse();
+	}
+
+	@Test
+	public void changeToInnerClassFlagsIsNotAbiIdentical() throws IOException {
+		File before = compile(
+				"public class Foo { public static class Bar { private Bar() { } } }");
+		File after = compile(
+				"public class Foo { protected static class Bar { private Bar() { } } }");
+		check(before, after);
+		assertThat(this.task.isAbiIdentical()).isFalse();
+	}
+
+	@Test
+	public void additionalClassIsNotAbiIdentical() throws IOException {
+		File before = compile("public class Foo { }");
+		File after = compile("public class Foo { } class Bar { }");
+		check(before, after);
+		assertThat(this.task.isAbiIdentical()).isFalse();
+	}
+
+	private void check(File testClasspath, File springIoTestClasspath) {
+		this.task.setTestCompileClasspath(this.project.files(testClasspath));
+		this.task.setSpringIoTestCompileClasspath(
+				this.project.files(springIoTestClasspath));
+		this.task.compare();
+	}
+
+	private File compile(String source) throws IOException {
+		return TestArtifacts.compile(this.temp, null, source);
+	}
+
+	private File jar(File classes, String resourceContent) throws IOException {
+		Map<String, byte[]> entries = TestArtifacts.entries(classes);
+		entries.put("resource.txt", resourceContent.getBytes(StandardCharsets.UTF_8));
+		return TestArtifacts.jar(this.temp.newFile(), entries);
+	}
+
+}
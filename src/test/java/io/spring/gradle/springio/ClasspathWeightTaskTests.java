@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ClasspathWeightTask}.
+ *
+ * @author Spring IO Team
+ */
+public class ClasspathWeightTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private Project project;
+
+	private ClasspathWeightTask task;
+
+	@Before
+	public void setup() throws IOException {
+		File repository = this.temp.newFolder();
+		module("shared", "com/example/shared/A.class", "com/example/shared/B.class",
+				"META-INF/services/com.example.Service").publishTo(repository);
+		module("only", "com/example/only/C.class").publishTo(repository);
+		module("alpha", "com/example/alpha/D.class").dependency("shared", "1.0")
+				.dependency("only", "1.0").publishTo(repository);
+		module("bravo", "com/example/bravo/E.class", "com/example/bravo/F.class")
+				.dependency("shared", "1.0").publishTo(repository);
+		this.project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		this.project.getRepositories()
+				.maven((maven) -> maven.setUrl(repository.toURI()));
+		this.project.getConfigurations().create("springIoTestRuntime");
+		this.project.getConfigurations().create("testRuntime");
+		this.project.getDependencies().add("springIoTestRuntime",
+				"com.example:alpha:1.0");
+		this.project.getDependencies().add("springIoTestRuntime",
+				"com.example:bravo:1.0");
+		this.project.getDependencies().add("testRuntime", "com.example:alpha:1.0");
+		this.task = this.project.getTasks().create("springIoClasspathWeightReport",
+				ClasspathWeightTask.class);
+		this.task.configuration(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+	}
+
+	@Test
+	public void totalsCountBytesClassesAndServices() throws IOException {
+		this.task.report();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines.get(0)).isEqualTo("springIoTestRuntime: 4 modules");
+		assertThat(lines.get(1)).startsWith("    Bytes: ");
+		assertThat(lines.get(2)).isEqualTo("    Classes: 6");
+		assertThat(lines.get(3)).isEqualTo("    Services: 1");
+	}
+
+	@Test
+	public void transitiveWeightIsAttributedToDirectDependencies() throws IOException {
+		this.task.report();
+		String report = new String(Files.readAllBytes(this.task.getReportFile().toPath()),
+				StandardCharsets.UTF_8);
+		assertThat(report).containsPattern("com.example:alpha +\\d+ +\\d+ +4 +2\n");
+		assertThat(report).containsPattern("com.example:bravo +\\d+ +\\d+ +4 +2\n");
+	}
+
+	@Test
+	public void deltasAreReportedAgainstTheBaseline() throws IOException {
+		this.task.setBaselineConfiguration(
+				this.project.getConfigurations().getByName("testRuntime"));
+		this.task.report();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines.get(0))
+				.isEqualTo("springIoTestRuntime: 4 modules (delta vs testRuntime)");
+		assertThat(lines.get(2)).isEqualTo("    Classes: 6 (+2)");
+		assertThat(lines.get(3)).isEqualTo("    Services: 1");
+		assertThat(lines).anySatisfy((line) -> assertThat(line)
+				.matches("    com.example:bravo +\\d+ \\(\\+\\d+\\) +2 \\(\\+2\\) +0"));
+	}
+
+	private TestArtifacts.Module module(String name, String... entries) {
+		TestArtifacts.Module module = TestArtifacts.module(name, "1.0");
+		for (String entry : entries) {
+			module.entry(entry, new byte[] { 1, 2, 3 });
+		}
+		return module;
+	}
+
+}
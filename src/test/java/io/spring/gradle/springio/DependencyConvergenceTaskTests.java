@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Tests for {@link DependencyConvergenceTask}.
+ *
+ * @author Spring IO Team
+ */
+public class DependencyConvergenceTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private Project project;
+
+	private DependencyConvergenceTask task;
+
+	@Before
+	public void setup() throws IOException {
+		File repository = this.temp.newFolder();
+		TestArtifacts.module("lib", "1.0").packaging("pom").publishTo(repository);
+		TestArtifacts.module("lib", "2.0").packaging("pom").publishTo(repository);
+		TestArtifacts.module("alpha", "1.0").packaging("pom").dependency("lib", "1.0")
+				.publishTo(repository);
+		TestArtifacts.module("bravo", "1.0").packaging("pom").dependency("lib", "2.0")
+				.publishTo(repository);
+		TestArtifacts.module("charlie", "1.0").packaging("pom").dependency("lib", "2.0")
+				.publishTo(repository);
+		this.project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		this.project.getRepositories()
+				.maven((maven) -> maven.setUrl(repository.toURI()));
+		this.project.getConfigurations().create("springIoTestRuntime");
+		this.task = this.project.getTasks().create("springIoDependencyConvergenceCheck",
+				DependencyConvergenceTask.class);
+		this.task.setConfiguration(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+	}
+
+	@Test
+	public void divergentRequestsAreReportedWithTheirRequesters() throws IOException {
+		addDependencies("alpha:1.0", "bravo:1.0", "charlie:1.0");
+		this.task.check();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("com.example:lib (selected 2.0)",
+				"    1.0 requested by com.example:alpha:1.0",
+				"    2.0 requested by com.example:bravo:1.0, com.example:charlie:1.0");
+	}
+
+	@Test
+	public void convergentGraphHasAnEmptyReport() throws IOException {
+		addDependencies("bravo:1.0", "charlie:1.0", "lib:2.0");
+		this.task.check();
+		assertThat(Files.readAllLines(this.task.getReportFile().toPath())).isEmpty();
+	}
+
+	@Test
+	public void divergenceFailsTheTaskWhenConfiguredToDoSo() throws IOException {
+		addDependencies("alpha:1.0", "lib:2.0");
+		this.task.setFailOnDivergence(true);
+		try {
+			this.task.check();
+			fail("Check did not fail");
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage())
+					.startsWith("1 modules were requested with more than one version");
+		}
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).hasSize(3);
+		assertThat(lines.get(0)).isEqualTo("com.example:lib (selected 2.0)");
+		assertThat(lines.get(1)).isEqualTo("    1.0 requested by com.example:alpha:1.0");
+		assertThat(lines.get(2)).startsWith("    2.0 requested by ")
+				.endsWith("project :");
+	}
+
+	private void addDependencies(String... dependencies) {
+		for (String dependency : dependencies) {
+			this.project.getDependencies().add("springIoTestRuntime",
+					"com.example:" + dependency);
+		}
+	}
+
+}
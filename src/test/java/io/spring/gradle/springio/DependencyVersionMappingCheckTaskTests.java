@@ -16,9 +16,17 @@
 
 package io.spring.gradle.springio;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import io.spring.gradle.springio.core.ManagedVersionsIndex;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
@@ -28,6 +36,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * Tests for {@link DependencyVersionMappingCheckTask}.
  *
@@ -113,4 +123,137 @@ public class DependencyVersionMappingCheckTaskTests {
 		this.task.checkVersionMapping();
 	}
 
+	@Test
+	public void lockedConfigurationIsCheckedWithoutResolvingIt() throws IOException {
+		writeLockfile("gradle/dependency-locks/configuration.lockfile",
+				"com.example:unavailable:1.0");
+		this.task.setFailOnUnmappedTransitiveDependency(true);
+		this.task.setUseLockfiles(true);
+		this.thrown.expect(InvalidUserDataException.class);
+		this.thrown.expectMessage("com.example:unavailable");
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void onlyTheEntriesOfTheConfigurationAreReadFromASingleLockfile()
+			throws IOException {
+		this.managedVersions.put("com.example:locked", "1.0");
+		writeLockfile("gradle.lockfile", "com.example:locked:1.0=configuration,other",
+				"com.example:unavailable:1.0=other", "empty=");
+		this.task.setFailOnUnmappedTransitiveDependency(true);
+		this.task.setUseLockfiles(true);
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void lockfileIsIgnoredByDefault() throws IOException {
+		writeLockfile("gradle/dependency-locks/configuration.lockfile",
+				"com.example:unavailable:1.0");
+		this.task.setFailOnUnmappedTransitiveDependency(true);
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void dependencyManagedByAnyBomInTheIndexIsMapped() {
+		Map<String, Map<String, String>> boms = new LinkedHashMap<>();
+		boms.put("Spring IO", this.managedVersions);
+		boms.put("com.example:internal-bom:1.0",
+				Collections.singletonMap("com.example:internal", "1.0"));
+		this.task.setManagedVersionsIndex(ManagedVersionsIndex.of(boms));
+		this.project.getDependencies().add("configuration",
+				"com.example:internal:1.0");
+		this.task.setDeclaredOnly(true);
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void declaredOnlyCheckDoesNotResolveTheConfiguration() {
+		this.project.getDependencies().add("configuration",
+				"com.example:unavailable:1.0");
+		this.task.setDeclaredOnly(true);
+		this.thrown.expect(InvalidUserDataException.class);
+		this.thrown.expectMessage("com.example:unavailable");
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void declaredOnlyCheckIgnoresTransitiveDependencies() {
+		this.managedVersions.put("org.springframework:spring-core", "4.3.3.RELEASE");
+		this.project.getDependencies().add("configuration",
+				"org.springframework:spring-core:4.3.3.RELEASE");
+		this.task.setFailOnUnmappedTransitiveDependency(true);
+		this.task.setDeclaredOnly(true);
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void observedConfigurationIsCheckedInPlaceOfTheConfiguration() {
+		this.managedVersions.put("commons-logging:commons-logging", "1.2");
+		this.project.getDependencies().add("configuration",
+				"com.example:unavailable:1.0");
+		Configuration observed = this.project.getConfigurations().create("observed");
+		this.project.getDependencies().add("observed",
+				"commons-logging:commons-logging:1.2");
+		this.task.observe(observed);
+		observed.getIncoming().getResolutionResult().getAllComponents();
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void resolutionOfObservedConfigurationIsChecked() {
+		this.project.getDependencies().add("configuration",
+				"commons-logging:commons-logging:1.2");
+		Configuration observed = this.project.getConfigurations().create("observed");
+		this.project.getDependencies().add("observed",
+				"commons-logging:commons-logging:1.2");
+		this.task.observe(observed);
+		observed.getIncoming().getResolutionResult().getAllComponents();
+		this.thrown.expect(InvalidUserDataException.class);
+		this.thrown.expectMessage("commons-logging");
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void observedConfigurationIsCapturedWhenTheBuildResolvesIt() {
+		BuildMetrics.record(this.project);
+		this.managedVersions.put("commons-logging:commons-logging", "1.2");
+		Configuration observed = this.project.getConfigurations().create("observed");
+		this.project.getDependencies().add("observed",
+				"commons-logging:commons-logging:1.2");
+		this.task.observe(observed);
+		observed.getIncoming().getResolutionResult().getAllComponents();
+		this.task.checkVersionMapping();
+		TaskMetrics metrics = TaskMetrics.of(this.task);
+		assertThat(metrics.getCounter(TaskMetrics.CACHE_HITS)).isEqualTo(1);
+		assertThat(metrics.getTimers()).doesNotContainKey(TaskMetrics.GRAPH_RESOLUTION);
+	}
+
+	@Test
+	public void observedConfigurationThatHasNotBeenResolvedIsResolvedByTheTask() {
+		this.project.getDependencies().add("configuration",
+				"commons-logging:commons-logging:1.2");
+		Configuration observed = this.project.getConfigurations().create("observed");
+		this.project.getDependencies().add("observed",
+				"commons-logging:commons-logging:1.2");
+		this.task.observe(observed);
+		this.thrown.expect(InvalidUserDataException.class);
+		this.thrown.expectMessage("commons-logging");
+		this.task.checkVersionMapping();
+	}
+
+	@Test
+	public void dependencyDeclaredOnlyOnObservedConfigurationIsNotDirect() {
+		Configuration observed = this.project.getConfigurations().create("observed");
+		this.project.getDependencies().add("observed",
+				"commons-logging:commons-logging:1.2");
+		this.task.observe(observed);
+		this.task.checkVersionMapping();
+	}
+
+	private void writeLockfile(String path, String... entries) throws IOException {
+		File lockfile = this.project.file(path);
+		lockfile.getParentFile().mkdirs();
+		Files.write(lockfile.toPath(), Arrays.asList(entries), StandardCharsets.UTF_8);
+	}
+
 }
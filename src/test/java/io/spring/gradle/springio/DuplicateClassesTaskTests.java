@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Tests for {@link DuplicateClassesTask}.
+ *
+ * @author Spring IO Team
+ */
+public class DuplicateClassesTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private DuplicateClassesTask task;
+
+	@Before
+	public void setup() throws IOException {
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		this.task = project.getTasks().create("springIoDuplicateClassesCheck",
+				DuplicateClassesTask.class);
+	}
+
+	@Test
+	public void classpathWithoutDuplicatesHasAnEmptyReport() throws IOException {
+		this.task.setClasspath(this.task.getProject().files(
+				jar("one.jar", "com/example/one/A.class", "META-INF/spring.factories"),
+				jar("two.jar", "com/example/two/B.class")));
+		this.task.check();
+		assertThat(Files.readAllLines(this.task.getReportFile().toPath())).isEmpty();
+	}
+
+	@Test
+	public void duplicateClassesSplitPackagesAndResourcesAreReported()
+			throws IOException {
+		this.task.setClasspath(this.task.getProject().files(
+				jar("old-1.0.jar", "com/example/A.class", "com/example/B.class",
+						"com/example/package-info.class", "META-INF/spring.factories",
+						"META-INF/MANIFEST.MF"),
+				jar("new-2.0.jar", "com/example/A.class", "com/example/B.class",
+						"com/example/package-info.class", "META-INF/spring.factories",
+						"META-INF/MANIFEST.MF"),
+				jar("split.jar", "org/example/C.class", "module-info.class"),
+				jar("other-split.jar", "org/example/D.class", "module-info.class")));
+		try {
+			this.task.check();
+			fail("Check did not fail");
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage()).startsWith(
+					"Found 2 classes that are provided by more than one classpath entry");
+		}
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("Duplicate classes",
+				"    old-1.0.jar, new-2.0.jar: 2 classes", "        com.example.A",
+				"        com.example.B", "", "Split packages",
+				"    org.example: split.jar, other-split.jar", "",
+				"Duplicate resources",
+				"    META-INF/spring.factories: old-1.0.jar, new-2.0.jar");
+	}
+
+	@Test
+	public void duplicatesAreOnlyReportedWhenFailuresAreIgnored() throws IOException {
+		File classes = this.temp.newFolder();
+		new File(classes, "com/example").mkdirs();
+		new File(classes, "com/example/A.class").createNewFile();
+		this.task.setClasspath(this.task.getProject().files(classes,
+				jar("library.jar", "com/example/A.class")));
+		this.task.setIgnoreFailures(true);
+		this.task.check();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("Duplicate classes",
+				"    " + classes.getName() + ", library.jar: 1 classes",
+				"        com.example.A");
+	}
+
+	private File jar(String name, String... entries) throws IOException {
+		File jar = new File(this.temp.newFolder(), name);
+		try (ZipOutputStream output = new ZipOutputStream(new FileOutputStream(jar))) {
+			output.putNextEntry(new ZipEntry("com/"));
+			output.closeEntry();
+			for (String entry : entries) {
+				output.putNextEntry(new ZipEntry(entry));
+				output.write(entry.getBytes(StandardCharsets.UTF_8));
+				output.closeEntry();
+			}
+			output.setComment("Created by " + getClass().getName());
+		}
+		return jar;
+	}
+
+}
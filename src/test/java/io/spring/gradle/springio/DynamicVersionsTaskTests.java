@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Tests for {@link DynamicVersionsTask}.
+ *
+ * @author Spring IO Team
+ */
+public class DynamicVersionsTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private DynamicVersionsTask task;
+
+	@Before
+	public void setup() throws IOException {
+		File repository = this.temp.newFolder();
+		TestArtifacts.module("lib", "1.0").packaging("pom").publishTo(repository);
+		TestArtifacts.module("lib", "1.1").packaging("pom").publishTo(repository);
+		TestArtifacts.module("snap", "2.0-SNAPSHOT").packaging("pom")
+				.publishTo(repository);
+		TestArtifacts.module("charlie", "1.0").packaging("pom").publishTo(repository);
+		TestArtifacts.module("bravo", "1.0").packaging("pom")
+				.dependency("snap", "2.0-SNAPSHOT").publishTo(repository);
+		TestArtifacts.module("alpha", "1.0").packaging("pom")
+				.dependency("lib", "1.+").dependency("bravo", "1.0").publishTo(repository);
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		project.getRepositories().maven((maven) -> maven.setUrl(repository.toURI()));
+		project.getConfigurations().create("springIoTestRuntime");
+		project.getDependencies().add("springIoTestRuntime", "com.example:alpha:1.0");
+		((ExternalModuleDependency) project.getDependencies().add("springIoTestRuntime",
+				"com.example:charlie:1.0")).setChanging(true);
+		this.task = project.getTasks().create("springIoDynamicVersionsCheck",
+				DynamicVersionsTask.class);
+		this.task.setConfiguration(
+				project.getConfigurations().getByName("springIoTestRuntime"));
+	}
+
+	@Test
+	public void dynamicSnapshotAndChangingRequestsAreReportedWithTheirPaths()
+			throws IOException {
+		this.task.check();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).hasSize(6);
+		assertThat(lines.get(0)).isEqualTo("com.example:charlie:1.0 (changing)");
+		assertThat(lines.get(1)).endsWith("project :");
+		assertThat(lines.get(2)).isEqualTo("com.example:lib:1.+ (dynamic version)");
+		assertThat(lines.get(3)).endsWith("project : -> com.example:alpha:1.0");
+		assertThat(lines.get(4)).isEqualTo("com.example:snap:2.0-SNAPSHOT (snapshot)");
+		assertThat(lines.get(5)).endsWith(
+				"project : -> com.example:alpha:1.0 -> com.example:bravo:1.0");
+	}
+
+	@Test
+	public void managedDependencyRequestedDynamicallyFailsWhenConfiguredToDoSo() {
+		this.task.setManagedVersions(Collections.singletonMap("com.example:lib", "1.1"));
+		this.task.setFailOnManagedDependency(true);
+		try {
+			this.task.check();
+			fail("Check did not fail");
+		}
+		catch (InvalidUserDataException ex) {
+			assertThat(ex.getMessage()).contains("    - com.example:lib:1.+ (dynamic "
+					+ "version, managed by Spring IO Platform)");
+			assertThat(ex.getMessage()).doesNotContain("snap");
+		}
+	}
+
+	@Test
+	public void managedDependencyRequestedDynamicallyIsOnlyReportedByDefault()
+			throws IOException {
+		this.task.setManagedVersions(Collections.singletonMap("com.example:lib", "1.1"));
+		this.task.check();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).contains("com.example:lib:1.+ (dynamic version, managed by "
+				+ "Spring IO Platform)");
+	}
+
+}
@@ -19,6 +19,7 @@ package io.spring.gradle.springio;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
@@ -48,6 +49,10 @@ public class GradleBuild implements TestRule {
 
 	private String gradleVersion;
 
+	private SyntheticMultiProjectBuild synthetic;
+
+	private boolean syntheticWritten;
+
 	@Override
 	public Statement apply(final Statement base, Description description) {
 		URL scriptUrl = findDefaultScript(description);
@@ -98,6 +103,8 @@ public class GradleBuild implements TestRule {
 
 	private void after() {
 		GradleBuild.this.script = null;
+		GradleBuild.this.synthetic = null;
+		GradleBuild.this.syntheticWritten = false;
 	}
 
 	private String pluginClasspath() {
@@ -119,6 +126,12 @@ public class GradleBuild implements TestRule {
 		return this;
 	}
 
+	public GradleBuild synthetic(SyntheticMultiProjectBuild synthetic) {
+		this.synthetic = synthetic;
+		this.syntheticWritten = false;
+		return this;
+	}
+
 	public BuildResult build(String... arguments) {
 		try {
 			return prepareRunner(arguments).build();
@@ -137,11 +150,58 @@ public class GradleBuild implements TestRule {
 		}
 	}
 
+	public BuildMeasurement measure(String... arguments) {
+		try {
+			File measurementFile = new File(this.temp.newFolder(),
+					"measurement.properties");
+			File initScript = new File(this.temp.newFolder(), "measurement.gradle");
+			Files.write(initScript.toPath(), measurementInitScript(measurementFile)
+					.getBytes(StandardCharsets.UTF_8));
+			List<String> allArguments = new ArrayList<>();
+			allArguments.add("--init-script");
+			allArguments.add(initScript.getAbsolutePath());
+			allArguments.addAll(Arrays.asList(arguments));
+			prepareRunner(allArguments.toArray(new String[0])).build();
+			return BuildMeasurement.load(measurementFile);
+		}
+		catch (Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private String measurementInitScript(File measurementFile) {
+		return "import java.lang.management.ManagementFactory\n"
+				+ "import java.lang.management.MemoryType\n\n"
+				+ "def heapPools = ManagementFactory.memoryPoolMXBeans.findAll { "
+				+ "it.type == MemoryType.HEAP }\n"
+				+ "heapPools*.resetPeakUsage()\n"
+				+ "def started = System.currentTimeMillis()\n"
+				+ "def evaluated = started\n"
+				+ "gradle.projectsEvaluated { evaluated = System.currentTimeMillis() }\n"
+				+ "gradle.buildFinished {\n"
+				+ "\tdef properties = new Properties()\n"
+				+ "\tproperties.configurationTime = String.valueOf(evaluated - started)\n"
+				+ "\tproperties.executionTime = String.valueOf("
+				+ "System.currentTimeMillis() - evaluated)\n"
+				+ "\tproperties.peakHeap = String.valueOf("
+				+ "heapPools.sum { it.peakUsage.used })\n"
+				+ "\tnew File('" + measurementFile.getAbsolutePath().replace("\\", "/")
+				+ "').withOutputStream { properties.store(it, null) }\n" + "}\n";
+	}
+
 	public GradleRunner prepareRunner(String... arguments) throws IOException {
-		Files.readAllBytes(new File(this.script).toPath());
-		Files.copy(new File(this.script).toPath(),
-				new File(this.projectDir, "build.gradle").toPath(),
-				StandardCopyOption.REPLACE_EXISTING);
+		if (this.synthetic != null) {
+			if (!this.syntheticWritten) {
+				this.synthetic.writeTo(this.projectDir);
+				this.syntheticWritten = true;
+			}
+		}
+		else {
+			Files.readAllBytes(new File(this.script).toPath());
+			Files.copy(new File(this.script).toPath(),
+					new File(this.projectDir, "build.gradle").toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
 		GradleRunner gradleRunner = GradleRunner.create().withProjectDir(this.projectDir)
 				.forwardOutput();
 		if (this.gradleVersion != null) {
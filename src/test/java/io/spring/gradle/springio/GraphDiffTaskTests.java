@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link GraphDiffTask}.
+ *
+ * @author Spring IO Team
+ */
+public class GraphDiffTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private File repository;
+
+	private File projectDir;
+
+	@Before
+	public void setup() throws IOException {
+		this.repository = this.temp.newFolder();
+		TestArtifacts.module("charlie", "1.0").packaging("pom")
+				.publishTo(this.repository);
+		TestArtifacts.module("delta", "1.0").packaging("pom").publishTo(this.repository);
+		TestArtifacts.module("bravo", "1.0").packaging("pom").dependency("charlie", "1.0")
+				.publishTo(this.repository);
+		TestArtifacts.module("bravo", "1.1").packaging("pom").dependency("delta", "1.0")
+				.publishTo(this.repository);
+		TestArtifacts.module("alpha", "1.0").packaging("pom").dependency("bravo", "1.0")
+				.publishTo(this.repository);
+		this.projectDir = this.temp.newFolder();
+	}
+
+	@Test
+	public void firstRunHasNoSnapshotToCompareWith() throws IOException {
+		GraphDiffTask task = task("com.example:alpha:1.0");
+		task.diff();
+		assertThat(Files.readAllLines(task.getReportFile().toPath()))
+				.containsExactly("runtime", "    No snapshot from a successful build");
+		assertThat(new File(task.getSnapshotsDir(), "runtime.graph")).isFile();
+	}
+
+	@Test
+	public void unchangedGraphIsReportedAsSuch() throws IOException {
+		GraphDiffTask first = task("com.example:alpha:1.0");
+		first.diff();
+		first.recordSuccessfulBuild();
+		GraphDiffTask second = task("com.example:alpha:1.0");
+		second.diff();
+		assertThat(Files.readAllLines(second.getReportFile().toPath()))
+				.containsExactly("runtime", "    No changes");
+	}
+
+	@Test
+	public void changedModulesVersionsAndEdgesAreReported() throws IOException {
+		GraphDiffTask first = task("com.example:alpha:1.0");
+		first.diff();
+		first.recordSuccessfulBuild();
+		GraphDiffTask second = task("com.example:alpha:1.0", "com.example:bravo:1.1");
+		second.diff();
+		List<String> lines = Files.readAllLines(second.getReportFile().toPath());
+		assertThat(lines).containsSubsequence("    Added modules:",
+				"        com.example:delta:1.0", "    Removed modules:",
+				"        com.example:charlie:1.0", "    Changed versions:",
+				"        com.example:bravo 1.0 -> 1.1", "    Added edges:",
+				"        com.example:bravo -> com.example:delta", "    Removed edges:",
+				"        com.example:bravo -> com.example:charlie");
+		assertThat(lines.get(9)).endsWith("project : -> com.example:bravo");
+	}
+
+	@Test
+	public void snapshotsAreOnlyRecordedOnceTheBuildHasSucceeded() throws IOException {
+		task("com.example:alpha:1.0").diff();
+		GraphDiffTask second = task("com.example:alpha:1.0", "com.example:bravo:1.1");
+		second.diff();
+		assertThat(Files.readAllLines(second.getReportFile().toPath()))
+				.containsExactly("runtime", "    No snapshot from a successful build");
+	}
+
+	private GraphDiffTask task(String... dependencies) {
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.projectDir).build();
+		project.getRepositories().maven((maven) -> maven.setUrl(this.repository.toURI()));
+		project.getConfigurations().create("runtime");
+		for (String dependency : dependencies) {
+			project.getDependencies().add("runtime", dependency);
+		}
+		GraphDiffTask task = project.getTasks().create("springIoGraphDiff",
+				GraphDiffTask.class);
+		task.configuration(project.getConfigurations().getByName("runtime"));
+		return task;
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Tests for {@link LinkageCheckTask}.
+ *
+ * @author Spring IO Team
+ */
+public class LinkageCheckTaskTests {
+
+	private static final String LIBRARY_V1 = "package com.example.lib; "
+			+ "public class Thing extends Base { public static final String VALUE = "
+			+ "\"one\"; public static String NAME = \"thing\"; public Thing() { } "
+			+ "public String value() { return VALUE; } }";
+
+	private static final String BASE = "package com.example.lib; "
+			+ "public class Base { public int inherited() { return 1; } }";
+
+	private static final String HELPER = "package com.example.lib; "
+			+ "public class Helper { }";
+
+	private static final String MAIN = "package com.example; "
+			+ "public class Main { public String run() { com.example.lib.Thing thing = "
+			+ "new com.example.lib.Thing(); new com.example.lib.Helper(); "
+			+ "return thing.value() + thing.inherited() + com.example.lib.Thing.NAME + "
+			+ "new java.util.ArrayList<String>().size(); } }";
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private LinkageCheckTask task;
+
+	private File mainClasses;
+
+	@Before
+	public void setup() throws IOException {
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		File libraryClasses = compile(null, LIBRARY_V1, BASE, HELPER);
+		this.mainClasses = compile(libraryClasses.getAbsolutePath(), MAIN);
+		this.task = project.getTasks().create("springIoLinkageCheck",
+				LinkageCheckTask.class);
+		this.task.setClassesDirs(project.files(this.mainClasses));
+	}
+
+	@Test
+	public void classesThatLinkHaveNoProblems() throws IOException {
+		this.task.setClasspath(this.task.getProject()
+				.files(jar(compile(null, LIBRARY_V1, BASE, HELPER))));
+		this.task.check();
+		assertThat(this.task.getReportFile()).exists();
+		assertThat(Files.readAllLines(this.task.getReportFile().toPath())).isEmpty();
+	}
+
+	@Test
+	public void missingClassesMethodsAndFieldsAreReported() throws IOException {
+		this.task.setClasspath(this.task.getProject().files(jar(compile(null,
+				"package com.example.lib; public class Thing extends Base { "
+						+ "public Thing(String name) { } "
+						+ "public CharSequence value() { return null; } }",
+				"package com.example.lib; public class Base { }"))));
+		try {
+			this.task.check();
+			fail("Linkage check did not fail");
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage()).startsWith("Found linkage problems in 1 classes");
+		}
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("com.example.Main",
+				"    Missing class com.example.lib.Helper",
+				"    Missing field com.example.lib.Thing.NAME Ljava/lang/String;",
+				"    Missing method com.example.lib.Thing.<init>()V",
+				"    Missing method com.example.lib.Thing.inherited()I",
+				"    Missing method com.example.lib.Thing.value()Ljava/lang/String;");
+	}
+
+	@Test
+	public void problemsAreOnlyReportedWhenFailuresAreIgnored() throws IOException {
+		this.task.setClasspath(this.task.getProject().files());
+		this.task.setIgnoreFailures(true);
+		this.task.check();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("com.example.Main",
+				"    Missing class com.example.lib.Helper",
+				"    Missing class com.example.lib.Thing");
+	}
+
+	@Test
+	public void firstEntryOnTheClasspathWins() throws IOException {
+		File broken = jar(compile(null,
+				"package com.example.lib; public class Thing { }", HELPER));
+		File working = jar(compile(null, LIBRARY_V1, BASE, HELPER));
+		this.task.setClasspath(this.task.getProject().files(working, broken));
+		this.task.check();
+		assertThat(Files.readAllLines(this.task.getReportFile().toPath())).isEmpty();
+	}
+
+	@Test
+	public void classesAreLinkedAgainstTheConfiguredJdk() throws IOException {
+		File jdkHome = this.temp.newFolder("jdk");
+		File rtJar = new File(jdkHome, "jre/lib/rt.jar");
+		rtJar.getParentFile().mkdirs();
+		TestArtifacts.jar(rtJar,
+				Collections.singletonMap("java/lang/Object.class", objectClass()));
+		this.task.setClassesDirs(this.task.getProject().files(compile(null,
+				"package com.example; public class UsesList { "
+						+ "Object list = new java.util.ArrayList<String>(); }")));
+		this.task.setClasspath(this.task.getProject().files());
+		this.task.setJdkHome(jdkHome);
+		this.task.setIgnoreFailures(true);
+		this.task.check();
+		assertThat(Files.readAllLines(this.task.getReportFile().toPath()))
+				.containsExactly("com.example.UsesList",
+						"    Missing class java.util.ArrayList");
+	}
+
+	private byte[] objectClass() throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (InputStream input = Object.class.getResourceAsStream("Object.class")) {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				output.write(buffer, 0, read);
+			}
+		}
+		return output.toByteArray();
+	}
+
+	private File compile(String classpath, String... sources) throws IOException {
+		return TestArtifacts.compile(this.temp, classpath, sources);
+	}
+
+	private File jar(File classes) throws IOException {
+		return TestArtifacts.jar(new File(this.temp.newFolder(), "library.jar"),
+				TestArtifacts.entries(classes));
+	}
+
+}
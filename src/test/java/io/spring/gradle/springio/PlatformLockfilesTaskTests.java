@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Tests for {@link PlatformLockfilesTask}.
+ *
+ * @author Spring IO Team
+ */
+public class PlatformLockfilesTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private Project project;
+
+	private PlatformLockfilesTask task;
+
+	@Before
+	public void setup() throws IOException {
+		File repository = this.temp.newFolder();
+		TestArtifacts.module("alpha", "1.0").packaging("pom").dependency("delta", "1.0")
+				.publishTo(repository);
+		TestArtifacts.module("alpha", "1.1").packaging("pom").dependency("echo", "1.0")
+				.publishTo(repository);
+		TestArtifacts.module("bravo", "1.0").packaging("pom").publishTo(repository);
+		TestArtifacts.module("delta", "1.0").packaging("pom").publishTo(repository);
+		TestArtifacts.module("echo", "1.0").packaging("pom").publishTo(repository);
+		this.project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		this.project.getRepositories()
+				.maven((maven) -> maven.setUrl(repository.toURI()));
+		this.project.getConfigurations().create("runtime");
+		this.project.getConfigurations().create("springIoTestRuntime");
+		this.project.getDependencies().add("runtime", "com.example:alpha:1.0");
+		this.project.getDependencies().add("runtime", "com.example:bravo:1.0");
+		this.project.getDependencies().add("springIoTestRuntime",
+				"com.example:alpha:1.1");
+		this.task = this.project.getTasks().create("springIoPlatformLockfiles",
+				PlatformLockfilesTask.class);
+		this.task.setConfiguration(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+		this.task.lock(this.project.getConfigurations().getByName("runtime"));
+	}
+
+	@Test
+	public void lockfileUsesThePlatformVersions() throws IOException {
+		this.task.writeLockfiles();
+		List<String> lines = Files.readAllLines(
+				this.project.file("gradle/dependency-locks/runtime.lockfile").toPath());
+		assertThat(lines).hasSize(6);
+		assertThat(lines.get(0)).startsWith("#");
+		assertThat(lines.subList(3, 6)).containsExactly("com.example:alpha:1.1",
+				"com.example:bravo:1.0", "com.example:echo:1.0");
+	}
+
+	@Test
+	public void lockfileContainsTheGraphThatThePlatformVersionsResolve() {
+		assertThat(ModuleVersions
+				.resolve(this.project.getConfigurations().getByName("runtime")))
+						.containsKey("com.example:delta")
+						.doesNotContainKey("com.example:echo");
+		this.task.writeLockfiles();
+		assertThat(Lockfiles.read(this.project, "runtime"))
+				.containsEntry("com.example:echo", "1.0")
+				.doesNotContainKey("com.example:delta");
+	}
+
+	@Test
+	public void writtenLockfileIsReadByTheDependencyVersionMappingCheck() {
+		this.task.writeLockfiles();
+		assertThat(Lockfiles.read(this.project, "runtime"))
+				.containsEntry("com.example:alpha", "1.1")
+				.containsEntry("com.example:bravo", "1.0");
+		assertThat(Lockfiles.read(this.project, "springIoTestRuntime")).isNull();
+	}
+
+	@Test
+	public void lockingFailsWhenAModuleCannotBeResolved() {
+		this.project.getDependencies().add("runtime", "com.example:charlie:1.0");
+		try {
+			this.task.writeLockfiles();
+			fail("Locking did not fail");
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage()).contains("com.example:charlie");
+		}
+		assertThat(this.project.file("gradle/dependency-locks/runtime.lockfile"))
+				.doesNotExist();
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PlatformTestMatrixReportTask}.
+ *
+ * @author Spring IO Team
+ */
+public class PlatformTestMatrixReportTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private PlatformTestMatrixReportTask task;
+
+	@Before
+	public void setup() {
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.getRoot()).build();
+		this.task = project.getTasks().create("springIoTestPlatformMatrix",
+				PlatformTestMatrixReportTask.class);
+	}
+
+	@Test
+	public void reportShowsResultsOfEachPlatformSideBySide() throws IOException {
+		File one = this.temp.newFolder();
+		testSuite(one, "com.example.OneTests", 2, 0, 0, 0);
+		testSuite(one, "com.example.TwoTests", 3, 0, 0, 1);
+		File two = this.temp.newFolder();
+		testSuite(two, "com.example.OneTests", 2, 1, 0, 0);
+		this.task.platform("Brussels-SR5", one);
+		this.task.platform("Cairo-SR1", two);
+		this.task.report();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("Platform test matrix for :", "",
+				"Test class             Brussels-SR5   Cairo-SR1",
+				"com.example.OneTests   PASS (2)       FAIL (1/2)",
+				"com.example.TwoTests   PASS (2)       -",
+				"Total                  PASS (4)       FAIL (1/2)");
+	}
+
+	@Test
+	public void platformWithNoTestResultsIsReported() throws IOException {
+		File one = this.temp.newFolder();
+		testSuite(one, "com.example.OneTests", 1, 0, 1, 0);
+		this.task.platform("Brussels-SR5", one);
+		this.task.platform("Cairo-SR1", new File(this.temp.getRoot(), "missing"));
+		this.task.report();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).contains("com.example.OneTests   FAIL (1/1)     -",
+				"Total                  FAIL (1/1)     -");
+	}
+
+	private void testSuite(File dir, String name, int tests, int failures, int errors,
+			int skipped) throws IOException {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\""
+				+ name + "\" tests=\"" + tests + "\" failures=\"" + failures
+				+ "\" errors=\"" + errors + "\" skipped=\"" + skipped + "\"></testsuite>";
+		Files.write(new File(dir, "TEST-" + name + ".xml").toPath(),
+				xml.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PlatformUpgradePreviewTask}.
+ *
+ * @author Spring IO Team
+ */
+public class PlatformUpgradePreviewTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private PlatformUpgradePreviewTask task;
+
+	@Before
+	public void setup() throws IOException {
+		File repository = this.temp.newFolder();
+		TestArtifacts.module("lib", "1.0").packaging("pom").dependency("old", "1.0")
+				.publishTo(repository);
+		TestArtifacts.module("lib", "2.0").packaging("pom").dependency("extra", "1.0")
+				.publishTo(repository);
+		TestArtifacts.module("old", "1.0").packaging("pom").publishTo(repository);
+		TestArtifacts.module("extra", "1.0").packaging("pom").publishTo(repository);
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		project.getRepositories()
+				.maven((maven) -> maven.setUrl(repository.toURI()));
+		project.getConfigurations().create("springIoTestRuntime");
+		project.getDependencies().add("springIoTestRuntime", "com.example:lib:1.0");
+		this.task = project.getTasks().create("springIoPlatformUpgradePreview",
+				PlatformUpgradePreviewTask.class);
+		this.task.setConfiguration(
+				project.getConfigurations().getByName("springIoTestRuntime"));
+	}
+
+	@Test
+	public void previewReportsAddedRemovedAndChangedModulesOfEachCandidate()
+			throws IOException {
+		this.task.candidate("com.example:bom:2.0",
+				() -> Collections.singletonMap("com.example:lib", "2.0"));
+		this.task.candidate("com.example:bom:3.0",
+				() -> Collections.singletonMap("com.example:lib", "3.0"));
+		this.task.preview();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly(
+				"com.example:bom:2.0: 1 added, 1 removed, 1 changed",
+				"    + com.example:extra 1.0", "    ~ com.example:lib 1.0 -> 2.0",
+				"    - com.example:old 1.0", "",
+				"com.example:bom:3.0: 0 added, 1 removed, 1 changed",
+				"    ~ com.example:lib 1.0 -> unresolved", "    - com.example:old 1.0",
+				"");
+	}
+
+	@Test
+	public void candidateWithSameManagedVersionsHasNoDifferences() throws IOException {
+		this.task.candidate("com.example:bom:1.0",
+				() -> Collections.singletonMap("com.example:lib", "1.0"));
+		this.task.preview();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly(
+				"com.example:bom:1.0: 0 added, 0 removed, 0 changed", "");
+	}
+
+}
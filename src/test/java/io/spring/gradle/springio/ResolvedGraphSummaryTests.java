@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ResolvedGraphSummary}.
+ *
+ * @author Spring IO Team
+ */
+public class ResolvedGraphSummaryTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private File repository;
+
+	private File projectDir;
+
+	@Before
+	public void setup() throws IOException {
+		this.repository = this.temp.newFolder();
+		TestArtifacts.module("alpha", "1.0").dependency("bravo", "1.0")
+				.publishTo(this.repository);
+		TestArtifacts.module("bravo", "1.0").publishTo(this.repository);
+		this.projectDir = this.temp.newFolder();
+	}
+
+	@Test
+	public void summaryListsTheResolvedModules() {
+		ResolvedGraphSummary summary = summarize(project("com.example:alpha:1.0"),
+				new TaskMetrics(":check", "Check"));
+		assertThat(summary.size()).isEqualTo(2);
+		assertThat(summary.getName(0)).isEqualTo("alpha");
+		assertThat(summary.getName(1)).isEqualTo("bravo");
+		assertThat(summary.getVersion(1)).isEqualTo("1.0");
+	}
+
+	@Test
+	public void summaryIsReusedWhenNothingHasChanged() {
+		Project project = project("com.example:alpha:1.0");
+		TaskMetrics first = new TaskMetrics(":check", "Check");
+		ResolvedGraphSummary summary = summarize(project, first);
+		TaskMetrics second = new TaskMetrics(":check", "Check");
+		assertThat(summarize(project("com.example:alpha:1.0"), second))
+				.isSameAs(summary);
+		assertThat(first.getCounter(TaskMetrics.CACHE_HITS)).isEqualTo(0);
+		assertThat(second.getCounter(TaskMetrics.CACHE_HITS)).isEqualTo(1);
+		assertThat(second.getCounter(TaskMetrics.ARTIFACTS)).isEqualTo(0);
+	}
+
+	@Test
+	public void keyChangesWhenManagedVersionsChange() {
+		Project project = project("com.example:alpha:1.0");
+		assertThat(ResolvedGraphSummary.key(project,
+				project.getConfigurations().getByName("runtime"),
+				Collections.singletonMap("com.example:alpha", "1.0")))
+						.isNotEqualTo(ResolvedGraphSummary.key(project,
+								project.getConfigurations().getByName("runtime"),
+								Collections.singletonMap("com.example:alpha", "2.0")));
+	}
+
+	@Test
+	public void configurationWithDynamicOrSnapshotVersionsIsNotCached() {
+		Project dynamic = project("com.example:alpha:1.+");
+		assertThat(ResolvedGraphSummary.key(dynamic,
+				dynamic.getConfigurations().getByName("runtime"))).isNull();
+		Project snapshot = project("com.example:alpha:1.0-SNAPSHOT");
+		assertThat(ResolvedGraphSummary.key(snapshot,
+				snapshot.getConfigurations().getByName("runtime"))).isNull();
+	}
+
+	@Test
+	public void configurationWithProjectDependencyIsNotCached() {
+		Project project = project("com.example:alpha:1.0");
+		project.getDependencies().add("runtime", project.getDependencies()
+				.project(Collections.singletonMap("path", ":")));
+		assertThat(ResolvedGraphSummary.key(project,
+				project.getConfigurations().getByName("runtime"))).isNull();
+	}
+
+	@Test
+	public void keyChangesWhenConfigurationExclusionsChange() {
+		Project project = project("com.example:alpha:1.0");
+		Configuration runtime = project.getConfigurations().getByName("runtime");
+		String key = ResolvedGraphSummary.key(project, runtime);
+		runtime.exclude(Collections.singletonMap("module", "bravo"));
+		assertThat(ResolvedGraphSummary.key(project, runtime)).isNotNull()
+				.isNotEqualTo(key);
+	}
+
+	@Test
+	public void keyChangesWhenAnAppliedScriptChanges() throws IOException {
+		Project project = project("com.example:alpha:1.0");
+		Configuration runtime = project.getConfigurations().getByName("runtime");
+		File script = new File(this.projectDir, "gradle/versions.gradle");
+		script.getParentFile().mkdirs();
+		Files.write(script.toPath(), "ext.a = 1".getBytes(StandardCharsets.UTF_8));
+		String key = ResolvedGraphSummary.key(project, runtime);
+		Files.write(script.toPath(), "ext.a = 2".getBytes(StandardCharsets.UTF_8));
+		script.setLastModified(script.lastModified() + 2000);
+		assertThat(ResolvedGraphSummary.key(project, runtime)).isNotEqualTo(key);
+	}
+
+	@Test
+	public void keyChangesWhenTheSettingsScriptChanges() throws IOException {
+		Project project = project("com.example:alpha:1.0");
+		Configuration runtime = project.getConfigurations().getByName("runtime");
+		String key = ResolvedGraphSummary.key(project, runtime);
+		Files.write(new File(this.projectDir, "settings.gradle").toPath(),
+				"rootProject.name = 'project'".getBytes(StandardCharsets.UTF_8));
+		assertThat(ResolvedGraphSummary.key(project, runtime)).isNotEqualTo(key);
+	}
+
+	@Test
+	public void configurationWithResolveRuleIsNotCached() {
+		Project project = project("com.example:alpha:1.0");
+		Configuration runtime = project.getConfigurations().getByName("runtime");
+		runtime.getResolutionStrategy()
+				.eachDependency((details) -> details.useVersion("2.0"));
+		assertThat(ResolvedGraphSummary.key(project, runtime)).isNull();
+	}
+
+	@Test
+	public void configurationWithDependencySubstitutionIsNotCached() {
+		Project project = project("com.example:alpha:1.0");
+		Configuration runtime = project.getConfigurations().getByName("runtime");
+		runtime.getResolutionStrategy().getDependencySubstitution().all(
+				(substitution) -> substitution.useTarget("com.example:bravo:1.0"));
+		assertThat(ResolvedGraphSummary.key(project, runtime)).isNull();
+	}
+
+	@Test
+	public void nonTransitiveConfigurationIsNotServedTheTransitiveGraph() {
+		assertThat(summarize(project("com.example:alpha:1.0"),
+				new TaskMetrics(":check", "Check")).size()).isEqualTo(2);
+		Project project = project("com.example:alpha:1.0");
+		project.getConfigurations().getByName("runtime").setTransitive(false);
+		TaskMetrics metrics = new TaskMetrics(":check", "Check");
+		ResolvedGraphSummary summary = summarize(project, metrics);
+		assertThat(summary.size()).isEqualTo(1);
+		assertThat(summary.getName(0)).isEqualTo("alpha");
+		assertThat(metrics.getCounter(TaskMetrics.CACHE_HITS)).isEqualTo(0);
+	}
+
+	@Test
+	public void keyChangesWhenConfigurationAttributesChange() {
+		Project project = project("com.example:alpha:1.0");
+		Configuration runtime = project.getConfigurations().getByName("runtime");
+		String key = ResolvedGraphSummary.key(project, runtime);
+		runtime.getAttributes()
+				.attribute(Attribute.of("com.example.flavor", String.class), "lite");
+		assertThat(ResolvedGraphSummary.key(project, runtime)).isNotEqualTo(key);
+	}
+
+	@Test
+	public void keyIncludesTheConfiguration() {
+		Project project = project("com.example:alpha:1.0");
+		Configuration other = project.getConfigurations().create("other");
+		project.getDependencies().add("other", "com.example:alpha:1.0");
+		assertThat(ResolvedGraphSummary.key(project, other)).isNotEqualTo(
+				ResolvedGraphSummary.key(project,
+						project.getConfigurations().getByName("runtime")));
+	}
+
+	private ResolvedGraphSummary summarize(Project project, TaskMetrics metrics) {
+		return ResolvedGraphSummary.of(project,
+				project.getConfigurations().getByName("runtime"), metrics,
+				Collections.singletonMap("com.example:alpha", "1.0"));
+	}
+
+	private Project project(String dependency) {
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.projectDir).build();
+		project.getRepositories().maven((maven) -> maven.setUrl(this.repository.toURI()));
+		project.getConfigurations().create("runtime");
+		project.getDependencies().add("runtime", dependency);
+		return project;
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RuntimeClasspathComparisonTask}.
+ *
+ * @author Spring IO Team
+ */
+public class RuntimeClasspathComparisonTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private Project project;
+
+	private RuntimeClasspathComparisonTask task;
+
+	@Before
+	public void setup() {
+		this.project = ProjectBuilder.builder().withName("project").build();
+		this.project.getPluginManager().apply(JavaPlugin.class);
+		this.task = this.project.getTasks().create(
+				"springIoTestRuntimeClasspathComparison",
+				RuntimeClasspathComparisonTask.class);
+	}
+
+	@Test
+	public void jarsWithTheSameContentInDifferentLocationsAreIdentical()
+			throws IOException {
+		compare(this.project.files(this.temp.newFolder(), jar("a"), jar("b")),
+				this.project.files(jar("b"), jar("a")));
+		assertThat(this.task.isIdentical()).isTrue();
+	}
+
+	@Test
+	public void jarsWithDifferentContentAreNotIdentical() throws IOException {
+		compare(this.project.files(jar("a"), jar("b")),
+				this.project.files(jar("a"), jar("c")));
+		assertThat(this.task.isIdentical()).isFalse();
+	}
+
+	@Test
+	public void additionalJarIsNotIdentical() throws IOException {
+		compare(this.project.files(jar("a")), this.project.files(jar("a"), jar("b")));
+		assertThat(this.task.isIdentical()).isFalse();
+	}
+
+	@Test
+	public void resultsCannotBeReusedWhenTestHasNotRun() throws IOException {
+		compare(this.project.files(jar("a")), this.project.files(jar("a")));
+		org.gradle.api.tasks.testing.Test test = (org.gradle.api.tasks.testing.Test) this.project
+				.getTasks().getByName("test");
+		org.gradle.api.tasks.testing.Test springIoTest = this.project.getTasks()
+				.create("springIoJdk8Test", org.gradle.api.tasks.testing.Test.class);
+		assertThat(this.task.canReuseResults(test, springIoTest)).isFalse();
+	}
+
+	private void compare(Object testRuntimeClasspath,
+			Object springIoTestRuntimeClasspath) {
+		this.task.setTestRuntimeClasspath(this.project.files(testRuntimeClasspath));
+		this.task.setSpringIoTestRuntimeClasspath(
+				this.project.files(springIoTestRuntimeClasspath));
+		this.task.compare();
+	}
+
+	private File jar(String content) throws IOException {
+		File jar = this.temp.newFile();
+		Files.write(jar.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return jar;
+	}
+
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.assertj.core.api.Assertions;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SpringIoJdkTest}.
+ *
+ * @author Spring IO Team
+ */
+public class SpringIoJdkTestTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private Project project;
+
+	@Before
+	public void setup() {
+		this.project = ProjectBuilder.builder().withName("project").build();
+	}
+
+	@Test
+	public void jdkIdentifierUsesVendorAndVersionFromReleaseFile() throws IOException {
+		SpringIoJdkTest test = createTest("springIoJdk8Test",
+				jdk("JAVA_VERSION=\"1.8.0_144\"\nIMPLEMENTOR=\"Oracle Corporation\"\n"));
+		assertThat(test.getJdkIdentifier()).isEqualTo("Oracle Corporation 1.8.0_144");
+	}
+
+	@Test
+	public void jdkIdentifierIsIndependentOfJdkLocation() throws IOException {
+		String release = "JAVA_VERSION=\"1.8.0_144\"\nIMPLEMENTOR=\"Oracle Corporation\"\n";
+		SpringIoJdkTest one = createTest("one", jdk(release));
+		SpringIoJdkTest two = createTest("two", jdk(release));
+		assertThat(one.getExecutable()).isNotEqualTo(two.getExecutable());
+		assertThat(one.getJdkIdentifier()).isEqualTo(two.getJdkIdentifier());
+	}
+
+	@Test
+	public void jdkIdentifierUsesLocationWhenJdkHasNoReleaseFile() throws IOException {
+		File home = jdk(null);
+		SpringIoJdkTest test = createTest("springIoJdk8Test", home);
+		assertThat(test.getJdkIdentifier()).isEqualTo(home.getCanonicalPath());
+	}
+
+	@Test
+	public void classDataSharingIsNotConfiguredByDefault() throws IOException {
+		SpringIoJdkTest test = createTest("springIoJdk17Test",
+				jdk("JAVA_VERSION=\"17.0.4\"\nIMPLEMENTOR=\"Eclipse Adoptium\"\n"));
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs()).isEmpty();
+	}
+
+	@Test
+	public void classDataSharingIsNotConfiguredForJdkThatDoesNotSupportIt()
+			throws IOException {
+		SpringIoJdkTest test = createTest("springIoJdk8Test",
+				jdk("JAVA_VERSION=\"1.8.0_144\"\nIMPLEMENTOR=\"Oracle Corporation\"\n"));
+		test.setClassDataSharing(true);
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs()).isEmpty();
+	}
+
+	@Test
+	public void classDataSharingCreatesArchiveInASingleForkOnFirstRun()
+			throws IOException {
+		SpringIoJdkTest test = createTest("springIoJdk17Test",
+				jdk("JAVA_VERSION=\"17.0.4\"\nIMPLEMENTOR=\"Eclipse Adoptium\"\n"));
+		test.setClassDataSharing(true);
+		test.setMaxParallelForks(4);
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs()).hasSize(1);
+		assertThat(test.getJvmArgs().get(0)).startsWith("-XX:ArchiveClassesAtExit="
+				+ new File(this.project.getBuildDir(), "spring-io/cds/springIoJdk17Test-")
+						.getAbsolutePath());
+		assertThat(test.getMaxParallelForks()).isEqualTo(1);
+	}
+
+	@Test
+	public void classDataSharingUsesExistingArchive() throws IOException {
+		SpringIoJdkTest test = createTest("springIoJdk17Test",
+				jdk("JAVA_VERSION=\"17.0.4\"\nIMPLEMENTOR=\"Eclipse Adoptium\"\n"));
+		test.setClassDataSharing(true);
+		test.configureClassDataSharing();
+		String archive = test.getJvmArgs().get(0)
+				.substring("-XX:ArchiveClassesAtExit=".length());
+		new File(archive).createNewFile();
+		test.setJvmArgs(Collections.<String>emptyList());
+		test.setMaxParallelForks(4);
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs()).containsExactly("-XX:SharedArchiveFile=" + archive);
+		assertThat(test.getMaxParallelForks()).isEqualTo(4);
+	}
+
+	@Test
+	public void classDataSharingRecordsTheLoadedClassesInASingleForkOnFirstRunWithJdk11()
+			throws IOException {
+		SpringIoJdkTest test = createTest("springIoJdk11Test",
+				jdk("JAVA_VERSION=\"11.0.2\"\nIMPLEMENTOR=\"Oracle Corporation\"\n"));
+		test.setClassDataSharing(true);
+		test.setMaxParallelForks(4);
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs()).hasSize(1);
+		assertThat(test.getJvmArgs().get(0)).startsWith("-XX:DumpLoadedClassList="
+				+ new File(this.project.getBuildDir(), "spring-io/cds/springIoJdk11Test-")
+						.getAbsolutePath());
+		assertThat(test.getJvmArgs().get(0)).endsWith(".classlist");
+		assertThat(test.getMaxParallelForks()).isEqualTo(1);
+	}
+
+	@Test
+	public void classDataSharingUsesAppCdsOptionWithJdk10() throws IOException {
+		SpringIoJdkTest test = createTest("springIoJdk10Test",
+				jdk("JAVA_VERSION=\"10.0.2\"\nIMPLEMENTOR=\"Oracle Corporation\"\n"));
+		test.setClassDataSharing(true);
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs()).hasSize(2);
+		assertThat(test.getJvmArgs().get(0)).isEqualTo("-XX:+UseAppCDS");
+		assertThat(test.getJvmArgs().get(1)).startsWith("-XX:DumpLoadedClassList=");
+	}
+
+	@Test
+	public void classDataSharingUsesExistingStaticArchive() throws IOException {
+		SpringIoJdkTest test = createTest("springIoJdk11Test",
+				jdk("JAVA_VERSION=\"11.0.2\"\nIMPLEMENTOR=\"Oracle Corporation\"\n"));
+		test.setClassDataSharing(true);
+		test.configureClassDataSharing();
+		String classList = test.getJvmArgs().get(0)
+				.substring("-XX:DumpLoadedClassList=".length());
+		String archive = classList.replace(".classlist", ".jsa");
+		new File(archive).createNewFile();
+		test.setJvmArgs(Collections.<String>emptyList());
+		test.setMaxParallelForks(4);
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs()).containsExactly("-Xshare:auto",
+				"-XX:SharedArchiveFile=" + archive);
+		assertThat(test.getMaxParallelForks()).isEqualTo(4);
+	}
+
+	@Test
+	public void staticAppCdsArchiveIsDumpedFromTheClassesLoadedByTheFirstRun()
+			throws Exception {
+		Jdk jdk = Jdk.current();
+		Assume.assumeTrue(jdk.getMajorVersion() >= 10 && jdk.getMajorVersion() < 13);
+		SpringIoJdkTest test = createTest("springIoJdkTest", jdk.getHome());
+		test.setClasspath(this.project.files(classpath().toArray()));
+		test.setClassDataSharing(true);
+		test.configureClassDataSharing();
+		String classListArg = test.getJvmArgs().get(test.getJvmArgs().size() - 1);
+		assertThat(classListArg).startsWith("-XX:DumpLoadedClassList=");
+		File classList = new File(
+				classListArg.substring("-XX:DumpLoadedClassList=".length()));
+		run(test);
+		assertThat(classList).isFile();
+		test.setJvmArgs(Collections.<String>emptyList());
+		test.configureClassDataSharing();
+		File archive = new File(classList.getPath().replace(".classlist", ".jsa"));
+		assertThat(archive).isFile();
+		assertThat(test.getJvmArgs()).endsWith("-Xshare:auto",
+				"-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+		run(test);
+	}
+
+	@Test
+	public void appCdsArchiveIsCreatedByFirstRunAndUsedByLaterRuns() throws Exception {
+		Jdk jdk = Jdk.current();
+		Assume.assumeTrue(jdk.getMajorVersion() >= 13);
+		SpringIoJdkTest test = createTest("springIoJdkTest", jdk.getHome());
+		test.setClassDataSharing(true);
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs()).hasSize(1);
+		String archiveArg = test.getJvmArgs().get(0);
+		assertThat(archiveArg).startsWith("-XX:ArchiveClassesAtExit=");
+		File archive = new File(
+				archiveArg.substring("-XX:ArchiveClassesAtExit=".length()));
+		assertThat(archive).doesNotExist();
+		run(test);
+		assertThat(archive).isFile();
+		test.setJvmArgs(Collections.<String>emptyList());
+		test.configureClassDataSharing();
+		assertThat(test.getJvmArgs())
+				.containsExactly("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+		run(test);
+	}
+
+	private void run(SpringIoJdkTest test) throws Exception {
+		List<String> command = new ArrayList<>();
+		command.add(test.getExecutable());
+		command.addAll(test.getJvmArgs());
+		command.add("-cp");
+		command.add(String.join(File.pathSeparator, classpath()));
+		command.add(LoadClasses.class.getName());
+		command.add(jarContaining(Assertions.class));
+		command.add(jarContaining(Test.class));
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(new File(this.temp.getRoot(), "output.txt")).start();
+		assertThat(process.waitFor()).isEqualTo(0);
+	}
+
+	private List<String> classpath() throws IOException {
+		return Arrays.asList(loadClassesJar().getAbsolutePath(),
+				jarContaining(Assertions.class), jarContaining(Test.class));
+	}
+
+	private File loadClassesJar() throws IOException {
+		return LoadClasses.jar(this.temp.getRoot());
+	}
+
+	private String jarContaining(Class<?> type) {
+		return new File(type.getProtectionDomain().getCodeSource().getLocation()
+				.getPath()).getAbsolutePath();
+	}
+
+	private SpringIoJdkTest createTest(String name, File jdkHome) {
+		SpringIoJdkTest test = this.project.getTasks().create(name,
+				SpringIoJdkTest.class);
+		test.executable(new File(jdkHome, "bin/java"));
+		return test;
+	}
+
+	private File jdk(String release) throws IOException {
+		File home = this.temp.newFolder();
+		File java = new File(home, "bin/java");
+		java.getParentFile().mkdirs();
+		java.createNewFile();
+		if (release != null) {
+			Files.write(new File(home, "release").toPath(),
+					release.getBytes(StandardCharsets.UTF_8));
+		}
+		return home;
+	}
+
+	/**
+	 * Main class that loads every class in the jars passed as arguments, simulating the
+	 * startup of a test JVM with a large classpath.
+	 */
+	public static final class LoadClasses {
+
+		private LoadClasses() {
+		}
+
+		/**
+		 * Returns a jar, in the given directory, that contains this class, creating it
+		 * if necessary. Class data sharing archives can only be created from jars.
+		 * @param directory the directory
+		 * @return the jar
+		 * @throws IOException if the jar cannot be written
+		 */
+		static File jar(File directory) throws IOException {
+			File jar = new File(directory, "load-classes.jar");
+			if (jar.isFile()) {
+				return jar;
+			}
+			String name = LoadClasses.class.getName().replace('.', '/') + ".class";
+			try (JarOutputStream output = new JarOutputStream(new FileOutputStream(jar));
+					InputStream input = LoadClasses.class.getClassLoader()
+							.getResourceAsStream(name)) {
+				output.putNextEntry(new JarEntry(name));
+				byte[] buffer = new byte[4096];
+				int read = input.read(buffer);
+				while (read != -1) {
+					output.write(buffer, 0, read);
+					read = input.read(buffer);
+				}
+				output.closeEntry();
+			}
+			return jar;
+		}
+
+		public static void main(String[] jars) throws IOException {
+			for (String jar : jars) {
+				try (ZipFile zipFile = new ZipFile(jar)) {
+					Enumeration<? extends ZipEntry> entries = zipFile.entries();
+					while (entries.hasMoreElements()) {
+						String name = entries.nextElement().getName();
+						if (name.endsWith(".class") && !name.contains("-")) {
+							load(name.substring(0, name.length() - 6).replace('/', '.'));
+						}
+					}
+				}
+			}
+		}
+
+		private static void load(String className) {
+			try {
+				Class.forName(className, false, ClassLoader.getSystemClassLoader());
+			}
+			catch (Throwable ex) {
+				// Continue
+			}
+		}
+
+	}
+
+}
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 
 import io.spring.gradle.dependencymanagement.DependencyManagementPlugin;
+import io.spring.gradle.springio.core.ManagedVersionsIndex;
 import io.spring.gradle.propdeps.PropDepsPlugin;
 import org.assertj.core.api.Condition;
 import org.gradle.api.Project;
@@ -123,6 +124,7 @@ public class SpringIoPluginTests {
 		assertThat((Set<Task>) task.getTaskDependencies().getDependencies(task))
 				.containsExactlyInAnyOrder(
 						this.project.getTasks().findByName("springIoTest"),
+						this.project.getTasks().findByName("springIoQuickCheck"),
 						this.project.getTasks()
 								.findByName("springIoAlternativeDependenciesCheck"),
 						this.project.getTasks()
@@ -223,6 +225,240 @@ public class SpringIoPluginTests {
 						this.project.getTasks().findByName("springIoJdk8Test"));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void pluginCreatesTestTaskForEachCandidatePlatformBom() {
+		ExtraPropertiesExtension ext = (ExtraPropertiesExtension) this.project
+				.getProperties().get("ext");
+		ext.set("springIoTestPlatformBoms", "io.spring.platform:platform-bom:Brussels-SR5,"
+				+ "io.spring.platform:platform-bom:Cairo-SR1");
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		org.gradle.api.tasks.testing.Test brussels = (org.gradle.api.tasks.testing.Test) this.project
+				.getTasks().findByName("springIoPlatformBrusselsSR5Test");
+		assertThat(brussels).isNotNull();
+		assertThat(brussels.getReports().getJunitXml().getDestination())
+				.isEqualTo(new File(this.project.getBuildDir(),
+						"spring-io-platform-brussels-sr5-test-results"));
+		assertThat(this.project.getConfigurations()
+				.findByName("springIoTestRuntimePlatformCairoSR1")).isNotNull();
+		Task matrix = this.project.getTasks().findByName("springIoTestPlatformMatrix");
+		assertThat((Set<Task>) matrix.getTaskDependencies().getDependencies(matrix))
+				.containsExactlyInAnyOrder(brussels,
+						this.project.getTasks().findByName("springIoPlatformCairoSR1Test"));
+	}
+
+	@Test
+	public void pluginCreatesPlatformUpgradePreviewTaskForCandidatePlatformBoms() {
+		ExtraPropertiesExtension ext = (ExtraPropertiesExtension) this.project
+				.getProperties().get("ext");
+		ext.set("springIoTestPlatformBoms", "io.spring.platform:platform-bom:Brussels-SR5,"
+				+ "io.spring.platform:platform-bom:Cairo-SR1");
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		PlatformUpgradePreviewTask task = this.project.getTasks()
+				.withType(PlatformUpgradePreviewTask.class)
+				.findByName("springIoPlatformUpgradePreview");
+		assertThat(task.getConfiguration().getName()).isEqualTo("springIoTestRuntime");
+		assertThat(task.getCandidates()).containsExactly(
+				"io.spring.platform:platform-bom:Brussels-SR5",
+				"io.spring.platform:platform-bom:Cairo-SR1");
+	}
+
+	@Test
+	public void pluginCreatesSpringIoTestBisectTask() {
+		ExtraPropertiesExtension ext = (ExtraPropertiesExtension) this.project
+				.getProperties().get("ext");
+		ext.set("springIoTestBisectTests", "com.example.OneTests, com.example.TwoTests");
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		((DefaultProject) this.project).evaluate();
+		VersionBisectTask task = this.project.getTasks()
+				.withType(VersionBisectTask.class).findByName("springIoTestBisect");
+		assertThat(task.getTestRuntimeConfiguration().getName()).isEqualTo("testRuntime");
+		assertThat(task.getSpringIoTestRuntimeConfiguration().getName())
+				.isEqualTo("springIoTestRuntime");
+		assertThat(task.getTestClasses()).containsExactly("com.example.OneTests",
+				"com.example.TwoTests");
+	}
+
+	@Test
+	public void pluginCreatesSpringIoTestDurationReportTask() {
+		ExtraPropertiesExtension ext = (ExtraPropertiesExtension) this.project
+				.getProperties().get("ext");
+		ext.set("JDK8_HOME", this.jdk8Home);
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		((DefaultProject) this.project).evaluate();
+		TestDurationReportTask task = this.project.getTasks()
+				.withType(TestDurationReportTask.class)
+				.findByName("springIoTestDurationReport");
+		assertThat(task.getBaselineResultsDir())
+				.isEqualTo(new File(this.project.getBuildDir(), "test-results/test"));
+		assertThat(task.getComparisonResultsDirs()).containsEntry("springIoJdk8Test",
+				new File(this.project.getBuildDir(), "/spring-io-jdk8-test-results"));
+	}
+
+	@Test
+	public void pluginCreatesSpringIoLinkageCheckTask() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		((DefaultProject) this.project).evaluate();
+		LinkageCheckTask task = this.project.getTasks()
+				.withType(LinkageCheckTask.class).findByName("springIoLinkageCheck");
+		assertThat(task.getClasspath()).isSameAs(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+		assertThat(task.getClassesDirs().getFiles()).isEqualTo(
+				this.project.getConvention().getPlugin(JavaPluginConvention.class)
+						.getSourceSets().getByName("main").getOutput().getClassesDirs()
+						.getFiles());
+	}
+
+	@Test
+	public void pluginCreatesSpringIoDuplicateClassesCheckTask() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		DuplicateClassesTask task = this.project.getTasks()
+				.withType(DuplicateClassesTask.class)
+				.findByName("springIoDuplicateClassesCheck");
+		assertThat(task.getClasspath()).isSameAs(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+		assertThat(task.getResources()).contains("META-INF/spring.factories");
+	}
+
+	@Test
+	public void pluginCreatesSpringIoDependencyConvergenceCheckTask() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		DependencyConvergenceTask task = this.project.getTasks()
+				.withType(DependencyConvergenceTask.class)
+				.findByName("springIoDependencyConvergenceCheck");
+		assertThat(task.getConfiguration()).isSameAs(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+		assertThat(task.isFailOnDivergence()).isFalse();
+	}
+
+	@Test
+	public void pluginCreatesSpringIoDynamicVersionsCheckTask() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		DynamicVersionsTask task = this.project.getTasks()
+				.withType(DynamicVersionsTask.class)
+				.findByName("springIoDynamicVersionsCheck");
+		assertThat(task.getConfiguration()).isSameAs(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+		assertThat(task.isFailOnManagedDependency()).isFalse();
+	}
+
+	@Test
+	public void pluginCreatesSpringIoClasspathWeightReportTask() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		ClasspathWeightTask task = this.project.getTasks()
+				.withType(ClasspathWeightTask.class)
+				.findByName("springIoClasspathWeightReport");
+		assertThat(task.getConfigurations()).contains(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+	}
+
+	@Test
+	public void pluginCreatesSpringIoUnusedDependenciesCheckTask() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		assertThat(this.project.getTasks().withType(UnusedDependenciesTask.class)
+				.findByName("springIoUnusedDependenciesCheck")).isNotNull();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void pluginCreatesSpringIoQuickCheckTaskThatCompilationDependsOn() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		Task task = this.project.getTasks().findByName("springIoQuickCheck");
+		assertThat((Set<Task>) task.getTaskDependencies().getDependencies(task))
+				.containsExactlyInAnyOrder(
+						this.project.getTasks().findByName(
+								"springIoDeclaredDependencyVersionMappingCheck"),
+						this.project.getTasks()
+								.findByName("springIoAlternativeDependenciesCheck"),
+						this.project.getTasks()
+								.findByName("springIoIncompleteExcludesCheck"));
+		assertThat(this.project.getTasks().withType(DependencyVersionMappingCheckTask.class)
+				.getByName("springIoDeclaredDependencyVersionMappingCheck")
+				.isDeclaredOnly()).isTrue();
+		Task compileJava = this.project.getTasks().getByName("compileJava");
+		assertThat(compileJava.getDependsOn()).contains(task);
+	}
+
+	@Test
+	public void dependencyVersionMappingCheckObservesResolutionWhenConfiguredToDoSo() {
+		ExtraPropertiesExtension ext = (ExtraPropertiesExtension) this.project
+				.getProperties().get("ext");
+		ext.set("springIoObserveResolution", true);
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		DependencyVersionMappingCheckTask task = this.project.getTasks()
+				.withType(DependencyVersionMappingCheckTask.class)
+				.getByName("springIoDependencyVersionMappingCheck");
+		assertThat(task.getObservedConfigurations()).containsExactly(
+				this.project.getConfigurations().getByName("runtimeClasspath"));
+	}
+
+	@Test
+	public void pluginCreatesSpringIoGraphDiffTask() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		GraphDiffTask task = this.project.getTasks().withType(GraphDiffTask.class)
+				.findByName("springIoGraphDiff");
+		assertThat(task.getConfigurations()).contains(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+	}
+
+	@Test
+	public void pluginCreatesSpringIoPlatformLockfilesTask() {
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		PlatformLockfilesTask task = this.project.getTasks()
+				.withType(PlatformLockfilesTask.class)
+				.findByName("springIoPlatformLockfiles");
+		assertThat(task.getConfiguration()).isEqualTo(
+				this.project.getConfigurations().getByName("springIoTestRuntime"));
+	}
+
+	@Test
+	public void dependencyVersionMappingChecksShareAnIndexOfTheConfiguredBoms()
+			throws IOException {
+		File repository = this.tempFolder.newFolder();
+		TestArtifacts.module("internal-bom", "1.0").packaging("pom")
+				.managedDependency("a", "1.1").publishTo(repository);
+		TestArtifacts.module("framework-bom", "2.0").packaging("pom")
+				.managedDependency("a", "2.1").managedDependency("b", "2.2")
+				.publishTo(repository);
+		this.project.getRepositories()
+				.maven((maven) -> maven.setUrl(repository.toURI()));
+		ExtraPropertiesExtension ext = (ExtraPropertiesExtension) this.project
+				.getProperties().get("ext");
+		ext.set("springIoBoms",
+				"com.example:internal-bom:1.0, com.example:framework-bom:2.0");
+		applyPlugin(SpringIoPlugin.class);
+		applyPlugin(JavaPlugin.class);
+		DependencyVersionMappingCheckTask check = this.project.getTasks()
+				.withType(DependencyVersionMappingCheckTask.class)
+				.getByName("springIoDependencyVersionMappingCheck");
+		DependencyVersionMappingCheckTask declaredCheck = this.project.getTasks()
+				.withType(DependencyVersionMappingCheckTask.class)
+				.getByName("springIoDeclaredDependencyVersionMappingCheck");
+		ManagedVersionsIndex index = check.getManagedVersionsIndex();
+		assertThat(index.getBoms()).containsExactly("Spring IO",
+				"com.example:internal-bom:1.0", "com.example:framework-bom:2.0");
+		assertThat(index.getVersion("com.example:a")).isEqualTo("1.1");
+		assertThat(index.getOwner("com.example:a"))
+				.isEqualTo("com.example:internal-bom:1.0");
+		assertThat(index.getOwner("com.example:b"))
+				.isEqualTo("com.example:framework-bom:2.0");
+		assertThat(declaredCheck.getManagedVersionsIndex()).isSameAs(index);
+	}
+
 	@Test
 	public void pluginCreatesSpringIoIncompleteExcludesCheckTask() {
 		applyPlugin(SpringIoPlugin.class);
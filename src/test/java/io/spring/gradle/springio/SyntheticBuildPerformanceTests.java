@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Performance tests that run the Spring IO tasks against large synthetic multi-project
+ * builds. Each measurement is written to the directory identified by the
+ * {@code springIo.performanceResults} system property and compared with a baseline,
+ * stored in the versioned directory identified by the
+ * {@code springIo.performanceBaselines} system property, and the test fails if the build
+ * has become slower or uses more heap than the tolerance allows. The test also fails
+ * when there is no baseline. Measurements only become the baselines when the
+ * {@code springIo.updatePerformanceBaselines} system property is {@code true}.
+ *
+ * @author Spring IO Team
+ */
+public class SyntheticBuildPerformanceTests {
+
+	private static final double TOLERANCE = Double
+			.parseDouble(System.getProperty("springIo.performanceTolerance", "0.25"));
+
+	@Rule
+	public GradleBuild gradleBuild = new GradleBuild();
+
+	@Test
+	public void springIoCheckWithManySubprojects() throws IOException {
+		this.gradleBuild.synthetic(new SyntheticMultiProjectBuild().subprojects(50)
+				.modules(2000).dependencies(20).exclusions(2).bomSize(1500));
+		this.gradleBuild.build("springIoCheck");
+		assertNoRegression("springIoCheckWithManySubprojects",
+				this.gradleBuild.measure("springIoCheck"));
+	}
+
+	@Test
+	public void springIoTestWithManySubprojects() throws IOException {
+		this.gradleBuild.synthetic(new SyntheticMultiProjectBuild().subprojects(50)
+				.modules(2000).dependencies(20).bomSize(1500));
+		this.gradleBuild.build("springIoTest");
+		assertNoRegression("springIoTestWithManySubprojects",
+				this.gradleBuild.measure("springIoTest"));
+	}
+
+	@Test
+	public void springIoCheckWithLargeDependencyGraphs() throws IOException {
+		this.gradleBuild.synthetic(new SyntheticMultiProjectBuild().subprojects(5)
+				.modules(20000).dependencies(200).bomSize(20000));
+		this.gradleBuild.build("springIoCheck");
+		assertNoRegression("springIoCheckWithLargeDependencyGraphs",
+				this.gradleBuild.measure("springIoCheck"));
+	}
+
+	private void assertNoRegression(String name, BuildMeasurement measurement)
+			throws IOException {
+		measurement.store(new File(System.getProperty("springIo.performanceResults",
+				"build/performance-results"), name + ".properties"));
+		File baselineFile = new File(
+				System.getProperty("springIo.performanceBaselines",
+						"src/test/resources/performance-baselines"),
+				name + ".properties");
+		if (Boolean.getBoolean("springIo.updatePerformanceBaselines")) {
+			measurement.store(baselineFile);
+			return;
+		}
+		if (!baselineFile.isFile()) {
+			fail("There is no baseline for " + name + " in " + baselineFile
+					+ ". Record one by running performanceTest with "
+					+ "-PspringIo.updatePerformanceBaselines=true");
+		}
+		List<String> regressions = measurement
+				.regressionsAgainst(BuildMeasurement.load(baselineFile), TOLERANCE);
+		assertThat(regressions).isEmpty();
+	}
+
+}
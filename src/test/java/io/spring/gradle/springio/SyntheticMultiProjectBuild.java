@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * A generator of multi-project builds that apply the Spring IO plugin to each of their
+ * subprojects. The generated build has its own file-based Maven repository containing
+ * the modules that the subprojects depend on and a BOM that manages their versions, so
+ * no network access is needed.
+ *
+ * @author Spring IO Team
+ */
+public class SyntheticMultiProjectBuild {
+
+	private static final String GROUP = "com.example.synthetic";
+
+	private static final int FAN_OUT = 4;
+
+	private int subprojects = 10;
+
+	private int modules = 200;
+
+	private int dependencies = 10;
+
+	private int exclusions = 0;
+
+	private int bomSize = 1000;
+
+	public SyntheticMultiProjectBuild subprojects(int subprojects) {
+		this.subprojects = subprojects;
+		return this;
+	}
+
+	public SyntheticMultiProjectBuild modules(int modules) {
+		this.modules = modules;
+		return this;
+	}
+
+	public SyntheticMultiProjectBuild dependencies(int dependencies) {
+		this.dependencies = dependencies;
+		return this;
+	}
+
+	public SyntheticMultiProjectBuild exclusions(int exclusions) {
+		this.exclusions = exclusions;
+		return this;
+	}
+
+	public SyntheticMultiProjectBuild bomSize(int bomSize) {
+		this.bomSize = bomSize;
+		return this;
+	}
+
+	/**
+	 * Writes the build, its repository, and its BOM to the given {@code projectDir}.
+	 *
+	 * @param projectDir the root directory of the build
+	 * @throws IOException if the build cannot be written
+	 */
+	public void writeTo(File projectDir) throws IOException {
+		File repository = new File(projectDir, "repository");
+		for (int i = 0; i < this.modules; i++) {
+			TestArtifacts.Module module = TestArtifacts.module(module(i), "1.0")
+					.group(GROUP);
+			for (int j = i * FAN_OUT + 1; j < Math.min(this.modules,
+					(i + 1) * FAN_OUT + 1); j++) {
+				module.dependency(module(j), "1.0");
+			}
+			module.publishTo(repository);
+		}
+		TestArtifacts.Module bom = TestArtifacts.module("bom", "1.0").group(GROUP)
+				.packaging("pom");
+		for (int i = 0; i < this.bomSize; i++) {
+			bom.managedDependency((i < this.modules) ? module(i) : "managed-" + i, "1.0");
+		}
+		bom.publishTo(repository);
+		StringBuilder settings = new StringBuilder();
+		for (int i = 0; i < this.subprojects; i++) {
+			settings.append("include 'project-").append(i).append("'\n");
+			writeSubproject(new File(projectDir, "project-" + i), i);
+		}
+		write(new File(projectDir, "settings.gradle"), settings.toString());
+		write(new File(projectDir, "build.gradle"), "buildscript {\n"
+				+ "\tdependencies {\n"
+				+ "\t\tclasspath files(pluginClasspath.split(','))\n" + "\t}\n" + "}\n\n"
+				+ "subprojects {\n" + "\tapply plugin: 'java'\n"
+				+ "\tapply plugin: 'spring-io'\n\n" + "\trepositories {\n"
+				+ "\t\tmaven { url '" + repository.toURI() + "' }\n" + "\t}\n\n"
+				+ "\tdependencyManagement {\n" + "\t\tspringIoTestRuntime {\n"
+				+ "\t\t\timports {\n" + "\t\t\t\tmavenBom '" + GROUP + ":bom:1.0'\n"
+				+ "\t\t\t}\n" + "\t\t}\n" + "\t}\n" + "}\n");
+	}
+
+	private void writeSubproject(File subprojectDir, int index) throws IOException {
+		StringBuilder script = new StringBuilder("dependencies {\n");
+		int managedModules = Math.min(this.modules, this.bomSize);
+		for (int i = 0; i < this.dependencies; i++) {
+			int module = (index * this.dependencies + i) % managedModules;
+			script.append("\tcompile('").append(GROUP).append(":")
+					.append(module(module)).append(":1.0')");
+			if (this.exclusions > 0) {
+				script.append(" {\n");
+				for (int j = 0; j < this.exclusions; j++) {
+					script.append("\t\texclude group: '").append(GROUP)
+							.append("', module: '")
+							.append(module((module + j + 1) % this.modules))
+							.append("'\n");
+				}
+				script.append("\t}");
+			}
+			script.append("\n");
+		}
+		script.append("}\n");
+		write(new File(subprojectDir, "build.gradle"), script.toString());
+	}
+
+	private String module(int index) {
+		return "module-" + index;
+	}
+
+	private void write(File file, String content) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Helpers for tests that need compiled classes, jars, or modules published to a
+ * file-based Maven repository.
+ *
+ * @author Spring IO Team
+ */
+final class TestArtifacts {
+
+	private static final Pattern PACKAGE = Pattern.compile("package\\s+([\\w.]+)\\s*;");
+
+	private static final Pattern TYPE = Pattern
+			.compile("public\\s+(?:\\w+\\s+)*(?:class|interface|enum)\\s+(\\w+)");
+
+	private TestArtifacts() {
+	}
+
+	/**
+	 * Returns a module in the {@code com.example} group that can be published to a
+	 * repository.
+	 *
+	 * @param name the name of the module
+	 * @param version the version of the module
+	 * @return the module
+	 */
+	static Module module(String name, String version) {
+		return new Module(name, version);
+	}
+
+	/**
+	 * Compiles the given {@code sources} into a new folder. The path of each source
+	 * file is derived from its package and the name of its public type.
+	 *
+	 * @param temp the temporary folder in which the sources and classes are written
+	 * @param classpath the classpath to compile against, or {@code null}
+	 * @param sources the sources to compile
+	 * @return the directory containing the compiled classes
+	 * @throws IOException if the sources cannot be written
+	 */
+	static File compile(TemporaryFolder temp, String classpath, String... sources)
+			throws IOException {
+		File sourceDir = temp.newFolder();
+		File outputDir = temp.newFolder();
+		List<String> arguments = new ArrayList<>();
+		arguments.add("-d");
+		arguments.add(outputDir.getAbsolutePath());
+		if (classpath != null) {
+			arguments.add("-cp");
+			arguments.add(classpath);
+		}
+		for (String source : sources) {
+			File sourceFile = new File(sourceDir, sourcePath(source));
+			sourceFile.getParentFile().mkdirs();
+			Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+			arguments.add(sourceFile.getAbsolutePath());
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertThat(compiler.run(null, null, null, arguments.toArray(new String[0])))
+				.isEqualTo(0);
+		return outputDir;
+	}
+
+	/**
+	 * Returns the content of each file beneath the given {@code directory}, keyed by
+	 * its path relative to the directory.
+	 *
+	 * @param directory the directory
+	 * @return the jar entries for the files
+	 * @throws IOException if a file cannot be read
+	 */
+	static Map<String, byte[]> entries(File directory) throws IOException {
+		Map<String, byte[]> entries = new TreeMap<>();
+		Path root = directory.toPath();
+		for (Path path : (Iterable<Path>) Files.walk(root)::iterator) {
+			if (Files.isRegularFile(path)) {
+				entries.put(root.relativize(path).toString().replace('\\', '/'),
+						Files.readAllBytes(path));
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Writes a jar with the given {@code entries}.
+	 *
+	 * @param jar the jar to write
+	 * @param entries the content of each entry, keyed by its name
+	 * @return the jar
+	 * @throws IOException if the jar cannot be written
+	 */
+	static File jar(File jar, Map<String, byte[]> entries) throws IOException {
+		try (JarOutputStream output = new JarOutputStream(new FileOutputStream(jar))) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				output.putNextEntry(new JarEntry(entry.getKey()));
+				output.write(entry.getValue());
+				output.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+	private static String sourcePath(String source) {
+		Matcher type = TYPE.matcher(source);
+		assertThat(type.find()).as("public type in %s", source).isTrue();
+		Matcher packageName = PACKAGE.matcher(source);
+		return (packageName.find() ? packageName.group(1).replace('.', '/') + "/"
+				: "") + type.group(1) + ".java";
+	}
+
+	/**
+	 * A module that can be published to a file-based Maven repository.
+	 */
+	static final class Module {
+
+		private final String name;
+
+		private final String version;
+
+		private String group = "com.example";
+
+		private String packaging = "jar";
+
+		private final StringBuilder dependencies = new StringBuilder();
+
+		private final StringBuilder managedDependencies = new StringBuilder();
+
+		private final Map<String, byte[]> entries = new LinkedHashMap<>();
+
+		private Module(String name, String version) {
+			this.name = name;
+			this.version = version;
+		}
+
+		Module group(String group) {
+			this.group = group;
+			return this;
+		}
+
+		Module packaging(String packaging) {
+			this.packaging = packaging;
+			return this;
+		}
+
+		Module dependency(String name, String version) {
+			this.dependencies.append(dependencyElement(name, version));
+			return this;
+		}
+
+		Module managedDependency(String name, String version) {
+			this.managedDependencies.append(dependencyElement(name, version));
+			return this;
+		}
+
+		Module entry(String name, String content) {
+			return entry(name, content.getBytes(StandardCharsets.UTF_8));
+		}
+
+		Module entry(String name, byte[] content) {
+			this.entries.put(name, content);
+			return this;
+		}
+
+		Module entries(File directory) throws IOException {
+			this.entries.putAll(TestArtifacts.entries(directory));
+			return this;
+		}
+
+		/**
+		 * Publishes the module's pom and, unless its packaging is {@code pom}, its jar
+		 * to the given {@code repository}.
+		 *
+		 * @param repository the root of the repository
+		 * @throws IOException if the module cannot be written
+		 */
+		void publishTo(File repository) throws IOException {
+			File dir = new File(repository, this.group.replace('.', '/') + "/"
+					+ this.name + "/" + this.version);
+			dir.mkdirs();
+			StringBuilder pom = new StringBuilder("<project><modelVersion>4.0.0"
+					+ "</modelVersion><groupId>").append(this.group)
+							.append("</groupId><artifactId>").append(this.name)
+							.append("</artifactId><version>").append(this.version)
+							.append("</version><packaging>").append(this.packaging)
+							.append("</packaging>");
+			if (this.dependencies.length() > 0) {
+				pom.append("<dependencies>").append(this.dependencies)
+						.append("</dependencies>");
+			}
+			if (this.managedDependencies.length() > 0) {
+				pom.append("<dependencyManagement><dependencies>")
+						.append(this.managedDependencies)
+						.append("</dependencies></dependencyManagement>");
+			}
+			pom.append("</project>");
+			String baseName = this.name + "-" + this.version;
+			Files.write(new File(dir, baseName + ".pom").toPath(),
+					pom.toString().getBytes(StandardCharsets.UTF_8));
+			if (!"pom".equals(this.packaging)) {
+				jar(new File(dir, baseName + ".jar"), this.entries);
+			}
+		}
+
+		private String dependencyElement(String name, String version) {
+			return "<dependency><groupId>" + this.group + "</groupId><artifactId>" + name
+					+ "</artifactId><version>" + version + "</version></dependency>";
+		}
+
+	}
+
+}
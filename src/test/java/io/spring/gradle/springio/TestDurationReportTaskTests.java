@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TestDurationReportTask}.
+ *
+ * @author Spring IO Team
+ */
+public class TestDurationReportTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private TestDurationReportTask task;
+
+	private File baseline;
+
+	private File comparison;
+
+	@Before
+	public void setup() throws IOException {
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		this.task = project.getTasks().create("springIoTestDurationReport",
+				TestDurationReportTask.class);
+		this.baseline = this.temp.newFolder();
+		this.comparison = this.temp.newFolder();
+		this.task.setBaselineResultsDir(this.baseline);
+		this.task.comparison("springIoJdk8Test", this.comparison);
+	}
+
+	@Test
+	public void consistentlySlowerTestClassIsFlagged() throws IOException {
+		writeResults(this.baseline, "com.example.SlowTests", "one", "0.100", "two",
+				"0.110", "three", "0.105");
+		writeResults(this.comparison, "com.example.SlowTests", "one", "0.300", "two",
+				"0.320", "three", "0.310");
+		this.task.report();
+		List<String> lines = Files.readAllLines(this.task.getTextReportFile().toPath());
+		assertThat(lines.get(0)).isEqualTo("test vs springIoJdk8Test");
+		assertThat(lines.get(3)).startsWith("com.example.SlowTests").contains("315",
+				"930", "+615", "+195.2%", "SLOWER");
+		assertThat(lines.get(4)).startsWith("    two").endsWith("SLOWER");
+		String json = new String(
+				Files.readAllBytes(this.task.getJsonReportFile().toPath()),
+				StandardCharsets.UTF_8);
+		assertThat(json).contains("\"task\":\"springIoJdk8Test\"",
+				"\"name\":\"com.example.SlowTests\",\"baseline\":315,\"duration\":930,"
+						+ "\"delta\":615,\"change\":1.9524,\"flagged\":true,"
+						+ "\"significant\":true");
+	}
+
+	@Test
+	public void slowdownCausedByASingleNoisyTestIsNotSignificant() throws IOException {
+		writeResults(this.baseline, "com.example.NoisyTests", "one", "0.100", "two",
+				"0.100", "three", "0.100", "four", "0.100");
+		writeResults(this.comparison, "com.example.NoisyTests", "one", "0.095", "two",
+				"0.105", "three", "0.100", "four", "0.400");
+		this.task.report();
+		String json = new String(
+				Files.readAllBytes(this.task.getJsonReportFile().toPath()),
+				StandardCharsets.UTF_8);
+		assertThat(json).contains("\"name\":\"com.example.NoisyTests\",\"baseline\":400,"
+				+ "\"duration\":700,\"delta\":300,\"change\":0.7500,\"flagged\":false,"
+				+ "\"significant\":false");
+		assertThat(json).contains("\"name\":\"four\",\"baseline\":100,\"duration\":400,"
+				+ "\"delta\":300,\"change\":3.0000,\"flagged\":true}");
+	}
+
+	@Test
+	public void slowdownBelowMinimumDeltaIsNotFlagged() throws IOException {
+		writeResults(this.baseline, "com.example.FastTests", "one", "0.010");
+		writeResults(this.comparison, "com.example.FastTests", "one", "0.040");
+		this.task.report();
+		String text = new String(
+				Files.readAllBytes(this.task.getTextReportFile().toPath()),
+				StandardCharsets.UTF_8);
+		assertThat(text).contains("+30").doesNotContain("SLOWER");
+	}
+
+	@Test
+	public void failedAndSkippedTestsAreIgnored() throws IOException {
+		writeResults(this.baseline, "com.example.MixedTests", "one", "0.100", "two",
+				"0.100");
+		Files.write(new File(this.comparison, "TEST-com.example.MixedTests.xml").toPath(),
+				("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+						+ "<testsuite name=\"com.example.MixedTests\" tests=\"2\" "
+						+ "failures=\"1\" errors=\"0\" skipped=\"0\">"
+						+ "<testcase name=\"one\" time=\"0.100\"/>"
+						+ "<testcase name=\"two\" time=\"5.000\"><failure message=\"boom\">"
+						+ "boom</failure></testcase></testsuite>")
+								.getBytes(StandardCharsets.UTF_8));
+		this.task.report();
+		String json = new String(
+				Files.readAllBytes(this.task.getJsonReportFile().toPath()),
+				StandardCharsets.UTF_8);
+		assertThat(json).contains("\"name\":\"com.example.MixedTests\",\"baseline\":100,"
+				+ "\"duration\":100,\"delta\":0");
+		assertThat(json).doesNotContain("\"name\":\"two\"");
+	}
+
+	private void writeResults(File dir, String className, String... testsAndTimes)
+			throws IOException {
+		StringBuilder xml = new StringBuilder(
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?><testsuite name=\"")
+						.append(className).append("\" tests=\"")
+						.append(testsAndTimes.length / 2)
+						.append("\" failures=\"0\" errors=\"0\" skipped=\"0\">");
+		for (int i = 0; i < testsAndTimes.length; i += 2) {
+			xml.append("<testcase name=\"").append(testsAndTimes[i])
+					.append("\" classname=\"").append(className).append("\" time=\"")
+					.append(testsAndTimes[i + 1]).append("\"/>");
+		}
+		xml.append("</testsuite>");
+		Files.write(new File(dir, "TEST-" + className + ".xml").toPath(),
+				xml.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TestImpactAnalysisTask}.
+ *
+ * @author Spring IO Team
+ */
+public class TestImpactAnalysisTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private File repository;
+
+	private File stateFile;
+
+	private File mainClasses;
+
+	private File testClasses;
+
+	@Before
+	public void setup() throws IOException {
+		this.repository = this.temp.newFolder();
+		this.stateFile = new File(this.temp.getRoot(), "state.properties");
+		File libClasses = TestArtifacts.compile(this.temp, null,
+				"package com.example.lib; public class Thing { }");
+		publish("1.0", libClasses, "one");
+		publish("2.0", libClasses, "one");
+		publish("3.0", libClasses, "three");
+		publish("4.0", libClasses, "one");
+		Files.write(new File(this.repository, "com/example/lib/4.0/lib-4.0.jar").toPath(),
+				"not a jar".getBytes(StandardCharsets.UTF_8));
+		this.mainClasses = TestArtifacts.compile(this.temp,
+				libClasses.getAbsolutePath(), "package com.example.app; "
+						+ "public class Service { com.example.lib.Thing thing; }");
+		this.testClasses = TestArtifacts.compile(this.temp,
+				this.mainClasses.getAbsolutePath() + File.pathSeparator
+						+ libClasses.getAbsolutePath(),
+				"package com.example.app; public class ServiceTests { "
+						+ "Service service; }",
+				"package com.example.app; public class StandaloneTests { }");
+	}
+
+	@Test
+	public void allTestsAreAffectedWithoutAPreviousSuccessfulRun() {
+		TestImpactAnalysisTask task = createTask("1.0");
+		task.analyze();
+		assertThat(task.isAnyTestAffected()).isTrue();
+		assertThat(task.getAffectedTestClasses()).isNull();
+	}
+
+	@Test
+	public void noTestsAreAffectedWhenNothingHasChanged() {
+		TestImpactAnalysisTask task = createTask("1.0");
+		task.analyze();
+		task.recordSuccessfulRun();
+		task = createTask("1.0");
+		task.analyze();
+		assertThat(task.isAnyTestAffected()).isFalse();
+	}
+
+	@Test
+	public void testsThatReferToAChangedJarThroughMainClassesAreAffected() {
+		TestImpactAnalysisTask task = createTask("1.0");
+		task.analyze();
+		task.recordSuccessfulRun();
+		task = createTask("2.0");
+		task.analyze();
+		assertThat(task.getAffectedTestClasses())
+				.containsExactly("com.example.app.ServiceTests");
+	}
+
+	@Test
+	public void allTestsAreAffectedWhenAResourceInAJarHasChanged() {
+		TestImpactAnalysisTask task = createTask("1.0");
+		task.analyze();
+		task.recordSuccessfulRun();
+		task = createTask("3.0");
+		task.analyze();
+		assertThat(task.getAffectedTestClasses()).isNull();
+	}
+
+	@Test
+	public void allTestsAreAffectedWhenAChangedArtifactIsNotAJar() {
+		TestImpactAnalysisTask task = createTask("1.0");
+		task.analyze();
+		task.recordSuccessfulRun();
+		task = createTask("4.0");
+		task.analyze();
+		assertThat(task.getAffectedTestClasses()).isNull();
+	}
+
+	@Test
+	public void allTestsAreAffectedWhenATestResourceHasChanged() throws IOException {
+		File resource = new File(this.testClasses, "com/example/app/test.properties");
+		Files.write(resource.toPath(), "a=1".getBytes(StandardCharsets.UTF_8));
+		TestImpactAnalysisTask task = createTask("1.0");
+		task.analyze();
+		task.recordSuccessfulRun();
+		Files.write(resource.toPath(), "a=10".getBytes(StandardCharsets.UTF_8));
+		task = createTask("1.0");
+		task.analyze();
+		assertThat(task.getAffectedTestClasses()).isNull();
+	}
+
+	@Test
+	public void allTestsAreAffectedWhenAMainResourceHasBeenAdded() throws IOException {
+		TestImpactAnalysisTask task = createTask("1.0");
+		task.analyze();
+		task.recordSuccessfulRun();
+		Files.write(new File(this.mainClasses, "application.properties").toPath(),
+				"a=1".getBytes(StandardCharsets.UTF_8));
+		task = createTask("1.0");
+		task.analyze();
+		assertThat(task.getAffectedTestClasses()).isNull();
+	}
+
+	private TestImpactAnalysisTask createTask(String version) {
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.getRoot()).build();
+		project.getRepositories().maven(
+				(repository) -> repository.setUrl(this.repository.toURI()));
+		project.getConfigurations().create("springIoTestRuntime");
+		project.getDependencies().add("springIoTestRuntime",
+				"com.example:lib:" + version);
+		TestImpactAnalysisTask task = project.getTasks()
+				.create("springIoTestImpactAnalysis", TestImpactAnalysisTask.class);
+		task.setConfiguration(project.getConfigurations().getByName("springIoTestRuntime"));
+		task.setMainClassesDirs(project.files(this.mainClasses));
+		task.setTestClassesDirs(project.files(this.testClasses));
+		task.setStateFile(this.stateFile);
+		return task;
+	}
+
+	private void publish(String version, File classes, String marker)
+			throws IOException {
+		TestArtifacts.module("lib", version).entries(classes)
+				.entry("marker.txt", marker).publishTo(this.repository);
+	}
+
+}
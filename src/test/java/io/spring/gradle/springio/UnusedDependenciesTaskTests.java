@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link UnusedDependenciesTask}.
+ *
+ * @author Spring IO Team
+ */
+public class UnusedDependenciesTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private Project project;
+
+	private UnusedDependenciesTask task;
+
+	private File libraryClasses;
+
+	@Before
+	public void setup() throws IOException {
+		File repository = this.temp.newFolder();
+		TestArtifacts.module("used", "1.0").dependency("transitive", "1.0")
+				.entry("com/example/used/Used.class", new byte[0]).publishTo(repository);
+		TestArtifacts.module("transitive", "1.0")
+				.entry("com/example/transitive/Thing.class", new byte[0])
+				.publishTo(repository);
+		TestArtifacts.module("unused", "1.0")
+				.entry("com/example/unused/Unused.class", new byte[0])
+				.publishTo(repository);
+		this.project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		this.project.getRepositories()
+				.maven((maven) -> maven.setUrl(repository.toURI()));
+		Configuration compile = this.project.getConfigurations().create("compile");
+		this.project.getConfigurations().create("testCompile").extendsFrom(compile);
+		this.project.getDependencies().add("compile", "com.example:used:1.0");
+		this.project.getDependencies().add("compile", "com.example:unused:1.0");
+		this.libraryClasses = TestArtifacts.compile(this.temp, null,
+				"package com.example.used; public class Used { }",
+				"package com.example.transitive; public class Thing { }");
+		this.task = this.project.getTasks().create("springIoUnusedDependenciesCheck",
+				UnusedDependenciesTask.class);
+	}
+
+	@Test
+	public void unusedAndUndeclaredDependenciesAreReported() throws IOException {
+		File classes = TestArtifacts.compile(this.temp,
+				this.libraryClasses.getAbsolutePath(),
+				"package com.example; public class Main { com.example.used.Used used; "
+						+ "com.example.transitive.Thing thing; }");
+		this.task.analysis("main", this.project.files(classes),
+				this.project.getConfigurations().getByName("compile"));
+		this.task.analyze();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("main", "    Declared but unused:",
+				"        com.example:unused", "    Used but undeclared:",
+				"        com.example:transitive (used by com.example.Main)");
+	}
+
+	@Test
+	public void dependenciesDeclaredByAnEarlierAnalysisAreNotReportedAsUnused()
+			throws IOException {
+		File classes = TestArtifacts.compile(this.temp,
+				this.libraryClasses.getAbsolutePath(),
+				"package com.example; public class Main { com.example.used.Used used; }");
+		this.task.analysis("main", this.project.files(classes),
+				this.project.getConfigurations().getByName("compile"));
+		this.task.analysis("test", this.project.files(this.temp.newFolder()),
+				this.project.getConfigurations().getByName("testCompile"));
+		this.task.analyze();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("main", "    Declared but unused:",
+				"        com.example:unused", "    Used but undeclared:", "test",
+				"    Declared but unused:", "    Used but undeclared:");
+	}
+
+	@Test
+	public void classesOfTheAnalyzedClassesDirectoriesAreNotMatchedAgainstTheClasspath()
+			throws IOException {
+		File classes = TestArtifacts.compile(this.temp,
+				this.libraryClasses.getAbsolutePath(),
+				"package com.example.used; public class Used { }",
+				"package com.example; public class Main { com.example.used.Used used; }");
+		this.task.analysis("main", this.project.files(classes),
+				this.project.getConfigurations().getByName("compile"));
+		this.task.analyze();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).containsExactly("main", "    Declared but unused:",
+				"        com.example:unused", "        com.example:used",
+				"    Used but undeclared:");
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Tests for {@link VersionBisectTask}.
+ *
+ * @author Spring IO Team
+ */
+public class VersionBisectTaskTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private File repository;
+
+	private VersionBisectTask task;
+
+	@Before
+	public void setup() throws IOException {
+		this.repository = this.temp.newFolder();
+		publish("lib", "1.0", "package com.example.lib; public class Thing { "
+				+ "public static String value() { return \"one\"; } }");
+		publish("lib", "2.0", "package com.example.lib; public class Thing { "
+				+ "public static String value() { return \"two\"; } }");
+		for (String name : Arrays.asList("alpha", "bravo", "charlie")) {
+			for (String version : Arrays.asList("1.0", "2.0")) {
+				publish(name, version, null);
+			}
+		}
+		Project project = ProjectBuilder.builder().withName("project")
+				.withProjectDir(this.temp.newFolder()).build();
+		project.getRepositories()
+				.maven((maven) -> maven.setUrl(this.repository.toURI()));
+		Configuration testRuntime = project.getConfigurations().create("testRuntime");
+		for (String name : Arrays.asList("alpha", "bravo", "lib", "charlie")) {
+			project.getDependencies().add("testRuntime", "com.example:" + name + ":1.0");
+		}
+		Configuration springIoTestRuntime = project.getConfigurations()
+				.create("springIoTestRuntime");
+		springIoTestRuntime.extendsFrom(testRuntime);
+		springIoTestRuntime.getResolutionStrategy()
+				.eachDependency((details) -> details.useVersion("2.0"));
+		File libClasses = TestArtifacts.compile(this.temp, null,
+				"package com.example.lib; public class Thing { "
+						+ "public static String value() { return \"one\"; } }");
+		File testClasses = TestArtifacts.compile(this.temp,
+				libClasses.getAbsolutePath() + File.pathSeparator
+						+ jarContaining(Test.class),
+				"package com.example; public class ThingTests { @org.junit.Test "
+						+ "public void value() { org.junit.Assert.assertEquals(\"one\", "
+						+ "com.example.lib.Thing.value()); } }");
+		this.task = project.getTasks().create("springIoTestBisect",
+				VersionBisectTask.class);
+		this.task.setTestRuntimeConfiguration(testRuntime);
+		this.task.setSpringIoTestRuntimeConfiguration(springIoTestRuntime);
+		this.task.setTestClasspath(project.files(testClasses, jarContaining(Test.class),
+				jarContaining(Matcher.class)));
+		this.task.setTestClasses(Collections.singletonList("com.example.ThingTests"));
+	}
+
+	@Test
+	public void bisectFindsTheVersionChangeThatCausesTheFailure() throws IOException {
+		this.task.setMaxParallelForks(2);
+		this.task.bisect();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines.get(0)).startsWith("Bisected 4 version changes");
+		assertThat(lines).containsSequence(
+				"The failure is reproduced by the following version changes:",
+				"    com.example:lib 1.0 -> 2.0");
+	}
+
+	@Test
+	public void failingTestClassesAreReadFromTestResults() throws IOException {
+		File testResults = this.temp.newFolder();
+		Files.write(new File(testResults, "TEST-com.example.ThingTests.xml").toPath(),
+				("<testsuite name=\"com.example.ThingTests\" tests=\"1\" failures=\"1\" "
+						+ "errors=\"0\" skipped=\"0\"></testsuite>")
+								.getBytes(StandardCharsets.UTF_8));
+		this.task.setTestClasses(Collections.<String>emptyList());
+		this.task.setTestResultsDirs(this.task.getProject().files(testResults));
+		this.task.bisect();
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).contains("    com.example:lib 1.0 -> 2.0");
+	}
+
+	@Test
+	public void bisectFailsWhenAllOfTheVersionChangesPass() throws IOException {
+		this.task.getSpringIoTestRuntimeConfiguration().getResolutionStrategy()
+				.eachDependency((details) -> {
+					if (details.getRequested().getName().equals("lib")) {
+						details.useVersion("1.0");
+					}
+				});
+		try {
+			this.task.bisect();
+			fail("Bisect did not fail");
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage()).startsWith("The tests pass when all of the "
+					+ "version changes are applied to testRuntime");
+		}
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines).contains("The tests pass when all of the version changes are "
+				+ "applied to testRuntime so the failure cannot be bisected");
+	}
+
+	@Test
+	public void bisectFailsWhenTheTestsFailWithoutAnyOfTheVersionChanges()
+			throws IOException {
+		this.task.getTestRuntimeConfiguration().getResolutionStrategy()
+				.eachDependency((details) -> {
+					if (details.getRequested().getName().equals("lib")) {
+						details.useVersion("2.0");
+					}
+				});
+		try {
+			this.task.bisect();
+			fail("Bisect did not fail");
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage()).startsWith("The tests fail against testRuntime "
+					+ "without any of the version changes");
+		}
+		List<String> lines = Files.readAllLines(this.task.getReportFile().toPath());
+		assertThat(lines.get(0)).startsWith("Bisected 3 version changes");
+	}
+
+	private void publish(String name, String version, String source)
+			throws IOException {
+		TestArtifacts.Module module = TestArtifacts.module(name, version);
+		if (source != null) {
+			module.entries(TestArtifacts.compile(this.temp, null, source));
+		}
+		else {
+			module.entry(name + ".txt", version);
+		}
+		module.publishTo(this.repository);
+	}
+
+	private File jarContaining(Class<?> type) {
+		return new File(
+				type.getProtectionDomain().getCodeSource().getLocation().getPath());
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ManagedVersionsIndex}.
+ *
+ * @author Spring IO Team
+ */
+public class ManagedVersionsIndexTests {
+
+	private ManagedVersionsIndex index;
+
+	@Before
+	public void setup() {
+		Map<String, Map<String, String>> boms = new LinkedHashMap<>();
+		boms.put("platform", versions("com.example:alpha", "1.0", "com.example:bravo",
+				"1.0"));
+		boms.put("internal", versions("com.example:bravo", "2.0", "com.example:charlie",
+				"2.0"));
+		boms.put("framework", versions("com.example:charlie", "3.0",
+				"com.example:delta", "3.0"));
+		this.index = ManagedVersionsIndex.of(boms);
+	}
+
+	@Test
+	public void bomsAreInOrderOfPrecedence() {
+		assertThat(this.index.getBoms()).containsExactly("platform", "internal",
+				"framework");
+	}
+
+	@Test
+	public void versionOfTheBomWithTheHighestPrecedenceIsUsed() {
+		assertThat(this.index.getVersion("com.example:alpha")).isEqualTo("1.0");
+		assertThat(this.index.getVersion("com.example:bravo")).isEqualTo("1.0");
+		assertThat(this.index.getVersion("com.example:charlie")).isEqualTo("2.0");
+		assertThat(this.index.getVersion("com.example:delta")).isEqualTo("3.0");
+		assertThat(this.index.getVersions()).hasSize(4);
+	}
+
+	@Test
+	public void ownerIsTheBomWhoseVersionIsUsed() {
+		assertThat(this.index.getOwner("com.example:alpha")).isEqualTo("platform");
+		assertThat(this.index.getOwner("com.example:bravo")).isEqualTo("platform");
+		assertThat(this.index.getOwner("com.example:charlie")).isEqualTo("internal");
+		assertThat(this.index.getOwner("com.example:delta")).isEqualTo("framework");
+	}
+
+	@Test
+	public void unmanagedModuleHasNoVersionOrOwner() {
+		assertThat(this.index.getVersion("com.example:echo")).isNull();
+		assertThat(this.index.getOwner("com.example:echo")).isNull();
+	}
+
+	@Test
+	public void indexIsUnaffectedByChangesToTheVersionsOfItsBoms() {
+		Map<String, String> versions = versions("com.example:alpha", "1.0");
+		ManagedVersionsIndex index = ManagedVersionsIndex.of("platform", versions);
+		versions.put("com.example:bravo", "1.0");
+		assertThat(index.getVersion("com.example:bravo")).isNull();
+	}
+
+	private Map<String, String> versions(String... modulesAndVersions) {
+		Map<String, String> versions = new HashMap<>();
+		for (int i = 0; i < modulesAndVersions.length; i += 2) {
+			versions.put(modulesAndVersions[i], modulesAndVersions[i + 1]);
+		}
+		return versions;
+	}
+
+}
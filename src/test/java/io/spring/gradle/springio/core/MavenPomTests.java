@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link MavenPom}.
+ *
+ * @author Spring IO Team
+ */
+public class MavenPomTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	@Test
+	public void parentAndImportedBomsAreNotReadWithoutAResolver() throws IOException {
+		MavenPom pom = MavenPom.read(bom());
+		assertThat(pom.getManagedVersions()).containsOnlyKeys("com.example:alpha");
+		assertThat(pom.getImportedBoms()).containsExactly("com.example:imported:3.0");
+	}
+
+	@Test
+	public void managedVersionsIncludeThoseOfParentAndImportedBoms()
+			throws IOException {
+		File parent = write("parent.pom", pom("parent", "2.0", "",
+				"<properties><bravo.version>2.1</bravo.version></properties>",
+				managed("alpha", "2.0") + managed("bravo", "${bravo.version}")));
+		File imported = write("imported.pom", pom("imported", "3.0", "", "",
+				managed("bravo", "3.1") + managed("charlie", "3.2")));
+		File bom = bom();
+		MavenPom pom = MavenPom.read(bom,
+				(coordinates) -> coordinates.endsWith(":parent:2.0") ? parent
+						: imported);
+		assertThat(pom.getManagedVersions()).containsExactly(
+				entry("com.example:alpha", "1.0"), entry("com.example:bravo", "2.1"),
+				entry("com.example:charlie", "3.2"));
+	}
+
+	@Test
+	public void propertiesOfThePomOverrideThoseOfItsParent() throws IOException {
+		File parent = write("parent.pom", pom("parent", "2.0", "",
+				"<properties><bravo.version>2.1</bravo.version></properties>",
+				managed("bravo", "${bravo.version}")));
+		File bom = write("bom.pom", pom("bom", "1.0", parentOf("parent", "2.0"),
+				"<properties><bravo.version>1.1</bravo.version></properties>",
+				managed("charlie", "${bravo.version}")));
+		MavenPom pom = MavenPom.read(bom, (coordinates) -> parent);
+		assertThat(pom.getManagedVersions()).containsEntry("com.example:charlie", "1.1");
+	}
+
+	private File bom() throws IOException {
+		return write("bom.pom", pom("bom", "1.0", parentOf("parent", "2.0"), "",
+				managed("alpha", "1.0") + "<dependency><groupId>com.example</groupId>"
+						+ "<artifactId>imported</artifactId><version>3.0</version>"
+						+ "<type>pom</type><scope>import</scope></dependency>"));
+	}
+
+	private String pom(String artifactId, String version, String parent,
+			String properties, String managed) {
+		return "<project><modelVersion>4.0.0</modelVersion>" + parent
+				+ "<groupId>com.example</groupId><artifactId>" + artifactId
+				+ "</artifactId><version>" + version + "</version>" + properties
+				+ "<dependencyManagement><dependencies>" + managed
+				+ "</dependencies></dependencyManagement></project>";
+	}
+
+	private String parentOf(String artifactId, String version) {
+		return "<parent><groupId>com.example</groupId><artifactId>" + artifactId
+				+ "</artifactId><version>" + version + "</version></parent>";
+	}
+
+	private String managed(String artifactId, String version) {
+		return "<dependency><groupId>com.example</groupId><artifactId>" + artifactId
+				+ "</artifactId><version>" + version + "</version></dependency>";
+	}
+
+	private File write(String name, String content) throws IOException {
+		File file = new File(this.temp.getRoot(), name);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+}
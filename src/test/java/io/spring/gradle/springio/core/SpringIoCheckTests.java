@@ -0,0 +1,247 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.springio.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SpringIoCheck}.
+ *
+ * @author Spring IO Team
+ */
+public class SpringIoCheckTests {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	private File bom;
+
+	@Before
+	public void setup() throws IOException {
+		this.bom = write("bom.xml", "<project><groupId>com.example</groupId>"
+				+ "<artifactId>bom</artifactId><version>1.0</version>"
+				+ "<properties><alpha.version>1.1</alpha.version></properties>"
+				+ "<dependencyManagement><dependencies>"
+				+ "<dependency><groupId>com.example</groupId><artifactId>alpha"
+				+ "</artifactId><version>${alpha.version}</version></dependency>"
+				+ "<dependency><groupId>com.example</groupId><artifactId>bravo"
+				+ "</artifactId><version>${project.version}</version></dependency>"
+				+ "</dependencies></dependencyManagement></project>");
+	}
+
+	@Test
+	public void bomIsRequired() {
+		assertThat(SpringIoCheck.run(new String[] { "--graph", "graph.json" },
+				new PrintStream(this.out, true), new PrintStream(this.err, true)))
+						.isEqualTo(2);
+		assertThat(err()).startsWith("Usage: SpringIoCheck");
+	}
+
+	@Test
+	public void onlyOneInputCanBeChecked() {
+		assertThat(run("--graph", "graph.json", "--pom", "pom.xml")).isEqualTo(2);
+		assertThat(err()).startsWith("Usage: SpringIoCheck");
+	}
+
+	@Test
+	public void graphWithOnlyManagedModulesPasses() throws IOException {
+		File graph = write("graph.json", "{\"modules\":["
+				+ "{\"group\":\"com.example\",\"name\":\"alpha\",\"version\":\"1.1\","
+				+ "\"direct\":true},{\"group\":\"com.example\",\"name\":\"bravo\","
+				+ "\"version\":\"1.0\"}]}");
+		assertThat(run("--graph", graph.getPath())).isEqualTo(0);
+		assertThat(out()).isEmpty();
+	}
+
+	@Test
+	public void graphWithUnmappedDirectDependencyFails() throws IOException {
+		File graph = write("graph.json", "{\"modules\":["
+				+ "{\"group\":\"com.example\",\"name\":\"charlie\",\"version\":\"1.0\","
+				+ "\"direct\":true},{\"group\":\"com.example\",\"name\":\"delta\","
+				+ "\"version\":\"1.0\"}]}");
+		assertThat(run("--graph", graph.getPath())).isEqualTo(1);
+		assertThat(out()).contains("- com.example:charlie")
+				.doesNotContain("com.example:delta");
+	}
+
+	@Test
+	public void graphWithUnmappedTransitiveDependencyCanFail() throws IOException {
+		File graph = write("graph.json", "{\"modules\":[{\"group\":\"com.example\","
+				+ "\"name\":\"delta\",\"version\":\"1.0\"}]}");
+		assertThat(run("--graph", graph.getPath(), "--fail-on-unmapped-transitive"))
+				.isEqualTo(1);
+		assertThat(out()).contains("transitive dependencies")
+				.contains("- com.example:delta");
+	}
+
+	@Test
+	public void lockfileDriftIsReportedWithoutFailing() throws IOException {
+		File lockfile = write("gradle.lockfile", "com.example:alpha:1.0=runtime\n"
+				+ "com.example:charlie:1.0=testRuntime\nempty=\n");
+		assertThat(run("--lockfile", lockfile.getPath(), "--configuration", "runtime"))
+				.isEqualTo(0);
+		assertThat(out())
+				.contains("- com.example:alpha:1.0 (com.example:bom:1.0 version 1.1)");
+	}
+
+	@Test
+	public void bomsAreMergedInOrderOfPrecedence() throws IOException {
+		File internalBom = write("internal-bom.xml", "<project><groupId>com.example"
+				+ "</groupId><artifactId>internal-bom</artifactId><version>2.0</version>"
+				+ "<dependencyManagement><dependencies>"
+				+ "<dependency><groupId>com.example</groupId><artifactId>alpha"
+				+ "</artifactId><version>2.0</version></dependency>"
+				+ "<dependency><groupId>com.example</groupId><artifactId>charlie"
+				+ "</artifactId><version>2.0</version></dependency>"
+				+ "</dependencies></dependencyManagement></project>");
+		File lockfile = write("runtime.lockfile",
+				"com.example:alpha:2.0\ncom.example:charlie:1.0\n");
+		assertThat(run("--bom", internalBom.getPath(), "--lockfile", lockfile.getPath()))
+				.isEqualTo(0);
+		assertThat(out())
+				.contains("- com.example:alpha:2.0 (com.example:bom:1.0 version 1.1)")
+				.contains("- com.example:charlie:1.0 (com.example:internal-bom:2.0 "
+						+ "version 2.0)");
+	}
+
+	@Test
+	public void lockfileWithUnmappedModuleFails() throws IOException {
+		File lockfile = write("runtime.lockfile",
+				"# Lockfile\ncom.example:charlie:1.0\n");
+		assertThat(run("--lockfile", lockfile.getPath())).isEqualTo(1);
+		assertThat(out()).contains("- com.example:charlie");
+	}
+
+	@Test
+	public void pomWithAlternativeAndIncompleteExclusionFails() throws IOException {
+		File pom = write("pom.xml", "<project><dependencies>"
+				+ "<dependency><groupId>asm</groupId><artifactId>asm</artifactId>"
+				+ "</dependency><dependency><groupId>com.example</groupId>"
+				+ "<artifactId>alpha</artifactId><exclusions><exclusion>"
+				+ "<artifactId>bravo</artifactId></exclusion></exclusions>"
+				+ "</dependency></dependencies></project>");
+		File alternatives = write("alternatives.properties",
+				"asm\\:asm=org.ow2.asm\\:asm\n");
+		assertThat(run("--pom", pom.getPath(), "--alternatives",
+				alternatives.getPath())).isEqualTo(1);
+		assertThat(out())
+				.contains("- Please depend on org.ow2.asm:asm instead of asm:asm")
+				.contains("- com.example:alpha: Exclude for module bravo does not "
+						+ "specify a group");
+	}
+
+	@Test
+	public void testAndProvidedScopedPomDependenciesAreNotChecked() throws IOException {
+		File pom = write("pom.xml", "<project><dependencies>"
+				+ "<dependency><groupId>com.example</groupId><artifactId>charlie"
+				+ "</artifactId><version>1.0</version><scope>test</scope><exclusions>"
+				+ "<exclusion><groupId>com.example</groupId></exclusion></exclusions>"
+				+ "</dependency><dependency><groupId>com.example</groupId>"
+				+ "<artifactId>delta</artifactId><version>1.0</version>"
+				+ "<scope>provided</scope></dependency></dependencies></project>");
+		assertThat(run("--pom", pom.getPath())).isEqualTo(0);
+		assertThat(out()).isEmpty();
+	}
+
+	@Test
+	public void importedBomIsNotReadWithoutRepository() throws IOException {
+		File bom = write("importing-bom.xml", importingBom());
+		File lockfile = write("runtime.lockfile", "com.example:charlie:1.0\n");
+		assertThat(run("--bom", bom.getPath(), "--lockfile", lockfile.getPath()))
+				.isEqualTo(1);
+		assertThat(err()).contains("Imported BOM com.example:imported-bom:3.0 was not read");
+	}
+
+	@Test
+	public void importedBomIsReadFromRepository() throws IOException {
+		File repository = this.temp.newFolder("repository");
+		File importedBom = new File(repository,
+				"com/example/imported-bom/3.0/imported-bom-3.0.pom");
+		importedBom.getParentFile().mkdirs();
+		Files.write(importedBom.toPath(), ("<project><groupId>com.example</groupId>"
+				+ "<artifactId>imported-bom</artifactId><version>3.0</version>"
+				+ "<dependencyManagement><dependencies><dependency><groupId>com.example"
+				+ "</groupId><artifactId>charlie</artifactId><version>3.0</version>"
+				+ "</dependency></dependencies></dependencyManagement></project>")
+						.getBytes(StandardCharsets.UTF_8));
+		File bom = write("importing-bom.xml", importingBom());
+		File lockfile = write("runtime.lockfile", "com.example:charlie:3.0\n");
+		assertThat(run("--bom", bom.getPath(), "--lockfile", lockfile.getPath(),
+				"--repository", repository.getPath())).isEqualTo(0);
+		assertThat(err()).isEmpty();
+		assertThat(out()).isEmpty();
+	}
+
+	@Test
+	public void importedBomThatIsNotInRepositoryIsAnError() throws IOException {
+		File repository = this.temp.newFolder("repository");
+		File bom = write("importing-bom.xml", importingBom());
+		File lockfile = write("runtime.lockfile", "com.example:charlie:3.0\n");
+		assertThat(run("--bom", bom.getPath(), "--lockfile", lockfile.getPath(),
+				"--repository", repository.getPath())).isEqualTo(2);
+		assertThat(err()).contains("com.example:imported-bom:3.0 was not found in");
+	}
+
+	private String importingBom() {
+		return "<project><groupId>com.example</groupId><artifactId>importing-bom"
+				+ "</artifactId><version>3.0</version><dependencyManagement>"
+				+ "<dependencies><dependency><groupId>com.example</groupId>"
+				+ "<artifactId>imported-bom</artifactId><version>${project.version}"
+				+ "</version><type>pom</type><scope>import</scope></dependency>"
+				+ "</dependencies></dependencyManagement></project>";
+	}
+
+	private int run(String... args) {
+		String[] arguments = new String[args.length + 2];
+		arguments[0] = "--bom";
+		arguments[1] = this.bom.getPath();
+		System.arraycopy(args, 0, arguments, 2, args.length);
+		return SpringIoCheck.run(arguments, new PrintStream(this.out, true),
+				new PrintStream(this.err, true));
+	}
+
+	private String out() {
+		return new String(this.out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private String err() {
+		return new String(this.err.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private File write(String name, String content) throws IOException {
+		File file = new File(this.temp.getRoot(), name);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+}